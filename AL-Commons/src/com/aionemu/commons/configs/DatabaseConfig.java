@@ -110,6 +110,34 @@ public class DatabaseConfig {
     )
     public static int DATABASE_BONECP_PARTITION_CONNECTIONS_MAX;
 
+    /**
+     * Enable query profiling
+     * 启用查询分析
+     * <p>
+     * Records per statement latency, rows and batch sizes, and the pool wait time.
+     * 记录每条语句的耗时、行数和批处理大小，以及连接池等待时间。
+     * </p>
+     */
+    @Property(
+        key = "database.profiler.enable",
+        defaultValue = "false"
+    )
+    public static boolean DATABASE_PROFILER_ENABLE;
+
+    /**
+     * Slow query threshold in ms
+     * 慢查询阈值（毫秒）
+     * <p>
+     * Profiled queries taking at least this long are written to the log.
+     * 耗时达到该值的查询会写入日志。
+     * </p>
+     */
+    @Property(
+        key = "database.profiler.slow.threshold",
+        defaultValue = "500"
+    )
+    public static int DATABASE_PROFILER_SLOW_THRESHOLD;
+
     /**
      * Database script context descriptor
      * 数据库脚本上下文描述符
@@ -19,6 +19,9 @@ import org.slf4j.LoggerFactory;
  *
  * 使用BoneCP作为连接池实现，支持连接池的配置和管理。
  * Uses BoneCP as the connection pool implementation, supporting connection pool configuration and management.
+ *
+ * 启用查询分析时，返回的连接由QueryProfiler包装。
+ * When query profiling is enabled, the returned connections are wrapped by QueryProfiler.
  */
 public class DatabaseFactory {
     private static final Logger log = LoggerFactory.getLogger(DatabaseFactory.class);
@@ -85,12 +88,17 @@ public class DatabaseFactory {
      * @throws SQLException 如果获取连接时发生错误 / If an error occurs while getting the connection
      */
     public static Connection getConnection() throws SQLException {
+        boolean profile = QueryProfiler.isEnabled();
+        long start = profile ? System.nanoTime() : 0;
         Connection con = connectionPool.getConnection();
+        if (profile) {
+            QueryProfiler.recordPoolWait(System.nanoTime() - start);
+        }
         if (!con.getAutoCommit()) {
             log.error("Connection Settings Error: Connection obtained from database factory should be in auto-commit mode. Forcing auto-commit to true. Please check source code for connections being not properly closed.");
             con.setAutoCommit(true);
         }
-        return con;
+        return profile ? QueryProfiler.wrap(con) : con;
     }
 
     /**
@@ -118,6 +126,9 @@ public class DatabaseFactory {
      * Shutdown the database connection pool
      */
     public static synchronized void shutdown() {
+        if (QueryProfiler.isEnabled()) {
+            QueryProfiler.logReport();
+        }
         try {
             connectionPool.shutdown();
         } catch (Exception var1) {
@@ -0,0 +1,365 @@
+package com.aionemu.commons.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Wrapper;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.aionemu.commons.configs.DatabaseConfig;
+
+/**
+ * JDBC查询分析器
+ * JDBC Query Profiler
+ *
+ * 启用后，DatabaseFactory返回的连接会被包装，记录每条语句的耗时直方图、行数和批处理大小，以及从连接池获取连接的等待时间。
+ * When enabled, connections handed out by DatabaseFactory are wrapped to record per statement latency histograms, row
+ * counts and batch sizes, and the time spent waiting for the pool.
+ * <p>
+ * 超过阈值的查询会写入慢查询日志。包装只依赖JDBC接口，因此适用于任何驱动，包括嵌入式数据库。
+ * Queries over the threshold are written to the slow query log. The wrappers only rely on the JDBC interfaces, so
+ * they work with any driver, embedded databases included.
+ */
+public final class QueryProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryProfiler.class);
+
+    /**
+     * 单独统计的语句数上限，超出的语句合并到OTHER_SQL
+     * Max number of statements tracked on their own, the others are merged into OTHER_SQL
+     */
+    private static final int MAX_STATEMENTS = 2000;
+
+    private static final String OTHER_SQL = "<other statements>";
+    private static final String UNKNOWN_SQL = "<unknown>";
+
+    private static final ConcurrentMap<String, QueryStats> statements = new ConcurrentHashMap<String, QueryStats>();
+    private static final QueryStats poolWait = new QueryStats("<pool wait>");
+
+    private QueryProfiler() {
+    }
+
+    /**
+     * @return 是否启用分析 / Whether profiling is enabled
+     */
+    public static boolean isEnabled() {
+        return DatabaseConfig.DATABASE_PROFILER_ENABLE;
+    }
+
+    /**
+     * 记录从连接池获取连接的等待时间
+     * Records the time spent waiting for a pooled connection
+     */
+    static void recordPoolWait(long nanos) {
+        poolWait.record(nanos, 0);
+    }
+
+    /**
+     * 包装连接，使其创建的语句被分析
+     * Wraps the connection so the statements it creates are profiled
+     */
+    static Connection wrap(Connection con) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+            new ConnectionHandler(con));
+    }
+
+    private static QueryStats getStats(String sql) {
+        if (sql == null) {
+            sql = UNKNOWN_SQL;
+        }
+        QueryStats stats = statements.get(sql);
+        if (stats == null) {
+            if (statements.size() >= MAX_STATEMENTS) {
+                sql = OTHER_SQL;
+            }
+            stats = new QueryStats(sql);
+            QueryStats old = statements.putIfAbsent(sql, stats);
+            if (old != null) {
+                stats = old;
+            }
+        }
+        return stats;
+    }
+
+    private static void checkSlow(String sql, long nanos, long rows) {
+        long ms = nanos / 1000000L;
+        if (ms >= DatabaseConfig.DATABASE_PROFILER_SLOW_THRESHOLD) {
+            log.warn("Slow query (" + ms + " ms" + (rows >= 0 ? ", " + rows + " rows" : "") + "): " + shorten(sql, 500));
+        }
+    }
+
+    /**
+     * 生成按总耗时排序的报告
+     * Builds the report, statements sorted by total time
+     *
+     * @param limit 最多列出的语句数，0表示全部 / Max number of statements listed, 0 for all
+     * @return 报告行 / Report lines
+     */
+    public static List<String> getReport(int limit) {
+        List<QueryStats> sorted = new ArrayList<QueryStats>(statements.values());
+        Collections.sort(sorted, new Comparator<QueryStats>() {
+
+            @Override
+            public int compare(QueryStats o1, QueryStats o2) {
+                long t1 = o1.getTotalNanos();
+                long t2 = o2.getTotalNanos();
+                return t1 < t2 ? 1 : t1 > t2 ? -1 : 0;
+            }
+        });
+        List<String> report = new ArrayList<String>();
+        report.add("Query profiler " + (isEnabled() ? "enabled" : "disabled") + ", slow threshold "
+            + DatabaseConfig.DATABASE_PROFILER_SLOW_THRESHOLD + " ms, " + statements.size() + " statements");
+        report.add("Histogram buckets (ms): " + bucketNames());
+        report.add(format(poolWait, false));
+        int listed = 0;
+        for (QueryStats stats : sorted) {
+            if (limit > 0 && listed++ >= limit) {
+                break;
+            }
+            report.add(format(stats, true));
+        }
+        return report;
+    }
+
+    /**
+     * 将完整报告写入日志
+     * Writes the full report to the log
+     */
+    public static void logReport() {
+        for (String line : getReport(0)) {
+            log.info(line);
+        }
+    }
+
+    /**
+     * 清空所有统计
+     * Clears all statistics
+     */
+    public static void reset() {
+        statements.clear();
+        poolWait.reset();
+    }
+
+    private static String format(QueryStats stats, boolean withSql) {
+        long count = stats.getCount();
+        StringBuilder sb = new StringBuilder();
+        sb.append(count).append("x total ").append(stats.getTotalNanos() / 1000000L).append(" ms, avg ")
+            .append(count > 0 ? stats.getTotalNanos() / count / 1000L : 0).append(" us, max ")
+            .append(stats.getMaxNanos() / 1000000L).append(" ms");
+        if (withSql) {
+            sb.append(", rows ").append(stats.getRows());
+            if (stats.getBatches() > 0) {
+                sb.append(", batches ").append(stats.getBatches()).append(" avg size ")
+                    .append(stats.getBatchItems() / stats.getBatches());
+            }
+            if (stats.getErrors() > 0) {
+                sb.append(", errors ").append(stats.getErrors());
+            }
+        }
+        sb.append(", histogram ");
+        long[] histogram = stats.getHistogram();
+        for (int i = 0; i < histogram.length; i++) {
+            sb.append(i == 0 ? "" : "/").append(histogram[i]);
+        }
+        sb.append(": ").append(shorten(stats.getSql(), 120));
+        return sb.toString();
+    }
+
+    private static String bucketNames() {
+        StringBuilder sb = new StringBuilder();
+        for (long limit : QueryStats.BUCKET_LIMITS_MS) {
+            sb.append('<').append(limit).append('/');
+        }
+        return sb.append(">=").append(QueryStats.BUCKET_LIMITS_MS[QueryStats.BUCKET_LIMITS_MS.length - 1]).toString();
+    }
+
+    private static String shorten(String sql, int max) {
+        String s = sql.replaceAll("\\s+", " ").trim();
+        return s.length() > max ? s.substring(0, max) + "..." : s;
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 处理Wrapper接口的方法，代理本身实现的接口返回代理，其余交给被包装的对象
+     * Handles the Wrapper methods, interfaces implemented by the proxy resolve to the proxy and the others are
+     * passed to the wrapped object
+     *
+     * @return 方法结果，非Wrapper方法返回null / The method result, null for methods not declared by Wrapper
+     */
+    private static Object invokeWrapper(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() != Wrapper.class) {
+            return null;
+        }
+        if (((Class<?>) args[0]).isInstance(proxy)) {
+            return method.getName().equals("unwrap") ? proxy : Boolean.TRUE;
+        }
+        return invokeTarget(target, method, args);
+    }
+
+    /**
+     * 包装连接创建的语句
+     * Wraps the statements created by a connection
+     */
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection con;
+
+        private ConnectionHandler(Connection con) {
+            this.con = con;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object wrapper = invokeWrapper(proxy, con, method, args);
+            if (wrapper != null) {
+                return wrapper;
+            }
+            Object result = invokeTarget(con, method, args);
+            if (result instanceof Statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                    : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                    new StatementHandler((Statement) result, sql, (Connection) proxy));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 计时语句的执行
+     * Times the executions of a statement
+     */
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement st;
+        private final String sql;
+        private final Connection con;
+
+        private StatementHandler(Statement st, String sql, Connection con) {
+            this.st = st;
+            this.sql = sql;
+            this.con = con;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object wrapper = invokeWrapper(proxy, st, method, args);
+            if (wrapper != null) {
+                return wrapper;
+            }
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.equals("getConnection")) {
+                    return con;
+                }
+                Object result = invokeTarget(st, method, args);
+                if (result instanceof ResultSet && name.equals("getResultSet")) {
+                    return wrapResultSet((ResultSet) result, getStats(sql), (Statement) proxy);
+                }
+                return result;
+            }
+            // plain statements pass their sql to execute
+            String query = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            QueryStats stats = getStats(query);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(st, method, args);
+            } catch (Throwable t) {
+                stats.recordError();
+                throw t;
+            }
+            long nanos = System.nanoTime() - start;
+            long rows = -1;
+            if (result instanceof int[]) {
+                int[] counts = (int[]) result;
+                rows = 0;
+                for (int count : counts) {
+                    if (count > 0) {
+                        rows += count;
+                    }
+                }
+                stats.recordBatch(nanos, counts.length, rows);
+            } else if (result instanceof long[]) {
+                long[] counts = (long[]) result;
+                rows = 0;
+                for (long count : counts) {
+                    if (count > 0) {
+                        rows += count;
+                    }
+                }
+                stats.recordBatch(nanos, counts.length, rows);
+            } else if (result instanceof Number) {
+                rows = ((Number) result).longValue();
+                stats.record(nanos, rows);
+            } else {
+                stats.record(nanos, 0);
+            }
+            checkSlow(query == null ? UNKNOWN_SQL : query, nanos, rows);
+            if (result instanceof ResultSet) {
+                return wrapResultSet((ResultSet) result, stats, (Statement) proxy);
+            }
+            return result;
+        }
+    }
+
+    private static ResultSet wrapResultSet(ResultSet rs, QueryStats stats, Statement st) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+            new ResultSetHandler(rs, stats, st));
+    }
+
+    /**
+     * 统计结果集读取的行数
+     * Counts the rows read from a result set
+     */
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet rs;
+        private final QueryStats stats;
+        private final Statement st;
+
+        private ResultSetHandler(ResultSet rs, QueryStats stats, Statement st) {
+            this.rs = rs;
+            this.stats = stats;
+            this.st = st;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object wrapper = invokeWrapper(proxy, rs, method, args);
+            if (wrapper != null) {
+                return wrapper;
+            }
+            if (method.getName().equals("getStatement")) {
+                return st;
+            }
+            Object result = invokeTarget(rs, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                stats.addRow();
+            }
+            return result;
+        }
+    }
+}
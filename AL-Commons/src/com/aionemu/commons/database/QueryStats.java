@@ -0,0 +1,141 @@
+package com.aionemu.commons.database;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 单条SQL语句的统计信息
+ * Statistics of one SQL statement
+ *
+ * 记录执行次数、耗时直方图、返回或修改的行数、批处理大小和错误数，所有计数器都是无锁的。
+ * Records executions, a latency histogram, rows returned or changed, batch sizes and errors. All counters are lock free.
+ */
+public class QueryStats {
+
+    /**
+     * 直方图桶的上限（毫秒），最后一个桶收集更慢的执行
+     * Upper bounds of the histogram buckets in ms, the last bucket collects slower executions
+     */
+    static final long[] BUCKET_LIMITS_MS = { 1, 5, 10, 50, 100, 500, 1000 };
+
+    private final String sql;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchItems = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKET_LIMITS_MS.length + 1);
+
+    QueryStats(String sql) {
+        this.sql = sql;
+    }
+
+    /**
+     * 记录一次执行
+     * Records one execution
+     *
+     * @param nanos 执行耗时（纳秒） / Execution time in ns
+     * @param rowCount 修改的行数 / Rows changed
+     */
+    void record(long nanos, long rowCount) {
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+        histogram.incrementAndGet(bucketOf(nanos / 1000000L));
+        if (rowCount > 0) {
+            rows.addAndGet(rowCount);
+        }
+    }
+
+    /**
+     * 记录一次批处理执行
+     * Records one batch execution
+     */
+    void recordBatch(long nanos, int size, long rowCount) {
+        record(nanos, rowCount);
+        batches.incrementAndGet();
+        batchItems.addAndGet(size);
+    }
+
+    /**
+     * 记录结果集读取的一行
+     * Records a row read from a result set
+     */
+    void addRow() {
+        rows.incrementAndGet();
+    }
+
+    void recordError() {
+        errors.incrementAndGet();
+    }
+
+    void reset() {
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+        rows.set(0);
+        batches.set(0);
+        batchItems.set(0);
+        errors.set(0);
+        for (int i = 0; i < histogram.length(); i++) {
+            histogram.set(i, 0);
+        }
+    }
+
+    private static int bucketOf(long ms) {
+        for (int i = 0; i < BUCKET_LIMITS_MS.length; i++) {
+            if (ms < BUCKET_LIMITS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_LIMITS_MS.length;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getBatchItems() {
+        return batchItems.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * @return 各桶的执行次数，与BUCKET_LIMITS_MS对应 / Executions per bucket, matching BUCKET_LIMITS_MS
+     */
+    public long[] getHistogram() {
+        long[] ret = new long[histogram.length()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = histogram.get(i);
+        }
+        return ret;
+    }
+}
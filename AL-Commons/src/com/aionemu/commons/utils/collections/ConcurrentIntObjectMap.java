@@ -0,0 +1,480 @@
+/**
+ * This file is part of Aion-Lightning <aion-lightning.org>.
+ *
+ * Aion-Lightning is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Aion-Lightning is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details. *
+ *
+ * You should have received a copy of the GNU General Public License along with Aion-Lightning. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.commons.utils.collections;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 以原始int为键的并发映射，读取和遍历无锁、无装箱、无分配，写入在映射上同步
+ * Concurrent map with primitive int keys. Reads and iteration are lock free and do not box or allocate, writes are
+ * synchronized on the map.
+ * <p>
+ * 使用线性探测的开放寻址表，删除的键保留为空值占位，直到下一次重新散列。遍历是弱一致的。
+ * Open addressing table with linear probing. Removed keys stay in their slot with a null value until the next rehash,
+ * so a key never moves while the table is in use. Iteration is weakly consistent. Null values are not allowed.
+ *
+ * @param <V> 值的类型 / The type of the values
+ */
+@SuppressWarnings("unchecked")
+public class ConcurrentIntObjectMap<V> extends AbstractMap<Integer, V> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * 当前表，写入时在锁内替换
+     * Current table, replaced under the lock
+     */
+    private volatile Table table;
+
+    /**
+     * 键0的值，0在表中表示空槽
+     * Value of key 0, as 0 marks a free slot in the table
+     */
+    private volatile Object zeroValue;
+
+    private volatile int size;
+
+    private Set<Map.Entry<Integer, V>> entrySet;
+    private Collection<V> values;
+
+    public ConcurrentIntObjectMap() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize 预期的映射数量 / Expected number of mappings
+     */
+    public ConcurrentIntObjectMap(int expectedSize) {
+        table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return 可容纳size个键且负载不超过3/4的容量 / Capacity holding size keys at a load factor of at most 3/4
+     */
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        while (size >= maxUsed(capacity)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int maxUsed(int capacity) {
+        return capacity - (capacity >> 2);
+    }
+
+    private static int indexFor(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * 返回键对应的值
+     * Returns the value mapped to the key
+     *
+     * @param key 键 / The key
+     * @return 值或null / The value or null
+     */
+    public V get(int key) {
+        if (key == 0) {
+            return (V) zeroValue;
+        }
+        Table t = table;
+        int[] keys = t.keys;
+        int mask = keys.length - 1;
+        for (int i = indexFor(key, mask);; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == key) {
+                return (V) t.values.get(i);
+            }
+            if (k == 0) {
+                return null;
+            }
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * 设置键对应的值
+     * Maps the key to the value
+     *
+     * @return 之前的值或null / The previous value or null
+     */
+    public V put(int key, V value) {
+        return insert(key, value, false);
+    }
+
+    /**
+     * 仅当键不存在时设置值
+     * Maps the key to the value only if it is not mapped yet
+     *
+     * @return 已存在的值或null / The existing value or null
+     */
+    public V putIfAbsent(int key, V value) {
+        return insert(key, value, true);
+    }
+
+    private synchronized V insert(int key, V value, boolean onlyIfAbsent) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        if (key == 0) {
+            Object old = zeroValue;
+            if (old == null) {
+                size++;
+            }
+            if (old == null || !onlyIfAbsent) {
+                zeroValue = value;
+            }
+            return (V) old;
+        }
+        Table t = table;
+        int slot = t.slotOf(key);
+        if (t.keys[slot] == key) {
+            Object old = t.values.get(slot);
+            if (old == null) {
+                size++;
+            }
+            if (old == null || !onlyIfAbsent) {
+                t.values.set(slot, value);
+            }
+            return (V) old;
+        }
+        if (t.used + 1 > maxUsed(t.keys.length)) {
+            // doubles a full table, only drops the removed keys of a table full of them
+            t = rehash(size + (size >> 1) + 1);
+            slot = t.slotOf(key);
+        }
+        // the key is written before the value is published, readers skip slots without a value
+        t.keys[slot] = key;
+        t.values.set(slot, value);
+        t.used++;
+        size++;
+        return null;
+    }
+
+    /**
+     * 删除键
+     * Removes the key
+     *
+     * @return 之前的值或null / The previous value or null
+     */
+    public synchronized V remove(int key) {
+        if (key == 0) {
+            Object old = zeroValue;
+            if (old != null) {
+                zeroValue = null;
+                size--;
+            }
+            return (V) old;
+        }
+        Table t = table;
+        int slot = t.slotOf(key);
+        if (t.keys[slot] != key) {
+            return null;
+        }
+        Object old = t.values.get(slot);
+        if (old != null) {
+            t.values.set(slot, null);
+            size--;
+            if (t.keys.length > MIN_CAPACITY && size <= t.keys.length >> 4) {
+                rehash(size * 2);
+            }
+        }
+        return (V) old;
+    }
+
+    /**
+     * 将所有值复制到大小合适的新表中，丢弃已删除的键
+     * Copies the live mappings into a new table sized for minSize, dropping removed keys
+     */
+    private Table rehash(int minSize) {
+        Table old = table;
+        Table t = new Table(capacityFor(minSize));
+        for (int i = 0; i < old.keys.length; i++) {
+            Object value = old.values.get(i);
+            if (value != null) {
+                int slot = t.slotOf(old.keys[i]);
+                t.keys[slot] = old.keys[i];
+                t.values.lazySet(slot, value);
+                t.used++;
+            }
+        }
+        table = t;
+        return t;
+    }
+
+    /**
+     * 遍历所有映射，不分配对象
+     * Visits all mappings without allocating
+     *
+     * @return false 如果访问器停止了遍历 / false if the visitor stopped the iteration
+     */
+    public boolean forEachEntry(IntObjectVisitor<? super V> visitor) {
+        Object zero = zeroValue;
+        if (zero != null && !visitor.visit(0, (V) zero)) {
+            return false;
+        }
+        Table t = table;
+        int[] keys = t.keys;
+        AtomicReferenceArray<Object> values = t.values;
+        for (int i = 0; i < keys.length; i++) {
+            // keys never change once set, a slot whose key is not visible yet is skipped
+            int key = keys[i];
+            if (key != 0) {
+                Object value = values.get(i);
+                if (value != null && !visitor.visit(key, (V) value)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 遍历所有值，不分配对象
+     * Visits all values without allocating
+     */
+    public void forEachValue(ValueVisitor<? super V> visitor) {
+        Object zero = zeroValue;
+        if (zero != null) {
+            visitor.visit((V) zero);
+        }
+        Table t = table;
+        int[] keys = t.keys;
+        AtomicReferenceArray<Object> values = t.values;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                Object value = values.get(i);
+                if (value != null) {
+                    visitor.visit((V) value);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 当前表的槽数，用于统计 / Slot count of the current table, for statistics
+     */
+    public int capacity() {
+        return table.keys.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public synchronized void clear() {
+        table = new Table(MIN_CAPACITY);
+        zeroValue = null;
+        size = 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put(key.intValue(), value);
+    }
+
+    @Override
+    public V putIfAbsent(Integer key, V value) {
+        return putIfAbsent(key.intValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, V>> entrySet() {
+        Set<Map.Entry<Integer, V>> es = entrySet;
+        if (es == null) {
+            entrySet = es = new AbstractSet<Map.Entry<Integer, V>>() {
+
+                @Override
+                public Iterator<Map.Entry<Integer, V>> iterator() {
+                    return new TableIterator<Map.Entry<Integer, V>>() {
+
+                        @Override
+                        protected Map.Entry<Integer, V> create(int key, V value) {
+                            return new SimpleImmutableEntry<Integer, V>(key, value);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    ConcurrentIntObjectMap.this.clear();
+                }
+            };
+        }
+        return es;
+    }
+
+    @Override
+    public Collection<V> values() {
+        Collection<V> vs = values;
+        if (vs == null) {
+            values = vs = new AbstractCollection<V>() {
+
+                @Override
+                public Iterator<V> iterator() {
+                    return new TableIterator<V>() {
+
+                        @Override
+                        protected V create(int key, V value) {
+                            return value;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    ConcurrentIntObjectMap.this.clear();
+                }
+            };
+        }
+        return vs;
+    }
+
+    private static final class Table {
+
+        private final int[] keys;
+        private final AtomicReferenceArray<Object> values;
+        /**
+         * 已占用的槽（包括已删除的键），仅在锁内访问
+         * Slots holding a key, including removed ones, only accessed under the lock
+         */
+        private int used;
+
+        private Table(int capacity) {
+            keys = new int[capacity];
+            values = new AtomicReferenceArray<Object>(capacity);
+        }
+
+        /**
+         * @return 键所在的槽或第一个空槽 / The slot of the key or the first free slot
+         */
+        private int slotOf(int key) {
+            int mask = keys.length - 1;
+            int i = indexFor(key, mask);
+            while (keys[i] != key && keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * 弱一致的迭代器，遍历创建时的表
+     * Weakly consistent iterator over the table current at its creation
+     */
+    private abstract class TableIterator<E> implements Iterator<E> {
+
+        private final Table t = table;
+        private int index = -1;
+        private int nextKey;
+        private Object nextValue;
+        private int lastKey;
+        private boolean hasLast;
+
+        TableIterator() {
+            Object zero = zeroValue;
+            if (zero != null) {
+                nextValue = zero;
+            } else {
+                advance();
+            }
+        }
+
+        private void advance() {
+            nextValue = null;
+            while (++index < t.keys.length) {
+                int key = t.keys[index];
+                if (key != 0) {
+                    Object value = t.values.get(index);
+                    if (value != null) {
+                        nextKey = key;
+                        nextValue = value;
+                        return;
+                    }
+                }
+            }
+        }
+
+        protected abstract E create(int key, V value);
+
+        @Override
+        public boolean hasNext() {
+            return nextValue != null;
+        }
+
+        @Override
+        public E next() {
+            Object value = nextValue;
+            if (value == null) {
+                throw new NoSuchElementException();
+            }
+            lastKey = nextKey;
+            hasLast = true;
+            advance();
+            return create(lastKey, (V) value);
+        }
+
+        @Override
+        public void remove() {
+            if (!hasLast) {
+                throw new IllegalStateException();
+            }
+            ConcurrentIntObjectMap.this.remove(lastKey);
+            hasLast = false;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * This file is part of Aion-Lightning <aion-lightning.org>.
+ *
+ * Aion-Lightning is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Aion-Lightning is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details. *
+ *
+ * You should have received a copy of the GNU General Public License along with Aion-Lightning. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.commons.utils.collections;
+
+/**
+ * 遍历int键映射的访问器
+ * Visitor for the entries of an int keyed map
+ *
+ * @param <V> 值的类型 / The type of the values
+ */
+public interface IntObjectVisitor<V> {
+
+    /**
+     * @param key 键 / The key
+     * @param value 值，不为null / The value, never null
+     * @return false 停止遍历 / false to stop the iteration
+     */
+    boolean visit(int key, V value);
+}
@@ -0,0 +1,107 @@
+/**
+ * This file is part of Aion-Lightning <aion-lightning.org>.
+ *
+ * Aion-Lightning is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Aion-Lightning is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details. *
+ *
+ * You should have received a copy of the GNU General Public License along with Aion-Lightning. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.commons.database;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.Test;
+
+/**
+ * QueryProfiler包装器的单元测试
+ * Unit tests of the {@link QueryProfiler} wrappers
+ */
+public class QueryProfilerTest {
+
+    /**
+     * 模拟驱动对象，Wrapper方法只认自身接口
+     * Fake driver object, the Wrapper methods only know its own interface
+     */
+    private static <T> T fake(final Class<T> type, final Object result) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.equals("unwrap")) {
+                    return proxy;
+                }
+                if (name.equals("isWrapperFor")) {
+                    return Boolean.FALSE;
+                }
+                if (name.equals("next")) {
+                    return Boolean.FALSE;
+                }
+                if (name.equals("close")) {
+                    return null;
+                }
+                return result;
+            }
+        }));
+    }
+
+    private static Connection wrapFake() {
+        ResultSet rs = fake(ResultSet.class, null);
+        PreparedStatement st = fake(PreparedStatement.class, rs);
+        return QueryProfiler.wrap(fake(Connection.class, st));
+    }
+
+    @Test
+    public void statementsReturnTheProfiledConnection() throws Exception {
+        Connection con = wrapFake();
+        PreparedStatement st = con.prepareStatement("SELECT 1");
+        assertSame(con, st.getConnection());
+    }
+
+    @Test
+    public void resultSetsReturnTheProfiledStatement() throws Exception {
+        Connection con = wrapFake();
+        PreparedStatement st = con.prepareStatement("SELECT 1");
+        ResultSet rs = st.executeQuery();
+        assertSame(st, rs.getStatement());
+        assertFalse(rs.next());
+        assertSame(st, st.getResultSet().getStatement());
+    }
+
+    @Test
+    public void unwrapToImplementedInterfaceReturnsTheProxy() throws Exception {
+        Connection con = wrapFake();
+        assertTrue(con.isWrapperFor(Connection.class));
+        assertSame(con, con.unwrap(Connection.class));
+
+        PreparedStatement st = con.prepareStatement("SELECT 1");
+        assertTrue(st.isWrapperFor(Statement.class));
+        assertSame(st, st.unwrap(PreparedStatement.class));
+
+        ResultSet rs = st.executeQuery();
+        assertTrue(rs.isWrapperFor(ResultSet.class));
+        assertSame(rs, rs.unwrap(ResultSet.class));
+    }
+
+    @Test
+    public void unwrapToOtherTypesIsPassedToTheDriver() throws Exception {
+        Connection con = wrapFake();
+        assertFalse(con.isWrapperFor(Runnable.class));
+        Object unwrapped = con.unwrap(Runnable.class);
+        assertTrue(unwrapped instanceof Connection);
+        assertFalse(unwrapped == con);
+    }
+}
@@ -0,0 +1,267 @@
+/**
+ * This file is part of Aion-Lightning <aion-lightning.org>.
+ *
+ * Aion-Lightning is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Aion-Lightning is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details. *
+ *
+ * You should have received a copy of the GNU General Public License along with Aion-Lightning. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.commons.utils.collections;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import javolution.util.FastMap;
+
+/**
+ * ConcurrentIntObjectMap与共享FastMap、ConcurrentHashMap的基准测试
+ * Benchmark of {@link ConcurrentIntObjectMap} against the shared FastMap it replaced and ConcurrentHashMap, on the
+ * access pattern of the game server object maps: mostly lookups and full scans, few puts and removes.<br>
+ * Run with <tt>ant benchmark -Dbenchmark=com.aionemu.commons.utils.collections.ConcurrentIntObjectMapBenchmark</tt>.
+ */
+public class ConcurrentIntObjectMapBenchmark {
+
+    /** 条目数，与在线对象数量相当 / Number of entries, about the objects of a busy map */
+    private static final int SIZE = 10000;
+    private static final int FIRST_KEY = 1000000;
+    private static final int THREADS = 4;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        int[] keys = new int[SIZE * 4];
+        Random rnd = new Random(1);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = FIRST_KEY + rnd.nextInt(SIZE * 2);
+        }
+        Target[] targets = { new IntObjectTarget(), new FastMapTarget(), new ConcurrentHashMapTarget() };
+        for (Target target : targets) {
+            for (int i = 0; i < SIZE; i++) {
+                target.put(FIRST_KEY + i * 2, Integer.valueOf(i));
+            }
+        }
+        System.out.println(SIZE + " entries, " + THREADS + " threads for the mixed case");
+        for (final Target target : targets) {
+            run(target.name + " get", 1000000, new Case() {
+
+                @Override
+                public long run(int[] keys, int ops) {
+                    long sum = 0;
+                    for (int i = 0; i < ops; i++) {
+                        Object value = target.get(keys[i & (keys.length - 1)]);
+                        if (value != null) {
+                            sum++;
+                        }
+                    }
+                    return sum;
+                }
+            }, keys);
+            run(target.name + " iterate values", 200, new Case() {
+
+                @Override
+                public long run(int[] keys, int ops) {
+                    long sum = 0;
+                    for (int i = 0; i < ops; i++) {
+                        sum += target.sumValues();
+                    }
+                    return sum;
+                }
+            }, keys);
+            run(target.name + " mixed 90% get, 5% put, 5% remove", 1000000, new Case() {
+
+                @Override
+                public long run(final int[] keys, final int ops) throws Exception {
+                    final long[] sums = new long[THREADS];
+                    final CountDownLatch done = new CountDownLatch(THREADS);
+                    for (int t = 0; t < THREADS; t++) {
+                        final int thread = t;
+                        new Thread(new Runnable() {
+
+                            @Override
+                            public void run() {
+                                long sum = 0;
+                                for (int i = thread; i < ops; i += THREADS) {
+                                    int key = keys[i & (keys.length - 1)];
+                                    int op = i % 20;
+                                    if (op == 0) {
+                                        target.put(key, Integer.valueOf(i));
+                                    } else if (op == 1) {
+                                        target.remove(key);
+                                    } else if (target.get(key) != null) {
+                                        sum++;
+                                    }
+                                }
+                                sums[thread] = sum;
+                                done.countDown();
+                            }
+                        }).start();
+                    }
+                    done.await();
+                    long sum = 0;
+                    for (long s : sums) {
+                        sum += s;
+                    }
+                    return sum;
+                }
+            }, keys);
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    /**
+     * 预热后多轮计时，打印中位数耗时和调用线程每次操作的分配量
+     * Warms the case up, times it over several rounds and prints the median time and the heap allocated per
+     * operation by the calling thread.
+     */
+    private static void run(String name, int ops, Case benchmark, int[] keys) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += benchmark.run(keys, ops);
+        }
+        long[] times = new long[ROUNDS];
+        long allocated = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            sink += benchmark.run(keys, ops);
+            times[i] = System.nanoTime() - start;
+            allocated += allocatedBytes() - bytes;
+        }
+        Arrays.sort(times);
+        System.out.println(String.format("%-56s %10.1f ns/op (best %.1f) %8.1f B/op", name,
+            (double) times[ROUNDS / 2] / ops, (double) times[0] / ops, (double) allocated / ROUNDS / ops));
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private interface Case {
+
+        /**
+         * @return 结果校验和，防止JIT消除 / Checksum of the results, so the JIT can't drop the work
+         */
+        long run(int[] keys, int ops) throws Exception;
+    }
+
+    /**
+     * 被测映射，按各自最快的方式访问
+     * Benchmarked map, accessed the fastest way its API allows
+     */
+    private static abstract class Target {
+
+        private final String name;
+
+        private Target(String name) {
+            this.name = name;
+        }
+
+        abstract Object get(int key);
+
+        abstract void put(int key, Integer value);
+
+        abstract void remove(int key);
+
+        abstract long sumValues();
+    }
+
+    private static final class IntObjectTarget extends Target {
+
+        private final ConcurrentIntObjectMap<Integer> map = new ConcurrentIntObjectMap<Integer>();
+        private final long[] sum = new long[1];
+        private final ValueVisitor<Integer> adder = new ValueVisitor<Integer>() {
+
+            @Override
+            public void visit(Integer value) {
+                sum[0] += value.intValue();
+            }
+        };
+
+        private IntObjectTarget() {
+            super("ConcurrentIntObjectMap");
+        }
+
+        @Override
+        Object get(int key) {
+            return map.get(key);
+        }
+
+        @Override
+        void put(int key, Integer value) {
+            map.put(key, value);
+        }
+
+        @Override
+        void remove(int key) {
+            map.remove(key);
+        }
+
+        @Override
+        long sumValues() {
+            sum[0] = 0;
+            map.forEachValue(adder);
+            return sum[0];
+        }
+    }
+
+    private static class BoxedTarget extends Target {
+
+        private final Map<Integer, Integer> map;
+
+        private BoxedTarget(String name, Map<Integer, Integer> map) {
+            super(name);
+            this.map = map;
+        }
+
+        @Override
+        Object get(int key) {
+            return map.get(key);
+        }
+
+        @Override
+        void put(int key, Integer value) {
+            map.put(key, value);
+        }
+
+        @Override
+        void remove(int key) {
+            map.remove(key);
+        }
+
+        @Override
+        long sumValues() {
+            long sum = 0;
+            for (Integer value : map.values()) {
+                sum += value.intValue();
+            }
+            return sum;
+        }
+    }
+
+    private static final class FastMapTarget extends BoxedTarget {
+
+        private FastMapTarget() {
+            super("FastMap.shared()", new FastMap<Integer, Integer>().shared());
+        }
+    }
+
+    private static final class ConcurrentHashMapTarget extends BoxedTarget {
+
+        private ConcurrentHashMapTarget() {
+            super("ConcurrentHashMap", new ConcurrentHashMap<Integer, Integer>());
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * This file is part of Aion-Lightning <aion-lightning.org>.
+ *
+ * Aion-Lightning is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Aion-Lightning is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details. *
+ *
+ * You should have received a copy of the GNU General Public License along with Aion-Lightning. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.commons.utils.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * ConcurrentIntObjectMap的单元测试
+ * Unit tests of {@link ConcurrentIntObjectMap}
+ */
+public class ConcurrentIntObjectMapTest {
+
+    @Test
+    public void putGetRemove() {
+        ConcurrentIntObjectMap<String> map = new ConcurrentIntObjectMap<String>();
+        assertNull(map.put(1, "a"));
+        assertNull(map.put(0, "zero"));
+        assertNull(map.put(-7, "negative"));
+        assertEquals("a", map.put(1, "b"));
+        assertEquals(3, map.size());
+        assertEquals("b", map.get(1));
+        assertEquals("zero", map.get(0));
+        assertEquals("negative", map.get(-7));
+        assertNull(map.get(2));
+
+        assertEquals("zero", map.remove(0));
+        assertEquals("b", map.remove(1));
+        assertNull(map.remove(1));
+        assertEquals(1, map.size());
+        assertFalse(map.containsKey(1));
+        assertTrue(map.containsKey(-7));
+    }
+
+    @Test
+    public void putIfAbsentKeepsExistingValue() {
+        ConcurrentIntObjectMap<String> map = new ConcurrentIntObjectMap<String>();
+        assertNull(map.putIfAbsent(5, "first"));
+        assertEquals("first", map.putIfAbsent(5, "second"));
+        assertNull(map.putIfAbsent(0, "first"));
+        assertEquals("first", map.putIfAbsent(0, "second"));
+        assertEquals("first", map.get(5));
+        assertEquals("first", map.get(0));
+        assertEquals(2, map.size());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNullValues() {
+        new ConcurrentIntObjectMap<String>().put(1, null);
+    }
+
+    @Test
+    public void removedKeyCanBeMappedAgain() {
+        ConcurrentIntObjectMap<String> map = new ConcurrentIntObjectMap<String>();
+        map.put(3, "a");
+        map.remove(3);
+        assertNull(map.get(3));
+        assertNull(map.put(3, "b"));
+        assertEquals("b", map.get(3));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void churnDoesNotGrow() {
+        ConcurrentIntObjectMap<Integer> map = new ConcurrentIntObjectMap<Integer>();
+        for (int i = 1; i <= 100; i++) {
+            map.put(i, Integer.valueOf(i));
+        }
+        int capacity = map.capacity();
+        // objects spawning and despawning with fresh ids leave removed keys behind
+        for (int i = 101; i <= 100000; i++) {
+            map.put(i, Integer.valueOf(i));
+            map.remove(i - 100);
+        }
+        assertEquals(100, map.size());
+        assertEquals(capacity, map.capacity());
+    }
+
+    @Test
+    public void growsAndShrinks() {
+        ConcurrentIntObjectMap<Integer> map = new ConcurrentIntObjectMap<Integer>();
+        int initial = map.capacity();
+        for (int i = 1; i <= 10000; i++) {
+            map.put(i * 31, Integer.valueOf(i));
+        }
+        assertEquals(10000, map.size());
+        assertTrue(map.capacity() > initial);
+        // doubled at 3/4 load, so the table is never less than 3/8 full after growing
+        assertEquals(16384, map.capacity());
+        for (int i = 1; i <= 10000; i++) {
+            assertEquals(Integer.valueOf(i), map.get(i * 31));
+        }
+        int grown = map.capacity();
+        for (int i = 11; i <= 10000; i++) {
+            map.remove(i * 31);
+        }
+        assertEquals(10, map.size());
+        assertTrue(map.capacity() < grown);
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(Integer.valueOf(i), map.get(i * 31));
+        }
+    }
+
+    @Test
+    public void forEachEntryVisitsAllMappings() {
+        ConcurrentIntObjectMap<String> map = new ConcurrentIntObjectMap<String>();
+        final Map<Integer, String> expected = new HashMap<Integer, String>();
+        for (int i = -50; i <= 50; i++) {
+            map.put(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+        map.remove(10);
+        expected.remove(10);
+        final Map<Integer, String> visited = new HashMap<Integer, String>();
+        assertTrue(map.forEachEntry(new IntObjectVisitor<String>() {
+
+            @Override
+            public boolean visit(int key, String value) {
+                assertNull(visited.put(key, value));
+                return true;
+            }
+        }));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    public void forEachEntryStopsWhenVisitorReturnsFalse() {
+        ConcurrentIntObjectMap<String> map = new ConcurrentIntObjectMap<String>();
+        for (int i = 1; i <= 20; i++) {
+            map.put(i, "v" + i);
+        }
+        final int[] visits = new int[1];
+        assertFalse(map.forEachEntry(new IntObjectVisitor<String>() {
+
+            @Override
+            public boolean visit(int key, String value) {
+                return ++visits[0] < 3;
+            }
+        }));
+        assertEquals(3, visits[0]);
+    }
+
+    @Test
+    public void forEachValueVisitsAllValues() {
+        ConcurrentIntObjectMap<Integer> map = new ConcurrentIntObjectMap<Integer>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, Integer.valueOf(i));
+        }
+        final long[] sum = new long[1];
+        map.forEachValue(new ValueVisitor<Integer>() {
+
+            @Override
+            public void visit(Integer value) {
+                sum[0] += value;
+            }
+        });
+        assertEquals(99 * 100 / 2, sum[0]);
+    }
+
+    @Test
+    public void mapViews() {
+        ConcurrentIntObjectMap<String> map = new ConcurrentIntObjectMap<String>();
+        map.put(Integer.valueOf(1), "a");
+        map.put(0, "zero");
+        map.put(2, "b");
+        assertEquals("a", map.get(Integer.valueOf(1)));
+        assertNull(map.get("1"));
+        assertEquals(3, map.entrySet().size());
+        assertEquals(3, map.values().size());
+
+        Map<Integer, String> copy = new HashMap<Integer, String>(map);
+        assertEquals(map, copy);
+
+        Iterator<String> values = map.values().iterator();
+        while (values.hasNext()) {
+            if ("b".equals(values.next())) {
+                values.remove();
+            }
+        }
+        assertNull(map.get(2));
+        assertEquals(2, map.size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    public void readersNeverSeeForeignValues() throws Exception {
+        final ConcurrentIntObjectMap<Integer> map = new ConcurrentIntObjectMap<Integer>();
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        Thread reader = new Thread() {
+
+            @Override
+            public void run() {
+                while (!done.get()) {
+                    for (int key = 1; key <= 2000; key++) {
+                        Integer value = map.get(key);
+                        if (value != null && value != key) {
+                            failure.set("key " + key + " mapped to " + value);
+                            return;
+                        }
+                    }
+                    map.forEachEntry(new IntObjectVisitor<Integer>() {
+
+                        @Override
+                        public boolean visit(int key, Integer value) {
+                            if (value != key) {
+                                failure.set("visited key " + key + " with " + value);
+                            }
+                            return true;
+                        }
+                    });
+                }
+            }
+        };
+        reader.start();
+        try {
+            for (int round = 0; round < 20; round++) {
+                for (int key = 1; key <= 2000; key++) {
+                    map.put(key, Integer.valueOf(key));
+                }
+                for (int key = 1; key <= 2000; key++) {
+                    map.remove(key);
+                }
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+        if (failure.get() != null) {
+            fail(failure.get());
+        }
+        assertTrue(map.isEmpty());
+    }
+}
@@ -19,14 +19,13 @@ package mysql5;
 import com.aionemu.commons.database.DB;
 import com.aionemu.commons.database.IUStH;
 import com.aionemu.commons.database.ParamReadStH;
-import com.aionemu.commons.database.dao.DAOManager;
 import com.aionemu.gameserver.dao.BlockListDAO;
 import com.aionemu.gameserver.dao.MySQL5DAOUtils;
-import com.aionemu.gameserver.dao.PlayerDAO;
 import com.aionemu.gameserver.model.gameobjects.player.BlockList;
 import com.aionemu.gameserver.model.gameobjects.player.BlockedPlayer;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
-import com.aionemu.gameserver.model.gameobjects.player.PlayerCommonData;
+import com.aionemu.gameserver.model.gameobjects.player.PlayerNameEntry;
+import com.aionemu.gameserver.services.player.PlayerNameDirectory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -85,22 +84,14 @@ public class MySQL5BlockListDAO extends BlockListDAO {
 	 */
 	@Override
 	public BlockList load(final Player player) {
-		final Map<Integer, BlockedPlayer> list = new HashMap<Integer, BlockedPlayer>();
+		final Map<Integer, String> reasons = new HashMap<Integer, String>();
 
 		DB.select(LOAD_QUERY, new ParamReadStH() {
 
 			@Override
 			public void handleRead(ResultSet rset) throws SQLException {
-				PlayerDAO playerDao = DAOManager.getDAO(PlayerDAO.class);
 				while (rset.next()) {
-					int blockedOid = rset.getInt("blocked_player");
-					PlayerCommonData pcd = playerDao.loadPlayerCommonData(blockedOid);
-					if (pcd == null) {
-						log.error("Attempt to load block list for " + player.getName() + " tried to load a player which does not exist: " + blockedOid);
-					}
-					else {
-						list.put(blockedOid, new BlockedPlayer(pcd, rset.getString("reason")));
-					}
+					reasons.put(rset.getInt("blocked_player"), rset.getString("reason"));
 				}
 			}
 
@@ -109,6 +100,18 @@ public class MySQL5BlockListDAO extends BlockListDAO {
 				stmt.setInt(1, player.getObjectId());
 			}
 		});
+		// names come from the directory, offline players missing there are loaded in one query
+		Map<Integer, PlayerNameEntry> entries = PlayerNameDirectory.getInstance().get(reasons.keySet());
+		Map<Integer, BlockedPlayer> list = new HashMap<Integer, BlockedPlayer>();
+		for (Map.Entry<Integer, String> e : reasons.entrySet()) {
+			PlayerNameEntry entry = entries.get(e.getKey());
+			if (entry == null) {
+				log.error("Attempt to load block list for " + player.getName() + " tried to load a player which does not exist: " + e.getKey());
+			}
+			else {
+				list.put(e.getKey(), new BlockedPlayer(entry, e.getValue()));
+			}
+		}
 		return new BlockList(list);
 	}
 
@@ -19,14 +19,14 @@ package mysql5;
 import com.aionemu.commons.database.DB;
 import com.aionemu.commons.database.DatabaseFactory;
 import com.aionemu.commons.database.IUStH;
-import com.aionemu.commons.database.dao.DAOManager;
 import com.aionemu.gameserver.dao.FriendListDAO;
 import com.aionemu.gameserver.dao.MySQL5DAOUtils;
-import com.aionemu.gameserver.dao.PlayerDAO;
 import com.aionemu.gameserver.model.gameobjects.player.Friend;
 import com.aionemu.gameserver.model.gameobjects.player.FriendList;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
-import com.aionemu.gameserver.model.gameobjects.player.PlayerCommonData;
+import com.aionemu.gameserver.model.gameobjects.player.PlayerNameEntry;
+import com.aionemu.gameserver.services.player.PlayerNameDirectory;
+import com.aionemu.gameserver.world.World;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +36,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Ben
@@ -51,21 +52,15 @@ public class MySQL5FriendListDAO extends FriendListDAO {
 	@Override
 	public FriendList load(final Player player) {
 		final List<Friend> friends = new ArrayList<Friend>();
+		List<Integer> friendIds = new ArrayList<Integer>();
 		Connection con = null;
 		try {
 			con = DatabaseFactory.getConnection();
 			PreparedStatement stmt = con.prepareStatement(LOAD_QUERY);
 			stmt.setInt(1, player.getObjectId());
 			ResultSet rset = stmt.executeQuery();
-			PlayerDAO dao = DAOManager.getDAO(PlayerDAO.class);
 			while (rset.next()) {
-				int objId = rset.getInt("friend");
-
-				PlayerCommonData pcd = dao.loadPlayerCommonData(objId);
-				if (pcd != null) {
-					Friend friend = new Friend(pcd);
-					friends.add(friend);
-				}
+				friendIds.add(rset.getInt("friend"));
 			}
 		}
 		catch (Exception e) {
@@ -74,6 +69,17 @@ public class MySQL5FriendListDAO extends FriendListDAO {
 		finally {
 			DatabaseFactory.close(con);
 		}
+		// online friends use their live data, the others come from the directory, misses in one query
+		Map<Integer, PlayerNameEntry> entries = PlayerNameDirectory.getInstance().get(friendIds);
+		for (Integer objId : friendIds) {
+			Player friendPlayer = World.getInstance().findPlayer(objId);
+			if (friendPlayer != null) {
+				friends.add(new Friend(friendPlayer.getCommonData()));
+			}
+			else if (entries.containsKey(objId)) {
+				friends.add(new Friend(entries.get(objId)));
+			}
+		}
 		return new FriendList(player, friends);
 	}
 
@@ -311,7 +311,9 @@ public class MySQL5InventoryDAO extends InventoryDAO {
 		Integer accountId = player.getPlayerAccount() != null ? player.getPlayerAccount().getId() : null;
 		Integer legionId = player.getLegion() != null ? player.getLegion().getLegionId() : null;
 		List<Item> allPlayerItems = player.getDirtyItemsToUpdate();
-		return store(allPlayerItems, playerId, accountId, legionId);
+		boolean stored = store(allPlayerItems, playerId, accountId, legionId);
+		player.onDirtyItemsStored(allPlayerItems, stored);
+		return stored;
 	}
 
 	@Override
@@ -370,7 +372,10 @@ public class MySQL5InventoryDAO extends InventoryDAO {
 		}
 
 		for (Item item : items) {
-			item.setPersistentState(PersistentState.UPDATED);
+			// failed deletes stay DELETED, they are retried with the next save
+			if (deleteResult || item.getPersistentState() != PersistentState.DELETED) {
+				item.setPersistentState(PersistentState.UPDATED);
+			}
 		}
 
 		if (!itemsToDelete.isEmpty() && deleteResult) {
@@ -402,40 +407,7 @@ public class MySQL5InventoryDAO extends InventoryDAO {
 			stmt = con.prepareStatement(INSERT_QUERY);
 
 			for (Item item : items) {
-				stmt.setInt(1, item.getObjectId());
-				stmt.setInt(2, item.getItemTemplate().getTemplateId());
-				stmt.setLong(3, item.getItemCount());
-				stmt.setInt(4, item.getItemColor());
-				stmt.setInt(5, item.getColorExpireTime());
-				stmt.setString(6, item.getItemCreator());
-				stmt.setInt(7, item.getExpireTime());
-				stmt.setInt(8, item.getActivationCount());
-				stmt.setInt(9, getItemOwnerId(item, playerId, accountId, legionId));
-				stmt.setBoolean(10, item.isEquipped());
-				stmt.setInt(11, item.isSoulBound() ? 1 : 0);
-				stmt.setLong(12, item.getEquipmentSlot());
-				stmt.setInt(13, item.getItemLocation());
-				stmt.setInt(14, item.getEnchantLevel());
-				stmt.setInt(15, item.getEnchantBonus());
-				stmt.setInt(16, item.getItemSkinTemplate().getTemplateId());
-				stmt.setInt(17, item.getFusionedItemId());
-				stmt.setInt(18, item.getOptionalSocket());
-				stmt.setInt(19, item.getOptionalFusionSocket());
-				stmt.setInt(20, item.getChargePoints());
-				stmt.setInt(21, item.getBonusNumber());
-				stmt.setInt(22, item.getRandomCount());
-				stmt.setInt(23, item.getWrappableCount());
-				stmt.setBoolean(24, item.isPacked());
-				stmt.setInt(25, item.getAuthorize());
-				stmt.setBoolean(26, item.isAmplified());
-				stmt.setInt(27, item.getAmplificationSkill());
-				stmt.setInt(28, item.getItemSkinSkill());
-				stmt.setBoolean(29, item.isLunaReskin());
-				stmt.setInt(30, item.getReductionLevel());
-				stmt.setInt(31, item.getUnSeal());
-				stmt.setBoolean(32, item.isEnhance());
-				stmt.setInt(33, item.getEnhanceSkillId());
-				stmt.setInt(34, item.getEnhanceEnchantLevel());
+				setInsertParams(stmt, item, getItemOwnerId(item, playerId, accountId, legionId));
 				stmt.addBatch();
 			}
 
@@ -452,6 +424,46 @@ public class MySQL5InventoryDAO extends InventoryDAO {
 		return true;
 	}
 
+	/**
+	 * Binds an item to {@link #INSERT_QUERY}, shared with the mail batch insert.
+	 */
+	static void setInsertParams(PreparedStatement stmt, Item item, int ownerId) throws SQLException {
+		stmt.setInt(1, item.getObjectId());
+		stmt.setInt(2, item.getItemTemplate().getTemplateId());
+		stmt.setLong(3, item.getItemCount());
+		stmt.setInt(4, item.getItemColor());
+		stmt.setInt(5, item.getColorExpireTime());
+		stmt.setString(6, item.getItemCreator());
+		stmt.setInt(7, item.getExpireTime());
+		stmt.setInt(8, item.getActivationCount());
+		stmt.setInt(9, ownerId);
+		stmt.setBoolean(10, item.isEquipped());
+		stmt.setInt(11, item.isSoulBound() ? 1 : 0);
+		stmt.setLong(12, item.getEquipmentSlot());
+		stmt.setInt(13, item.getItemLocation());
+		stmt.setInt(14, item.getEnchantLevel());
+		stmt.setInt(15, item.getEnchantBonus());
+		stmt.setInt(16, item.getItemSkinTemplate().getTemplateId());
+		stmt.setInt(17, item.getFusionedItemId());
+		stmt.setInt(18, item.getOptionalSocket());
+		stmt.setInt(19, item.getOptionalFusionSocket());
+		stmt.setInt(20, item.getChargePoints());
+		stmt.setInt(21, item.getBonusNumber());
+		stmt.setInt(22, item.getRandomCount());
+		stmt.setInt(23, item.getWrappableCount());
+		stmt.setBoolean(24, item.isPacked());
+		stmt.setInt(25, item.getAuthorize());
+		stmt.setBoolean(26, item.isAmplified());
+		stmt.setInt(27, item.getAmplificationSkill());
+		stmt.setInt(28, item.getItemSkinSkill());
+		stmt.setBoolean(29, item.isLunaReskin());
+		stmt.setInt(30, item.getReductionLevel());
+		stmt.setInt(31, item.getUnSeal());
+		stmt.setBoolean(32, item.isEnhance());
+		stmt.setInt(33, item.getEnhanceSkillId());
+		stmt.setInt(34, item.getEnhanceEnchantLevel());
+	}
+
 	private boolean updateItems(Connection con, Collection<Item> items, Integer playerId, Integer accountId, Integer legionId) {
 
 		if (GenericValidator.isBlankOrNull(items)) {
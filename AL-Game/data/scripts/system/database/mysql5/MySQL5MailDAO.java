@@ -47,6 +47,7 @@ import java.util.List;
 public class MySQL5MailDAO extends MailDAO {
 
 	private static final Logger log = LoggerFactory.getLogger(MySQL5MailDAO.class);
+	private static final String INSERT_QUERY = "INSERT INTO `mail` (`mail_unique_id`, `mail_recipient_id`, `sender_name`, `mail_title`, `mail_message`, `unread`, `attached_item_id`, `attached_kinah_count`, `express`, `recieved_time`, `attached_ap_count`) VALUES(?,?,?,?,?,?,?,?,?,?,?)";
 
 	@Override
 	public Mailbox loadPlayerMailbox(Player player) {
@@ -215,7 +216,7 @@ public class MySQL5MailDAO extends MailDAO {
         }
 		final int fAttachedItemId = attachedItemId;
 
-		return DB.insertUpdate("INSERT INTO `mail` (`mail_unique_id`, `mail_recipient_id`, `sender_name`, `mail_title`, `mail_message`, `unread`, `attached_item_id`, `attached_kinah_count`, `express`, `recieved_time`, `attached_ap_count`) VALUES(?,?,?,?,?,?,?,?,?,?,?)", new IUStH() {
+		return DB.insertUpdate(INSERT_QUERY, new IUStH() {
 		
 			@Override
 			public void handleInsertUpdate(PreparedStatement stmt) throws SQLException {
@@ -283,6 +284,87 @@ public class MySQL5MailDAO extends MailDAO {
 		});
 	}
 
+	@Override
+	public boolean storeNewLetters(List<Letter> letters) {
+		Connection con = null;
+		PreparedStatement itemStmt = null;
+		PreparedStatement letterStmt = null;
+		try {
+			con = DatabaseFactory.getConnection();
+			con.setAutoCommit(false);
+			itemStmt = con.prepareStatement(MySQL5InventoryDAO.INSERT_QUERY);
+			letterStmt = con.prepareStatement(INSERT_QUERY);
+			boolean hasItems = false;
+			for (Letter letter : letters) {
+				Item item = letter.getAttachedItem();
+				if (item != null) {
+					MySQL5InventoryDAO.setInsertParams(itemStmt, item, letter.getRecipientId());
+					itemStmt.addBatch();
+					hasItems = true;
+				}
+				letterStmt.setInt(1, letter.getObjectId());
+				letterStmt.setInt(2, letter.getRecipientId());
+				letterStmt.setString(3, letter.getSenderName());
+				letterStmt.setString(4, letter.getTitle());
+				letterStmt.setString(5, letter.getMessage());
+				letterStmt.setBoolean(6, letter.isUnread());
+				letterStmt.setInt(7, item != null ? item.getObjectId() : 0);
+				letterStmt.setLong(8, letter.getAttachedKinah());
+				letterStmt.setInt(9, letter.getLetterType().getId());
+				letterStmt.setTimestamp(10, letter.getTimeStamp());
+				letterStmt.setLong(11, letter.getAttachedAp());
+				letterStmt.addBatch();
+			}
+			if (hasItems) {
+				itemStmt.executeBatch();
+			}
+			letterStmt.executeBatch();
+			con.commit();
+		}
+		catch (SQLException e) {
+			log.error("Could not store " + letters.size() + " letters: " + e.getMessage(), e);
+			try {
+				if (con != null) {
+					con.rollback();
+				}
+			}
+			catch (SQLException ignored) {
+			}
+			return false;
+		}
+		finally {
+			DatabaseFactory.close(itemStmt);
+			DatabaseFactory.close(letterStmt);
+			DatabaseFactory.close(con);
+		}
+		for (Letter letter : letters) {
+			letter.setPersistState(PersistentState.UPDATED);
+			if (letter.getAttachedItem() != null) {
+				letter.getAttachedItem().setPersistentState(PersistentState.UPDATED);
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void updateOfflineMailCounters(final Collection<PlayerCommonData> recipients) {
+		if (recipients.isEmpty()) {
+			return;
+		}
+		DB.insertUpdate("UPDATE players SET mailbox_letters=? WHERE id=?", new IUStH() {
+
+			@Override
+			public void handleInsertUpdate(PreparedStatement stmt) throws SQLException {
+				for (PlayerCommonData pcd : recipients) {
+					stmt.setInt(1, pcd.getMailboxLetters());
+					stmt.setInt(2, pcd.getPlayerObjId());
+					stmt.addBatch();
+				}
+				stmt.executeBatch();
+			}
+		});
+	}
+
 	@Override
 	public int[] getUsedIDs() {
 		PreparedStatement statement = DB.prepareStatement("SELECT mail_unique_id FROM mail", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
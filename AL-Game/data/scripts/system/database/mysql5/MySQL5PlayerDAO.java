@@ -35,6 +35,7 @@ import com.aionemu.gameserver.model.account.PlayerAccountData;
 import com.aionemu.gameserver.model.gameobjects.player.Mailbox;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.model.gameobjects.player.PlayerCommonData;
+import com.aionemu.gameserver.model.gameobjects.player.PlayerNameEntry;
 import com.aionemu.gameserver.model.gameobjects.player.PlayerUpgradeArcade;
 import com.aionemu.gameserver.model.team.legion.LegionJoinRequestState;
 import com.aionemu.gameserver.world.MapRegion;
@@ -52,6 +53,10 @@ import java.util.*;
 public class MySQL5PlayerDAO extends PlayerDAO
 {
 	private static final Logger log = LoggerFactory.getLogger(MySQL5PlayerDAO.class);
+	private static final int MAIL_RECIPIENTS_CHUNK = 500;
+	private static final int NAME_ENTRIES_CHUNK = 500;
+	private static final String NAME_ENTRY_QUERY = "SELECT p.id, p.name, p.exp, p.player_class, p.race, p.world_id, p.last_online, p.note, lm.legion_id "
+		+ "FROM players p LEFT JOIN legion_members lm ON lm.player_id = p.id WHERE ";
 	private FastMap<Integer, PlayerCommonData> playerCommonData = new FastMap<Integer, PlayerCommonData>().shared();
 	private FastMap<String, PlayerCommonData> playerCommonDataByName = new FastMap<String, PlayerCommonData>().shared();
 
@@ -263,6 +268,127 @@ public class MySQL5PlayerDAO extends PlayerDAO
 		return loadPlayerCommonData(playerObjId);
 	}
 
+	@Override
+	public Map<String, PlayerCommonData> loadMailRecipients(Collection<String> names) {
+		Map<String, PlayerCommonData> recipients = new HashMap<String, PlayerCommonData>(names.size());
+		Set<String> missing = new LinkedHashSet<String>();
+		for (String name : names) {
+			String key = name.toLowerCase();
+			if (recipients.containsKey(key)) {
+				continue;
+			}
+			Player player = World.getInstance().findPlayer(name);
+			PlayerCommonData pcd = player != null ? player.getCommonData() : playerCommonDataByName.get(key);
+			if (pcd != null) {
+				recipients.put(key, pcd);
+			}
+			else {
+				missing.add(key);
+			}
+		}
+		if (missing.isEmpty()) {
+			return recipients;
+		}
+		List<String> toLoad = new ArrayList<String>(missing);
+
+		Connection con = null;
+		try {
+			con = DatabaseFactory.getConnection();
+			for (int from = 0; from < toLoad.size(); from += MAIL_RECIPIENTS_CHUNK) {
+				List<String> chunk = toLoad.subList(from, Math.min(from + MAIL_RECIPIENTS_CHUNK, toLoad.size()));
+				PreparedStatement stmt = con.prepareStatement("SELECT id, name, race, mailbox_letters FROM players WHERE name IN ("
+					+ StringUtils.repeat("?", ",", chunk.size()) + ")");
+				for (int i = 0; i < chunk.size(); i++) {
+					stmt.setString(i + 1, chunk.get(i));
+				}
+				ResultSet rset = stmt.executeQuery();
+				while (rset.next()) {
+					PlayerCommonData pcd = new PlayerCommonData(rset.getInt("id"));
+					pcd.setName(rset.getString("name"));
+					pcd.setRace(Race.valueOf(rset.getString("race")));
+					pcd.setMailboxLetters(rset.getInt("mailbox_letters"));
+					recipients.put(pcd.getName().toLowerCase(), pcd);
+				}
+				rset.close();
+				stmt.close();
+			}
+		}
+		catch (Exception e) {
+			log.error("Could not load mail recipients: " + e.getMessage(), e);
+		}
+		finally {
+			DatabaseFactory.close(con);
+		}
+		return recipients;
+	}
+
+	@Override
+	public Map<Integer, PlayerNameEntry> loadNameEntries(Collection<Integer> playerObjIds) {
+		Map<Integer, PlayerNameEntry> entries = new HashMap<Integer, PlayerNameEntry>(playerObjIds.size());
+		if (playerObjIds.isEmpty()) {
+			return entries;
+		}
+		List<Integer> toLoad = new ArrayList<Integer>(playerObjIds);
+
+		Connection con = null;
+		try {
+			con = DatabaseFactory.getConnection();
+			for (int from = 0; from < toLoad.size(); from += NAME_ENTRIES_CHUNK) {
+				List<Integer> chunk = toLoad.subList(from, Math.min(from + NAME_ENTRIES_CHUNK, toLoad.size()));
+				PreparedStatement stmt = con.prepareStatement(NAME_ENTRY_QUERY + "p.id IN ("
+					+ StringUtils.repeat("?", ",", chunk.size()) + ")");
+				for (int i = 0; i < chunk.size(); i++) {
+					stmt.setInt(i + 1, chunk.get(i));
+				}
+				ResultSet rset = stmt.executeQuery();
+				while (rset.next()) {
+					PlayerNameEntry entry = readNameEntry(rset);
+					entries.put(entry.getObjectId(), entry);
+				}
+				rset.close();
+				stmt.close();
+			}
+		}
+		catch (Exception e) {
+			log.error("Could not load player name entries: " + e.getMessage(), e);
+		}
+		finally {
+			DatabaseFactory.close(con);
+		}
+		return entries;
+	}
+
+	@Override
+	public PlayerNameEntry loadNameEntry(final String name) {
+		PlayerNameEntry entry = null;
+		Connection con = null;
+		try {
+			con = DatabaseFactory.getConnection();
+			PreparedStatement stmt = con.prepareStatement(NAME_ENTRY_QUERY + "p.name = ?");
+			stmt.setString(1, name);
+			ResultSet rset = stmt.executeQuery();
+			if (rset.next()) {
+				entry = readNameEntry(rset);
+			}
+			rset.close();
+			stmt.close();
+		}
+		catch (Exception e) {
+			log.error("Could not load player name entry for " + name + ": " + e.getMessage(), e);
+		}
+		finally {
+			DatabaseFactory.close(con);
+		}
+		return entry;
+	}
+
+	private static PlayerNameEntry readNameEntry(ResultSet rset) throws SQLException {
+		return new PlayerNameEntry(rset.getInt("id"), rset.getString("name"),
+			DataManager.PLAYER_EXPERIENCE_TABLE.getLevelForExp(rset.getLong("exp")),
+			PlayerClass.valueOf(rset.getString("player_class")), Race.valueOf(rset.getString("race")),
+			rset.getInt("legion_id"), rset.getInt("world_id"), rset.getTimestamp("last_online"), rset.getString("note"));
+	}
+
 	@Override
 	public PlayerCommonData loadPlayerCommonData(final int playerObjId) {
 
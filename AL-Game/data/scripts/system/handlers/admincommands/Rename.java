@@ -29,6 +29,7 @@ import com.aionemu.gameserver.network.aion.serverpackets.SM_MOTION;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_PLAYER_INFO;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_SYSTEM_MESSAGE;
 import com.aionemu.gameserver.services.NameRestrictionService;
+import com.aionemu.gameserver.services.player.PlayerNameDirectory;
 import com.aionemu.gameserver.services.player.PlayerService;
 import com.aionemu.gameserver.utils.PacketSendUtility;
 import com.aionemu.gameserver.utils.Util;
@@ -75,6 +76,7 @@ public class Rename extends AdminCommand {
 				DAOManager.getDAO(OldNamesDAO.class).insertNames(player.getObjectId(), player.getName(), rename);
 			recipientCommonData.setName(rename);
 			DAOManager.getDAO(PlayerDAO.class).storePlayerName(recipientCommonData);
+			PlayerNameDirectory.getInstance().remove(recipientCommonData.getPlayerObjId());
 			if (recipientCommonData.isOnline()) {
 				PacketSendUtility.sendPacket(player, new SM_PLAYER_INFO(player, false));
 				PacketSendUtility.sendPacket(player, new SM_MOTION(player.getObjectId(), player.getMotions().getActiveMotions()));
@@ -102,6 +104,7 @@ public class Rename extends AdminCommand {
 				player.getCommonData().setName(rename);
 				PacketSendUtility.sendPacket(player, new SM_PLAYER_INFO(player, false));
 				DAOManager.getDAO(PlayerDAO.class).storePlayerName(player.getCommonData());
+				PlayerNameDirectory.getInstance().update(player);
 			}
 			else
 				PacketSendUtility.sendMessage(admin, "The command can be applied only on the player.");
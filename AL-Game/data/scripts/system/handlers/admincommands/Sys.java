@@ -16,10 +16,18 @@
  */
 package admincommands;
 
+import com.aionemu.commons.database.QueryProfiler;
 import com.aionemu.commons.utils.AEInfos;
 import com.aionemu.gameserver.ShutdownHook;
 import com.aionemu.gameserver.ShutdownHook.ShutdownMode;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
+import com.aionemu.gameserver.questEngine.QuestEngine;
+import com.aionemu.gameserver.services.AutoGroupService;
+import com.aionemu.gameserver.services.instance.InstancePool;
+import com.aionemu.gameserver.services.player.PlayerNameDirectory;
+import com.aionemu.gameserver.taskmanager.tasks.PathfindingTaskManager;
+import com.aionemu.gameserver.taskmanager.tasks.PeriodicEffectTicker;
+import com.aionemu.gameserver.taskmanager.tasks.VisibilityScheduler;
 import com.aionemu.gameserver.utils.AEVersions;
 import com.aionemu.gameserver.utils.PacketSendUtility;
 import com.aionemu.gameserver.utils.ThreadPoolManager;
@@ -30,7 +38,9 @@ import java.util.List;
 /**
  * @author lord_rex //sys info - System Informations //sys memory - Memory Informations //sys gc - Garbage Collector
  *         //sys shutdown <seconds> <announceInterval> - Call shutdown //sys restart <seconds> <announceInterval> - Call
- *         restart //sys threadpool - Thread pools info
+ *         restart //sys threadpool - Thread pools info //sys instancepool - Instance pool info
+ *         //sys questengine - Quest event dispatch info //sys visibility - Visibility scheduler info
+ *         //sys autogroup - Auto group queues info
  */
 public class Sys extends AdminCommand {
 
@@ -126,6 +136,57 @@ public class Sys extends AdminCommand {
 				PacketSendUtility.sendMessage(player, stat.replaceAll("\t", ""));
 			}
 		}
+		else if (params[0].equals("instancepool")) {
+			for (String stat : InstancePool.getInstance().getStats()) {
+				PacketSendUtility.sendMessage(player, stat);
+			}
+		}
+		else if (params[0].equals("questengine")) {
+			for (String stat : QuestEngine.getInstance().getDispatchStats()) {
+				PacketSendUtility.sendMessage(player, stat);
+			}
+		}
+		else if (params[0].equals("visibility")) {
+			if (!VisibilityScheduler.isEnabled()) {
+				PacketSendUtility.sendMessage(player, "Visibility scheduler: disabled");
+				return;
+			}
+			for (String stat : VisibilityScheduler.getInstance().getStats()) {
+				PacketSendUtility.sendMessage(player, stat);
+			}
+		}
+		else if (params[0].equals("autogroup")) {
+			for (String stat : AutoGroupService.getInstance().getStats()) {
+				PacketSendUtility.sendMessage(player, stat);
+			}
+		}
+		else if (params[0].equals("effectticker")) {
+			for (String stat : PeriodicEffectTicker.getInstance().getStats()) {
+				PacketSendUtility.sendMessage(player, stat);
+			}
+		}
+		else if (params[0].equals("pathfinding")) {
+			for (String stat : PathfindingTaskManager.getInstance().getStats()) {
+				PacketSendUtility.sendMessage(player, stat);
+			}
+		}
+		else if (params[0].equals("dbprofile")) {
+			if (params.length > 1 && params[1].equals("reset")) {
+				QueryProfiler.reset();
+				PacketSendUtility.sendMessage(player, "Query profiler statistics cleared.");
+				return;
+			}
+			// the full report goes to the log, the top statements to the player
+			QueryProfiler.logReport();
+			for (String stat : QueryProfiler.getReport(10)) {
+				PacketSendUtility.sendMessage(player, stat);
+			}
+		}
+		else if (params[0].equals("names")) {
+			for (String stat : PlayerNameDirectory.getInstance().getStats()) {
+				PacketSendUtility.sendMessage(player, stat);
+			}
+		}
 	}
 
 	@Override
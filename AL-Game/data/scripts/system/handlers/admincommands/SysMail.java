@@ -24,6 +24,7 @@ import com.aionemu.gameserver.model.gameobjects.LetterType;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.model.gameobjects.player.PlayerCommonData;
 import com.aionemu.gameserver.model.templates.item.ItemTemplate;
+import com.aionemu.gameserver.services.mail.BulkMail;
 import com.aionemu.gameserver.services.mail.MailFormatter;
 import com.aionemu.gameserver.services.mail.SystemMailService;
 import com.aionemu.gameserver.utils.PacketSendUtility;
@@ -161,14 +162,16 @@ public class SysMail extends AdminCommand {
 				SystemMailService.getInstance().sendMail(sender, recipient, title, message, item, count, kinah, 1000, letterType);
 		}
 		else {
+			List<BulkMail> mails = new ArrayList<BulkMail>();
 			for (Player player : World.getInstance().getAllPlayers()) {
 				if (recipientType.isAllowed(player.getRace())) {
 					if (letterType == LetterType.BLACKCLOUD)
 						MailFormatter.sendBlackCloudMail(player.getName(), item, count);
 					else
-						SystemMailService.getInstance().sendMail(sender, player.getName(), title, message, item, count, kinah, 1000, letterType);
+						mails.add(new BulkMail(sender, player.getName(), title, message, item, count, kinah, 1000, letterType));
 				}
 			}
+			SystemMailService.getInstance().sendBulkMail(mails);
 		}
 
 		if (item != 0) {
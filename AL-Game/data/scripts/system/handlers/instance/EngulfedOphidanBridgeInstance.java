@@ -477,7 +477,7 @@ public class EngulfedOphidanBridgeInstance extends GeneralInstanceHandler
             addPvpKillsByRace(player.getRace(), 1);
             addPvPKillToPlayer(player);
         }
-        engulfedOphidanBridgeReward.sendPacket(11, player.getObjectId());
+        engulfedOphidanBridgeReward.sendScoreUpdate(player.getObjectId());
         if (engulfedOphidanBridgeReward.hasCapPoints()) {
             stopInstance(engulfedOphidanBridgeReward.getWinnerRaceByScore());
         }
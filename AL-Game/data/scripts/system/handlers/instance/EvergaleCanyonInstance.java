@@ -420,7 +420,7 @@ public class EvergaleCanyonInstance extends GeneralInstanceHandler
             addPvpKillsByRace(player.getRace(), 1);
             addPvPKillToPlayer(player);
         }
-        evergaleCanyonReward.sendPacket(11, player.getObjectId());
+        evergaleCanyonReward.sendScoreUpdate(player.getObjectId());
     }
 	
 	@Override
@@ -441,7 +441,7 @@ public class IronWallWarfrontInstance extends GeneralInstanceHandler
             addPvpKillsByRace(player.getRace(), 1);
             addPvPKillToPlayer(player);
         }
-        ironWallWarfrontReward.sendPacket(11, player.getObjectId());
+        ironWallWarfrontReward.sendScoreUpdate(player.getObjectId());
         if (ironWallWarfrontReward.hasCapPoints()) {
             stopInstance(ironWallWarfrontReward.getWinnerRaceByScore());
         }
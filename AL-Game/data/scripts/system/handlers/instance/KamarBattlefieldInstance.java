@@ -577,7 +577,7 @@ public class KamarBattlefieldInstance extends GeneralInstanceHandler
             addPvpKillsByRace(player.getRace(), 1);
             addPvPKillToPlayer(player);
         }
-        kamarBattlefieldReward.sendPacket(11, player.getObjectId());
+        kamarBattlefieldReward.sendScoreUpdate(player.getObjectId());
         if (kamarBattlefieldReward.hasCapPoints()) {
             stopInstance(kamarBattlefieldReward.getWinnerRaceByScore());
         }
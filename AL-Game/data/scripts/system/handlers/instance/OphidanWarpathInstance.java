@@ -733,7 +733,7 @@ public class OphidanWarpathInstance extends GeneralInstanceHandler
             addPvpKillsByRace(player.getRace(), 1);
             addPvPKillToPlayer(player);
         }
-        engulfedOphidanBridgeReward.sendPacket(11, player.getObjectId());
+        engulfedOphidanBridgeReward.sendScoreUpdate(player.getObjectId());
         if (engulfedOphidanBridgeReward.hasCapPoints()) {
             stopInstance(engulfedOphidanBridgeReward.getWinnerRaceByScore());
         }
@@ -72,7 +72,6 @@ public class BaranathDredgion extends GeneralInstanceHandler
 	private int bulkhead;
 	private int secretCache;
 	private int surkanaKills;
-	private long instanceTime;
 	private Map<Integer, StaticDoor> doors;
 	protected DredgionReward dredgionReward;
 	private float loosingGroupMultiplier = 1;
@@ -211,7 +210,7 @@ public class BaranathDredgion extends GeneralInstanceHandler
     }
 	
 	protected void startInstanceTask() {
-		instanceTime = System.currentTimeMillis();
+		dredgionReward.setInstanceStartTime();
 		baranathTask.add(ThreadPoolManager.getInstance().schedule(new Runnable() {
 			@Override
 			public void run() {
@@ -484,7 +483,7 @@ public class BaranathDredgion extends GeneralInstanceHandler
 	@Override
 	public void onInstanceCreate(WorldMapInstance instance) {
 		super.onInstanceCreate(instance);
-		dredgionReward = new DredgionReward(mapId, instanceId);
+		dredgionReward = new DredgionReward(mapId, instanceId, instance);
 		dredgionReward.setInstanceScoreType(InstanceScoreType.PREPARING);
 		doors = instance.getDoors();
 		startInstanceTask();
@@ -530,16 +529,6 @@ public class BaranathDredgion extends GeneralInstanceHandler
 		}, 120000);
 	}
 	
-	private int getTime() {
-		long result = System.currentTimeMillis() - instanceTime;
-		if (result < 60000) {
-			return (int) (60000 - result);
-		} else if (result < 3600000) {
-			return (int) (3600000 - (result - 60000));
-		}
-		return 0;
-	}
-	
 	@Override
     public boolean onReviveEvent(Player player) {
 		player.getGameStats().updateStatsAndSpeedVisually();
@@ -629,7 +618,7 @@ public class BaranathDredgion extends GeneralInstanceHandler
 		} else if (target instanceof Npc && ((Npc) target).getRace().equals(Race.DRAKAN)) {
 			addBalaurKillToPlayer(player);
 		}
-		sendPacket();
+		sendScoreUpdate();
 	}
 	
 	@Override
@@ -648,12 +637,11 @@ public class BaranathDredgion extends GeneralInstanceHandler
 	}
 	
 	private void sendPacket() {
-		instance.doOnAllPlayers(new Visitor<Player>() {
-			@Override
-			public void visit(Player player) {
-				PacketSendUtility.sendPacket(player, new SM_INSTANCE_SCORE(getTime(), dredgionReward, instance.getPlayersInside()));
-			}
-		});
+		dredgionReward.sendFullScore();
+	}
+	
+	private void sendScoreUpdate() {
+		dredgionReward.sendScoreUpdate();
 	}
 	
 	protected void sp(final int npcId, final float x, final float y, final float z, final byte h, final int time) {
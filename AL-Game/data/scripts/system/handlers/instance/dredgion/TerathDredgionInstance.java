@@ -72,7 +72,6 @@ public class TerathDredgionInstance extends GeneralInstanceHandler
 	private int bulkhead;
 	private int secretCache;
 	private int surkanaKills;
-	private long instanceTime;
 	private Map<Integer, StaticDoor> doors;
 	protected DredgionReward dredgionReward;
 	private float loosingGroupMultiplier = 1;
@@ -178,7 +177,7 @@ public class TerathDredgionInstance extends GeneralInstanceHandler
 	}
 	
 	protected void startInstanceTask() {
-		instanceTime = System.currentTimeMillis();
+		dredgionReward.setInstanceStartTime();
 		terathTask.add(ThreadPoolManager.getInstance().schedule(new Runnable() {
 			@Override
 			public void run() {
@@ -455,7 +454,7 @@ public class TerathDredgionInstance extends GeneralInstanceHandler
 	@Override
 	public void onInstanceCreate(WorldMapInstance instance) {
 		super.onInstanceCreate(instance);
-		dredgionReward = new DredgionReward(mapId, instanceId);
+		dredgionReward = new DredgionReward(mapId, instanceId, instance);
 		dredgionReward.setInstanceScoreType(InstanceScoreType.PREPARING);
 		doors = instance.getDoors();
 		startInstanceTask();
@@ -501,16 +500,6 @@ public class TerathDredgionInstance extends GeneralInstanceHandler
 		}, 120000);
 	}
 	
-	private int getTime() {
-		long result = System.currentTimeMillis() - instanceTime;
-		if (result < 60000) {
-			return (int) (60000 - result);
-		} else if (result < 3600000) {
-			return (int) (3600000 - (result - 60000));
-		}
-		return 0;
-	}
-	
 	@Override
     public boolean onReviveEvent(Player player) {
 		player.getGameStats().updateStatsAndSpeedVisually();
@@ -600,7 +589,7 @@ public class TerathDredgionInstance extends GeneralInstanceHandler
 		} else if (target instanceof Npc && ((Npc) target).getRace().equals(Race.DRAKAN)) {
 			addBalaurKillToPlayer(player);
 		}
-		sendPacket();
+		sendScoreUpdate();
 	}
 	
 	@Override
@@ -619,12 +608,11 @@ public class TerathDredgionInstance extends GeneralInstanceHandler
 	}
 	
 	private void sendPacket() {
-		instance.doOnAllPlayers(new Visitor<Player>() {
-			@Override
-			public void visit(Player player) {
-				PacketSendUtility.sendPacket(player, new SM_INSTANCE_SCORE(getTime(), dredgionReward, instance.getPlayersInside()));
-			}
-		});
+		dredgionReward.sendFullScore();
+	}
+	
+	private void sendScoreUpdate() {
+		dredgionReward.sendScoreUpdate();
 	}
 	
 	protected void sp(final int npcId, final float x, final float y, final float z, final byte h, final int time) {
@@ -417,7 +417,7 @@ public class IdgelDomeInstance extends GeneralInstanceHandler
             addPvpKillsByRace(player.getRace(), 1);
             addPvPKillToPlayer(player);
         }
-        idgelDomeReward.sendPacket(11, player.getObjectId());
+        idgelDomeReward.sendScoreUpdate(player.getObjectId());
         if (idgelDomeReward.hasCapPoints()) {
             stopInstance(idgelDomeReward.getWinnerRaceByScore());
         }
@@ -389,7 +389,7 @@ public class IdgelDomeLandmarkInstance extends GeneralInstanceHandler
             addPvpKillsByRace(player.getRace(), 1);
             addPvPKillToPlayer(player);
         }
-        landMarkReward.sendPacket(11, player.getObjectId());
+        landMarkReward.sendScoreUpdate(player.getObjectId());
     }
 	
     @Override
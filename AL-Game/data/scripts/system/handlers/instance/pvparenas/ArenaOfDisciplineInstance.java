@@ -46,7 +46,7 @@ public class ArenaOfDisciplineInstance extends PvPArenaInstance
 			return;
 		}
 		getPlayerReward(player.getObjectId()).addPoints(1250);
-		sendPacket();
+		sendScoreUpdate();
 		int nameId = gatherable.getObjectTemplate().getNameId();
 		DescriptionId name = new DescriptionId(nameId * 2 + 1);
 		PacketSendUtility.sendPacket(player, new SM_SYSTEM_MESSAGE(1400237, name, 1250));
@@ -50,7 +50,7 @@ public class ChaosTrainingGroundsInstance extends PvPArenaInstance
 			return;
 		}
 		getPlayerReward(player.getObjectId()).addPoints(1250);
-		sendPacket();
+		sendScoreUpdate();
 		int nameId = gatherable.getObjectTemplate().getNameId();
 		DescriptionId name = new DescriptionId(nameId * 2 + 1);
 		PacketSendUtility.sendPacket(player, new SM_SYSTEM_MESSAGE(1400237, name, 1250));
@@ -205,7 +205,7 @@ public class ChaosTrainingGroundsInstance extends PvPArenaInstance
 				npc.getController().scheduleRespawn();
 				npc.getController().onDelete();
 				sendSystemMsg(player, npc, 250);
-				sendPacket();
+				sendScoreUpdate();
 			}
 		} else if (flyingRing.equals("PVP_ARENA_2")) {
 			npc = getNpc(688.410f, 1769.611f, 150.964f);
@@ -214,7 +214,7 @@ public class ChaosTrainingGroundsInstance extends PvPArenaInstance
 				npc.getController().onDelete();
 				playerReward.addPoints(250);
 				sendSystemMsg(player, npc, 250);
-				sendPacket();
+				sendScoreUpdate();
 			}
 		} else if (flyingRing.equals("PVP_ARENA_3")) {
 			npc = getNpc(664.160f, 1761.933f, 171.504f);
@@ -223,7 +223,7 @@ public class ChaosTrainingGroundsInstance extends PvPArenaInstance
 				npc.getController().onDelete();
 				playerReward.addPoints(250);
 				sendSystemMsg(player, npc, 250);
-				sendPacket();
+				sendScoreUpdate();
 			}
 		} else if (flyingRing.equals("PVP_ARENA_VOID_1")) {
 			npc = getNpc(693.061f, 1752.479f, 186.750f);
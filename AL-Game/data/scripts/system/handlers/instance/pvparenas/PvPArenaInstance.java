@@ -68,7 +68,7 @@ public class PvPArenaInstance extends GeneralInstanceHandler
 		PvPArenaPlayerReward ownerReward = getPlayerReward(player.getObjectId());
 		ownerReward.endBoostMoraleEffect(player);
 		ownerReward.applyBoostMoraleEffect(player);
-		sendPacket();
+		sendScoreUpdate();
 		if (lastAttacker != null && lastAttacker != player) {
 			if (lastAttacker instanceof Player) {
 				Player winner = (Player) lastAttacker;
@@ -115,7 +115,7 @@ public class PvPArenaInstance extends GeneralInstanceHandler
 			instanceReward.setInstanceScoreType(InstanceScoreType.END_PROGRESS);
 			reward();
 		}
-		sendPacket();
+		sendScoreUpdate();
 	}
 	
 	protected void sendSystemMsg(Player player, Creature creature, int rewardPoints) {
@@ -369,6 +369,10 @@ public class PvPArenaInstance extends GeneralInstanceHandler
 		instanceReward.sendPacket();
 	}
 	
+	protected void sendScoreUpdate() {
+		instanceReward.sendScoreUpdate();
+	}
+	
 	private void despawnNpc(Npc npc) {
 		if (npc != null) {
 			npc.getController().onDelete();
@@ -568,7 +572,7 @@ public class PvPArenaInstance extends GeneralInstanceHandler
 		}
 		getPlayerReward(player.getObjectId()).addPoints(rewardetPoints);
 		sendSystemMsg(player, npc, rewardetPoints);
-		sendPacket();
+		sendScoreUpdate();
 	}
 	
 	protected void useSkill(Npc npc, Player player, int skillId, int level) {
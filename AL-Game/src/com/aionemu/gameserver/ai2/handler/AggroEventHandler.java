@@ -20,8 +20,10 @@ import java.util.Collections;
 
 import com.aionemu.gameserver.ai2.NpcAI2;
 import com.aionemu.gameserver.ai2.event.AIEventType;
+import com.aionemu.gameserver.configs.main.AIConfig;
 import com.aionemu.gameserver.controllers.attack.AttackResult;
 import com.aionemu.gameserver.controllers.attack.AttackStatus;
+import com.aionemu.gameserver.dataholders.DataManager;
 import com.aionemu.gameserver.model.TribeClass;
 import com.aionemu.gameserver.model.gameobjects.Creature;
 import com.aionemu.gameserver.model.gameobjects.Npc;
@@ -76,19 +78,27 @@ public class AggroEventHandler {
 
 	public static boolean onGuardAgainstAttacker(NpcAI2 npcAI, Creature attacker) {
 		Npc owner = npcAI.getOwner();
-		TribeClass tribe = owner.getTribe();
-		if (!tribe.isGuard() && owner.getObjectTemplate().getNpcTemplateType() != NpcTemplateType.GUARD) {
-			return false;
+		if (isGuard(owner) && canGuardAgainst(owner, attacker)) {
+			owner.getAggroList().startHate(attacker);
+			return true;
 		}
+		return false;
+	}
+
+	private static boolean isGuard(Npc npc) {
+		return npc.getTribe().isGuard() || npc.getObjectTemplate().getNpcTemplateType() == NpcTemplateType.GUARD;
+	}
+
+	/**
+	 * @return true if the attacker is an enemy of the guard attacking a friendly player near the guard
+	 */
+	private static boolean canGuardAgainst(Npc guard, Creature attacker) {
 		VisibleObject target = attacker.getTarget();
-		if (target != null && target instanceof Player) {
+		if (target instanceof Player) {
 			Player playerTarget = (Player) target;
-			if (!owner.isEnemy(playerTarget) && owner.isEnemy(attacker)
-					&& MathUtil.isInRange(owner, playerTarget, owner.getAggroRange())
-					&& GeoService.getInstance().canSee(owner, attacker)) {
-				owner.getAggroList().startHate(attacker);
-				return true;
-			}
+			return !guard.isEnemy(playerTarget) && guard.isEnemy(attacker)
+					&& MathUtil.isInRange(guard, playerTarget, guard.getAggroRange())
+					&& GeoService.getInstance().canSee(guard, attacker);
 		}
 		return false;
 	}
@@ -109,16 +119,54 @@ public class AggroEventHandler {
 		public void run() {
 			aggressive.getAggroList().addHate(target, 1);
 			if (broadcast) {
-				aggressive.getKnownList().doOnAllNpcs(new Visitor<Npc>() {
-
-					@Override
-					public void visit(Npc object) {
-						object.getAi2().onCreatureEvent(AIEventType.CREATURE_NEEDS_SUPPORT, aggressive);
-					}
-				});
+				aggressive.getKnownList().doOnAllNpcs(new SupportNotifier(aggressive, target));
 			}
 			aggressive = null;
 			target = null;
 		}
 	}
+
+	/**
+	 * Sends CREATURE_NEEDS_SUPPORT only to npcs that could answer it: guards which would guard against either side,
+	 * and supporters of the aggressive npc or of its target within the support range, which are not fighting already.
+	 * Only those count against the request limit and the support throttle.
+	 */
+	private static final class SupportNotifier implements Visitor<Npc> {
+
+		private final Npc aggressive;
+		private final Creature target;
+		private final TribeClass targetTribe;
+		private int notified;
+
+		SupportNotifier(Npc aggressive, Creature target) {
+			this.aggressive = aggressive;
+			this.target = target;
+			this.targetTribe = target instanceof Npc ? ((Npc) target).getTribe() : null;
+		}
+
+		@Override
+		public void visit(Npc npc) {
+			if (notified >= AIConfig.SUPPORT_REQUEST_LIMIT || npc.getLifeStats().isAlreadyDead()
+					|| !((NpcAI2) npc.getAi2()).isNonFightingState() || !canSupport(npc) || !npc.trySupportRequest()) {
+				return;
+			}
+			notified++;
+			npc.getAi2().onCreatureEvent(AIEventType.CREATURE_NEEDS_SUPPORT, aggressive);
+		}
+
+		private boolean canSupport(Npc npc) {
+			// the same checks as the guard reaction of AbstractAI to the event
+			if (isGuard(npc) && (canGuardAgainst(npc, aggressive) || canGuardAgainst(npc, target))) {
+				return true;
+			}
+			TribeClass tribe = npc.getTribe();
+			float supportRange = npc.getAggroRange() * 1.5f;
+			if (DataManager.TRIBE_RELATIONS_DATA.isSupporter(tribe, aggressive.getTribe())
+					&& MathUtil.isInRange(npc, aggressive, supportRange)) {
+				return true;
+			}
+			return targetTribe != null && DataManager.TRIBE_RELATIONS_DATA.isSupporter(tribe, targetTribe)
+					&& MathUtil.isInRange(npc, target, supportRange);
+		}
+	}
 }
\ No newline at end of file
@@ -42,6 +42,18 @@ public class AIConfig {
 	@Property(key = "gameserver.ai.aggro.level.immune", defaultValue = "10")
 	public static int AGGRO_LEVEL_IMMUNE;
 
+	/**
+	 * Maximum number of npcs asked for support by one aggro
+	 */
+	@Property(key = "gameserver.ai.support.limit", defaultValue = "20")
+	public static int SUPPORT_REQUEST_LIMIT;
+
+	/**
+	 * Minimum time in ms between two support requests handled by the same npc
+	 */
+	@Property(key = "gameserver.ai.support.interval", defaultValue = "500")
+	public static int SUPPORT_REQUEST_INTERVAL;
+
 	/**
 	 * Enable NPC movement
 	 */
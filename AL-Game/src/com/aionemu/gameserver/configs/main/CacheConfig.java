@@ -53,4 +53,11 @@ public class CacheConfig {
 	 */
 	@Property(key = "gameserver.cache.accounts", defaultValue = "false")
 	public static boolean CACHE_ACCOUNTS;
+
+	/**
+	 * Max number of characters kept by the player name directory, least recently
+	 * used entries are dropped first
+	 */
+	@Property(key = "gameserver.cache.names.size", defaultValue = "20000")
+	public static int NAME_DIRECTORY_SIZE;
 }
\ No newline at end of file
@@ -85,6 +85,38 @@ public class GeoDataConfig {
 	 */
 	@Property(key = "gameserver.geodata.monon2.in.use", defaultValue = "fasle")
 	public static boolean GEO_MONONO2_IN_USE;
+
+	/**
+	 * Keep geodata memory-mapped: meshes are loaded from the precompiled data/geo/meshs.bih and terrain is read in
+	 * place from the .geo files
+	 */
+	@Property(key = "gameserver.geodata.mapped.enable", defaultValue = "true")
+	public static boolean GEO_MAPPED_ENABLE;
+
+	/**
+	 * Cache mesh floor heights off-heap for ground height lookups
+	 */
+	@Property(key = "gameserver.geodata.heightcache.enable", defaultValue = "false")
+	public static boolean GEO_HEIGHT_CACHE_ENABLE;
+
+	/**
+	 * Max number of 16x16m tiles kept by the height cache (about 18 KB each)
+	 */
+	@Property(key = "gameserver.geodata.heightcache.tiles", defaultValue = "2048")
+	public static int GEO_HEIGHT_CACHE_TILES;
+
 	@Property(key = "gameserver.geo.nav.pathfinding.enable", defaultValue = "false")
 	public static boolean GEO_NAV_ENABLE;
+
+	/**
+	 * Time in ms the pathfinding tick may spend on npc path searches
+	 */
+	@Property(key = "gameserver.geo.nav.tick.budget", defaultValue = "20")
+	public static int GEO_NAV_TICK_BUDGET;
+
+	/**
+	 * Time in ms a path stays reusable by npcs chasing the same target (0 = off)
+	 */
+	@Property(key = "gameserver.geo.nav.path.share.time", defaultValue = "1000")
+	public static int GEO_NAV_PATH_SHARE_TIME;
 }
\ No newline at end of file
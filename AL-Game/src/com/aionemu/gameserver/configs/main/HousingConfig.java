@@ -57,6 +57,8 @@ public class HousingConfig {
 	public static float HOUSE_AUCTION_BID_LIMIT;
 	@Property(key = "gameserver.housing.scripts.debug", defaultValue = "false")
 	public static boolean HOUSE_SCRIPT_DEBUG;
+	@Property(key = "gameserver.housing.content.idle", defaultValue = "30")
+	public static int HOUSE_CONTENT_IDLE_MINUTES;
 	@Property(key = "gameserver.housing.auction.fill.auto", defaultValue = "false")
 	public static boolean FILL_HOUSE_BIDS_AUTO;
 	@Property(key = "gameserver.housing.auction.fill.auto.houses", defaultValue = "20")
@@ -114,6 +114,42 @@ public class NetworkConfig {
 	@Property(key = "gameserver.network.display.packets", defaultValue = "false")
 	public static boolean DISPLAY_PACKETS;
 
+	/**
+	 * Merge attack status updates seen by bystanders into one batch per broadcast tick.
+	 */
+	@Property(key = "gameserver.network.attackstatus.coalesce", defaultValue = "false")
+	public static boolean ATTACK_STATUS_COALESCE;
+
+	/**
+	 * Maximum number of merged attack status packets a bystander receives per creature and tick.
+	 */
+	@Property(key = "gameserver.network.attackstatus.coalesce.max", defaultValue = "4")
+	public static int ATTACK_STATUS_COALESCE_MAX;
+
+	/**
+	 * Pace the appear packets of objects becoming visible at once (hostile and nearest first).
+	 */
+	@Property(key = "gameserver.network.visibility.scheduler", defaultValue = "false")
+	public static boolean VISIBILITY_SCHEDULER_ENABLE;
+
+	/**
+	 * Estimated appear packets a player may receive per 100ms tick.
+	 */
+	@Property(key = "gameserver.network.visibility.scheduler.packets", defaultValue = "48")
+	public static int VISIBILITY_SCHEDULER_PACKETS;
+
+	/**
+	 * Estimated appear bytes a player may receive per 100ms tick.
+	 */
+	@Property(key = "gameserver.network.visibility.scheduler.bytes", defaultValue = "24576")
+	public static int VISIBILITY_SCHEDULER_BYTES;
+
+	/**
+	 * Cache the viewer independent parts of SM_PLAYER_INFO and SM_NPC_INFO (appearance, equipment, legion).
+	 */
+	@Property(key = "gameserver.network.packet.infocache", defaultValue = "true")
+	public static boolean PACKET_INFO_CACHE;
+
 	@Property(key = "gameserver.network.flood.connections", defaultValue = "false")
 	public static boolean ENABLE_FLOOD_CONNECTIONS;
 
@@ -74,6 +74,10 @@ public class HouseController extends VisibleObjectController<House> {
 		p.getObserveController().removeObserver(observer);
 	}
 
+	public boolean isObserved() {
+		return !observed.isEmpty();
+	}
+
 	public void spawnObjects() {
 		if (getOwner().getRegistry() != null) {
 			for (HouseObject<?> obj : getOwner().getRegistry().getSpawnedObjects()) {
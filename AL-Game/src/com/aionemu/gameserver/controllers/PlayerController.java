@@ -52,7 +52,6 @@ import com.aionemu.gameserver.model.templates.robot.RobotInfo;
 import com.aionemu.gameserver.model.templates.spawns.SpawnTemplate;
 import com.aionemu.gameserver.model.templates.stats.PlayerStatsTemplate;
 import com.aionemu.gameserver.model.templates.zone.ZoneClassName;
-import com.aionemu.gameserver.network.aion.serverpackets.SM_ATTACK_STATUS;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_ATTACK_STATUS.LOG;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_ATTACK_STATUS.TYPE;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_DELETE;
@@ -102,6 +101,7 @@ import com.aionemu.gameserver.services.events.bg.SoloSurvivorBg;
 import com.aionemu.gameserver.services.instance.InstanceService;
 import com.aionemu.gameserver.services.item.ItemService;
 import com.aionemu.gameserver.services.player.CreativityPanel.CreativityEssenceService;
+import com.aionemu.gameserver.services.player.PlayerNameDirectory;
 import com.aionemu.gameserver.services.summons.SummonsService;
 import com.aionemu.gameserver.services.teleport.TeleportService2;
 import com.aionemu.gameserver.services.toypet.MinionService;
@@ -117,6 +117,7 @@ import com.aionemu.gameserver.skillengine.model.SkillTemplate;
 import com.aionemu.gameserver.spawnengine.SpawnEngine;
 import com.aionemu.gameserver.taskmanager.tasks.PlayerMoveTaskManager;
 import com.aionemu.gameserver.taskmanager.tasks.TeamEffectUpdater;
+import com.aionemu.gameserver.taskmanager.tasks.VisibilityScheduler;
 import com.aionemu.gameserver.utils.MathUtil;
 import com.aionemu.gameserver.utils.PacketSendUtility;
 import com.aionemu.gameserver.utils.ThreadPoolManager;
@@ -151,6 +152,16 @@ public class PlayerController extends CreatureController<Player> {
 	@Override
 	public void see(VisibleObject object) {
 		super.see(object);
+		if (VisibilityScheduler.isEnabled() && !VisibilityScheduler.getInstance().schedule(getOwner(), object)) {
+			return;
+		}
+		sendAppearPackets(object);
+	}
+
+	/**
+	 * Sends the packets making object appear on the client of the owner.
+	 */
+	public void sendAppearPackets(VisibleObject object) {
 		if (object instanceof Player) {
 			Player player = (Player) object;
 			PacketSendUtility.sendPacket(getOwner(), new SM_PLAYER_INFO(player, getOwner().isAggroIconTo(player)));
@@ -222,6 +233,9 @@ public class PlayerController extends CreatureController<Player> {
 	@Override
 	public void notSee(VisibleObject object, boolean isOutOfRange) {
 		super.notSee(object, isOutOfRange);
+		if (VisibilityScheduler.isEnabled() && VisibilityScheduler.getInstance().cancel(getOwner(), object)) {
+			return;
+		}
 		if (object instanceof Pet) {
 			PacketSendUtility.sendPacket(getOwner(), new SM_PET(4, (Pet) object));
 		} else if (object instanceof Minion) {
@@ -784,7 +798,7 @@ public class PlayerController extends CreatureController<Player> {
 		cancelGathering();
 		super.onAttack(creature, skillId, type, damage, notifyAttack, log);
 
-		PacketSendUtility.broadcastPacket(getOwner(), new SM_ATTACK_STATUS(getOwner(), creature, type, skillId, damage, log), true);
+		getOwner().getLifeStats().broadcastAttackStatus(creature, type, skillId, damage, log);
 
 		lastAttackedMilis = System.currentTimeMillis();
 	}
@@ -983,6 +997,7 @@ public class PlayerController extends CreatureController<Player> {
 		player.getLifeStats().synchronizeWithMaxStats();
 		player.getLifeStats().updateCurrentStats();
 		PacketSendUtility.broadcastPacket(player, new SM_LEVEL_UPDATE(player.getObjectId(), 0, level), true);
+		PlayerNameDirectory.getInstance().update(player);
 		if (HTMLConfig.ENABLE_GUIDES) {
 			HTMLService.sendGuideHtml(player);
 		}
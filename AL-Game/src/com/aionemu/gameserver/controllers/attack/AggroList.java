@@ -23,6 +23,7 @@ import java.util.Map;
 import com.aionemu.commons.callbacks.Callback;
 import com.aionemu.commons.callbacks.CallbackResult;
 import com.aionemu.commons.callbacks.metadata.ObjectCallback;
+import com.aionemu.commons.utils.collections.ConcurrentIntObjectMap;
 import com.aionemu.gameserver.ai2.event.AIEventType;
 import com.aionemu.gameserver.dataholders.DataManager;
 import com.aionemu.gameserver.model.Race;
@@ -36,8 +37,6 @@ import com.aionemu.gameserver.questEngine.QuestEngine;
 import com.aionemu.gameserver.questEngine.model.QuestEnv;
 import com.aionemu.gameserver.utils.MathUtil;
 
-import javolution.util.FastMap;
-
 /**
  * @author ATracer, KKnD
  */
@@ -45,7 +44,7 @@ import javolution.util.FastMap;
 public class AggroList {
 
 	protected final Creature owner;
-	private FastMap<Integer, AggroInfo> aggroList = new FastMap<Integer, AggroInfo>().shared();
+	private final ConcurrentIntObjectMap<AggroInfo> aggroList = new ConcurrentIntObjectMap<AggroInfo>();
 
 	public AggroList(Creature owner) {
 		this.owner = owner;
@@ -199,12 +198,7 @@ public class AggroList {
 		Creature mostHated = null;
 		int maxHate = 0;
 
-		for (FastMap.Entry<Integer, AggroInfo> e = aggroList.head(),
-				mapEnd = aggroList.tail(); (e = e.getNext()) != mapEnd;) {
-			AggroInfo ai = e.getValue();
-			if (ai == null) {
-				continue;
-			}
+		for (AggroInfo ai : aggroList.values()) {
 			// aggroList will never contain anything but creatures
 			Creature attacker = (Creature) ai.getAttacker();
 
@@ -275,7 +269,10 @@ public class AggroList {
 		AggroInfo ai = aggroList.get(creature.getObjectId());
 		if (ai == null) {
 			ai = new AggroInfo(creature);
-			aggroList.put(creature.getObjectId(), ai);
+			AggroInfo existing = aggroList.putIfAbsent(creature.getObjectId(), ai);
+			if (existing != null) {
+				ai = existing;
+			}
 		}
 		return ai;
 	}
@@ -35,6 +35,7 @@ import com.aionemu.gameserver.utils.PacketSendUtility;
 import com.aionemu.gameserver.utils.collections.LastUsedCache;
 import com.aionemu.gameserver.world.World;
 import com.aionemu.gameserver.world.geo.GeoService;
+import com.aionemu.gameserver.world.geo.nav.NavRequest;
 import com.aionemu.gameserver.world.geo.nav.NavService;
 import java.util.List;
 import org.slf4j.Logger;
@@ -61,6 +62,8 @@ public class NpcMoveController
     private float cachedTargetZ;
     private boolean cachedPathValid;
     private float[][] cachedPath;
+    private NavRequest pendingPath;
+    private VisibleObject pathTarget;
     private FollowMotor _followMotor;
 
     public NpcMoveController(Npc owner) {
@@ -120,6 +123,9 @@ public class NpcMoveController
                 AI2Logger.moveinfo(owner, "MC: moveToHome started");
             }
             cachedPathValid = false;
+            cachedPath = null;
+            pathTarget = null;
+            cancelPendingPath();
             float x = owner.getSpawn().getX(), y = owner.getSpawn().getY(), z = owner.getSpawn().getZ();
             destination = Destination.HOME;
             pointX = x;
@@ -181,6 +187,12 @@ public class NpcMoveController
                     if (!(target instanceof Creature)) { //instanceof returns false if target is null.
                         return;
                     }
+                    if (target != pathTarget) {
+                        pathTarget = target;
+                        cachedPath = null;
+                        cachedPathValid = false;
+                        cancelPendingPath();
+                    }
                     if ((MathUtil.getDistance(target.getX(), target.getY(), pointZ, pointX, pointY, pointZ) > MOVE_CHECK_OFFSET)) {
                         Creature creature = (Creature) target;
                         offset = owner.getController().getAttackDistanceToTarget();
@@ -189,8 +201,7 @@ public class NpcMoveController
                         pointZ = getTargetZ(owner, creature);
                         cachedPathValid = false;
                     }
-                    if (!cachedPathValid || cachedPath == null) {
-                        cachedPath = NavService.getInstance().navigateToTarget(owner, (Creature) target);
+                    if ((!cachedPathValid || cachedPath == null) && pollPath(target)) {
                         if (cachedPath != null) { //Add a bit of randomness to the last point to prevent entities from stacking directly ontop of eachother.
                             //TODO: Move to NavService and make sure this random point is on the navmesh!
                             if (cachedPath.length != 1) {
@@ -242,10 +253,8 @@ public class NpcMoveController
                 break;
             }
             case HOME: {
-                if ((!cachedPathValid || cachedPath == null) && (returnAttempts<3)) {
-                    cachedPath = NavService.getInstance().navigateToLocation(owner, pointX, pointY, pointZ);
+                if ((!cachedPathValid || cachedPath == null) && (returnAttempts<3) && pollPath(null)) {
                     returnAttempts++;
-                    cachedPathValid = true;
                 }
                 if ((cachedPath != null) && (cachedPath.length > 0) && (returnAttempts<3)) {
                     float[] p1 = cachedPath[0];
@@ -258,6 +267,41 @@ public class NpcMoveController
         this.updateLastMove();
     }
 
+    /**
+     * Queues a path search towards the target (or towards the destination point when target is null) and
+     * picks up its result on a later tick, until then the npc keeps following its previous path. A request
+     * for another target is cancelled.
+     *
+     * @return true once cachedPath holds the new path
+     */
+    private boolean pollPath(VisibleObject target) {
+        if (pendingPath != null && pendingPath.getTarget() != target) {
+            cancelPendingPath();
+        }
+        if (pendingPath == null) {
+            if (target != null) {
+                pendingPath = NavService.getInstance().requestPathToTarget(owner, (Creature) target);
+            } else {
+                pendingPath = NavService.getInstance().requestPathToLocation(owner, pointX, pointY, pointZ);
+            }
+            return false;
+        }
+        if (!pendingPath.isDone()) {
+            return false;
+        }
+        cachedPath = pendingPath.getPath();
+        pendingPath = null;
+        cachedPathValid = true;
+        return true;
+    }
+
+    private void cancelPendingPath() {
+        if (pendingPath != null) {
+            pendingPath.cancel();
+            pendingPath = null;
+        }
+    }
+
     private float getTargetZ(Npc npc, Creature creature) {
         float targetZ = creature.getZ();
         if (GeoDataConfig.GEO_NPC_MOVE && creature.isInFlyingState() && !npc.isInFlyingState()) {
@@ -17,6 +17,8 @@
 package com.aionemu.gameserver.dao;
 
 import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
 
 import com.aionemu.gameserver.model.gameobjects.Letter;
 import com.aionemu.gameserver.model.gameobjects.player.Mailbox;
@@ -43,5 +45,12 @@ public abstract class MailDAO implements IDFactoryAwareDAO {
 
 	public abstract void updateOfflineMailCounter(PlayerCommonData recipientCommonData);
 
+	/**
+	 * Inserts new letters and their attached items with batched statements in a single transaction.
+	 */
+	public abstract boolean storeNewLetters(List<Letter> letters);
+
+	public abstract void updateOfflineMailCounters(Collection<PlayerCommonData> recipients);
+
 	public abstract boolean haveUnread(int playerId);
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import com.aionemu.gameserver.model.Race;
 import com.aionemu.gameserver.model.account.PlayerAccountData;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.model.gameobjects.player.PlayerCommonData;
+import com.aionemu.gameserver.model.gameobjects.player.PlayerNameEntry;
 import com.aionemu.gameserver.model.team.legion.LegionJoinRequestState;
 
 public abstract class PlayerDAO implements IDFactoryAwareDAO {
@@ -56,6 +57,26 @@ public abstract class PlayerDAO implements IDFactoryAwareDAO {
 
 	public abstract PlayerCommonData loadPlayerCommonDataByName(String name);
 
+	/**
+	 * Resolves mail recipients by name with one query per chunk of names. Online and cached players are returned as
+	 * is, the others as uncached common data holding only id, name, race and mailbox letters.
+	 *
+	 * @return recipients keyed by lower case name
+	 */
+	public abstract Map<String, PlayerCommonData> loadMailRecipients(Collection<String> names);
+
+	/**
+	 * Loads directory entries with one query per chunk of ids, missing characters are left out.
+	 *
+	 * @return entries keyed by object id
+	 */
+	public abstract Map<Integer, PlayerNameEntry> loadNameEntries(Collection<Integer> playerObjIds);
+
+	/**
+	 * @return directory entry of the character or null if there is none with this name
+	 */
+	public abstract PlayerNameEntry loadNameEntry(String name);
+
 	public abstract int getAccountIdByName(final String name);
 
 	public abstract String getPlayerNameByObjId(final int playerObjId);
@@ -16,6 +16,7 @@
  */
 package com.aionemu.gameserver.dataholders;
 
+import java.util.EnumSet;
 import java.util.List;
 
 import javax.xml.bind.Unmarshaller;
@@ -37,11 +38,27 @@ public class TribeRelationsData {
 
 	protected THashMap<TribeClass, Tribe> tribeNameMap = new THashMap<TribeClass, Tribe>();
 
+	/**
+	 * Tribes that answer support requests of the key tribe
+	 */
+	protected THashMap<TribeClass, EnumSet<TribeClass>> supportersByTribe = new THashMap<TribeClass, EnumSet<TribeClass>>();
+
 	void afterUnmarshal(Unmarshaller u, Object parent) {
 		for (Tribe tribe : tribeList) {
 			tribeNameMap.put(tribe.getName(), tribe);
 		}
 		tribeList = null;
+		for (TribeClass tribe : tribeNameMap.keySet()) {
+			EnumSet<TribeClass> supporters = EnumSet.noneOf(TribeClass.class);
+			for (TribeClass supporter : tribeNameMap.keySet()) {
+				if (isSupportRelation(supporter, tribe)) {
+					supporters.add(supporter);
+				}
+			}
+			if (!supporters.isEmpty()) {
+				supportersByTribe.put(tribe, supporters);
+			}
+		}
 	}
 
 	public int size() {
@@ -165,15 +182,14 @@ public class TribeRelationsData {
 	}
 
 	public boolean hasAnySupporter(TribeClass tribeName) {
-		Tribe tribe1 = tribeNameMap.get(tribeName);
-		if (tribe1 == null) {
-			return false;
-		}
-		for (TribeClass tribe2 : tribeNameMap.keySet()) {
-			if (isSupportRelation(tribe2, tribeName)) {
-				return true;
-			}
-		}
-		return false;
+		return supportersByTribe.containsKey(tribeName);
+	}
+
+	/**
+	 * Same as {@link #isSupportRelation(TribeClass, TribeClass)} but answered from the precomputed supporter sets
+	 */
+	public boolean isSupporter(TribeClass supporter, TribeClass tribeName) {
+		EnumSet<TribeClass> supporters = supportersByTribe.get(tribeName);
+		return supporters != null && supporters.contains(supporter);
 	}
 }
\ No newline at end of file
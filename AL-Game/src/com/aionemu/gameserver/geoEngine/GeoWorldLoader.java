@@ -16,7 +16,9 @@
  */
 package com.aionemu.gameserver.geoEngine;
 
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.Buffer;
@@ -35,8 +37,11 @@ import org.slf4j.LoggerFactory;
 
 import com.aionemu.gameserver.configs.main.GeoDataConfig;
 import com.aionemu.gameserver.dataholders.DataManager;
+import com.aionemu.gameserver.geoEngine.bounding.BoundingBox;
 import com.aionemu.gameserver.geoEngine.bounding.BoundingVolume;
 import com.aionemu.gameserver.geoEngine.collision.CollisionIntention;
+import com.aionemu.gameserver.geoEngine.collision.bih.BIHTree;
+import com.aionemu.gameserver.geoEngine.collision.bih.MappedBIHTree;
 import com.aionemu.gameserver.geoEngine.math.Matrix3f;
 import com.aionemu.gameserver.geoEngine.math.Vector3f;
 import com.aionemu.gameserver.geoEngine.models.GeoMap;
@@ -58,109 +63,258 @@ import sun.nio.ch.DirectBuffer;
  */
 public class GeoWorldLoader {
 
-	@SuppressWarnings("unused")
 	private static final Logger log = LoggerFactory.getLogger(GeoWorldLoader.class);
 	private static String GEO_DIR = "data/geo/";
+	private static final String COMPILED_EXTENSION = ".bih";
+	private static final int COMPILED_MAGIC = 0x47424948; // GBIH
+	private static final int COMPILED_VERSION = 1;
+	private static final int COMPILED_HEADER_SIZE = 25;
 	private static boolean DEBUG = false;
 
 	public static void setDebugMod(boolean debug) {
 		DEBUG = debug;
 	}
 
-	@SuppressWarnings("resource")
 	public static Map<String, Spatial> loadMeshs(String fileName) throws IOException {
 		Map<String, Spatial> geoms = new HashMap<String, Spatial>();
-		File geoFile = new File(fileName);
-		FileChannel roChannel = null;
-		MappedByteBuffer geo = null;
-		roChannel = new RandomAccessFile(geoFile, "r").getChannel();
-		int size = (int) roChannel.size();
-		geo = roChannel.map(FileChannel.MapMode.READ_ONLY, 0, size).load();
-		geo.order(ByteOrder.LITTLE_ENDIAN);
+		MappedByteBuffer geo = mapFile(new File(fileName), true);
 		while (geo.hasRemaining()) {
-			short namelenght = geo.getShort();
-			byte[] nameByte = new byte[namelenght];
-			geo.get(nameByte);
-			String name = new String(nameByte).intern();
-			Node node = new Node(DEBUG ? name : null);
-			byte intentions = 0;
-			byte singleChildMaterialId = -1;
+			String name = readName(geo).intern();
 			int modelCount = geo.getShort();
+			Mesh[] meshes = new Mesh[modelCount];
 			for (int c = 0; c < modelCount; c++) {
-				Mesh m = new Mesh();
-
-				int vectorCount;
-				if (GeoDataConfig.GEO_MONONO2_IN_USE) {
-					vectorCount = (geo.getInt()) * 3;
-				} else {
-					vectorCount = (geo.getShort()) * 3;
-				}
-
-				ByteBuffer floatBuffer = ByteBuffer.allocateDirect(vectorCount * 4);
-				FloatBuffer vertices = floatBuffer.asFloatBuffer();
-				for (int x = 0; x < vectorCount; x++) {
-					vertices.put(geo.getFloat());
-				}
-
-				int triangles = geo.getInt();
-				ByteBuffer shortBuffer = ByteBuffer.allocateDirect(triangles * 2);
-				ShortBuffer indexes = shortBuffer.asShortBuffer();
-				for (int x = 0; x < triangles; x++) {
-					indexes.put(geo.getShort());
-				}
-
-				Geometry geom = null;
-				m.setCollisionFlags(geo.getShort());
+				Mesh m = readMesh(geo);
 				if ((m.getIntentions() & CollisionIntention.MOVEABLE.getId()) != 0) {
 					// TODO: skip moveable collisions (ships, shugo boxes), not handled yet
 					continue;
 				}
-				intentions |= m.getIntentions();
-				m.setBuffer(VertexBuffer.Type.Position, 3, vertices);
-				m.setBuffer(VertexBuffer.Type.Index, 3, indexes);
 				m.createCollisionData();
+				meshes[c] = m;
+			}
+			addModels(geoms, name, meshes);
+		}
+		destroyDirectByteBuffer(geo);
+		return geoms;
+	}
 
-				if ((intentions & CollisionIntention.DOOR.getId()) != 0
-						&& (intentions & CollisionIntention.PHYSICAL.getId()) != 0) {
-					if (!GeoDataConfig.GEO_DOORS_ENABLE) {
+	/**
+	 * Loads meshes from the precompiled file next to <tt>fileName</tt> (<tt>meshs.geo</tt> -> <tt>meshs.bih</tt>). The
+	 * precompiled file contains the built {@link BIHTree}s and stays mapped read-only, so neither vertex buffers nor
+	 * trees are kept on heap or in direct memory. The file is (re)compiled when missing or outdated.
+	 */
+	public static Map<String, Spatial> loadCompiledMeshs(String fileName) throws IOException {
+		File source = new File(fileName);
+		File compiled = new File(fileName.substring(0, fileName.lastIndexOf('.')) + COMPILED_EXTENSION);
+		if (!isCompiled(source, compiled)) {
+			long start = System.currentTimeMillis();
+			compileMeshs(source, compiled);
+			log.info("Compiled {} in {} ms", compiled.getPath(), System.currentTimeMillis() - start);
+		}
+		Map<String, Spatial> geoms = new HashMap<String, Spatial>();
+		MappedByteBuffer data = mapFile(compiled, false);
+		data.position(COMPILED_HEADER_SIZE);
+		while (data.hasRemaining()) {
+			String name = readName(data).intern();
+			int modelCount = data.getShort();
+			Mesh[] meshes = new Mesh[modelCount];
+			for (int c = 0; c < modelCount; c++) {
+				Mesh m = new Mesh();
+				m.setCollisionFlags(data.getShort());
+				if ((m.getIntentions() & CollisionIntention.MOVEABLE.getId()) != 0) {
+					continue;
+				}
+				Vector3f min = new Vector3f(data.getFloat(), data.getFloat(), data.getFloat());
+				Vector3f max = new Vector3f(data.getFloat(), data.getFloat(), data.getFloat());
+				int nodeCount = data.getInt();
+				int triangleCount = data.getInt();
+				m.setBound(new BoundingBox(min, max));
+				m.setCollisionData(new MappedBIHTree(data, data.position(), nodeCount, triangleCount));
+				m.setVertexCount(triangleCount * 3);
+				m.setTriangleCount(triangleCount);
+				data.position(data.position() + nodeCount * MappedBIHTree.NODE_SIZE
+						+ triangleCount * MappedBIHTree.TRIANGLE_SIZE);
+				meshes[c] = m;
+			}
+			addModels(geoms, name, meshes);
+		}
+		return geoms;
+	}
+
+	private static boolean isCompiled(File source, File compiled) throws IOException {
+		if (!compiled.isFile() || compiled.length() < COMPILED_HEADER_SIZE) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new FileInputStream(compiled))) {
+			return in.readInt() == COMPILED_MAGIC && in.readInt() == COMPILED_VERSION
+					&& in.readLong() == source.length() && in.readLong() == source.lastModified()
+					&& in.readBoolean() == GeoDataConfig.GEO_MONONO2_IN_USE;
+		}
+	}
+
+	/**
+	 * Converts a mesh file into the precompiled format read by {@link #loadCompiledMeshs(String)}.<br>
+	 * Header: magic, version, source length, source modification time, monono2 flag.<br>
+	 * Entries: name, model count and per model the collision flags followed (unless moveable) by the model bound,
+	 * node count, triangle count and the {@link MappedBIHTree} data.
+	 */
+	public static void compileMeshs(File source, File compiled) throws IOException {
+		MappedByteBuffer geo = mapFile(source, true);
+		File tmp = new File(compiled.getPath() + ".tmp");
+		try (RandomAccessFile out = new RandomAccessFile(tmp, "rw"); FileChannel channel = out.getChannel()) {
+			out.setLength(0);
+			// header uses big endian (DataInput) order, see isCompiled
+			ByteBuffer header = ByteBuffer.allocate(COMPILED_HEADER_SIZE);
+			header.putInt(COMPILED_MAGIC).putInt(COMPILED_VERSION).putLong(source.length())
+					.putLong(source.lastModified()).put((byte) (GeoDataConfig.GEO_MONONO2_IN_USE ? 1 : 0));
+			header.flip();
+			writeFully(channel, header);
+			while (geo.hasRemaining()) {
+				short nameLength = geo.getShort();
+				byte[] nameBytes = new byte[nameLength];
+				geo.get(nameBytes);
+				int modelCount = geo.getShort();
+				ByteBuffer entry = MappedBIHTree.allocate(4 + nameLength);
+				entry.putShort(nameLength).put(nameBytes).putShort((short) modelCount);
+				entry.flip();
+				writeFully(channel, entry);
+				for (int c = 0; c < modelCount; c++) {
+					Mesh m = readMesh(geo);
+					if ((m.getIntentions() & CollisionIntention.MOVEABLE.getId()) != 0) {
+						ByteBuffer flags = MappedBIHTree.allocate(2);
+						flags.putShort(m.getCollisionFlags()).flip();
+						writeFully(channel, flags);
 						continue;
 					}
-					geom = new DoorGeometry(name, m);
-					// what if doors have few models ?
-				} else {
-					MaterialTemplate mtl = DataManager.MATERIAL_DATA.getTemplate(m.getMaterialId());
-					geom = new Geometry(null, m);
-					if (mtl != null || m.getMaterialId() == 11) {
-						node.setName(name);
-					}
-					if (modelCount == 1) {
-						geom.setName(name);
-						singleChildMaterialId = geom.getMaterialId();
-					} else {
-						geom.setName(("child" + c + "_" + name).intern());
-					}
-					node.attachChild(geom);
+					BIHTree tree = new BIHTree(m);
+					tree.construct();
+					m.updateBound();
+					BoundingBox bound = (BoundingBox) m.getBound();
+					Vector3f min = bound.getMin(null);
+					Vector3f max = bound.getMax(null);
+					ByteBuffer model = MappedBIHTree.allocate(34 + MappedBIHTree.sizeOf(tree));
+					model.putShort(m.getCollisionFlags());
+					model.putFloat(min.x).putFloat(min.y).putFloat(min.z);
+					model.putFloat(max.x).putFloat(max.y).putFloat(max.z);
+					model.putInt(MappedBIHTree.countNodes(tree.getRoot())).putInt(tree.getTriangleCount());
+					MappedBIHTree.write(tree, model);
+					model.position(0);
+					writeFully(channel, model);
 				}
-				geoms.put(geom.getName(), geom);
 			}
-			node.setCollisionFlags((short) (intentions << 8 | singleChildMaterialId & 0xFF));
-			if (!node.getChildren().isEmpty()) {
-				geoms.put(name, node);
+		} finally {
+			destroyDirectByteBuffer(geo);
+		}
+		if (compiled.exists() && !compiled.delete()) {
+			throw new IOException("Can't replace " + compiled.getPath());
+		}
+		if (!tmp.renameTo(compiled)) {
+			throw new IOException("Can't create " + compiled.getPath());
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static MappedByteBuffer mapFile(File file, boolean preload) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel roChannel = raf.getChannel()) {
+			MappedByteBuffer buffer = roChannel.map(FileChannel.MapMode.READ_ONLY, 0, roChannel.size());
+			if (preload) {
+				buffer.load();
 			}
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return buffer;
+		}
+	}
+
+	private static String readName(ByteBuffer geo) {
+		short nameLength = geo.getShort();
+		byte[] nameByte = new byte[nameLength];
+		geo.get(nameByte);
+		return new String(nameByte);
+	}
+
+	private static Mesh readMesh(ByteBuffer geo) {
+		Mesh m = new Mesh();
+
+		int vectorCount;
+		if (GeoDataConfig.GEO_MONONO2_IN_USE) {
+			vectorCount = (geo.getInt()) * 3;
+		} else {
+			vectorCount = (geo.getShort()) * 3;
 		}
-		destroyDirectByteBuffer(geo);
-		return geoms;
 
+		ByteBuffer floatBuffer = ByteBuffer.allocateDirect(vectorCount * 4);
+		FloatBuffer vertices = floatBuffer.asFloatBuffer();
+		for (int x = 0; x < vectorCount; x++) {
+			vertices.put(geo.getFloat());
+		}
+
+		int triangles = geo.getInt();
+		ByteBuffer shortBuffer = ByteBuffer.allocateDirect(triangles * 2);
+		ShortBuffer indexes = shortBuffer.asShortBuffer();
+		for (int x = 0; x < triangles; x++) {
+			indexes.put(geo.getShort());
+		}
+
+		m.setCollisionFlags(geo.getShort());
+		m.setBuffer(VertexBuffer.Type.Position, 3, vertices);
+		m.setBuffer(VertexBuffer.Type.Index, 3, indexes);
+		return m;
+	}
+
+	/**
+	 * Creates the spatials of one mesh file entry. Moveable models are passed as null, they still count for child
+	 * names.
+	 */
+	private static void addModels(Map<String, Spatial> geoms, String name, Mesh[] meshes) {
+		Node node = new Node(DEBUG ? name : null);
+		byte intentions = 0;
+		byte singleChildMaterialId = -1;
+		int modelCount = meshes.length;
+		for (int c = 0; c < modelCount; c++) {
+			Mesh m = meshes[c];
+			if (m == null) {
+				continue;
+			}
+			Geometry geom = null;
+			intentions |= m.getIntentions();
+
+			if ((intentions & CollisionIntention.DOOR.getId()) != 0
+					&& (intentions & CollisionIntention.PHYSICAL.getId()) != 0) {
+				if (!GeoDataConfig.GEO_DOORS_ENABLE) {
+					continue;
+				}
+				geom = new DoorGeometry(name, m);
+				// what if doors have few models ?
+			} else {
+				MaterialTemplate mtl = DataManager.MATERIAL_DATA.getTemplate(m.getMaterialId());
+				geom = new Geometry(null, m);
+				if (mtl != null || m.getMaterialId() == 11) {
+					node.setName(name);
+				}
+				if (modelCount == 1) {
+					geom.setName(name);
+					singleChildMaterialId = geom.getMaterialId();
+				} else {
+					geom.setName(("child" + c + "_" + name).intern());
+				}
+				node.attachChild(geom);
+			}
+			geoms.put(geom.getName(), geom);
+		}
+		node.setCollisionFlags((short) (intentions << 8 | singleChildMaterialId & 0xFF));
+		if (!node.getChildren().isEmpty()) {
+			geoms.put(name, node);
+		}
 	}
 
-	@SuppressWarnings("resource")
 	public static boolean loadWorld(int worldId, Map<String, Spatial> models, GeoMap map) throws IOException {
-		File geoFile = new File(GEO_DIR + worldId + ".geo");
-		FileChannel roChannel = null;
-		MappedByteBuffer geo = null;
-		roChannel = new RandomAccessFile(geoFile, "r").getChannel();
-		geo = roChannel.map(FileChannel.MapMode.READ_ONLY, 0, (int) roChannel.size()).load();
-		geo.order(ByteOrder.LITTLE_ENDIAN);
+		// mapped terrain is read in place, so don't force the whole file into memory
+		boolean mapped = GeoDataConfig.GEO_MAPPED_ENABLE;
+		MappedByteBuffer geo = mapFile(new File(GEO_DIR + worldId + ".geo"), !mapped);
 
 		if (GeoDataConfig.GEO_MONONO2_IN_USE) {
 			if (geo.get() == 0) {
@@ -169,11 +323,7 @@ public class GeoWorldLoader {
 				/* int cutoutSize = */ geo.getInt();
 			} else {
 				int size = geo.getInt();
-				short[] terrainData = new short[size];
-				for (int i = 0; i < size; i++) {
-					terrainData[i] = geo.getShort();
-				}
-				map.setTerrainData(terrainData);
+				map.setTerrainData(readTerrain(geo, size, mapped));
 
 				// read list of terrain indexes to remove.
 				int cutoutSize = geo.getInt();
@@ -192,11 +342,7 @@ public class GeoWorldLoader {
 				map.setTerrainData(new short[] { geo.getShort() });
 			} else {
 				int size = geo.getInt();
-				short[] terrainData = new short[size];
-				for (int i = 0; i < size; i++) {
-					terrainData[i] = geo.getShort();
-				}
-				map.setTerrainData(terrainData);
+				map.setTerrainData(readTerrain(geo, size, mapped));
 			}
 		}
 
@@ -252,11 +398,30 @@ public class GeoWorldLoader {
 				System.out.println(t);
 			}
 		}
-		destroyDirectByteBuffer(geo);
+		if (!mapped) {
+			destroyDirectByteBuffer(geo);
+		}
 		map.updateModelBound();
 		return true;
 	}
 
+	/**
+	 * @return the heightmap as a read-only view of the mapped file, or copied to heap when mapping is disabled
+	 */
+	private static ShortBuffer readTerrain(ByteBuffer geo, int size, boolean mapped) {
+		if (mapped) {
+			ByteBuffer terrain = geo.slice().order(ByteOrder.LITTLE_ENDIAN);
+			terrain.limit(size * 2);
+			geo.position(geo.position() + size * 2);
+			return terrain.asShortBuffer();
+		}
+		short[] terrainData = new short[size];
+		for (int i = 0; i < size; i++) {
+			terrainData[i] = geo.getShort();
+		}
+		return ShortBuffer.wrap(terrainData);
+	}
+
 	private static Spatial attachChild(GeoMap map, Spatial node, Matrix3f matrix, Vector3f location, float scale) {
 		Spatial nodeClone = node;
 		try {
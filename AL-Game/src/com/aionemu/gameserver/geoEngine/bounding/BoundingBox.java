@@ -22,7 +22,6 @@ import com.aionemu.gameserver.geoEngine.collision.Collidable;
 import com.aionemu.gameserver.geoEngine.collision.CollisionResult;
 import com.aionemu.gameserver.geoEngine.collision.CollisionResults;
 import com.aionemu.gameserver.geoEngine.collision.UnsupportedCollisionException;
-import com.aionemu.gameserver.geoEngine.math.Array3f;
 import com.aionemu.gameserver.geoEngine.math.FastMath;
 import com.aionemu.gameserver.geoEngine.math.Matrix3f;
 import com.aionemu.gameserver.geoEngine.math.Matrix4f;
@@ -543,113 +542,31 @@ public class BoundingBox extends BoundingVolume {
 	 */
 	@Override
 	public boolean intersects(Ray ray) {
-		// assert Vector3f.isValidVector(center);
-
-		float rhs;
-
-		Vector3f vect1 = Vector3f.newInstance();
-		Vector3f vect2 = Vector3f.newInstance();
-		Vector3f diff = ray.origin.subtract(getCenter(vect2), vect1);
-
-		final Array3f fWdU = Array3f.newInstance();
-		final Array3f fAWdU = Array3f.newInstance();
-		final Array3f fDdU = Array3f.newInstance();
-		final Array3f fADdU = Array3f.newInstance();
-		final Array3f fAWxDdU = Array3f.newInstance();
-
-		fWdU.a = ray.getDirection().dot(Vector3f.UNIT_X);
-		fAWdU.a = FastMath.abs(fWdU.a);
-		fDdU.a = diff.dot(Vector3f.UNIT_X);
-		fADdU.a = FastMath.abs(fDdU.a);
-		if (fADdU.a > xExtent && fDdU.a * fWdU.a >= 0.0) {
-			Vector3f.recycle(vect1);
-			Vector3f.recycle(vect2);
-			Array3f.recycle(fWdU);
-			Array3f.recycle(fAWdU);
-			Array3f.recycle(fDdU);
-			Array3f.recycle(fADdU);
-			Array3f.recycle(fAWxDdU);
+		// separating axis test on plain floats, no temporary vectors
+		Vector3f dir = ray.getDirection();
+		float diffX = ray.origin.x - center.x;
+		float diffY = ray.origin.y - center.y;
+		float diffZ = ray.origin.z - center.z;
+		float absDirX = FastMath.abs(dir.x);
+		float absDirY = FastMath.abs(dir.y);
+		float absDirZ = FastMath.abs(dir.z);
+		if (FastMath.abs(diffX) > xExtent && diffX * dir.x >= 0.0) {
 			return false;
 		}
-
-		fWdU.b = ray.getDirection().dot(Vector3f.UNIT_Y);
-		fAWdU.b = FastMath.abs(fWdU.b);
-		fDdU.b = diff.dot(Vector3f.UNIT_Y);
-		fADdU.b = FastMath.abs(fDdU.b);
-		if (fADdU.b > yExtent && fDdU.b * fWdU.b >= 0.0) {
-			Vector3f.recycle(vect1);
-			Vector3f.recycle(vect2);
-			Array3f.recycle(fWdU);
-			Array3f.recycle(fAWdU);
-			Array3f.recycle(fDdU);
-			Array3f.recycle(fADdU);
-			Array3f.recycle(fAWxDdU);
+		if (FastMath.abs(diffY) > yExtent && diffY * dir.y >= 0.0) {
 			return false;
 		}
-
-		fWdU.c = ray.getDirection().dot(Vector3f.UNIT_Z);
-		fAWdU.c = FastMath.abs(fWdU.c);
-		fDdU.c = diff.dot(Vector3f.UNIT_Z);
-		fADdU.c = FastMath.abs(fDdU.c);
-		if (fADdU.c > zExtent && fDdU.c * fWdU.c >= 0.0) {
-			Vector3f.recycle(vect1);
-			Vector3f.recycle(vect2);
-			Array3f.recycle(fWdU);
-			Array3f.recycle(fAWdU);
-			Array3f.recycle(fDdU);
-			Array3f.recycle(fADdU);
-			Array3f.recycle(fAWxDdU);
+		if (FastMath.abs(diffZ) > zExtent && diffZ * dir.z >= 0.0) {
 			return false;
 		}
-
-		Vector3f wCrossD = ray.getDirection().cross(diff, vect2);
-
-		fAWxDdU.a = FastMath.abs(wCrossD.dot(Vector3f.UNIT_X));
-		rhs = yExtent * fAWdU.c + zExtent * fAWdU.b;
-		if (fAWxDdU.a > rhs) {
-			Vector3f.recycle(vect1);
-			Vector3f.recycle(vect2);
-			Array3f.recycle(fWdU);
-			Array3f.recycle(fAWdU);
-			Array3f.recycle(fDdU);
-			Array3f.recycle(fADdU);
-			Array3f.recycle(fAWxDdU);
-			return false;
-		}
-
-		fAWxDdU.b = FastMath.abs(wCrossD.dot(Vector3f.UNIT_Y));
-		rhs = xExtent * fAWdU.c + zExtent * fAWdU.a;
-		if (fAWxDdU.b > rhs) {
-			Vector3f.recycle(vect1);
-			Vector3f.recycle(vect2);
-			Array3f.recycle(fWdU);
-			Array3f.recycle(fAWdU);
-			Array3f.recycle(fDdU);
-			Array3f.recycle(fADdU);
-			Array3f.recycle(fAWxDdU);
+		// direction x diff
+		if (FastMath.abs(dir.y * diffZ - dir.z * diffY) > yExtent * absDirZ + zExtent * absDirY) {
 			return false;
 		}
-
-		fAWxDdU.c = FastMath.abs(wCrossD.dot(Vector3f.UNIT_Z));
-		rhs = xExtent * fAWdU.b + yExtent * fAWdU.a;
-		if (fAWxDdU.c > rhs) {
-			Vector3f.recycle(vect1);
-			Vector3f.recycle(vect2);
-			Array3f.recycle(fWdU);
-			Array3f.recycle(fAWdU);
-			Array3f.recycle(fDdU);
-			Array3f.recycle(fADdU);
-			Array3f.recycle(fAWxDdU);
+		if (FastMath.abs(dir.z * diffX - dir.x * diffZ) > xExtent * absDirZ + zExtent * absDirX) {
 			return false;
 		}
-		Vector3f.recycle(vect1);
-		Vector3f.recycle(vect2);
-		Array3f.recycle(fWdU);
-		Array3f.recycle(fAWdU);
-		Array3f.recycle(fDdU);
-		Array3f.recycle(fADdU);
-		Array3f.recycle(fAWxDdU);
-		return true;
+		return FastMath.abs(dir.x * diffY - dir.y * diffX) <= xExtent * absDirY + yExtent * absDirX;
 	}
 
 	/**
@@ -691,6 +608,32 @@ public class BoundingBox extends BoundingVolume {
 		return 0;
 	}
 
+	/**
+	 * Allocation free variant of {@link #collideWith(Collidable, CollisionResults)} for rays.
+	 *
+	 * @param t receives the entry distance and, if the ray leaves the box again, the exit distance
+	 * @return number of distances stored in <tt>t</tt> (0, 1 or 2)
+	 */
+	public int collideWithRay(Ray ray, float[] t) {
+		float diffX = ray.origin.x - center.x;
+		float diffY = ray.origin.y - center.y;
+		float diffZ = ray.origin.z - center.z;
+		Vector3f direction = ray.direction;
+
+		t[0] = 0f;
+		t[1] = Float.POSITIVE_INFINITY;
+
+		float saveT0 = t[0], saveT1 = t[1];
+		boolean notEntirelyClipped = clip(+direction.x, -diffX - xExtent, t) && clip(-direction.x, +diffX - xExtent, t)
+				&& clip(+direction.y, -diffY - yExtent, t) && clip(-direction.y, +diffY - yExtent, t)
+				&& clip(+direction.z, -diffZ - zExtent, t) && clip(-direction.z, +diffZ - zExtent, t);
+
+		if (notEntirelyClipped && (t[0] != saveT0 || t[1] != saveT1)) {
+			return t[1] > t[0] ? 2 : 1;
+		}
+		return 0;
+	}
+
 	@Override
 	public int collideWith(Collidable other, CollisionResults results) {
 		if (other instanceof Ray) {
@@ -20,12 +20,17 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 
+import com.aionemu.gameserver.geoEngine.math.Vector3f;
+
 public class CollisionResults implements Iterable<CollisionResult> {
 
 	private final ArrayList<CollisionResult> results = new ArrayList<CollisionResult>();
+	/** results created by {@link #addCollision(float, float, float, float)}, reused after {@link #clear()} */
+	private ArrayList<CollisionResult> pool;
+	private int poolIndex;
 	private boolean sorted = true;
-	private final boolean onlyFirst;
-	private final byte intentions;
+	private boolean onlyFirst;
+	private byte intentions;
 	private int instanceId;  // 移除final修饰符
 
 	public CollisionResults(byte intentions, boolean searchFirst, int instanceId) {
@@ -36,6 +41,18 @@ public class CollisionResults implements Iterable<CollisionResult> {
 
 	public void clear() {
 		results.clear();
+		poolIndex = 0;
+		sorted = true;
+	}
+
+	/**
+	 * Clears and reconfigures these results, so one instance can serve many queries.
+	 */
+	public void reset(byte intentions, boolean searchFirst, int instanceId) {
+		clear();
+		this.intentions = intentions;
+		this.onlyFirst = searchFirst;
+		this.instanceId = instanceId;
 	}
 
 	@Override
@@ -58,6 +75,35 @@ public class CollisionResults implements Iterable<CollisionResult> {
 		}
 	}
 
+	/**
+	 * Adds a collision without allocating once these results have been used before. The returned result, its contact
+	 * point and contact normal are owned by this instance and get reused after {@link #clear()}.
+	 *
+	 * @return the added result or null if the distance was invalid
+	 */
+	public CollisionResult addCollision(float x, float y, float z, float distance) {
+		if (Float.isNaN(distance)) {
+			return null;
+		}
+		if (pool == null) {
+			pool = new ArrayList<CollisionResult>();
+		}
+		CollisionResult result;
+		if (poolIndex < pool.size()) {
+			result = pool.get(poolIndex);
+			result.getContactPoint().set(x, y, z);
+			result.setDistance(distance);
+			result.setGeometry(null);
+		} else {
+			result = new CollisionResult(new Vector3f(x, y, z), distance);
+			result.setContactNormal(new Vector3f());
+			pool.add(result);
+		}
+		poolIndex++;
+		addCollision(result);
+		return result;
+	}
+
 	public int size() {
 		return results.size();
 	}
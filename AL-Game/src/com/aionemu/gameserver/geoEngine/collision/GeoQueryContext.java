@@ -0,0 +1,142 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.geoEngine.collision;
+
+import java.util.Arrays;
+
+import com.aionemu.gameserver.geoEngine.collision.bih.BIHNode;
+import com.aionemu.gameserver.geoEngine.math.Matrix4f;
+import com.aionemu.gameserver.geoEngine.math.Ray;
+import com.aionemu.gameserver.geoEngine.math.Vector3f;
+
+/**
+ * Reusable scratch objects for geo queries, so hot calls like getZ or canSee don't allocate vectors, rays and
+ * collision results each time.<br>
+ * Contexts are per thread and stacked: a query which runs another query (e.g. getClosestCollision calling getZ, or a
+ * ray cast going down into a BIH tree) acquires its own level. Always release in a finally block:
+ *
+ * <pre>
+ * GeoQueryContext ctx = GeoQueryContext.acquire();
+ * try {
+ * 	...
+ * } finally {
+ * 	ctx.release();
+ * }
+ * </pre>
+ *
+ * Objects obtained from a context (including collision results and their contact points) must not escape the query.
+ */
+public final class GeoQueryContext {
+
+	private static final ThreadLocal<Levels> LEVELS = new ThreadLocal<Levels>() {
+
+		@Override
+		protected Levels initialValue() {
+			return new Levels();
+		}
+	};
+
+	public final Vector3f pos = new Vector3f();
+	public final Vector3f dir = new Vector3f();
+	public final Vector3f start = new Vector3f();
+	public final Vector3f end = new Vector3f();
+	public final Vector3f terrain = new Vector3f();
+	public final Vector3f v1 = new Vector3f();
+	public final Vector3f v2 = new Vector3f();
+	public final Vector3f v3 = new Vector3f();
+	public final Vector3f origin = new Vector3f();
+	public final Vector3f direction = new Vector3f();
+	public final Ray ray = new Ray(pos, dir);
+	public final Ray worldRay = new Ray(origin, direction);
+	public final Matrix4f inverse = new Matrix4f();
+	public final float[] origins = new float[3];
+	public final float[] invDirections = new float[3];
+	public final float[] distances = new float[2];
+	public final CollisionResults results = new CollisionResults((byte) 0, false, 1);
+
+	/** BIH traversal stack, grown on demand */
+	public int[] stackIndices = new int[32];
+	public BIHNode[] stackNodes = new BIHNode[32];
+	public float[] stackMin = new float[32];
+	public float[] stackMax = new float[32];
+
+	private final Levels levels;
+
+	private GeoQueryContext(Levels levels) {
+		this.levels = levels;
+	}
+
+	public static GeoQueryContext acquire() {
+		Levels levels = LEVELS.get();
+		int level = levels.depth++;
+		if (level == levels.contexts.length) {
+			levels.contexts = Arrays.copyOf(levels.contexts, level * 2);
+		}
+		GeoQueryContext ctx = levels.contexts[level];
+		if (ctx == null) {
+			ctx = levels.contexts[level] = new GeoQueryContext(levels);
+		}
+		return ctx;
+	}
+
+	public void release() {
+		levels.depth--;
+	}
+
+	/**
+	 * Prepares {@link #ray} from (x, y, z) towards (targetX, targetY, targetZ).
+	 *
+	 * @return distance between both points
+	 */
+	public float setRay(float x, float y, float z, float targetX, float targetY, float targetZ) {
+		pos.set(x, y, z);
+		dir.set(targetX, targetY, targetZ);
+		float distance = pos.distance(dir);
+		dir.subtractLocal(pos).normalizeLocal();
+		ray.setOrigin(pos);
+		ray.setDirection(dir);
+		ray.setLimit(distance);
+		return distance;
+	}
+
+	/**
+	 * @return {@link #results}, cleared and set up for a new query
+	 */
+	public CollisionResults results(byte intentions, boolean searchFirst, int instanceId) {
+		results.reset(intentions, searchFirst, instanceId);
+		return results;
+	}
+
+	/**
+	 * Makes sure the traversal stack can hold at least <tt>size</tt> entries.
+	 */
+	public void ensureStack(int size) {
+		if (size > stackMin.length) {
+			int newSize = Math.max(size, stackMin.length * 2);
+			stackIndices = Arrays.copyOf(stackIndices, newSize);
+			stackNodes = Arrays.copyOf(stackNodes, newSize);
+			stackMin = Arrays.copyOf(stackMin, newSize);
+			stackMax = Arrays.copyOf(stackMax, newSize);
+		}
+	}
+
+	private static final class Levels {
+
+		private GeoQueryContext[] contexts = new GeoQueryContext[4];
+		private int depth;
+	}
+}
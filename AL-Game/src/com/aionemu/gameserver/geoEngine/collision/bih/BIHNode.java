@@ -21,6 +21,7 @@ import static java.lang.Math.min;
 
 import com.aionemu.gameserver.geoEngine.bounding.BoundingBox;
 import com.aionemu.gameserver.geoEngine.collision.Collidable;
+import com.aionemu.gameserver.geoEngine.collision.GeoQueryContext;
 import com.aionemu.gameserver.geoEngine.collision.CollisionResult;
 import com.aionemu.gameserver.geoEngine.collision.CollisionResults;
 import com.aionemu.gameserver.geoEngine.math.Matrix4f;
@@ -56,6 +57,22 @@ public final class BIHNode {
 	public BIHNode() {
 	}
 
+	public int getAxis() {
+		return axis;
+	}
+
+	public boolean isLeaf() {
+		return axis == 3;
+	}
+
+	public int getLeftIndex() {
+		return leftIndex;
+	}
+
+	public int getRightIndex() {
+		return rightIndex;
+	}
+
 	public BIHNode getLeftChild() {
 		return left;
 	}
@@ -220,118 +237,136 @@ public final class BIHNode {
 
 	public final int intersectWhere(Ray r, Matrix4f worldMatrix, BIHTree tree, float sceneMin, float sceneMax,
 			CollisionResults results) {
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		Vector3f o = ctx.origin.set(r.getOrigin());
+		Vector3f d = ctx.direction.set(r.getDirection());
+		try {
+			Matrix4f inv = worldMatrix.invert(ctx.inverse);
+
+			inv.mult(r.getOrigin(), r.getOrigin());
+
+			// Fixes rotation collision bug
+			inv.multNormal(r.getDirection(), r.getDirection());
+			// inv.multNormalAcross(r.getDirection(), r.getDirection());
+
+			float[] origins = ctx.origins;
+			origins[0] = r.getOrigin().x;
+			origins[1] = r.getOrigin().y;
+			origins[2] = r.getOrigin().z;
+
+			float[] invDirections = ctx.invDirections;
+			invDirections[0] = 1f / r.getDirection().x;
+			invDirections[1] = 1f / r.getDirection().y;
+			invDirections[2] = 1f / r.getDirection().z;
+
+			r.getDirection().normalizeLocal();
+
+			Vector3f v1 = ctx.v1, v2 = ctx.v2, v3 = ctx.v3;
+			int cols = 0;
+
+			BIHNode[] stackNodes = ctx.stackNodes;
+			float[] stackMin = ctx.stackMin, stackMax = ctx.stackMax;
+			int stackSize = 0;
+			stackNodes[stackSize] = this;
+			stackMin[stackSize] = sceneMin;
+			stackMax[stackSize++] = sceneMax;
+			stackloop: while (stackSize > 0) {
+
+				BIHNode node = stackNodes[--stackSize];
+				float tMin = stackMin[stackSize], tMax = stackMax[stackSize];
+
+				if (tMax < tMin) {
+					continue;
+				}
 
-		FastList<BIHStackData> stack = FastList.newInstance();
-
-		// float tHit = Float.POSITIVE_INFINITY;
-		Vector3f o = r.getOrigin().clone();
-		Vector3f d = r.getDirection().clone();
-
-		Matrix4f inv = worldMatrix.invert();
-
-		inv.mult(r.getOrigin(), r.getOrigin());
-
-		// Fixes rotation collision bug
-		inv.multNormal(r.getDirection(), r.getDirection());
-		// inv.multNormalAcross(r.getDirection(), r.getDirection());
-
-		float[] origins = { r.getOrigin().x, r.getOrigin().y, r.getOrigin().z };
-
-		float[] invDirections = { 1f / r.getDirection().x, 1f / r.getDirection().y, 1f / r.getDirection().z };
-
-		r.getDirection().normalizeLocal();
-
-		Vector3f v1 = new Vector3f(), v2 = new Vector3f(), v3 = new Vector3f();
-		int cols = 0;
-
-		stack.add(new BIHStackData(this, sceneMin, sceneMax));
-		stackloop: while (stack.size() > 0) {
-
-			BIHStackData data = stack.remove(stack.size() - 1);
-			BIHNode node = data.node;
-			float tMin = data.min, tMax = data.max;
-
-			if (tMax < tMin) {
-				continue;
-			}
-
-			while (node.axis != 3) { // while node is not a leaf
-				int a = node.axis;
-
-				// find the origin and direction value for the given axis
-				float origin = origins[a];
-				float invDirection = invDirections[a];
-
-				float tNearSplit, tFarSplit;
-				BIHNode nearNode, farNode;
-
-				tNearSplit = (node.leftPlane - origin) * invDirection;
-				tFarSplit = (node.rightPlane - origin) * invDirection;
-				nearNode = node.left;
-				farNode = node.right;
+				while (node.axis != 3) { // while node is not a leaf
+					int a = node.axis;
 
-				if (invDirection < 0) {
-					float tmpSplit = tNearSplit;
-					tNearSplit = tFarSplit;
-					tFarSplit = tmpSplit;
+					// find the origin and direction value for the given axis
+					float origin = origins[a];
+					float invDirection = invDirections[a];
 
-					BIHNode tmpNode = nearNode;
-					nearNode = farNode;
-					farNode = tmpNode;
-				}
+					float tNearSplit, tFarSplit;
+					BIHNode nearNode, farNode;
 
-				if (tMin > tNearSplit && tMax < tFarSplit) {
-					continue stackloop;
-				}
+					tNearSplit = (node.leftPlane - origin) * invDirection;
+					tFarSplit = (node.rightPlane - origin) * invDirection;
+					nearNode = node.left;
+					farNode = node.right;
 
-				if (tMin > tNearSplit) {
-					tMin = max(tMin, tFarSplit);
-					node = farNode;
-				} else if (tMax < tFarSplit) {
-					tMax = min(tMax, tNearSplit);
-					node = nearNode;
-				} else {
-					stack.add(new BIHStackData(farNode, max(tMin, tFarSplit), tMax));
-					tMax = min(tMax, tNearSplit);
-					node = nearNode;
-				}
-			}
+					if (invDirection < 0) {
+						float tmpSplit = tNearSplit;
+						tNearSplit = tFarSplit;
+						tFarSplit = tmpSplit;
 
-			// a leaf
-			for (int i = node.leftIndex; i <= node.rightIndex; i++) {
-				tree.getTriangle(i, v1, v2, v3);
+						BIHNode tmpNode = nearNode;
+						nearNode = farNode;
+						farNode = tmpNode;
+					}
 
-				float t = r.intersects(v1, v2, v3);
-				if (!Float.isInfinite(t)) {
-					if (worldMatrix != null) {
-						worldMatrix.mult(v1, v1);
-						worldMatrix.mult(v2, v2);
-						worldMatrix.mult(v3, v3);
-						float t_world = new Ray(o, d).intersects(v1, v2, v3);
-						t = t_world;
+					if (tMin > tNearSplit && tMax < tFarSplit) {
+						continue stackloop;
 					}
 
-					Vector3f contactNormal = Triangle.computeTriangleNormal(v1, v2, v3, null);
-					Vector3f contactPoint = new Vector3f(d).multLocal(t).addLocal(o);
-					float worldSpaceDist = o.distance(contactPoint);
-					// fix invisible walls
-					if (worldSpaceDist > r.limit) {
-						continue;
+					if (tMin > tNearSplit) {
+						tMin = max(tMin, tFarSplit);
+						node = farNode;
+					} else if (tMax < tFarSplit) {
+						tMax = min(tMax, tNearSplit);
+						node = nearNode;
+					} else {
+						if (stackSize == stackNodes.length) {
+							ctx.ensureStack(stackSize + 1);
+							stackNodes = ctx.stackNodes;
+							stackMin = ctx.stackMin;
+							stackMax = ctx.stackMax;
+						}
+						stackNodes[stackSize] = farNode;
+						stackMin[stackSize] = max(tMin, tFarSplit);
+						stackMax[stackSize++] = tMax;
+						tMax = min(tMax, tNearSplit);
+						node = nearNode;
 					}
-					CollisionResult cr = new CollisionResult(contactPoint, worldSpaceDist);
-					cr.setContactNormal(contactNormal);
-					results.addCollision(cr);
-					if (results.isOnlyFirst()) {
-						return 1;
+				}
+
+				// a leaf
+				for (int i = node.leftIndex; i <= node.rightIndex; i++) {
+					tree.getTriangle(i, v1, v2, v3);
+
+					float t = r.intersects(v1, v2, v3);
+					if (!Float.isInfinite(t)) {
+						if (worldMatrix != null) {
+							worldMatrix.mult(v1, v1);
+							worldMatrix.mult(v2, v2);
+							worldMatrix.mult(v3, v3);
+							t = ctx.worldRay.intersects(v1, v2, v3);
+						}
+
+						float cx = d.x * t + o.x;
+						float cy = d.y * t + o.y;
+						float cz = d.z * t + o.z;
+						float dx = cx - o.x, dy = cy - o.y, dz = cz - o.z;
+						float worldSpaceDist = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+						// fix invisible walls
+						if (worldSpaceDist > r.limit) {
+							continue;
+						}
+						CollisionResult cr = results.addCollision(cx, cy, cz, worldSpaceDist);
+						if (cr != null) {
+							Triangle.computeTriangleNormal(v1, v2, v3, cr.getContactNormal());
+						}
+						if (results.isOnlyFirst()) {
+							return 1;
+						}
+						cols++;
 					}
-					cols++;
 				}
 			}
+			return cols;
+		} finally {
+			r.getOrigin().set(o);
+			r.getDirection().set(d);
+			ctx.release();
 		}
-
-		r.setOrigin(o);
-		r.setDirection(d);
-		FastList.recycle(stack);
-		return cols;
 	}
 }
\ No newline at end of file
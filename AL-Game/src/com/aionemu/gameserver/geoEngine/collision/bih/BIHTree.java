@@ -23,6 +23,7 @@ import java.nio.FloatBuffer;
 import com.aionemu.gameserver.geoEngine.bounding.BoundingBox;
 import com.aionemu.gameserver.geoEngine.bounding.BoundingVolume;
 import com.aionemu.gameserver.geoEngine.collision.Collidable;
+import com.aionemu.gameserver.geoEngine.collision.GeoQueryContext;
 import com.aionemu.gameserver.geoEngine.collision.CollisionResults;
 import com.aionemu.gameserver.geoEngine.collision.UnsupportedCollisionException;
 import com.aionemu.gameserver.geoEngine.math.FastMath;
@@ -132,6 +133,14 @@ public class BIHTree implements CollisionData {
 		return bbox;
 	}
 
+	public BIHNode getRoot() {
+		return root;
+	}
+
+	public int getTriangleCount() {
+		return numTris;
+	}
+
 	int getTriangleIndex(int triIndex) {
 		return triIndices[triIndex];
 	}
@@ -365,31 +374,59 @@ public class BIHTree implements CollisionData {
 	}
 
 	private int collideWithRay(Ray r, Matrix4f worldMatrix, BoundingVolume worldBound, CollisionResults results) {
-
-		CollisionResults boundResults = new CollisionResults(results.getIntentions(), results.isOnlyFirst(),
-				results.getInstanceId());
-		worldBound.collideWith(r, boundResults);
-		if (boundResults.size() > 0) {
-			float tMin = boundResults.getClosestCollision().getDistance();
-			float tMax = boundResults.getFarthestCollision().getDistance();
-
-			if (tMax <= 0) {
-				tMax = Float.POSITIVE_INFINITY;
-			} else if (tMin == tMax) {
-				tMin = 0;
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			if (!rayBounds(r, worldBound, results, ctx.distances)) {
+				return 0;
 			}
+			// return root.intersectBrute(r, worldMatrix, this, tMin, tMax, results);
+			return root.intersectWhere(r, worldMatrix, this, ctx.distances[0], ctx.distances[1], results);
+		} finally {
+			ctx.release();
+		}
+	}
 
-			if (tMin <= 0) {
-				tMin = 0;
+	/**
+	 * Computes the ray interval [tMin, tMax] inside the world bound of a mesh.
+	 *
+	 * @return false if the ray misses the bound
+	 */
+	static boolean rayBounds(Ray r, BoundingVolume worldBound, CollisionResults results, float[] t) {
+		float tMin, tMax;
+		if (worldBound instanceof BoundingBox) {
+			int hits = ((BoundingBox) worldBound).collideWithRay(r, t);
+			if (hits == 0 || Float.isNaN(t[0]) || hits == 2 && Float.isNaN(t[1])) {
+				return false;
 			}
-
-			if (r.getLimit() < Float.POSITIVE_INFINITY) {
-				tMax = Math.min(tMax, r.getLimit());
+			tMin = t[0];
+			tMax = hits == 2 ? t[1] : t[0];
+		} else {
+			CollisionResults boundResults = new CollisionResults(results.getIntentions(), results.isOnlyFirst(),
+					results.getInstanceId());
+			worldBound.collideWith(r, boundResults);
+			if (boundResults.size() == 0) {
+				return false;
 			}
-			// return root.intersectBrute(r, worldMatrix, this, tMin, tMax, results);
-			return root.intersectWhere(r, worldMatrix, this, tMin, tMax, results);
+			tMin = boundResults.getClosestCollision().getDistance();
+			tMax = boundResults.getFarthestCollision().getDistance();
+		}
+
+		if (tMax <= 0) {
+			tMax = Float.POSITIVE_INFINITY;
+		} else if (tMin == tMax) {
+			tMin = 0;
+		}
+
+		if (tMin <= 0) {
+			tMin = 0;
+		}
+
+		if (r.getLimit() < Float.POSITIVE_INFINITY) {
+			tMax = Math.min(tMax, r.getLimit());
 		}
-		return 0;
+		t[0] = tMin;
+		t[1] = tMax;
+		return true;
 	}
 
 	private int collideWithBoundingVolume(BoundingVolume bv, Matrix4f worldMatrix, CollisionResults results) {
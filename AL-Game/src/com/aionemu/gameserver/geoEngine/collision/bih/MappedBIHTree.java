@@ -0,0 +1,305 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.geoEngine.collision.bih;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.aionemu.gameserver.geoEngine.bounding.BoundingBox;
+import com.aionemu.gameserver.geoEngine.bounding.BoundingVolume;
+import com.aionemu.gameserver.geoEngine.collision.Collidable;
+import com.aionemu.gameserver.geoEngine.collision.CollisionResult;
+import com.aionemu.gameserver.geoEngine.collision.CollisionResults;
+import com.aionemu.gameserver.geoEngine.collision.GeoQueryContext;
+import com.aionemu.gameserver.geoEngine.collision.UnsupportedCollisionException;
+import com.aionemu.gameserver.geoEngine.math.Matrix4f;
+import com.aionemu.gameserver.geoEngine.math.Ray;
+import com.aionemu.gameserver.geoEngine.math.Triangle;
+import com.aionemu.gameserver.geoEngine.math.Vector3f;
+import com.aionemu.gameserver.geoEngine.scene.CollisionData;
+
+/**
+ * Read-only {@link BIHTree} backed by a precompiled, memory-mapped buffer.<br>
+ * Nodes are stored in pre-order, {@value #NODE_SIZE} bytes each:
+ * <ul>
+ * <li>inner node: axis, left plane, right plane, index of the right child (the left child always follows its parent)</li>
+ * <li>leaf: 3, first triangle, last triangle, unused</li>
+ * </ul>
+ * Triangles follow the nodes, already sorted in tree order, as 9 floats each. All reads use absolute positions, so one
+ * buffer can be shared by every thread and every placement of the mesh.
+ */
+public final class MappedBIHTree implements CollisionData {
+
+	public static final int NODE_SIZE = 16;
+	public static final int TRIANGLE_SIZE = 36;
+	private static final int LEAF = 3;
+
+	private final ByteBuffer data;
+	private final int nodeOffset;
+	private final int triangleOffset;
+	private final int numTris;
+
+	public MappedBIHTree(ByteBuffer data, int offset, int nodeCount, int triangleCount) {
+		this.data = data;
+		this.nodeOffset = offset;
+		this.triangleOffset = offset + nodeCount * NODE_SIZE;
+		this.numTris = triangleCount;
+	}
+
+	/**
+	 * @return number of bytes {@link #write(BIHTree, ByteBuffer)} will produce for the given tree
+	 */
+	public static int sizeOf(BIHTree tree) {
+		return countNodes(tree.getRoot()) * NODE_SIZE + tree.getTriangleCount() * TRIANGLE_SIZE;
+	}
+
+	public static int countNodes(BIHNode node) {
+		if (node.isLeaf()) {
+			return 1;
+		}
+		return 1 + countNodes(node.getLeftChild()) + countNodes(node.getRightChild());
+	}
+
+	/**
+	 * Writes nodes and triangles of a constructed tree at the current position of a little endian buffer.
+	 */
+	public static void write(BIHTree tree, ByteBuffer out) {
+		int start = out.position();
+		int nodeCount = writeNode(tree.getRoot(), out, start, 0);
+		out.position(start + nodeCount * NODE_SIZE);
+		Vector3f v1 = new Vector3f(), v2 = new Vector3f(), v3 = new Vector3f();
+		for (int i = 0; i < tree.getTriangleCount(); i++) {
+			tree.getTriangle(i, v1, v2, v3);
+			out.putFloat(v1.x).putFloat(v1.y).putFloat(v1.z);
+			out.putFloat(v2.x).putFloat(v2.y).putFloat(v2.z);
+			out.putFloat(v3.x).putFloat(v3.y).putFloat(v3.z);
+		}
+	}
+
+	private static int writeNode(BIHNode node, ByteBuffer out, int start, int index) {
+		int pos = start + index * NODE_SIZE;
+		if (node.isLeaf()) {
+			out.putInt(pos, LEAF);
+			out.putInt(pos + 4, node.getLeftIndex());
+			out.putInt(pos + 8, node.getRightIndex());
+			out.putInt(pos + 12, 0);
+			return index + 1;
+		}
+		out.putInt(pos, node.getAxis());
+		out.putFloat(pos + 4, node.getLeftPlane());
+		out.putFloat(pos + 8, node.getRightPlane());
+		int rightIndex = writeNode(node.getLeftChild(), out, start, index + 1);
+		out.putInt(pos + 12, rightIndex);
+		return writeNode(node.getRightChild(), out, start, rightIndex);
+	}
+
+	public static ByteBuffer allocate(int size) {
+		return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	public int getTriangleCount() {
+		return numTris;
+	}
+
+	public void getTriangle(int index, Vector3f v1, Vector3f v2, Vector3f v3) {
+		int pos = triangleOffset + index * TRIANGLE_SIZE;
+		v1.x = data.getFloat(pos);
+		v1.y = data.getFloat(pos + 4);
+		v1.z = data.getFloat(pos + 8);
+		v2.x = data.getFloat(pos + 12);
+		v2.y = data.getFloat(pos + 16);
+		v2.z = data.getFloat(pos + 20);
+		v3.x = data.getFloat(pos + 24);
+		v3.y = data.getFloat(pos + 28);
+		v3.z = data.getFloat(pos + 32);
+	}
+
+	/**
+	 * Computes the model space bound of all triangles.
+	 */
+	public BoundingBox computeBound() {
+		Vector3f minV = new Vector3f(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+		Vector3f maxV = new Vector3f(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+		Vector3f v1 = new Vector3f(), v2 = new Vector3f(), v3 = new Vector3f();
+		for (int i = 0; i < numTris; i++) {
+			getTriangle(i, v1, v2, v3);
+			BoundingBox.checkMinMax(minV, maxV, v1);
+			BoundingBox.checkMinMax(minV, maxV, v2);
+			BoundingBox.checkMinMax(minV, maxV, v3);
+		}
+		return new BoundingBox(minV, maxV);
+	}
+
+	@Override
+	public int collideWith(Collidable other, Matrix4f worldMatrix, BoundingVolume worldBound,
+			CollisionResults results) {
+		if (other instanceof Ray) {
+			return collideWithRay((Ray) other, worldMatrix, worldBound, results);
+		} else if (other instanceof BoundingBox) {
+			// same as BIHNode box traversal, which never reports triangle contacts
+			return 0;
+		} else {
+			throw new UnsupportedCollisionException();
+		}
+	}
+
+	private int collideWithRay(Ray r, Matrix4f worldMatrix, BoundingVolume worldBound, CollisionResults results) {
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			if (!BIHTree.rayBounds(r, worldBound, results, ctx.distances)) {
+				return 0;
+			}
+			return intersectWhere(ctx, r, worldMatrix, ctx.distances[0], ctx.distances[1], results);
+		} finally {
+			ctx.release();
+		}
+	}
+
+	/**
+	 * Port of {@link BIHNode#intersectWhere(Ray, Matrix4f, BIHTree, float, float, CollisionResults)} working on node
+	 * indices instead of node objects.
+	 */
+	private int intersectWhere(GeoQueryContext ctx, Ray r, Matrix4f worldMatrix, float sceneMin, float sceneMax,
+			CollisionResults results) {
+		Vector3f o = ctx.origin.set(r.getOrigin());
+		Vector3f d = ctx.direction.set(r.getDirection());
+		try {
+			Matrix4f inv = worldMatrix.invert(ctx.inverse);
+			inv.mult(r.getOrigin(), r.getOrigin());
+			inv.multNormal(r.getDirection(), r.getDirection());
+
+			float[] origins = ctx.origins;
+			origins[0] = r.getOrigin().x;
+			origins[1] = r.getOrigin().y;
+			origins[2] = r.getOrigin().z;
+
+			float[] invDirections = ctx.invDirections;
+			invDirections[0] = 1f / r.getDirection().x;
+			invDirections[1] = 1f / r.getDirection().y;
+			invDirections[2] = 1f / r.getDirection().z;
+
+			r.getDirection().normalizeLocal();
+
+			Vector3f v1 = ctx.v1, v2 = ctx.v2, v3 = ctx.v3;
+			int cols = 0;
+
+			int[] stackNodes = ctx.stackIndices;
+			float[] stackMin = ctx.stackMin, stackMax = ctx.stackMax;
+			int stackSize = 0;
+			stackNodes[stackSize] = 0;
+			stackMin[stackSize] = sceneMin;
+			stackMax[stackSize++] = sceneMax;
+
+			stackloop: while (stackSize > 0) {
+				stackSize--;
+				int node = stackNodes[stackSize];
+				float tMin = stackMin[stackSize], tMax = stackMax[stackSize];
+
+				if (tMax < tMin) {
+					continue;
+				}
+
+				int pos = nodeOffset + node * NODE_SIZE;
+				int a;
+				while ((a = data.getInt(pos)) != LEAF) {
+					float origin = origins[a];
+					float invDirection = invDirections[a];
+
+					float tNearSplit = (data.getFloat(pos + 4) - origin) * invDirection;
+					float tFarSplit = (data.getFloat(pos + 8) - origin) * invDirection;
+					int nearNode = node + 1;
+					int farNode = data.getInt(pos + 12);
+
+					if (invDirection < 0) {
+						float tmpSplit = tNearSplit;
+						tNearSplit = tFarSplit;
+						tFarSplit = tmpSplit;
+
+						int tmpNode = nearNode;
+						nearNode = farNode;
+						farNode = tmpNode;
+					}
+
+					if (tMin > tNearSplit && tMax < tFarSplit) {
+						continue stackloop;
+					}
+
+					if (tMin > tNearSplit) {
+						tMin = max(tMin, tFarSplit);
+						node = farNode;
+					} else if (tMax < tFarSplit) {
+						tMax = min(tMax, tNearSplit);
+						node = nearNode;
+					} else {
+						if (stackSize == stackNodes.length) {
+							ctx.ensureStack(stackSize + 1);
+							stackNodes = ctx.stackIndices;
+							stackMin = ctx.stackMin;
+							stackMax = ctx.stackMax;
+						}
+						stackNodes[stackSize] = farNode;
+						stackMin[stackSize] = max(tMin, tFarSplit);
+						stackMax[stackSize++] = tMax;
+						tMax = min(tMax, tNearSplit);
+						node = nearNode;
+					}
+					pos = nodeOffset + node * NODE_SIZE;
+				}
+
+				// a leaf
+				for (int i = data.getInt(pos + 4), last = data.getInt(pos + 8); i <= last; i++) {
+					getTriangle(i, v1, v2, v3);
+
+					float t = r.intersects(v1, v2, v3);
+					if (!Float.isInfinite(t)) {
+						if (worldMatrix != null) {
+							worldMatrix.mult(v1, v1);
+							worldMatrix.mult(v2, v2);
+							worldMatrix.mult(v3, v3);
+							t = ctx.worldRay.intersects(v1, v2, v3);
+						}
+
+						float cx = d.x * t + o.x;
+						float cy = d.y * t + o.y;
+						float cz = d.z * t + o.z;
+						float dx = cx - o.x, dy = cy - o.y, dz = cz - o.z;
+						float worldSpaceDist = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+						// fix invisible walls
+						if (worldSpaceDist > r.limit) {
+							continue;
+						}
+						CollisionResult cr = results.addCollision(cx, cy, cz, worldSpaceDist);
+						if (cr != null) {
+							Triangle.computeTriangleNormal(v1, v2, v3, cr.getContactNormal());
+						}
+						if (results.isOnlyFirst()) {
+							return 1;
+						}
+						cols++;
+					}
+				}
+			}
+			return cols;
+		} finally {
+			r.getOrigin().set(o);
+			r.getDirection().set(d);
+		}
+	}
+}
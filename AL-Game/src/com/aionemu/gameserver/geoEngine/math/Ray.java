@@ -41,18 +41,21 @@ public final class Ray implements Cloneable, Collidable {
 	}
 
 	private boolean intersects(Vector3f v0, Vector3f v1, Vector3f v2, Vector3f store, boolean doPlanar, boolean quad) {
-		float diffDotNorm;
-		float dirDotEdge1xDiff;
+		// same math as intersects(v0, v1, v2) on plain floats, no temporary vectors
 		float sign;
-		Vector3f edge2;
-		Vector3f tempVa = Vector3f.newInstance();
-		Vector3f tempVb = Vector3f.newInstance();
-		Vector3f tempVc = Vector3f.newInstance();
-		Vector3f tempVd = Vector3f.newInstance();
-		Vector3f diff = this.origin.subtract(v0, tempVa);
-		Vector3f edge1 = v1.subtract(v0, tempVb);
-		Vector3f norm = edge1.cross(edge2 = v2.subtract(v0, tempVc), tempVd);
-		float dirDotNorm = this.direction.dot(norm);
+		float edge1X = v1.x - v0.x;
+		float edge1Y = v1.y - v0.y;
+		float edge1Z = v1.z - v0.z;
+		float edge2X = v2.x - v0.x;
+		float edge2Y = v2.y - v0.y;
+		float edge2Z = v2.z - v0.z;
+		float normX = edge1Y * edge2Z - edge1Z * edge2Y;
+		float normY = edge1Z * edge2X - edge1X * edge2Z;
+		float normZ = edge1X * edge2Y - edge1Y * edge2X;
+		float dirDotNorm = this.direction.x * normX + this.direction.y * normY + this.direction.z * normZ;
+		float diffX = this.origin.x - v0.x;
+		float diffY = this.origin.y - v0.y;
+		float diffZ = this.origin.z - v0.z;
 		if (dirDotNorm > 1.1920929E-7f) {
 			sign = 1.0f;
 		} else if (dirDotNorm < -1.1920929E-7f) {
@@ -61,33 +64,34 @@ public final class Ray implements Cloneable, Collidable {
 		} else {
 			return false;
 		}
-		float dirDotDiffxEdge2 = sign * this.direction.dot(diff.cross(edge2, edge2));
-		if (dirDotDiffxEdge2 >= 0.0f && (dirDotEdge1xDiff = sign * this.direction.dot(edge1.crossLocal(diff))) >= 0.0f
-				&& (!quad ? dirDotDiffxEdge2 + dirDotEdge1xDiff <= dirDotNorm : dirDotEdge1xDiff <= dirDotNorm)
-				&& (diffDotNorm = -sign * diff.dot(norm)) >= 0.0f) {
-			Vector3f.recycle(tempVa);
-			Vector3f.recycle(tempVb);
-			Vector3f.recycle(tempVc);
-			Vector3f.recycle(tempVd);
-			if (store == null) {
-				return true;
-			}
-			float inv = 1.0f / dirDotNorm;
-			float t = diffDotNorm * inv;
-			if (!doPlanar) {
-				store.set(this.origin).addLocal(this.direction.x * t, this.direction.y * t, this.direction.z * t);
-			} else {
-				float w1 = dirDotDiffxEdge2 * inv;
-				float w2 = dirDotEdge1xDiff * inv;
-				store.set(t, w1, w2);
-			}
+		float dirDotDiffxEdge2 = sign * (this.direction.x * (diffY * edge2Z - diffZ * edge2Y)
+				+ this.direction.y * (diffZ * edge2X - diffX * edge2Z) + this.direction.z * (diffX * edge2Y - diffY * edge2X));
+		if (dirDotDiffxEdge2 < 0.0f) {
+			return false;
+		}
+		float dirDotEdge1xDiff = sign * (this.direction.x * (edge1Y * diffZ - edge1Z * diffY)
+				+ this.direction.y * (edge1Z * diffX - edge1X * diffZ) + this.direction.z * (edge1X * diffY - edge1Y * diffX));
+		if (dirDotEdge1xDiff < 0.0f
+				|| (!quad ? dirDotDiffxEdge2 + dirDotEdge1xDiff > dirDotNorm : dirDotEdge1xDiff > dirDotNorm)) {
+			return false;
+		}
+		float diffDotNorm = -sign * (diffX * normX + diffY * normY + diffZ * normZ);
+		if (diffDotNorm < 0.0f) {
+			return false;
+		}
+		if (store == null) {
 			return true;
 		}
-		Vector3f.recycle(tempVa);
-		Vector3f.recycle(tempVb);
-		Vector3f.recycle(tempVc);
-		Vector3f.recycle(tempVd);
-		return false;
+		float inv = 1.0f / dirDotNorm;
+		float t = diffDotNorm * inv;
+		if (!doPlanar) {
+			store.set(this.origin).addLocal(this.direction.x * t, this.direction.y * t, this.direction.z * t);
+		} else {
+			float w1 = dirDotDiffxEdge2 * inv;
+			float w2 = dirDotEdge1xDiff * inv;
+			store.set(t, w1, w2);
+		}
+		return true;
 	}
 
 	public float intersects(Vector3f v0, Vector3f v1, Vector3f v2) {
@@ -0,0 +1,409 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.geoEngine.models;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.aionemu.gameserver.geoEngine.collision.CollisionIntention;
+import com.aionemu.gameserver.geoEngine.collision.CollisionResult;
+import com.aionemu.gameserver.geoEngine.collision.CollisionResults;
+import com.aionemu.gameserver.geoEngine.collision.GeoQueryContext;
+import com.aionemu.gameserver.geoEngine.math.Ray;
+import com.aionemu.gameserver.geoEngine.math.Vector3f;
+
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+/**
+ * Off-heap cache of mesh floor layers, so ground height queries don't need a BIH ray cast each time.<br>
+ * Maps are split into cells of 1x1m grouped in tiles of 16x16 cells. Each cell holds up to {@link #MAX_LAYERS}
+ * surfaces (bridges, cave floors, roofs...) found by a vertical ray cast through the cell center, stored as planes so
+ * the height can be interpolated anywhere in the cell. Cells are filled lazily on first query, tiles are evicted in
+ * LRU order once the cache is full. Terrain heightmaps are not cached, they are cheap to look up.<br>
+ * Tiles are spread by key over independently locked segments, each owning its share of the slab slots and its own
+ * LRU list, so concurrent lookups only contend when they hit the same segment. Eviction is LRU per segment.<br>
+ * Door states are per instance, so tiles are too; {@link #invalidate} drops the tiles covered by a door when it
+ * changes state.
+ */
+public final class GeoHeightCache {
+
+	/** Max number of surfaces per cell, cells with more are always ray cast */
+	public static final int MAX_LAYERS = 6;
+	private static final int TILE_SHIFT = 4;
+	private static final int TILE_CELLS = 1 << TILE_SHIFT;
+	private static final int TILE_MASK = TILE_CELLS - 1;
+	private static final int CELLS = TILE_CELLS * TILE_CELLS;
+	private static final int LAYER_SIZE = 12;
+	private static final int TILE_SIZE = CELLS + CELLS * MAX_LAYERS * LAYER_SIZE;
+
+	private static final byte CELL_EMPTY = 0;
+	private static final byte CELL_OVERFLOW = (byte) 0xFF;
+
+	/** Vertical extent of the column ray cast */
+	private static final float COLUMN_TOP = 4100f;
+	private static final float COLUMN_BOTTOM = -100f;
+	/** Surfaces closer than this to a query bound are ray cast, since their plane is only an approximation */
+	private static final float LAYER_MARGIN = 0.5f;
+	/** Steeper surfaces (walls, slopes) are not cached */
+	private static final float MIN_NORMAL_Z = 0.2f;
+	/** Offset of the validation samples from the cell center and their max deviation from the cached planes */
+	private static final float CORNER = 0.49f;
+	private static final float MAX_ERROR = 0.05f;
+
+	/** Returned by {@link #getMeshZ} when no surface lies in the queried range */
+	public static final float NO_LAYER = Float.NEGATIVE_INFINITY;
+
+	/** Default number of lock segments, lowered for caches with fewer tiles */
+	private static final int SEGMENTS = 16;
+	/** Number of invalidation generation stripes per segment, tiles are spread over them by key */
+	private static final int GENERATIONS = 256;
+
+	private final ByteBuffer slab;
+	private final Segment[] segments;
+	private final int maxTiles;
+	private int nextMapId;
+
+	public GeoHeightCache(int maxTiles) {
+		this(maxTiles, SEGMENTS);
+	}
+
+	GeoHeightCache(int maxTiles, int segmentCount) {
+		int count = Integer.highestOneBit(Math.max(1, Math.min(segmentCount, maxTiles)));
+		this.maxTiles = maxTiles;
+		slab = ByteBuffer.allocateDirect(maxTiles * TILE_SIZE).order(ByteOrder.nativeOrder());
+		segments = new Segment[count];
+		for (int i = 0, first = 0; i < count; i++) {
+			int size = maxTiles / count + (i < maxTiles % count ? 1 : 0);
+			segments[i] = new Segment(first, size);
+			first += size;
+		}
+	}
+
+	/**
+	 * @return id of the map in this cache
+	 */
+	public synchronized int register() {
+		if (nextMapId == 0xFFF) {
+			throw new IllegalStateException("Too many geo maps for the height cache");
+		}
+		return nextMapId++;
+	}
+
+	/**
+	 * Returns the highest cached mesh surface between bottom and top at (x, y).
+	 *
+	 * @return the surface height, {@link #NO_LAYER} if there's no surface in range or NaN if the caller has to ray cast
+	 */
+	public float getMeshZ(GeoMap map, int mapId, float x, float y, float top, float bottom, int instanceId) {
+		if (x < 0 || y < 0 || top > COLUMN_TOP || bottom < COLUMN_BOTTOM || (instanceId & ~0xFFFFF) != 0) {
+			return Float.NaN;
+		}
+		int cellX = (int) x;
+		int cellY = (int) y;
+		if ((cellX >> TILE_SHIFT) > 0xFFFF || (cellY >> TILE_SHIFT) > 0xFFFF) {
+			return Float.NaN;
+		}
+		long key = key(mapId, instanceId, cellX >> TILE_SHIFT, cellY >> TILE_SHIFT);
+		Segment segment = segmentFor(key);
+		int cell = (cellY & TILE_MASK) << TILE_SHIFT | (cellX & TILE_MASK);
+		float z = segment.lookup(key, cell, x - cellX - 0.5f, y - cellY - 0.5f, top, bottom);
+		if (z != z && !segment.filled(key, cell)) {
+			fill(map, segment, key, cell, cellX + 0.5f, cellY + 0.5f, instanceId);
+			z = segment.lookup(key, cell, x - cellX - 0.5f, y - cellY - 0.5f, top, bottom);
+		}
+		return z;
+	}
+
+	/**
+	 * Casts a ray through the whole column of the cell and stores every surface it hits. Cells whose planes don't
+	 * match the surfaces at the cell corners (edges, several triangles) are marked to be always ray cast. The ray
+	 * casts run unlocked, only storing the layers locks the segment.
+	 */
+	private void fill(GeoMap map, Segment segment, long key, int cell, float x, float y, int instanceId) {
+		int generation = segment.generation(key);
+		float[] layers = new float[MAX_LAYERS * 3];
+		float[] corner = new float[MAX_LAYERS * 3];
+		int count = castColumn(map, x, y, instanceId, layers);
+		for (int i = 0; i < 4 && count >= 0; i++) {
+			float dx = (i & 1) == 0 ? -CORNER : CORNER;
+			float dy = (i & 2) == 0 ? -CORNER : CORNER;
+			if (castColumn(map, x + dx, y + dy, instanceId, corner) != count) {
+				count = -1;
+				break;
+			}
+			for (int l = 0; l < count; l++) {
+				float z = layers[l * 3] + layers[l * 3 + 1] * dx + layers[l * 3 + 2] * dy;
+				if (Math.abs(z - corner[l * 3]) > MAX_ERROR) {
+					count = -1;
+					break;
+				}
+			}
+		}
+		segment.store(key, cell, count < 0 ? CELL_OVERFLOW : (byte) (count + 1), layers, generation);
+	}
+
+	private Segment segmentFor(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return segments[(int) (h >>> 32) & (segments.length - 1)];
+	}
+
+	private static int stripe(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h >>> 56) & (GENERATIONS - 1);
+	}
+
+	/**
+	 * @return number of surfaces stored in layers (top down), -1 if the column can't be cached
+	 */
+	private static int castColumn(GeoMap map, float x, float y, int instanceId, float[] layers) {
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			CollisionResults results = ctx.results(CollisionIntention.PHYSICAL.getId(), false, instanceId);
+			ctx.setRay(x, y, COLUMN_TOP, x, y, COLUMN_BOTTOM);
+			Ray r = ctx.ray;
+			map.collideWith(r, results);
+			int count = results.size();
+			if (count > MAX_LAYERS) {
+				return -1;
+			}
+			int i = 0;
+			for (CollisionResult result : results) {
+				Vector3f normal = result.getContactNormal();
+				float gx = 0, gy = 0;
+				if (normal != null && !(normal.x == 0 && normal.y == 0 && normal.z == 0)) {
+					if (Math.abs(normal.z) < MIN_NORMAL_Z) {
+						return -1;
+					}
+					gx = -normal.x / normal.z;
+					gy = -normal.y / normal.z;
+				}
+				layers[i * 3] = result.getContactPoint().z;
+				layers[i * 3 + 1] = gx;
+				layers[i * 3 + 2] = gy;
+				i++;
+			}
+			return count;
+		} finally {
+			ctx.release();
+		}
+	}
+
+	/**
+	 * Drops all tiles of the given map instance overlapping the area.
+	 */
+	public void invalidate(int mapId, int instanceId, float minX, float minY, float maxX, float maxY) {
+		int fromX = Math.max(0, (int) minX >> TILE_SHIFT);
+		int fromY = Math.max(0, (int) minY >> TILE_SHIFT);
+		int toX = Math.min(0xFFFF, (int) maxX >> TILE_SHIFT);
+		int toY = Math.min(0xFFFF, (int) maxY >> TILE_SHIFT);
+		for (int tileX = fromX; tileX <= toX; tileX++) {
+			for (int tileY = fromY; tileY <= toY; tileY++) {
+				long key = key(mapId, instanceId, tileX, tileY);
+				segmentFor(key).invalidate(key);
+			}
+		}
+	}
+
+	private static long key(int mapId, int instanceId, int tileX, int tileY) {
+		return (long) mapId << 52 | (long) (instanceId & 0xFFFFF) << 32 | (long) tileX << 16 | tileY;
+	}
+
+	public int getMaxTiles() {
+		return maxTiles;
+	}
+
+	int getSegmentCount() {
+		return segments.length;
+	}
+
+	@Override
+	public String toString() {
+		int size = 0;
+		long hits = 0, misses = 0, fallbacks = 0, evictions = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.tiles.size();
+				hits += segment.hits;
+				misses += segment.misses;
+				fallbacks += segment.fallbacks;
+				evictions += segment.evictions;
+			}
+		}
+		return "GeoHeightCache [tiles=" + size + "/" + maxTiles + ", segments=" + segments.length + ", hits=" + hits
+				+ ", misses=" + misses + ", fallbacks=" + fallbacks + ", evictions=" + evictions + "]";
+	}
+
+	/**
+	 * Part of the cache guarded by its own monitor. The slab is shared, but a segment only ever touches the slots it
+	 * owns.
+	 */
+	private final class Segment {
+
+		private final TLongObjectHashMap<Tile> tiles;
+		private final int[] freeSlots;
+		private int freeCount;
+		/**
+		 * Bumped by {@link #invalidate} for every tile it covers. A fill snapshots the stripe of its tile before the
+		 * unlocked ray cast and {@link #store} drops the result if it moved, so an invalidation can't be overwritten
+		 * by a ray cast that saw the old state.
+		 */
+		private final int[] generations = new int[GENERATIONS];
+		/** LRU list, head is the most recently used tile */
+		private Tile head, tail;
+
+		private long hits, misses, fallbacks, evictions;
+
+		private Segment(int firstSlot, int size) {
+			tiles = new TLongObjectHashMap<Tile>(size);
+			freeSlots = new int[size];
+			for (int i = 0; i < size; i++) {
+				freeSlots[i] = firstSlot + size - 1 - i;
+			}
+			freeCount = size;
+		}
+
+		private synchronized float lookup(long key, int cell, float dx, float dy, float top, float bottom) {
+			Tile tile = tiles.get(key);
+			if (tile == null) {
+				misses++;
+				return Float.NaN;
+			}
+			touch(tile);
+			int base = tile.slot * TILE_SIZE;
+			byte state = slab.get(base + cell);
+			if (state == CELL_EMPTY) {
+				misses++;
+				return Float.NaN;
+			}
+			if (state == CELL_OVERFLOW) {
+				fallbacks++;
+				return Float.NaN;
+			}
+			float best = NO_LAYER;
+			int offset = base + CELLS + cell * MAX_LAYERS * LAYER_SIZE;
+			for (int i = 0, count = state - 1; i < count; i++, offset += LAYER_SIZE) {
+				float z = slab.getFloat(offset) + slab.getFloat(offset + 4) * dx + slab.getFloat(offset + 8) * dy;
+				if (Math.abs(z - top) < LAYER_MARGIN || Math.abs(z - bottom) < LAYER_MARGIN) {
+					fallbacks++;
+					return Float.NaN;
+				}
+				if (z < top && z > bottom && z > best) {
+					best = z;
+				}
+			}
+			hits++;
+			return best;
+		}
+
+		private synchronized boolean filled(long key, int cell) {
+			Tile tile = tiles.get(key);
+			return tile != null && slab.get(tile.slot * TILE_SIZE + cell) != CELL_EMPTY;
+		}
+
+		private synchronized int generation(long key) {
+			return generations[stripe(key)];
+		}
+
+		private synchronized void store(long key, int cell, byte state, float[] layers, int generation) {
+			if (generations[stripe(key)] != generation) {
+				// invalidated while the column was ray cast, the next query casts again
+				return;
+			}
+			Tile tile = tiles.get(key);
+			if (tile == null) {
+				tile = new Tile(key, freeCount > 0 ? freeSlots[--freeCount] : evict());
+				tiles.put(key, tile);
+				int base = tile.slot * TILE_SIZE;
+				for (int i = 0; i < CELLS; i++) {
+					slab.put(base + i, CELL_EMPTY);
+				}
+			} else {
+				unlink(tile);
+			}
+			link(tile);
+			int base = tile.slot * TILE_SIZE;
+			if (state != CELL_OVERFLOW) {
+				int offset = base + CELLS + cell * MAX_LAYERS * LAYER_SIZE;
+				for (int i = 0, count = (state - 1) * 3; i < count; i++, offset += 4) {
+					slab.putFloat(offset, layers[i]);
+				}
+			}
+			slab.put(base + cell, state);
+		}
+
+		private synchronized void invalidate(long key) {
+			generations[stripe(key)]++;
+			Tile tile = tiles.remove(key);
+			if (tile != null) {
+				unlink(tile);
+				freeSlots[freeCount++] = tile.slot;
+			}
+		}
+
+		private int evict() {
+			Tile tile = tail;
+			unlink(tile);
+			tiles.remove(tile.key);
+			evictions++;
+			return tile.slot;
+		}
+
+		private void touch(Tile tile) {
+			if (tile != head) {
+				unlink(tile);
+				link(tile);
+			}
+		}
+
+		private void link(Tile tile) {
+			tile.next = head;
+			if (head != null) {
+				head.prev = tile;
+			}
+			head = tile;
+			if (tail == null) {
+				tail = tile;
+			}
+		}
+
+		private void unlink(Tile tile) {
+			if (tile.prev != null) {
+				tile.prev.next = tile.next;
+			} else {
+				head = tile.next;
+			}
+			if (tile.next != null) {
+				tile.next.prev = tile.prev;
+			} else {
+				tail = tile.prev;
+			}
+			tile.prev = tile.next = null;
+		}
+	}
+
+	private static final class Tile {
+
+		private final long key;
+		private final int slot;
+		private Tile prev, next;
+
+		private Tile(long key, int slot) {
+			this.key = key;
+			this.slot = slot;
+		}
+	}
+}
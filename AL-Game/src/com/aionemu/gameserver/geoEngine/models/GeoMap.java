@@ -16,6 +16,7 @@
  */
 package com.aionemu.gameserver.geoEngine.models;
 
+import java.nio.ShortBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -28,8 +29,8 @@ import com.aionemu.gameserver.geoEngine.bounding.BoundingBox;
 import com.aionemu.gameserver.geoEngine.collision.CollisionIntention;
 import com.aionemu.gameserver.geoEngine.collision.CollisionResult;
 import com.aionemu.gameserver.geoEngine.collision.CollisionResults;
+import com.aionemu.gameserver.geoEngine.collision.GeoQueryContext;
 import com.aionemu.gameserver.geoEngine.math.Ray;
-import com.aionemu.gameserver.geoEngine.math.Triangle;
 import com.aionemu.gameserver.geoEngine.math.Vector3f;
 import com.aionemu.gameserver.geoEngine.scene.Node;
 import com.aionemu.gameserver.geoEngine.scene.Spatial;
@@ -42,9 +43,11 @@ import javolution.util.FastMap;
  */
 public class GeoMap extends Node {
 
-	private short[] terrainData;
+	private ShortBuffer terrainData;
 	private List<BoundingBox> tmpBox = new ArrayList<BoundingBox>();
 	private Map<String, DoorGeometry> doors = new FastMap<String, DoorGeometry>();
+	private GeoHeightCache heightCache;
+	private int heightCacheId;
 
 	/**
 	 * @param name
@@ -104,14 +107,17 @@ public class GeoMap extends Node {
 		if (distance > 50.0f) {
 			return false;
 		}
-		Vector3f pos = new Vector3f(x, y, z);
-		Vector3f dir = new Vector3f(targetX, targetY, targetZ);
-		dir.subtractLocal(pos).normalizeLocal();
-		Ray r = new Ray(pos, dir);
-		r.setLimit(limit);
-		CollisionResults results = new CollisionResults(CollisionIntention.PHYSICAL.getId(), true, instanceId);
-		int collisions = this.collideWith(r, results);
-		return results.size() == 0 && collisions == 0;
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			ctx.setRay(x, y, z, targetX, targetY, targetZ);
+			Ray r = ctx.ray;
+			r.setLimit(limit);
+			CollisionResults results = ctx.results(CollisionIntention.PHYSICAL.getId(), true, instanceId);
+			int collisions = this.collideWith(r, results);
+			return results.size() == 0 && collisions == 0;
+		} finally {
+			ctx.release();
+		}
 	}
 
 	public boolean canPass(float x, float y, float z, float targetX, float targetY, float targetZ, float limit,
@@ -122,73 +128,90 @@ public class GeoMap extends Node {
 		if (distance > 65.0f) {
 			return false;
 		}
-		Vector3f pos = new Vector3f(x, y, z);
-		Vector3f dir = new Vector3f(targetX, targetY, targetZ);
-		dir.subtractLocal(pos).normalizeLocal();
-		Ray r = new Ray(pos, dir);
-		r.setLimit(limit);
-		CollisionResults results = new CollisionResults(CollisionIntention.PHYSICAL.getId(), false, instanceId);
-		int collisions = this.collideWith(r, results);
-		return results.size() == 0 && collisions == 0;
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			ctx.setRay(x, y, z, targetX, targetY, targetZ);
+			Ray r = ctx.ray;
+			r.setLimit(limit);
+			CollisionResults results = ctx.results(CollisionIntention.PHYSICAL.getId(), false, instanceId);
+			int collisions = this.collideWith(r, results);
+			return results.size() == 0 && collisions == 0;
+		} finally {
+			ctx.release();
+		}
 	}
 
 	public float getZW(float x, float y) {
-		CollisionResults results = new CollisionResults(CollisionIntention.PHYSICAL.getId(), true, 1);
-		Vector3f pos = new Vector3f(x, y, 4000.0f);
-		Vector3f dir = new Vector3f(x, y, 0.0f);
-		Float limit = Float.valueOf(pos.distance(dir));
-		dir.subtractLocal(pos).normalizeLocal();
-		Ray r = new Ray(pos, dir);
-		r.setLimit(limit.floatValue());
-		this.collideWith(r, results);
-		Vector3f terrain = null;
-		terrain = this.terrainData.length == 1 ? new Vector3f(x, y, (float) this.terrainData[0] / 32.0f)
-				: this.terraionCollision(x, y, r);
-		if (terrain != null) {
-			CollisionResult result = new CollisionResult(terrain,
-					Math.max(0.0f, Math.max(4000.0f - terrain.z, terrain.z)));
-			results.addCollision(result);
-		}
-		if (results.size() == 0) {
-			return 0.0f;
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			CollisionResults results = ctx.results(CollisionIntention.PHYSICAL.getId(), true, 1);
+			ctx.setRay(x, y, 4000.0f, x, y, 0.0f);
+			Ray r = ctx.ray;
+			this.collideWith(r, results);
+			Vector3f terrain = null;
+			terrain = this.terrainData.limit() == 1 ? ctx.terrain.set(x, y, (float) this.terrainData.get(0) / 32.0f)
+					: this.terraionCollision(x, y, r, ctx);
+			if (terrain != null) {
+				results.addCollision(terrain.x, terrain.y, terrain.z,
+						Math.max(0.0f, Math.max(4000.0f - terrain.z, terrain.z)));
+			}
+			if (results.size() == 0) {
+				return 0.0f;
+			}
+			return results.getClosestCollision().getContactPoint().z;
+		} finally {
+			ctx.release();
 		}
-		return results.getClosestCollision().getContactPoint().z;
 	}
 
 	public float getZW(float x, float y, float z, int instanceId) {
-		CollisionResults results = new CollisionResults(CollisionIntention.PHYSICAL.getId(), true, instanceId);
-		Vector3f pos = new Vector3f(x, y, z + 2.0f);
-		Vector3f dir = new Vector3f(x, y, z - 100.0f);
-		Float limit = Float.valueOf(pos.distance(dir));
-		dir.subtractLocal(pos).normalizeLocal();
-		Ray r = new Ray(pos, dir);
-		r.setLimit(limit.floatValue());
-		this.collideWith(r, results);
-		Vector3f terrain = null;
-		if (this.terrainData.length == 1) {
-			if (this.terrainData[0] != 0) {
-				terrain = new Vector3f(x, y, (float) this.terrainData[0] / 32.0f);
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			CollisionResults results = ctx.results(CollisionIntention.PHYSICAL.getId(), true, instanceId);
+			ctx.setRay(x, y, z + 2.0f, x, y, z - 100.0f);
+			Ray r = ctx.ray;
+			this.collideWith(r, results);
+			Vector3f terrain = null;
+			if (this.terrainData.limit() == 1) {
+				if (this.terrainData.get(0) != 0) {
+					terrain = ctx.terrain.set(x, y, (float) this.terrainData.get(0) / 32.0f);
+				}
+			} else {
+				terrain = this.terraionCollision(x, y, r, ctx);
 			}
-		} else {
-			terrain = this.terraionCollision(x, y, r);
-		}
-		if (terrain != null && terrain.z > 0.0f && terrain.z < z + 2.0f) {
-			CollisionResult result = new CollisionResult(terrain, Math.abs(z - terrain.z + 2.0f));
-			results.addCollision(result);
-		}
-		if (results.size() == 0) {
-			return z;
+			if (terrain != null && terrain.z > 0.0f && terrain.z < z + 2.0f) {
+				results.addCollision(terrain.x, terrain.y, terrain.z, Math.abs(z - terrain.z + 2.0f));
+			}
+			if (results.size() == 0) {
+				return z;
+			}
+			return results.getClosestCollision().getContactPoint().z;
+		} finally {
+			ctx.release();
 		}
-		return results.getClosestCollision().getContactPoint().z;
 	}
 
 	public void setDoorState(int instanceId, String name, boolean isOpened) {
 		DoorGeometry door = doors.get(name);
 		if (door != null) {
 			door.setDoorState(instanceId, isOpened);
+			if (heightCache != null && door.getWorldBound() instanceof BoundingBox) {
+				BoundingBox bound = (BoundingBox) door.getWorldBound();
+				Vector3f center = bound.getCenter();
+				heightCache.invalidate(heightCacheId, instanceId, center.x - bound.getXExtent(),
+						center.y - bound.getYExtent(), center.x + bound.getXExtent(), center.y + bound.getYExtent());
+			}
 		}
 	}
 
+	/**
+	 * Enables cached ground height lookups for {@link #getZ(float, float, float, int)}.
+	 */
+	public void setHeightCache(GeoHeightCache heightCache) {
+		this.heightCacheId = heightCache.register();
+		this.heightCache = heightCache;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -217,59 +240,97 @@ public class GeoMap extends Node {
 	 * @param terrainData The terrainData to set.
 	 */
 	public void setTerrainData(short[] terrainData) {
+		this.terrainData = ShortBuffer.wrap(terrainData);
+	}
+
+	/**
+	 * @param terrainData The terrainData to set, usually a read-only view of the mapped geo file.
+	 */
+	public void setTerrainData(ShortBuffer terrainData) {
 		this.terrainData = terrainData;
 	}
 
 	public float getZ(float x, float y) {
-		CollisionResults results = new CollisionResults(CollisionIntention.PHYSICAL.getId(), false, 1);
-		Vector3f pos = new Vector3f(x, y, 4000);
-		Vector3f dir = new Vector3f(x, y, 0);
-		Float limit = pos.distance(dir);
-		dir.subtractLocal(pos).normalizeLocal();
-		Ray r = new Ray(pos, dir);
-		r.setLimit(limit);
-		collideWith(r, results);
-		Vector3f terrain = null;
-		if (terrainData.length == 1) {
-			terrain = new Vector3f(x, y, terrainData[0] / 32f);
-		} else {
-			terrain = terraionCollision(x, y, r);
-		}
-		if (terrain != null) {
-			CollisionResult result = new CollisionResult(terrain, Math.max(0, Math.max(4000 - terrain.z, terrain.z)));
-			results.addCollision(result);
-		}
-		if (results.size() == 0) {
-			return 0;
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			CollisionResults results = ctx.results(CollisionIntention.PHYSICAL.getId(), false, 1);
+			ctx.setRay(x, y, 4000, x, y, 0);
+			Ray r = ctx.ray;
+			collideWith(r, results);
+			Vector3f terrain = null;
+			if (terrainData.limit() == 1) {
+				terrain = ctx.terrain.set(x, y, terrainData.get(0) / 32f);
+			} else {
+				terrain = terraionCollision(x, y, r, ctx);
+			}
+			if (terrain != null) {
+				results.addCollision(terrain.x, terrain.y, terrain.z, Math.max(0, Math.max(4000 - terrain.z, terrain.z)));
+			}
+			if (results.size() == 0) {
+				return 0;
+			}
+			return results.getClosestCollision().getContactPoint().z;
+		} finally {
+			ctx.release();
 		}
-		return results.getClosestCollision().getContactPoint().z;
 	}
 
 	public float getZ(float x, float y, float z, int instanceId) {
-		CollisionResults results = new CollisionResults(CollisionIntention.PHYSICAL.getId(), false, instanceId);
-		Vector3f pos = new Vector3f(x, y, z + 2);
-		Vector3f dir = new Vector3f(x, y, z - 100);
-		Float limit = pos.distance(dir);
-		dir.subtractLocal(pos).normalizeLocal();
-		Ray r = new Ray(pos, dir);
-		r.setLimit(limit);
-		collideWith(r, results);
-		Vector3f terrain = null;
-		if (terrainData.length == 1) {
-			if (terrainData[0] != 0) {
-				terrain = new Vector3f(x, y, terrainData[0] / 32f);
+		float meshZ = heightCache != null
+				? heightCache.getMeshZ(this, heightCacheId, x, y, z + 2, z - 100, instanceId)
+				: Float.NaN;
+		if (meshZ == meshZ) {
+			return getCachedZ(x, y, z, meshZ);
+		}
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			CollisionResults results = ctx.results(CollisionIntention.PHYSICAL.getId(), false, instanceId);
+			ctx.setRay(x, y, z + 2, x, y, z - 100);
+			Ray r = ctx.ray;
+			collideWith(r, results);
+			Vector3f terrain = null;
+			if (terrainData.limit() == 1) {
+				if (terrainData.get(0) != 0) {
+					terrain = ctx.terrain.set(x, y, terrainData.get(0) / 32f);
+				}
+			} else {
+				terrain = terraionCollision(x, y, r, ctx);
 			}
-		} else {
-			terrain = terraionCollision(x, y, r);
-		}
-		if (terrain != null && terrain.z > 0 && terrain.z < z + 2) {
-			CollisionResult result = new CollisionResult(terrain, Math.abs(z - terrain.z + 2));
-			results.addCollision(result);
+			if (terrain != null && terrain.z > 0 && terrain.z < z + 2) {
+				results.addCollision(terrain.x, terrain.y, terrain.z, Math.abs(z - terrain.z + 2));
+			}
+			if (results.size() == 0) {
+				return z;
+			}
+			return results.getClosestCollision().getContactPoint().z;
+		} finally {
+			ctx.release();
 		}
-		if (results.size() == 0) {
-			return z;
+	}
+
+	/**
+	 * Same as the ray cast in {@link #getZ(float, float, float, int)}, with meshes resolved by the height cache.
+	 */
+	private float getCachedZ(float x, float y, float z, float meshZ) {
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			float geoZ = meshZ;
+			Vector3f terrain = null;
+			if (terrainData.limit() == 1) {
+				if (terrainData.get(0) != 0) {
+					terrain = ctx.terrain.set(x, y, terrainData.get(0) / 32f);
+				}
+			} else {
+				ctx.setRay(x, y, z + 2, x, y, z - 100);
+				terrain = terraionCollision(x, y, ctx.ray, ctx);
+			}
+			if (terrain != null && terrain.z > 0 && terrain.z < z + 2 && terrain.z > geoZ) {
+				geoZ = terrain.z;
+			}
+			return geoZ == GeoHeightCache.NO_LAYER ? z : geoZ;
+		} finally {
+			ctx.release();
 		}
-		return results.getClosestCollision().getContactPoint().z;
 	}
 
 	public Vector3f getClosestCollision(float x, float y, float z, float targetX, float targetY, float targetZ,
@@ -282,63 +343,65 @@ public class GeoMap extends Node {
 		}
 		z += 1f;
 		targetZ += 1f;
-		Vector3f start = new Vector3f(x, y, z);
-		Vector3f end = new Vector3f(targetX, targetY, targetZ);
-		Vector3f pos = new Vector3f(x, y, z);
-		Vector3f dir = new Vector3f(targetX, targetY, targetZ);
-
-		CollisionResults results = new CollisionResults(intentions, false, instanceId);
-
-		Float limit = pos.distance(dir);
-		dir.subtractLocal(pos).normalizeLocal();
-		Ray r = new Ray(pos, dir);
-		r.setLimit(limit);
-		Vector3f terrain = calculateTerrainCollision(start.x, start.y, start.z, end.x, end.y, end.z, r);
-		if (terrain != null) {
-			CollisionResult result = new CollisionResult(terrain, terrain.distance(pos));
-			results.addCollision(result);
-		}
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			Vector3f start = ctx.start.set(x, y, z);
+			Vector3f end = ctx.end.set(targetX, targetY, targetZ);
+
+			CollisionResults results = ctx.results(intentions, false, instanceId);
+
+			ctx.setRay(x, y, z, targetX, targetY, targetZ);
+			Vector3f pos = ctx.pos;
+			Vector3f dir = ctx.dir;
+			Ray r = ctx.ray;
+			Vector3f terrain = calculateTerrainCollision(start.x, start.y, start.z, end.x, end.y, end.z, r, ctx);
+			if (terrain != null) {
+				results.addCollision(terrain.x, terrain.y, terrain.z, terrain.distance(pos));
+			}
 
-		collideWith(r, results);
+			collideWith(r, results);
 
-		float geoZ = 0;
-		if (results.size() == 0) {
-			if (fly) {
-				return end;
+			float geoZ = 0;
+			if (results.size() == 0) {
+				if (fly) {
+					return new Vector3f(end);
+				}
+				if (zChecked1 > 0 && targetX == x && targetY == y && targetZ - 1f == zChecked1) {
+					geoZ = z - 1f;
+				} else {
+					zChecked2 = targetZ;
+					geoZ = getZ(targetX, targetY, targetZ + 2, instanceId);
+				}
+				if (Math.abs(geoZ - targetZ) < start.distance(end)) {
+					return new Vector3f(end.x, end.y, geoZ);
+				}
+				return new Vector3f(start);
 			}
-			if (zChecked1 > 0 && targetX == x && targetY == y && targetZ - 1f == zChecked1) {
-				geoZ = z - 1f;
-			} else {
-				zChecked2 = targetZ;
-				geoZ = getZ(targetX, targetY, targetZ + 2, instanceId);
+			CollisionResult closest = results.getClosestCollision();
+			float distance = closest.getDistance();
+			if (distance < 1) {
+				return new Vector3f(start);
 			}
-			if (Math.abs(geoZ - targetZ) < start.distance(end)) {
-				return end.setZ(geoZ);
+			// -1m
+			Vector3f contactPoint = closest.getContactPoint().subtract(dir);
+			if (!fly && changeDirection) {
+				if (zChecked1 > 0 && contactPoint.x == x && contactPoint.y == y && contactPoint.z == zChecked1) {
+					contactPoint.z = z - 1f;
+				} else if (zChecked2 > 0 && contactPoint.x == targetX && contactPoint.y == targetY
+						&& contactPoint.z == zChecked2) {
+					contactPoint.z = geoZ;
+				} else {
+					contactPoint.z = getZ(contactPoint.x, contactPoint.y, contactPoint.z + 2, instanceId);
+				}
 			}
-			return start;
-		}
-		Vector3f contactPoint = results.getClosestCollision().getContactPoint();
-		float distance = results.getClosestCollision().getDistance();
-		if (distance < 1) {
-			return start;
-		}
-		// -1m
-		contactPoint = contactPoint.subtract(dir);
-		if (!fly && changeDirection) {
-			if (zChecked1 > 0 && contactPoint.x == x && contactPoint.y == y && contactPoint.z == zChecked1) {
-				contactPoint.z = z - 1f;
-			} else if (zChecked2 > 0 && contactPoint.x == targetX && contactPoint.y == targetY
-					&& contactPoint.z == zChecked2) {
-				contactPoint.z = geoZ;
-			} else {
-				contactPoint.z = getZ(contactPoint.x, contactPoint.y, contactPoint.z + 2, instanceId);
+			if (!fly && Math.abs(start.z - contactPoint.z) > distance) {
+				return new Vector3f(start);
 			}
-		}
-		if (!fly && Math.abs(start.z - contactPoint.z) > distance) {
-			return start;
-		}
 
-		return contactPoint;
+			return contactPoint;
+		} finally {
+			ctx.release();
+		}
 	}
 
 	public CollisionResults getCollisions(float x, float y, float z, float targetX, float targetY, float targetZ,
@@ -348,24 +411,21 @@ public class GeoMap extends Node {
 		}
 		z += 1f;
 		targetZ += 1f;
-		Vector3f start = new Vector3f(x, y, z);
-		Vector3f end = new Vector3f(targetX, targetY, targetZ);
-		Vector3f pos = new Vector3f(x, y, z);
-		Vector3f dir = new Vector3f(targetX, targetY, targetZ);
-
+		// returned to the caller, so not taken from the context
 		CollisionResults results = new CollisionResults(intentions, false, instanceId);
-
-		Float limit = pos.distance(dir);
-		dir.subtractLocal(pos).normalizeLocal();
-		Ray r = new Ray(pos, dir);
-		r.setLimit(limit);
-		Vector3f terrain = calculateTerrainCollision(start.x, start.y, start.z, end.x, end.y, end.z, r);
-		if (terrain != null) {
-			CollisionResult result = new CollisionResult(terrain, terrain.distance(pos));
-			results.addCollision(result);
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			ctx.setRay(x, y, z, targetX, targetY, targetZ);
+			Ray r = ctx.ray;
+			Vector3f terrain = calculateTerrainCollision(x, y, z, targetX, targetY, targetZ, r, ctx);
+			if (terrain != null) {
+				results.addCollision(terrain.x, terrain.y, terrain.z, terrain.distance(ctx.pos));
+			}
+			collideWith(r, results);
+			return results;
+		} finally {
+			ctx.release();
 		}
-		collideWith(r, results);
-		return results;
 	}
 
 	/**
@@ -373,7 +433,7 @@ public class GeoMap extends Node {
 	 * @param targetZ
 	 */
 	private Vector3f calculateTerrainCollision(float x, float y, float z, float targetX, float targetY, float targetZ,
-			Ray ray) {
+			Ray ray, GeoQueryContext ctx) {
 
 		float x2 = targetX - x;
 		float y2 = targetY - y;
@@ -382,7 +442,7 @@ public class GeoMap extends Node {
 		for (float s = 0; s < intD; s += 2) {
 			float tempX = x + (x2 * s / ray.getLimit());
 			float tempY = y + (y2 * s / ray.getLimit());
-			Vector3f result = terraionCollision(tempX, tempY, ray);
+			Vector3f result = terraionCollision(tempX, tempY, ray, ctx);
 			if (result != null) {
 				return result;
 			}
@@ -398,7 +458,10 @@ public class GeoMap extends Node {
 		this.terrainCutoutData = arr;
 	}
 
-	private Vector3f terraionCollision(float x, float y, Ray ray) {
+	/**
+	 * @return the terrain contact point, stored in {@link GeoQueryContext#terrain}
+	 */
+	private Vector3f terraionCollision(float x, float y, Ray ray, GeoQueryContext ctx) {
 		y /= 2f;
 		x /= 2f;
 		int xInt = (int) x;
@@ -408,18 +471,18 @@ public class GeoMap extends Node {
 		// || ||
 		// p3-----p4
 		float p1, p2, p3, p4;
-		if (terrainData.length == 1) {
-			p1 = p2 = p3 = p4 = terrainData[0] / 32f;
+		if (terrainData.limit() == 1) {
+			p1 = p2 = p3 = p4 = terrainData.get(0) / 32f;
 		} else {
-			int size = (int) Math.sqrt(terrainData.length);
+			int size = (int) Math.sqrt(terrainData.limit());
 			try {
 
 				if (GeoDataConfig.GEO_MONONO2_IN_USE) {
 					int index = yInt + (xInt * size);
-					p1 = terrainData[index] / 32f;
-					p2 = terrainData[index + 1] / 32f;
-					p3 = terrainData[index + size] / 32f;
-					p4 = terrainData[index + size + 1] / 32f;
+					p1 = terrainData.get(index) / 32f;
+					p2 = terrainData.get(index + 1) / 32f;
+					p3 = terrainData.get(index + size) / 32f;
+					p4 = terrainData.get(index + size + 1) / 32f;
 
 					// check if the terrain quad is removed.
 					if (terrainCutoutData != null) {
@@ -428,27 +491,29 @@ public class GeoMap extends Node {
 						}
 					}
 				} else {
-					p1 = terrainData[(yInt + (xInt * size))] / 32f;
-					p2 = terrainData[((yInt + 1) + (xInt * size))] / 32f;
-					p3 = terrainData[((yInt) + ((xInt + 1) * size))] / 32f;
-					p4 = terrainData[((yInt + 1) + ((xInt + 1) * size))] / 32f;
+					p1 = terrainData.get((yInt + (xInt * size))) / 32f;
+					p2 = terrainData.get(((yInt + 1) + (xInt * size))) / 32f;
+					p3 = terrainData.get(((yInt) + ((xInt + 1) * size))) / 32f;
+					p4 = terrainData.get(((yInt + 1) + ((xInt + 1) * size))) / 32f;
 				}
 			} catch (Exception e) {
 				return null;
 			}
 		}
-		Vector3f result = new Vector3f();
+		Vector3f result = ctx.terrain;
 		if (p1 >= 0 && p2 >= 0 && p3 >= 0) {
-			Triangle tringle1 = new Triangle(new Vector3f(xInt * 2, yInt * 2, p1),
-					new Vector3f(xInt * 2, (yInt + 1) * 2, p2), new Vector3f((xInt + 1) * 2, yInt * 2, p3));
-			if (ray.intersectWhere(tringle1, result)) {
+			ctx.v1.set(xInt * 2, yInt * 2, p1);
+			ctx.v2.set(xInt * 2, (yInt + 1) * 2, p2);
+			ctx.v3.set((xInt + 1) * 2, yInt * 2, p3);
+			if (ray.intersectWhere(ctx.v1, ctx.v2, ctx.v3, result)) {
 				return result;
 			}
 		}
 		if (p4 >= 0 && p2 >= 0 && p3 >= 0) {
-			Triangle tringle2 = new Triangle(new Vector3f((xInt + 1) * 2, (yInt + 1) * 2, p4),
-					new Vector3f(xInt * 2, (yInt + 1) * 2, p2), new Vector3f((xInt + 1) * 2, yInt * 2, p3));
-			if (ray.intersectWhere(tringle2, result)) {
+			ctx.v1.set((xInt + 1) * 2, (yInt + 1) * 2, p4);
+			ctx.v2.set(xInt * 2, (yInt + 1) * 2, p2);
+			ctx.v3.set((xInt + 1) * 2, yInt * 2, p3);
+			if (ray.intersectWhere(ctx.v1, ctx.v2, ctx.v3, result)) {
 				return result;
 			}
 		}
@@ -471,23 +536,26 @@ public class GeoMap extends Node {
 		}
 		int intD = (int) Math.abs(distance);
 
-		Vector3f pos = new Vector3f(x, y, z);
-		Vector3f dir = new Vector3f(targetX, targetY, targetZ);
-		dir.subtractLocal(pos).normalizeLocal();
-		Ray r = new Ray(pos, dir);
-		r.setLimit(limit);
-		for (float s = 2; s < intD; s += 2) {
-			float tempX = targetX + (x2 * s / distance);
-			float tempY = targetY + (y2 * s / distance);
-			Vector3f result = terraionCollision(tempX, tempY, r);
-			if (result != null) {
-				return false;
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			ctx.setRay(x, y, z, targetX, targetY, targetZ);
+			Ray r = ctx.ray;
+			r.setLimit(limit);
+			for (float s = 2; s < intD; s += 2) {
+				float tempX = targetX + (x2 * s / distance);
+				float tempY = targetY + (y2 * s / distance);
+				Vector3f result = terraionCollision(tempX, tempY, r, ctx);
+				if (result != null) {
+					return false;
+				}
 			}
+			CollisionResults results = ctx.results(
+					(byte) (CollisionIntention.PHYSICAL.getId() | CollisionIntention.DOOR.getId()), false, instanceId);
+			int collisions = this.collideWith(r, results);
+			return (results.size() == 0 && collisions == 0);
+		} finally {
+			ctx.release();
 		}
-		CollisionResults results = new CollisionResults(
-				(byte) (CollisionIntention.PHYSICAL.getId() | CollisionIntention.DOOR.getId()), false, instanceId);
-		int collisions = this.collideWith(r, results);
-		return (results.size() == 0 && collisions == 0);
 	}
 
 	/*
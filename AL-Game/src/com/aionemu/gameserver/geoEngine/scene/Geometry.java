@@ -133,6 +133,19 @@ public class Geometry extends Spatial {
 		cachedWorldMat.setTranslation(loc);
 	}
 
+	/**
+	 * Creates a new placement of this geometry: the mesh (and its collision data) is shared, transform and world bound
+	 * are not.
+	 */
+	@Override
+	public Geometry clone() throws CloneNotSupportedException {
+		Geometry geom = (Geometry) super.clone();
+		geom.cachedWorldMat = new Matrix4f();
+		geom.worldBound = null;
+		geom.parent = null;
+		return geom;
+	}
+
 	@Override
 	public short getCollisionFlags() {
 		return mesh.getCollisionFlags();
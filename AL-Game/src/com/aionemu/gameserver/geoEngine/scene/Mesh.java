@@ -331,6 +331,18 @@ public class Mesh {
 		collisionTree = tree;
 	}
 
+	/**
+	 * Uses an already built collision structure, e.g. a precompiled tree mapped from disk. Meshes sharing the same
+	 * data may share the same instance.
+	 */
+	public void setCollisionData(CollisionData collisionData) {
+		this.collisionTree = collisionData;
+	}
+
+	public CollisionData getCollisionData() {
+		return collisionTree;
+	}
+
 	public int collideWith(Collidable other, Matrix4f worldMatrix, BoundingVolume worldBound,
 			CollisionResults results) {
 
@@ -180,6 +180,26 @@ public class NavGeometry extends Spatial {
 		return dx + dy + dz; 
 	}
 	
+	/**
+	 * Checks if a point stands on this triangle: it must lie inside the triangle seen from above, and the
+	 * triangle must be at most 1 above and 4 below it, the same window the nav tile lookup ray covers.
+	 *
+	 * @param x -- the x-component of the point.
+	 * @param y -- the y-component of the point.
+	 * @param z -- the z-component of the point.
+	 * @return True if the point stands on this triangle, false otherwise.
+	 */
+	public boolean isStandingOn(float x, float y, float z) {
+		float d = (data[4] - data[7]) * (data[0] - data[6]) + (data[6] - data[3]) * (data[1] - data[7]);
+		if (d == 0) return false;
+		float a = ((data[4] - data[7]) * (x - data[6]) + (data[6] - data[3]) * (y - data[7])) / d;
+		float b = ((data[7] - data[1]) * (x - data[6]) + (data[0] - data[6]) * (y - data[7])) / d;
+		float c = 1 - a - b;
+		if (a < 0 || b < 0 || c < 0) return false;
+		float tileZ = a * data[2] + b * data[5] + c * data[8];
+		return tileZ <= z + 1F && tileZ >= z - 4F;
+	}
+
 	public boolean isTowardsEdge(byte edge, float[] vec) {
 		float[] p0 = new float[] {data[0], data[1]};
 		float[] p1 = new float[] {data[3], data[4]};
@@ -52,6 +52,13 @@ public class DoorGeometry extends Geometry {
 		return super.collideWith(other, results);
 	}
 
+	@Override
+	public DoorGeometry clone() throws CloneNotSupportedException {
+		DoorGeometry door = (DoorGeometry) super.clone();
+		door.instances = new BitSet();
+		return door;
+	}
+
 	public boolean isFoundTemplate() {
 		return foundTemplate;
 	}
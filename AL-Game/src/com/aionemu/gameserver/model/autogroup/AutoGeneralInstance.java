@@ -16,11 +16,7 @@
  */
 package com.aionemu.gameserver.model.autogroup;
 
-import static ch.lambdaj.Lambda.having;
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.select;
-import static org.hamcrest.Matchers.equalTo;
-
+import java.util.ArrayList;
 import java.util.List;
 
 import com.aionemu.gameserver.dataholders.DataManager;
@@ -134,6 +130,12 @@ public class AutoGeneralInstance extends AutoInstance {
 	}
 
 	private List<AGPlayer> getPlayersByClass(PlayerClass playerClass) {
-		return select(players, having(on(AGPlayer.class).getPlayerClass(), equalTo(playerClass)));
+		List<AGPlayer> result = new ArrayList<AGPlayer>();
+		for (AGPlayer agp : players.values()) {
+			if (agp.getPlayerClass() == playerClass) {
+				result.add(agp);
+			}
+		}
+		return result;
 	}
 }
\ No newline at end of file
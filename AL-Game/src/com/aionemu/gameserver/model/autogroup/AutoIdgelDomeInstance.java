@@ -16,11 +16,6 @@
  */
 package com.aionemu.gameserver.model.autogroup;
 
-import static ch.lambdaj.Lambda.having;
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.select;
-import static org.hamcrest.Matchers.equalTo;
-
 import java.util.List;
 
 import com.aionemu.gameserver.model.Race;
@@ -99,12 +94,4 @@ public class AutoIdgelDomeInstance extends AutoInstance {
 		super.unregister(player);
 		PlayerGroupService.removePlayer(player);
 	}
-
-	private List<AGPlayer> getAGPlayersByRace(Race race) {
-		return select(players, having(on(AGPlayer.class).getRace(), equalTo(race)));
-	}
-
-	private List<Player> getPlayersByRace(Race race) {
-		return select(instance.getPlayersInside(), having(on(Player.class).getRace(), equalTo(race)));
-	}
 }
\ No newline at end of file
@@ -16,20 +16,30 @@
  */
 package com.aionemu.gameserver.model.autogroup;
 
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.sort;
-
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import com.aionemu.commons.taskmanager.AbstractLockManager;
+import com.aionemu.gameserver.model.Race;
 import com.aionemu.gameserver.model.gameobjects.Item;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.model.instance.instancereward.InstanceReward;
 import com.aionemu.gameserver.world.WorldMapInstance;
 
 public abstract class AutoInstance extends AbstractLockManager implements AutoInstanceHandler {
+	private static final Comparator<Item> EXPIRE_TIME_ORDER = new Comparator<Item>() {
+
+		@Override
+		public int compare(Item o1, Item o2) {
+			return Integer.compare(o1.getExpireTime(), o2.getExpireTime());
+		}
+	};
+
 	protected int instanceMaskId;
 	public long startInstanceTime;
 	public WorldMapInstance instance;
@@ -45,7 +55,8 @@ public abstract class AutoInstance extends AbstractLockManager implements AutoIn
 		if (i < count) {
 			return false;
 		}
-		items = sort(items, on(Item.class).getExpireTime());
+		items = new ArrayList<Item>(items);
+		Collections.sort(items, EXPIRE_TIME_ORDER);
 		for (Item item : items) {
 			long l = player.getInventory().decreaseItemCount(item, count);
 			if (l == 0) {
@@ -102,6 +113,37 @@ public abstract class AutoInstance extends AbstractLockManager implements AutoIn
 		players.clear();
 	}
 
+	protected List<AGPlayer> getAGPlayersByRace(Race race) {
+		List<AGPlayer> result = new ArrayList<AGPlayer>();
+		for (AGPlayer agp : players.values()) {
+			if (agp.getRace() == race) {
+				result.add(agp);
+			}
+		}
+		return result;
+	}
+
+	protected List<Player> getPlayersByRace(Race race) {
+		List<Player> result = new ArrayList<Player>();
+		Iterator<Player> iterator = instance.playerIterator();
+		while (iterator.hasNext()) {
+			Player player = iterator.next();
+			if (player.getRace() == race) {
+				result.add(player);
+			}
+		}
+		return result;
+	}
+
+	public boolean hasOnlinePlayers() {
+		for (AGPlayer agp : players.values()) {
+			if (agp.isOnline()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	protected boolean satisfyTime(SearchInstance searchInstance) {
 		if (instance != null) {
 			InstanceReward<?> instanceReward = instance.getInstanceHandler().getInstanceReward();
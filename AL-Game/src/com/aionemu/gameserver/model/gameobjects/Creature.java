@@ -46,6 +46,7 @@ import com.aionemu.gameserver.taskmanager.tasks.PacketBroadcaster;
 import com.aionemu.gameserver.taskmanager.tasks.PacketBroadcaster.BroadcastMode;
 import com.aionemu.gameserver.world.MapRegion;
 import com.aionemu.gameserver.world.WorldPosition;
+import com.aionemu.gameserver.world.geo.nav.CachedNavTile;
 import com.aionemu.gameserver.world.zone.ZoneName;
 
 import javolution.util.FastMap;
@@ -74,6 +75,7 @@ public abstract class Creature extends VisibleObject {
 	private int attackedCount;
 	private long spawnTime = System.currentTimeMillis();
 	private int PulledMulti = 1;
+	private volatile CachedNavTile navTile;
 
 	/**
 	 * @param objId
@@ -827,4 +829,15 @@ public abstract class Creature extends VisibleObject {
 	public void setPulledMulti(int pulledMulti) {
 		PulledMulti = pulledMulti;
 	}
+
+	/**
+	 * @return the nav tile this creature was last found standing on, or null
+	 */
+	public CachedNavTile getNavTile() {
+		return navTile;
+	}
+
+	public void setNavTile(CachedNavTile navTile) {
+		this.navTile = navTile;
+	}
 }
\ No newline at end of file
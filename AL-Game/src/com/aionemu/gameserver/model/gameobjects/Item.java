@@ -21,6 +21,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -57,6 +58,11 @@ import com.aionemu.gameserver.utils.PacketSendUtility;
  */
 public class Item extends AionObject implements IExpirable, StatOwner {
 
+	/**
+	 * Bumped when the look of an equipped item changes, invalidates the cached
+	 * equipment blocks of SM_PLAYER_INFO.
+	 */
+	private static final AtomicInteger appearanceRevision = new AtomicInteger();
 	private final Logger log = LoggerFactory.getLogger(Item.class);
 	private long itemCount = 1;
 	private int itemColor = 0;
@@ -296,6 +302,7 @@ public class Item extends AionObject implements IExpirable, StatOwner {
 	public void setItemSkinTemplate(ItemTemplate newTemplate) {
 		this.itemSkinTemplate = newTemplate;
 		setPersistentState(PersistentState.UPDATE_REQUIRED);
+		onAppearanceChange();
 	}
 
 	public boolean isSkinnedItem() {
@@ -335,6 +342,7 @@ public class Item extends AionObject implements IExpirable, StatOwner {
 	public void setItemColor(int itemColor) {
 		this.itemColor = itemColor;
 		setPersistentState(PersistentState.UPDATE_REQUIRED);
+		onAppearanceChange();
 	}
 
 	public int getColorTimeLeft() {
@@ -541,6 +549,7 @@ public class Item extends AionObject implements IExpirable, StatOwner {
 	public GodStone addGodStone(int itemId) {
 		PersistentState state = godStone != null ? PersistentState.UPDATE_REQUIRED : PersistentState.NEW;
 		godStone = new GodStone(getObjectId(), itemId, state);
+		onAppearanceChange();
 		return godStone;
 	}
 
@@ -549,6 +558,17 @@ public class Item extends AionObject implements IExpirable, StatOwner {
 	 */
 	public void setGodStone(GodStone godStone) {
 		this.godStone = godStone;
+		onAppearanceChange();
+	}
+
+	public static int getAppearanceRevision() {
+		return appearanceRevision.get();
+	}
+
+	private void onAppearanceChange() {
+		if (isEquipped) {
+			appearanceRevision.incrementAndGet();
+		}
 	}
 
 	/**
@@ -564,6 +584,7 @@ public class Item extends AionObject implements IExpirable, StatOwner {
 	public void setEnchantLevel(int enchantLevel) {
 		this.enchantLevel = enchantLevel;
 		setPersistentState(PersistentState.UPDATE_REQUIRED);
+		onAppearanceChange();
 	}
 
 	/**
@@ -978,6 +999,7 @@ public class Item extends AionObject implements IExpirable, StatOwner {
 	public void setAuthorize(int paramInt) {
 		authorize = paramInt;
 		setPersistentState(PersistentState.UPDATE_REQUIRED);
+		onAppearanceChange();
 	}
 
 	public int getAuthorize() {
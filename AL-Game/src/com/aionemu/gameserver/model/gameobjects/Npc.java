@@ -70,6 +70,7 @@ public class Npc extends Creature {
 	private NpcSkillList skillList;
 	private WalkerGroupShift walkerGroupShift;
 	private long lastShoutedSeconds;
+	private volatile long lastSupportRequest;
 	private String masterName = StringUtils.EMPTY;
 	private int creatorId = 0;
 	private int townId;
@@ -456,6 +457,19 @@ public class Npc extends Creature {
 		return (System.currentTimeMillis() - lastShoutedSeconds) / 1000 >= delaySeconds;
 	}
 
+	/**
+	 * Accepts at most one support request per {@link AIConfig#SUPPORT_REQUEST_INTERVAL}, so chain pulls do not
+	 * flood the same npc with events
+	 */
+	public boolean trySupportRequest() {
+		long now = System.currentTimeMillis();
+		if (now - lastSupportRequest < AIConfig.SUPPORT_REQUEST_INTERVAL) {
+			return false;
+		}
+		lastSupportRequest = now;
+		return true;
+	}
+
 	public void shout(final NpcShout shout, final Creature target, final Object param, int delaySeconds) {
 		if (shout.getWhen() != ShoutEventType.DIED && shout.getWhen() != ShoutEventType.BEFORE_DESPAWN
 				&& getLifeStats().isAlreadyDead() || !mayShout(delaySeconds)) {
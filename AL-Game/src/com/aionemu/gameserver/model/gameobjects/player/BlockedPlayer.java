@@ -23,7 +23,8 @@ package com.aionemu.gameserver.model.gameobjects.player;
  */
 public class BlockedPlayer {
 
-	PlayerCommonData pcd;
+	int objId;
+	String name;
 	String reason;
 
 	public BlockedPlayer(PlayerCommonData pcd) {
@@ -31,16 +32,25 @@ public class BlockedPlayer {
 	}
 
 	public BlockedPlayer(PlayerCommonData pcd, String reason) {
-		this.pcd = pcd;
+		this(pcd.getPlayerObjId(), pcd.getName(), reason);
+	}
+
+	public BlockedPlayer(PlayerNameEntry entry, String reason) {
+		this(entry.getObjectId(), entry.getName(), reason);
+	}
+
+	private BlockedPlayer(int objId, String name, String reason) {
+		this.objId = objId;
+		this.name = name;
 		this.reason = reason;
 	}
 
 	public int getObjId() {
-		return pcd.getPlayerObjId();
+		return objId;
 	}
 
 	public String getName() {
-		return pcd.getName();
+		return name;
 	}
 
 	public String getReason() {
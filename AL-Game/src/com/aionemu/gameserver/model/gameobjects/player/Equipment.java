@@ -74,6 +74,11 @@ public class Equipment {
 	private Set<Long> markedFreeSlots = new HashSet<Long>();
 	private PersistentState persistentState = PersistentState.UPDATED;
 	private SortedMap<Long, Item> equipment = new TreeMap<Long, Item>();
+	/**
+	 * Bumped on every change of the equipped items, keys the equipment block SM_PLAYER_INFO caches in
+	 * {@link Player#getEquipmentInfoBlock()}.
+	 */
+	private volatile int appearanceRevision;
 	private static final Logger log = LoggerFactory.getLogger(Equipment.class);
 
 	private static final long[] ARMOR_SLOTS = new long[] { ItemSlot.BOOTS.getSlotIdMask(),
@@ -243,6 +248,7 @@ public class Equipment {
 			// equip target item
 			for (ItemSlot slot : allSlots) {
 				equipment.put(slot.getSlotIdMask(), item);
+				appearanceRevision++;
 			}
 			item.setEquipped(true);
 			item.setEquipmentSlot(itemSlotToEquip);
@@ -338,15 +344,18 @@ public class Equipment {
 	private void unEquip(long slot) {
 		ItemSlot[] allSlots = ItemSlot.getSlotsFor(slot);
 		Item item = equipment.remove(allSlots[0].getSlotIdMask());
+		appearanceRevision++;
 		if (item == null) { // NPE check, there is no item in the given slot.
 			return;
 		}
 		if (allSlots.length > 1) {
 			if (!item.getItemTemplate().isTwoHandWeapon()) {
 				equipment.put(allSlots[0].getSlotIdMask(), item);
+				appearanceRevision++;
 				throw new IllegalArgumentException("slot can not be composite!");
 			}
 			equipment.remove(allSlots[1].getSlotIdMask());
+			appearanceRevision++;
 		}
 		item.setEquipped(false);
 		item.setEquipmentSlot(0);
@@ -654,6 +663,10 @@ public class Equipment {
 		return equippedItems;
 	}
 
+	public int getAppearanceRevision() {
+		return appearanceRevision;
+	}
+
 	/**
 	 * @return ItemSlots
 	 */
@@ -792,6 +805,7 @@ public class Equipment {
 					break;
 				}
 				equipment.put(sl.getSlotIdMask(), item);
+				appearanceRevision++;
 			}
 			return;
 		}
@@ -803,6 +817,7 @@ public class Equipment {
 			return;
 		}
 		equipment.put(item.getEquipmentSlot(), item);
+		appearanceRevision++;
 	}
 
 	private void putItemBackToInventory(Item item) {
@@ -975,6 +990,7 @@ public class Equipment {
 		}
 		if (equippedItem.getItemCount() == 0) {
 			equipment.remove(equippedItem.getEquipmentSlot());
+			appearanceRevision++;
 			PacketSendUtility.sendPacket(owner, new SM_DELETE_ITEM(equippedItem.getObjectId()));
 			DAOManager.getDAO(InventoryDAO.class).store(equippedItem, owner);
 		}
@@ -1011,9 +1027,11 @@ public class Equipment {
 				ItemSlot[] slots = ItemSlot.getSlotsFor(item.getEquipmentSlot());
 				for (ItemSlot slot : slots) {
 					equipment.remove(slot.getSlotIdMask());
+					appearanceRevision++;
 				}
 			} else {
 				equipment.remove(item.getEquipmentSlot());
+				appearanceRevision++;
 			}
 			item.setEquipped(false);
 			PacketSendUtility.sendPacket(owner,
@@ -1042,9 +1060,11 @@ public class Equipment {
 				ItemSlot[] slots = ItemSlot.getSlotsFor(item.getEquipmentSlot());
 				for (ItemSlot slot : slots) {
 					equipment.put(slot.getSlotIdMask(), item);
+					appearanceRevision++;
 				}
 			} else {
 				equipment.put(item.getEquipmentSlot(), item);
+				appearanceRevision++;
 			}
 			item.setEquipped(true);
 			ItemPacketService.updateItemAfterEquip(owner, item);
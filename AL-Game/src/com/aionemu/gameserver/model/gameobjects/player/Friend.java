@@ -16,6 +16,8 @@
  */
 package com.aionemu.gameserver.model.gameobjects.player;
 
+import java.sql.Timestamp;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,17 +25,26 @@ import com.aionemu.gameserver.model.PlayerClass;
 import com.aionemu.gameserver.model.gameobjects.player.FriendList.Status;
 import com.aionemu.gameserver.world.WorldPosition;
 
+/**
+ * Friend list entry. Friends offline at load are backed by their {@link PlayerNameEntry} until they log in and hand
+ * over their common data.
+ */
 public class Friend {
 	private static final Logger log = LoggerFactory.getLogger(Friend.class);
 	private PlayerCommonData pcd;
+	private PlayerNameEntry entry;
 	private String friendNote = "";
 
 	public Friend(PlayerCommonData pcd) {
 		this.pcd = pcd;
 	}
 
+	public Friend(PlayerNameEntry entry) {
+		this.entry = entry;
+	}
+
 	public Status getStatus() {
-		if (pcd.getPlayer() == null || !pcd.isOnline()) {
+		if (pcd == null || pcd.getPlayer() == null || !pcd.isOnline()) {
 			return FriendList.Status.OFFLINE;
 		}
 		return pcd.getPlayer().getFriendList().getStatus();
@@ -44,22 +55,25 @@ public class Friend {
 	}
 
 	public String getName() {
-		return pcd.getName();
+		return pcd != null ? pcd.getName() : entry.getName();
 	}
 
 	public int getLevel() {
-		return pcd.getLevel();
+		return pcd != null ? pcd.getLevel() : entry.getLevel();
 	}
 
 	public String getNote() {
-		return pcd.getNote();
+		return pcd != null ? pcd.getNote() : entry.getNote();
 	}
 
 	public PlayerClass getPlayerClass() {
-		return pcd.getPlayerClass();
+		return pcd != null ? pcd.getPlayerClass() : entry.getPlayerClass();
 	}
 
 	public int getMapId() {
+		if (pcd == null) {
+			return entry.getWorldId();
+		}
 		WorldPosition position = pcd.getPosition();
 		if (position == null) {
 			log.warn("Null friend position: {}", pcd.getPlayerObjId());
@@ -69,22 +83,23 @@ public class Friend {
 	}
 
 	public int getLastOnlineTime() {
-		if (pcd.getLastOnline() == null || isOnline()) {
+		Timestamp lastOnline = pcd != null ? pcd.getLastOnline() : entry.getLastOnline();
+		if (lastOnline == null || isOnline()) {
 			return 0;
 		}
-		return (int) (pcd.getLastOnline().getTime() / 1000);
+		return (int) (lastOnline.getTime() / 1000);
 	}
 
 	public int getOid() {
-		return pcd.getPlayerObjId();
+		return pcd != null ? pcd.getPlayerObjId() : entry.getObjectId();
 	}
 
 	public Player getPlayer() {
-		return pcd.getPlayer();
+		return pcd != null ? pcd.getPlayer() : null;
 	}
 
 	public boolean isOnline() {
-		return pcd.isOnline();
+		return pcd != null && pcd.isOnline();
 	}
 
 	public String getFriendNote() {
@@ -18,8 +18,11 @@ package com.aionemu.gameserver.model.gameobjects.player;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Map;
 
 import com.aionemu.commons.database.dao.DAOManager;
@@ -111,6 +114,7 @@ import com.aionemu.gameserver.model.templates.stats.PlayerStatsTemplate;
 import com.aionemu.gameserver.model.templates.windstreams.WindstreamPath;
 import com.aionemu.gameserver.model.templates.zone.ZoneType;
 import com.aionemu.gameserver.network.aion.AionConnection;
+import com.aionemu.gameserver.network.aion.EncodedBlock;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_STATS_INFO;
 import com.aionemu.gameserver.network.loginserver.LoginServer;
 import com.aionemu.gameserver.network.loginserver.serverpackets.SM_ACCOUNT_TOLL_INFO;
@@ -122,6 +126,7 @@ import com.aionemu.gameserver.services.events.FFAService;
 import com.aionemu.gameserver.services.events.bg.Battleground;
 import com.aionemu.gameserver.services.events.thievesguildservice.ThievesStatusList;
 import com.aionemu.gameserver.services.instance.InstanceService;
+import com.aionemu.gameserver.services.player.PlayerNameDirectory;
 import com.aionemu.gameserver.services.protectors.Protector;
 import com.aionemu.gameserver.skillengine.condition.ChainCondition;
 import com.aionemu.gameserver.skillengine.effect.AbnormalState;
@@ -150,6 +155,8 @@ public class Player extends Creature {
 	public WindstreamPath windstreamPath;
 	private PlayerAppearance playerAppearance;
 	private PlayerAppearance savedPlayerAppearance;
+	private volatile EncodedBlock appearanceInfoBlock;
+	private volatile EncodedBlock equipmentInfoBlock;
 	private PlayerCommonData playerCommonData;
 	private Account playerAccount;
 	private LegionMember legionMember;
@@ -437,6 +444,34 @@ public class Player extends Creature {
 
 	public void setPlayerAppearance(PlayerAppearance playerAppearance) {
 		this.playerAppearance = playerAppearance;
+		this.appearanceInfoBlock = null;
+	}
+
+	/**
+	 * Cached appearance part of SM_PLAYER_INFO, must be invalidated after
+	 * changing the current PlayerAppearance in place.
+	 */
+	public EncodedBlock getAppearanceInfoBlock() {
+		return appearanceInfoBlock;
+	}
+
+	public void setAppearanceInfoBlock(EncodedBlock appearanceInfoBlock) {
+		this.appearanceInfoBlock = appearanceInfoBlock;
+	}
+
+	public void invalidateAppearanceInfoBlock() {
+		this.appearanceInfoBlock = null;
+	}
+
+	/**
+	 * Cached item appearance part of SM_PLAYER_INFO.
+	 */
+	public EncodedBlock getEquipmentInfoBlock() {
+		return equipmentInfoBlock;
+	}
+
+	public void setEquipmentInfoBlock(EncodedBlock equipmentInfoBlock) {
+		this.equipmentInfoBlock = equipmentInfoBlock;
 	}
 
 	/**
@@ -824,30 +859,26 @@ public class Player extends Creature {
 
 		IStorage cubeStorage = getStorage(StorageType.CUBE.getId());
 		if (cubeStorage.getPersistentState() == PersistentState.UPDATE_REQUIRED) {
-			dirtyItems.addAll(cubeStorage.getItemsWithKinah());
-			dirtyItems.addAll(cubeStorage.getDeletedItems());
+			cubeStorage.collectDirtyItems(dirtyItems);
 			cubeStorage.setPersistentState(PersistentState.UPDATED);
 		}
 
 		IStorage regularWhStorage = getStorage(StorageType.REGULAR_WAREHOUSE.getId());
 		if (regularWhStorage.getPersistentState() == PersistentState.UPDATE_REQUIRED) {
-			dirtyItems.addAll(regularWhStorage.getItemsWithKinah());
-			dirtyItems.addAll(regularWhStorage.getDeletedItems());
+			regularWhStorage.collectDirtyItems(dirtyItems);
 			regularWhStorage.setPersistentState(PersistentState.UPDATED);
 		}
 
 		IStorage accountWhStorage = getStorage(StorageType.ACCOUNT_WAREHOUSE.getId());
 		if (accountWhStorage.getPersistentState() == PersistentState.UPDATE_REQUIRED) {
-			dirtyItems.addAll(accountWhStorage.getItemsWithKinah());
-			dirtyItems.addAll(accountWhStorage.getDeletedItems());
+			accountWhStorage.collectDirtyItems(dirtyItems);
 			accountWhStorage.setPersistentState(PersistentState.UPDATED);
 		}
 
 		IStorage legionWhStorage = getStorage(StorageType.LEGION_WAREHOUSE.getId());
 		if (legionWhStorage != null) {
 			if (legionWhStorage.getPersistentState() == PersistentState.UPDATE_REQUIRED) {
-				dirtyItems.addAll(legionWhStorage.getItemsWithKinah());
-				dirtyItems.addAll(legionWhStorage.getDeletedItems());
+				legionWhStorage.collectDirtyItems(dirtyItems);
 				legionWhStorage.setPersistentState(PersistentState.UPDATED);
 			}
 		}
@@ -855,8 +886,7 @@ public class Player extends Creature {
 		for (int petBagId = StorageType.PET_BAG_MIN; petBagId <= StorageType.PET_BAG_MAX; petBagId++) {
 			IStorage petBag = getStorage(petBagId);
 			if (petBag != null && petBag.getPersistentState() == PersistentState.UPDATE_REQUIRED) {
-				dirtyItems.addAll(petBag.getItemsWithKinah());
-				dirtyItems.addAll(petBag.getDeletedItems());
+				petBag.collectDirtyItems(dirtyItems);
 				petBag.setPersistentState(PersistentState.UPDATED);
 			}
 		}
@@ -864,8 +894,7 @@ public class Player extends Creature {
 		for (int houseWhId = StorageType.HOUSE_WH_MIN; houseWhId <= StorageType.HOUSE_WH_MAX; houseWhId++) {
 			IStorage cabinet = getStorage(houseWhId);
 			if (cabinet != null && cabinet.getPersistentState() == PersistentState.UPDATE_REQUIRED) {
-				dirtyItems.addAll(cabinet.getItemsWithKinah());
-				dirtyItems.addAll(cabinet.getDeletedItems());
+				cabinet.collectDirtyItems(dirtyItems);
 				cabinet.setPersistentState(PersistentState.UPDATED);
 			}
 		}
@@ -879,6 +908,45 @@ public class Player extends Creature {
 		return dirtyItems;
 	}
 
+	/**
+	 * Called once the items of {@link #getDirtyItemsToUpdate()} are written. A successful store removes the deleted
+	 * items from the deleted queues, a failed one keeps them queued and marks their storage for the next save.
+	 */
+	public void onDirtyItemsStored(Collection<Item> storedItems, boolean success) {
+		Set<Item> stored = new HashSet<Item>(storedItems);
+		for (IStorage storage : getSavedStorages()) {
+			if (success) {
+				storage.removeDeletedItems(stored);
+			} else if (!storage.getDeletedItems().isEmpty()) {
+				storage.setPersistentState(PersistentState.UPDATE_REQUIRED);
+			}
+		}
+	}
+
+	private List<IStorage> getSavedStorages() {
+		List<IStorage> storages = new ArrayList<IStorage>();
+		storages.add(getStorage(StorageType.CUBE.getId()));
+		storages.add(getStorage(StorageType.REGULAR_WAREHOUSE.getId()));
+		storages.add(getStorage(StorageType.ACCOUNT_WAREHOUSE.getId()));
+		IStorage legionWhStorage = getStorage(StorageType.LEGION_WAREHOUSE.getId());
+		if (legionWhStorage != null) {
+			storages.add(legionWhStorage);
+		}
+		for (int petBagId = StorageType.PET_BAG_MIN; petBagId <= StorageType.PET_BAG_MAX; petBagId++) {
+			IStorage petBag = getStorage(petBagId);
+			if (petBag != null) {
+				storages.add(petBag);
+			}
+		}
+		for (int houseWhId = StorageType.HOUSE_WH_MIN; houseWhId <= StorageType.HOUSE_WH_MAX; houseWhId++) {
+			IStorage cabinet = getStorage(houseWhId);
+			if (cabinet != null) {
+				storages.add(cabinet);
+			}
+		}
+		return storages;
+	}
+
 	/**
 	 * //TODO probably need to optimize here
 	 * 
@@ -996,6 +1064,9 @@ public class Player extends Creature {
 	 */
 	public void setLegionMember(LegionMember legionMember) {
 		this.legionMember = legionMember;
+		if (isOnline()) {
+			PlayerNameDirectory.getInstance().update(this);
+		}
 	}
 
 	/**
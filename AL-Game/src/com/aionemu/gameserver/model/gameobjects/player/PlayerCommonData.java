@@ -519,7 +519,15 @@ public double getExpMultiplier() {
 	}
 
 	public void setRace(Race race) {
+		Race oldRace = this.race;
 		this.race = race;
+		if (oldRace != null && oldRace != race) {
+			// the world indexes online players by race
+			Player player = getPlayer();
+			if (player != null) {
+				World.getInstance().onRaceChange(player);
+			}
+		}
 	}
 
 	@Override
@@ -0,0 +1,96 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.model.gameobjects.player;
+
+import java.sql.Timestamp;
+
+import com.aionemu.gameserver.model.PlayerClass;
+import com.aionemu.gameserver.model.Race;
+
+/**
+ * Light snapshot of a character for name lookups and social lists, kept by
+ * {@link com.aionemu.gameserver.services.player.PlayerNameDirectory}. Entries are immutable, a change replaces the
+ * whole entry.
+ */
+public class PlayerNameEntry {
+
+	private final int objectId;
+	private final String name;
+	private final int level;
+	private final PlayerClass playerClass;
+	private final Race race;
+	private final int legionId;
+	private final int worldId;
+	private final Timestamp lastOnline;
+	private final String note;
+
+	public PlayerNameEntry(int objectId, String name, int level, PlayerClass playerClass, Race race, int legionId,
+			int worldId, Timestamp lastOnline, String note) {
+		this.objectId = objectId;
+		this.name = name;
+		this.level = level;
+		this.playerClass = playerClass;
+		this.race = race;
+		this.legionId = legionId;
+		this.worldId = worldId;
+		this.lastOnline = lastOnline;
+		this.note = note;
+	}
+
+	public PlayerNameEntry(Player player) {
+		this(player.getObjectId(), player.getName(), player.getLevel(), player.getPlayerClass(), player.getRace(),
+				player.getLegion() != null ? player.getLegion().getLegionId() : 0,
+				player.getPosition() != null ? player.getPosition().getMapId() : 0, player.getCommonData().getLastOnline(),
+				player.getCommonData().getNote());
+	}
+
+	public int getObjectId() {
+		return objectId;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	public PlayerClass getPlayerClass() {
+		return playerClass;
+	}
+
+	public Race getRace() {
+		return race;
+	}
+
+	public int getLegionId() {
+		return legionId;
+	}
+
+	public int getWorldId() {
+		return worldId;
+	}
+
+	public Timestamp getLastOnline() {
+		return lastOnline;
+	}
+
+	public String getNote() {
+		return note;
+	}
+}
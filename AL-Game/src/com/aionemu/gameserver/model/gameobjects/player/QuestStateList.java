@@ -17,6 +17,7 @@
 package com.aionemu.gameserver.model.gameobjects.player;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -30,6 +31,7 @@ import com.aionemu.gameserver.model.templates.quest.QuestCategory;
 import com.aionemu.gameserver.questEngine.model.QuestState;
 import com.aionemu.gameserver.questEngine.model.QuestStatus;
 
+import gnu.trove.set.hash.TIntHashSet;
 import javolution.util.FastList;
 
 /**
@@ -41,6 +43,11 @@ public class QuestStateList {
 
 	private final SortedMap<Integer, QuestState> _quests;
 	private QuestsData _questData = DataManager.QUEST_DATA;
+	/**
+	 * Quests in START or REWARD status, the sorted array is a read-only snapshot of the set
+	 */
+	private final TIntHashSet activeQuests = new TIntHashSet();
+	private volatile int[] activeQuestIds = new int[0];
 
 	/**
 	 * Creates an empty quests list
@@ -55,17 +62,61 @@ public class QuestStateList {
 			return false;
 		}
 		_quests.put(questId, questState);
+		questState.setQuestStateList(this);
+		onStatusChange(questState);
 		return true;
 	}
 
 	public synchronized boolean removeQuest(int questId) {
 		if (_quests.containsKey(questId)) {
-			_quests.remove(questId);
+			_quests.remove(questId).setQuestStateList(null);
+			if (activeQuests.remove(questId)) {
+				updateActiveQuestIds();
+			}
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Called by the quest state when its status changes
+	 */
+	public synchronized void onStatusChange(QuestState questState) {
+		if (_quests.get(questState.getQuestId()) != questState) {
+			return;
+		}
+		QuestStatus status = questState.getStatus();
+		boolean changed;
+		if (status == QuestStatus.START || status == QuestStatus.REWARD) {
+			changed = activeQuests.add(questState.getQuestId());
+		} else {
+			changed = activeQuests.remove(questState.getQuestId());
+		}
+		if (changed) {
+			updateActiveQuestIds();
+		}
+	}
+
+	private void updateActiveQuestIds() {
+		int[] ids = activeQuests.toArray();
+		Arrays.sort(ids);
+		activeQuestIds = ids;
+	}
+
+	/**
+	 * @return true if the quest is in START or REWARD status
+	 */
+	public boolean isActive(int questId) {
+		return Arrays.binarySearch(activeQuestIds, questId) >= 0;
+	}
+
+	/**
+	 * @return sorted ids of the quests in START or REWARD status, must not be modified
+	 */
+	public int[] getActiveQuestIds() {
+		return activeQuestIds;
+	}
+
 	public QuestState getQuestState(int questId) {
 		return _quests.get(questId);
 	}
@@ -83,8 +83,19 @@ public class House extends VisibleObject {
 	private Timestamp sellStarted;
 	private Map<SpawnType, Npc> spawns = new HashMap<SpawnType, Npc>(3);
 	private HouseRegistry houseRegistry;
+	/**
+	 * Registered items and scripts are read from DB on first use, see
+	 * {@link #evictContent()}
+	 */
+	private volatile boolean registryLoaded;
+	private boolean loadingRegistry;
+	private volatile long lastContentAccess;
+	/**
+	 * Set once HousingService indexes this house by owner
+	 */
+	private volatile boolean indexed;
 	private byte houseOwnerInfoFlags = PlayerHouseOwnerFlags.SINGLE_HOUSE.getId();
-	private PlayerScripts playerScripts;
+	private volatile PlayerScripts playerScripts;
 	private PersistentState persistentState;
 	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 	private final ReentrantReadWriteLock.WriteLock writeLock = lock.writeLock();
@@ -104,7 +115,7 @@ public class House extends VisibleObject {
 		this.name = "HOUSE_" + address.getId();
 		setKnownlist(new PlayerAwareKnownList(this));
 		setPersistentState(PersistentState.UPDATED);
-		getRegistry();
+		createRegistry();
 	}
 
 	@Override
@@ -121,7 +132,7 @@ public class House extends VisibleObject {
 			for (int line = partType.getStartLineNr(); line <= partType.getEndLineNr(); line++) {
 				int floor = partType.getEndLineNr() - line;
 				HouseDecoration decor = new HouseDecoration(0, partId, floor);
-				getRegistry().putDefaultPart(decor, floor);
+				houseRegistry.putDefaultPart(decor, floor);
 			}
 		}
 	}
@@ -158,10 +169,6 @@ public class House extends VisibleObject {
 	}
 
 	public synchronized void spawn(int instanceId) {
-		playerScripts = DAOManager.getDAO(HouseScriptsDAO.class).getPlayerScripts(getObjectId());
-		if (playerObjectId > 0 && status == HouseStatus.ACTIVE || status == HouseStatus.SELL_WAIT) {
-			DAOManager.getDAO(PlayerRegisteredItemsDAO.class).loadRegistry(playerObjectId);
-		}
 		fixBuildingStates();
 		if (getPosition() == null || !getPosition().isSpawned()) {
 			WorldPosition position = World.getInstance().createPosition(address.getMapId(), address.getX(),
@@ -240,7 +247,8 @@ public class House extends VisibleObject {
 	}
 
 	public void setOwnerId(int playerObjectId) {
-		if (this.playerObjectId != playerObjectId) {
+		int oldOwnerId = this.playerObjectId;
+		if (oldOwnerId != playerObjectId) {
 			writeLock.lock();
 			try {
 				if (playerObjectId == 0) {
@@ -256,10 +264,17 @@ public class House extends VisibleObject {
 			} finally {
 				writeLock.unlock();
 			}
+			if (indexed) {
+				HousingService.getInstance().onOwnerChange(this, oldOwnerId);
+			}
 		}
 		fixBuildingStates();
 	}
 
+	public void setIndexed(boolean indexed) {
+		this.indexed = indexed;
+	}
+
 	public Timestamp getAcquiredTime() {
 		return acquiredTime;
 	}
@@ -436,7 +451,20 @@ public class House extends VisibleObject {
 		return true;
 	}
 
-	public HouseRegistry getRegistry() {
+	/**
+	 * Reloads the registry if it was evicted. Runs under the house lock like
+	 * {@link #evictContentIfIdle(long)}, so a registry handed out here is
+	 * either not evicted or was reloaded after the eviction.
+	 */
+	public synchronized HouseRegistry getRegistry() {
+		lastContentAccess = System.currentTimeMillis();
+		if (!registryLoaded) {
+			loadRegistry();
+		}
+		return createRegistry();
+	}
+
+	private HouseRegistry createRegistry() {
 		if (houseRegistry == null) {
 			houseRegistry = new HouseRegistry(this);
 			putDefaultParts();
@@ -444,9 +472,63 @@ public class House extends VisibleObject {
 		return houseRegistry;
 	}
 
+	private synchronized void loadRegistry() {
+		// the DAO fills the registry through getRegistry() from this thread
+		if (registryLoaded || loadingRegistry) {
+			return;
+		}
+		loadingRegistry = true;
+		try {
+			createRegistry();
+			if (playerObjectId > 0 && status == HouseStatus.ACTIVE || status == HouseStatus.SELL_WAIT) {
+				DAOManager.getDAO(PlayerRegisteredItemsDAO.class).loadRegistry(playerObjectId);
+			}
+		} finally {
+			loadingRegistry = false;
+			registryLoaded = true;
+		}
+	}
+
+	public boolean isContentLoaded() {
+		return registryLoaded || playerScripts != null;
+	}
+
+	/**
+	 * Evicts the content unless it was used after idleSince, a player sees the
+	 * house or its owner is online. The checks and the eviction are one step
+	 * under the house lock, so they can't interleave with a reload.
+	 *
+	 * @return true if the content was evicted
+	 */
+	public synchronized boolean evictContentIfIdle(long idleSince) {
+		if (!isContentLoaded() || lastContentAccess > idleSince || getController().isObserved()) {
+			return false;
+		}
+		if (playerObjectId != 0 && World.getInstance().findPlayer(playerObjectId) != null) {
+			return false;
+		}
+		evictContent();
+		return true;
+	}
+
+	/**
+	 * Saves and drops registered items and scripts, they are read again on
+	 * next use. Spawned house objects are removed from the world.
+	 */
+	public synchronized void evictContent() {
+		if (houseRegistry != null && registryLoaded) {
+			houseRegistry.save();
+			houseRegistry.despawnObjects(false);
+			houseRegistry = null;
+		}
+		registryLoaded = false;
+		playerScripts = null;
+	}
+
 	public synchronized void reloadHouseRegistry() {
 		houseRegistry = null;
-		getRegistry();
+		registryLoaded = true;
+		createRegistry();
 		if (playerObjectId != 0) {
 			DAOManager.getDAO(PlayerRegisteredItemsDAO.class).loadRegistry(playerObjectId);
 		}
@@ -461,7 +543,18 @@ public class House extends VisibleObject {
 	}
 
 	public PlayerScripts getPlayerScripts() {
-		return playerScripts;
+		lastContentAccess = System.currentTimeMillis();
+		PlayerScripts scripts = playerScripts;
+		if (scripts == null) {
+			synchronized (this) {
+				scripts = playerScripts;
+				if (scripts == null) {
+					scripts = DAOManager.getDAO(HouseScriptsDAO.class).getPlayerScripts(getObjectId());
+					playerScripts = scripts;
+				}
+			}
+		}
+		return scripts;
 	}
 
 	public HouseType getHouseType() {
@@ -16,6 +16,9 @@
  */
 package com.aionemu.gameserver.model.instance.instancereward;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.apache.commons.lang.mutable.MutableInt;
 
 import com.aionemu.commons.utils.Rnd;
@@ -23,7 +26,11 @@ import com.aionemu.gameserver.model.Race;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.model.geometry.Point3D;
 import com.aionemu.gameserver.model.instance.playerreward.DredgionPlayerReward;
+import com.aionemu.gameserver.network.aion.serverpackets.SM_INSTANCE_SCORE;
 import com.aionemu.gameserver.services.teleport.TeleportService2;
+import com.aionemu.gameserver.utils.PacketSendUtility;
+import com.aionemu.gameserver.world.WorldMapInstance;
+import com.aionemu.gameserver.world.knownlist.Visitor;
 
 import javolution.util.FastList;
 
@@ -43,9 +50,12 @@ public class DredgionReward extends InstanceReward<DredgionPlayerReward> {
 	private FastList<DredgionRooms> dredgionRooms = new FastList<DredgionRooms>();
 	private Point3D asmodiansStartPosition;
 	private Point3D elyosStartPosition;
+	protected WorldMapInstance instance;
+	private long instanceTime;
 
-	public DredgionReward(Integer mapId, int instanceId) {
+	public DredgionReward(Integer mapId, int instanceId, WorldMapInstance instance) {
 		super(mapId, instanceId);
+		this.instance = instance;
 		winnerPoints = mapId == 300110000 ? 3000 : 4500;
 		looserPoints = mapId == 300110000 ? 1500 : 2500;
 		drawPoins = mapId == 300110000 ? 2250 : 3750;
@@ -151,6 +161,32 @@ public class DredgionReward extends InstanceReward<DredgionPlayerReward> {
 		return asmodiansPoints.compareTo(elyosPoins) > 0 ? Race.ASMODIANS : Race.ELYOS;
 	}
 
+	public int getTime() {
+		long result = System.currentTimeMillis() - instanceTime;
+		if (result < 60000) {
+			return (int) (60000 - result);
+		} else if (result < 3600000) {
+			return (int) (3600000 - (result - 60000));
+		}
+		return 0;
+	}
+
+	@Override
+	public void setInstanceStartTime() {
+		this.instanceTime = System.currentTimeMillis();
+	}
+
+	@Override
+	protected void sendScore(Collection<Integer> changedPlayers) {
+		final List<Player> players = instance.getPlayersInside();
+		instance.doOnAllPlayers(new Visitor<Player>() {
+			@Override
+			public void visit(Player player) {
+				PacketSendUtility.sendPacket(player, new SM_INSTANCE_SCORE(getTime(), getInstanceReward(), players));
+			}
+		});
+	}
+
 	@Override
 	public void clear() {
 		super.clear();
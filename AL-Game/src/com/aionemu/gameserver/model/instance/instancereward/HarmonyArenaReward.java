@@ -16,11 +16,7 @@
  */
 package com.aionemu.gameserver.model.instance.instancereward;
 
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.sort;
-import static ch.lambdaj.Lambda.sum;
-
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
 
 import com.aionemu.gameserver.model.autogroup.AGPlayer;
@@ -95,7 +91,7 @@ public class HarmonyArenaReward extends PvPArenaReward {
 	@Override
 	public int getRank(int points) {
 		int rank = -1;
-		for (HarmonyGroupReward reward : sortGroupPoints()) {
+		for (HarmonyGroupReward reward : groups) {
 			if (reward.getPoints() >= points) {
 				rank++;
 			}
@@ -104,17 +100,18 @@ public class HarmonyArenaReward extends PvPArenaReward {
 	}
 
 	public List<HarmonyGroupReward> sortGroupPoints() {
-		return sort(groups, on(HarmonyGroupReward.class).getPoints(), new Comparator<Integer>() {
-			@Override
-			public int compare(Integer o1, Integer o2) {
-				return o2 != null ? o2.compareTo(o1) : -o1.compareTo(o2);
-			}
-		});
+		List<HarmonyGroupReward> sorted = new FastList<HarmonyGroupReward>(groups);
+		Collections.sort(sorted, InstancePlayerReward.POINTS_DESC);
+		return sorted;
 	}
 
 	@Override
 	public int getTotalPoints() {
-		return sum(groups, on(HarmonyGroupReward.class).getPoints());
+		int total = 0;
+		for (HarmonyGroupReward group : groups) {
+			total += group.getPoints();
+		}
+		return total;
 	}
 
 	@Override
@@ -16,17 +16,45 @@
  */
 package com.aionemu.gameserver.model.instance.instancereward;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.aionemu.gameserver.model.instance.InstanceScoreType;
 import com.aionemu.gameserver.model.instance.playerreward.InstancePlayerReward;
+import com.aionemu.gameserver.utils.ThreadPoolManager;
 
 import javolution.util.FastList;
+import javolution.util.FastMap;
 
 public class InstanceReward<T extends InstancePlayerReward> {
+
+	/**
+	 * Minimum time in ms between two score updates sent through {@link #scheduleScoreUpdate(ScoreUpdateSender)}
+	 */
+	public static final int SCORE_UPDATE_INTERVAL = 1000;
+
 	private final Logger log = LoggerFactory.getLogger(InstanceReward.class);
 	protected FastList<T> instanceRewards = new FastList<T>();
+	private final Map<Integer, T> rewardsByOwner = new FastMap<Integer, T>().shared();
+	private final Set<Integer> changedPlayers = new LinkedHashSet<Integer>();
+	private final ScoreUpdateSender scoreSender = new ScoreUpdateSender() {
+		@Override
+		public void send(Collection<Integer> changedPlayers) {
+			sendScore(changedPlayers);
+		}
+	};
+	private Future<?> scoreUpdateTask;
+	private long lastScoreUpdate;
 	private InstanceScoreType instanceScoreType = InstanceScoreType.START_PROGRESS;
 	protected Integer mapId;
 	protected int instanceId;
@@ -40,31 +68,167 @@ public class InstanceReward<T extends InstancePlayerReward> {
 	}
 
 	public boolean containPlayer(Integer object) {
-		for (InstancePlayerReward instanceReward : instanceRewards) {
-			if (instanceReward.getOwner().equals(object)) {
-				return true;
-			}
-		}
-		return false;
+		return getPlayerReward(object) != null;
 	}
 
 	public void removePlayerReward(T reward) {
 		if (instanceRewards.contains(reward)) {
 			instanceRewards.remove(reward);
+			if (rewardsByOwner.get(reward.getOwner()) == reward) {
+				rewardsByOwner.remove(reward.getOwner());
+			}
 		}
 	}
 
 	public InstancePlayerReward getPlayerReward(Integer object) {
+		return object != null ? rewardsByOwner.get(object) : null;
+	}
+
+	/**
+	 * @return a sorted copy of the player rewards, equal elements keep their order
+	 */
+	protected List<T> sortRewards(Comparator<? super T> comparator) {
+		List<T> sorted = new FastList<T>(instanceRewards);
+		Collections.sort(sorted, comparator);
+		return sorted;
+	}
+
+	/**
+	 * @return the highest points of all player rewards, 0 if there is none
+	 */
+	public int getMaxPoints() {
+		int max = 0;
+		boolean first = true;
 		for (InstancePlayerReward instanceReward : instanceRewards) {
-			if (instanceReward.getOwner().equals(object)) {
-				return instanceReward;
+			if (first || instanceReward.getPoints() > max) {
+				max = instanceReward.getPoints();
+				first = false;
 			}
 		}
-		return null;
+		return max;
+	}
+
+	/**
+	 * @return the lowest points of all player rewards, 0 if there is none
+	 */
+	public int getMinPoints() {
+		int min = 0;
+		boolean first = true;
+		for (InstancePlayerReward instanceReward : instanceRewards) {
+			if (first || instanceReward.getPoints() < min) {
+				min = instanceReward.getPoints();
+				first = false;
+			}
+		}
+		return min;
 	}
 
 	public void addPlayerReward(T reward) {
 		instanceRewards.add(reward);
+		if (!rewardsByOwner.containsKey(reward.getOwner())) {
+			rewardsByOwner.put(reward.getOwner(), reward);
+		}
+	}
+
+	/**
+	 * Marks the score of the player as changed, it is handed to the sender of the next score update.
+	 */
+	public void setScoreChanged(Integer object) {
+		synchronized (changedPlayers) {
+			changedPlayers.add(object);
+		}
+	}
+
+	/**
+	 * Sends the score changes through the sender, at most once per {@link #SCORE_UPDATE_INTERVAL}. The first change
+	 * after a quiet period is sent right away, changes made while an update is pending are sent together with it. An
+	 * instance is expected to use the same sender for all its updates.
+	 */
+	public void scheduleScoreUpdate(final ScoreUpdateSender sender) {
+		synchronized (changedPlayers) {
+			if (scoreUpdateTask != null) {
+				return;
+			}
+			long delay = Math.max(0, lastScoreUpdate + SCORE_UPDATE_INTERVAL - System.currentTimeMillis());
+			scoreUpdateTask = ThreadPoolManager.getInstance().schedule(new Runnable() {
+				@Override
+				public void run() {
+					List<Integer> changed;
+					synchronized (changedPlayers) {
+						scoreUpdateTask = null;
+						lastScoreUpdate = System.currentTimeMillis();
+						changed = new ArrayList<Integer>(changedPlayers);
+						changedPlayers.clear();
+					}
+					sender.send(changed);
+				}
+			}, delay);
+		}
+	}
+
+	/**
+	 * Sends the full score right away (join, reconnect, start and end of the instance), the pending score update is
+	 * dropped as the full score already holds its changes.
+	 */
+	public void sendFullScore(ScoreUpdateSender sender) {
+		List<Integer> changed;
+		synchronized (changedPlayers) {
+			cancelScoreUpdate();
+			lastScoreUpdate = System.currentTimeMillis();
+			changed = new ArrayList<Integer>(changedPlayers);
+			changedPlayers.clear();
+		}
+		sender.send(changed);
+	}
+
+	/**
+	 * Marks the score of the player as changed and sends it with the next score update.
+	 */
+	public void sendScoreUpdate(Integer object) {
+		setScoreChanged(object);
+		scheduleScoreUpdate(scoreSender);
+	}
+
+	/**
+	 * Sends the score with the next score update, merged with the other changes of the same
+	 * {@link #SCORE_UPDATE_INTERVAL}.
+	 */
+	public void sendScoreUpdate() {
+		scheduleScoreUpdate(scoreSender);
+	}
+
+	/**
+	 * Sends the full score right away through {@link #sendScore(Collection)}.
+	 */
+	public void sendFullScore() {
+		sendFullScore(scoreSender);
+	}
+
+	/**
+	 * Writes a score update to the players of the instance. By default the score of every changed player is sent
+	 * through {@link #sendPlayerScore(Integer)} until the instance is rewarded, as the end score already holds them.
+	 * Rewards that always show the whole score override it.
+	 */
+	protected void sendScore(Collection<Integer> changedPlayers) {
+		if (isRewarded()) {
+			return;
+		}
+		for (Integer object : changedPlayers) {
+			sendPlayerScore(object);
+		}
+	}
+
+	/**
+	 * Writes the score of one player to the players of the instance, does nothing unless overridden.
+	 */
+	protected void sendPlayerScore(Integer object) {
+	}
+
+	private void cancelScoreUpdate() {
+		if (scoreUpdateTask != null) {
+			scoreUpdateTask.cancel(false);
+			scoreUpdateTask = null;
+		}
 	}
 
 	public void setInstanceScoreType(InstanceScoreType instanceScoreType) {
@@ -101,6 +265,11 @@ public class InstanceReward<T extends InstancePlayerReward> {
 
 	public void clear() {
 		instanceRewards.clear();
+		rewardsByOwner.clear();
+		synchronized (changedPlayers) {
+			cancelScoreUpdate();
+			changedPlayers.clear();
+		}
 	}
 
 	protected InstanceReward<?> getInstanceReward() {
@@ -110,4 +279,15 @@ public class InstanceReward<T extends InstancePlayerReward> {
 	public void sendLog(String log) {
 		this.log.info(log);
 	}
+
+	/**
+	 * Writes score updates to the players of an instance.
+	 */
+	public interface ScoreUpdateSender {
+
+		/**
+		 * @param changedPlayers players whose score changed since the previous update, in order of change
+		 */
+		void send(Collection<Integer> changedPlayers);
+	}
 }
\ No newline at end of file
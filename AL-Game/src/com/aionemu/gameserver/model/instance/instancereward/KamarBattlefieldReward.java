@@ -16,10 +16,6 @@
  */
 package com.aionemu.gameserver.model.instance.instancereward;
 
-import static ch.lambdaj.Lambda.maxFrom;
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.sort;
-
 import java.util.Comparator;
 import java.util.List;
 
@@ -29,7 +25,6 @@ import com.aionemu.gameserver.model.Race;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.model.geometry.Point3D;
 import com.aionemu.gameserver.model.instance.playerreward.KamarBattlefieldPlayerReward;
-import com.aionemu.gameserver.model.instance.playerreward.PvPArenaPlayerReward;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_INSTANCE_SCORE;
 import com.aionemu.gameserver.services.teleport.TeleportService2;
 import com.aionemu.gameserver.utils.PacketSendUtility;
@@ -98,10 +93,10 @@ public class KamarBattlefieldReward extends InstanceReward<KamarBattlefieldPlaye
 	}
 
 	public List<KamarBattlefieldPlayerReward> sortPoints() {
-		return sort(getInstanceRewards(), on(PvPArenaPlayerReward.class).getScorePoints(), new Comparator<Integer>() {
+		return sortRewards(new Comparator<KamarBattlefieldPlayerReward>() {
 			@Override
-			public int compare(Integer o1, Integer o2) {
-				return o2 != null ? o2.compareTo(o1) : -o1.compareTo(o2);
+			public int compare(KamarBattlefieldPlayerReward o1, KamarBattlefieldPlayerReward o2) {
+				return Integer.compare(o2.getScorePoints(), o1.getScorePoints());
 			}
 		});
 	}
@@ -191,6 +186,11 @@ public class KamarBattlefieldReward extends InstanceReward<KamarBattlefieldPlaye
 		});
 	}
 
+	@Override
+	protected void sendPlayerScore(Integer object) {
+		sendPacket(11, object);
+	}
+
 	public int getTime() {
 		long result = System.currentTimeMillis() - instanceTime;
 		if (result < 90000) {
@@ -214,6 +214,6 @@ public class KamarBattlefieldReward extends InstanceReward<KamarBattlefieldPlaye
 	}
 
 	public boolean hasCapPoints() {
-		return maxFrom(getInstanceRewards()).getPoints() >= capPoints;
+		return getMaxPoints() >= capPoints;
 	}
 }
\ No newline at end of file
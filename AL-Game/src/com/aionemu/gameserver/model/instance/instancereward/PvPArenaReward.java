@@ -16,15 +16,9 @@
  */
 package com.aionemu.gameserver.model.instance.instancereward;
 
-import static ch.lambdaj.Lambda.maxFrom;
-import static ch.lambdaj.Lambda.minFrom;
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.sort;
-import static ch.lambdaj.Lambda.sum;
-
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -165,12 +159,7 @@ public class PvPArenaReward extends InstanceReward<PvPArenaPlayerReward> {
 	}
 
 	public List<PvPArenaPlayerReward> sortPoints() {
-		return sort(getInstanceRewards(), on(PvPArenaPlayerReward.class).getScorePoints(), new Comparator<Integer>() {
-			@Override
-			public int compare(Integer o1, Integer o2) {
-				return o2 != null ? o2.compareTo(o1) : -o1.compareTo(o2);
-			}
-		});
+		return sortRewards(PvPArenaPlayerReward.SCORE_POINTS_DESC);
 	}
 
 	public boolean canRewardOpportunityToken(PvPArenaPlayerReward rewardedPlayer) {
@@ -183,7 +172,7 @@ public class PvPArenaReward extends InstanceReward<PvPArenaPlayerReward> {
 
 	public int getRank(int points) {
 		int rank = -1;
-		for (PvPArenaPlayerReward reward : sortPoints()) {
+		for (PvPArenaPlayerReward reward : getInstanceRewards()) {
 			if (reward.getScorePoints() >= points) {
 				rank++;
 			}
@@ -193,13 +182,17 @@ public class PvPArenaReward extends InstanceReward<PvPArenaPlayerReward> {
 
 	public boolean hasCapPoints() {
 		if (isSoloArena()
-				&& (maxFrom(getInstanceRewards()).getPoints() - minFrom(getInstanceRewards()).getPoints() >= 1500))
+				&& (getMaxPoints() - getMinPoints() >= 1500))
 			return true;
-		return maxFrom(getInstanceRewards()).getPoints() >= capPoints;
+		return getMaxPoints() >= capPoints;
 	}
 
 	public int getTotalPoints() {
-		return sum(getInstanceRewards(), on(PvPArenaPlayerReward.class).getScorePoints());
+		int total = 0;
+		for (PvPArenaPlayerReward reward : getInstanceRewards()) {
+			total += reward.getScorePoints();
+		}
+		return total;
 	}
 
 	public boolean canRewarded() {
@@ -253,7 +246,8 @@ public class PvPArenaReward extends InstanceReward<PvPArenaPlayerReward> {
 		this.instanceTime = System.currentTimeMillis();
 	}
 
-	public void sendPacket() {
+	@Override
+	protected void sendScore(Collection<Integer> changedPlayers) {
 		final List<Player> players = instance.getPlayersInside();
 		instance.doOnAllPlayers(new Visitor<Player>() {
 			@Override
@@ -263,6 +257,26 @@ public class PvPArenaReward extends InstanceReward<PvPArenaPlayerReward> {
 		});
 	}
 
+	/**
+	 * Sends the full score to all players right away.
+	 */
+	public void sendPacket() {
+		sendFullScore();
+	}
+
+	/**
+	 * Sends the score after a point change, merged with the other changes of the same {@link #SCORE_UPDATE_INTERVAL}.
+	 * Once the arena is rewarded the score is sent right away.
+	 */
+	@Override
+	public void sendScoreUpdate() {
+		if (isRewarded()) {
+			sendPacket();
+		} else {
+			super.sendScoreUpdate();
+		}
+	}
+
 	public byte getBuffId() {
 		return buffId;
 	}
@@ -16,7 +16,20 @@
  */
 package com.aionemu.gameserver.model.instance.playerreward;
 
+import java.util.Comparator;
+
 public class InstancePlayerReward {
+	/**
+	 * Highest points first.
+	 */
+	public static final Comparator<InstancePlayerReward> POINTS_DESC = new Comparator<InstancePlayerReward>() {
+
+		@Override
+		public int compare(InstancePlayerReward o1, InstancePlayerReward o2) {
+			return Integer.compare(o2.getPoints(), o1.getPoints());
+		}
+	};
+
 	private int points;
 	private int playerPvPKills;
 	private int playerMonsterKills;
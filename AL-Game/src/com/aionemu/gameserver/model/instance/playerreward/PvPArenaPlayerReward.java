@@ -16,10 +16,23 @@
  */
 package com.aionemu.gameserver.model.instance.playerreward;
 
+import java.util.Comparator;
+
 import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.model.instance.InstanceBuff;
 
 public class PvPArenaPlayerReward extends InstancePlayerReward {
+	/**
+	 * Highest score (points and time bonus) first.
+	 */
+	public static final Comparator<PvPArenaPlayerReward> SCORE_POINTS_DESC = new Comparator<PvPArenaPlayerReward>() {
+
+		@Override
+		public int compare(PvPArenaPlayerReward o1, PvPArenaPlayerReward o2) {
+			return Integer.compare(o2.getScorePoints(), o1.getScorePoints());
+		}
+	};
+
 	private int position;
 	private int timeBonus;
 	private float timeBonusModifier;
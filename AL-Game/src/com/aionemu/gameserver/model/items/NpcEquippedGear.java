@@ -35,6 +35,8 @@ public class NpcEquippedGear implements Iterable<Entry<ItemSlot, ItemTemplate>>
 
 	private Map<ItemSlot, ItemTemplate> items;
 	private short mask;
+	private boolean hasWeapon;
+	private volatile byte[] infoBlock;
 
 	private NpcEquipmentList v;
 
@@ -74,6 +76,9 @@ public class NpcEquippedGear implements Iterable<Entry<ItemSlot, ItemTemplate>>
 						if (items.get(itemSlot) == null) {
 							items.put(itemSlot, item);
 							mask |= itemSlot.getSlotIdMask();
+							if (item.getWeaponType() != null) {
+								hasWeapon = true;
+							}
 							break;
 						}
 					}
@@ -83,6 +88,24 @@ public class NpcEquippedGear implements Iterable<Entry<ItemSlot, ItemTemplate>>
 		}
 	}
 
+	public boolean hasWeapon() {
+		if (items == null) {
+			init();
+		}
+		return hasWeapon;
+	}
+
+	/**
+	 * Cached gear part of SM_NPC_INFO, the gear never changes after loading.
+	 */
+	public byte[] getInfoBlock() {
+		return infoBlock;
+	}
+
+	public void setInfoBlock(byte[] infoBlock) {
+		this.infoBlock = infoBlock;
+	}
+
 	/**
 	 * @param itemSlot
 	 * @return
@@ -16,6 +16,7 @@
  */
 package com.aionemu.gameserver.model.items.storage;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Queue;
 
@@ -232,6 +233,22 @@ public interface IStorage {
 	 */
 	Queue<Item> getDeletedItems();
 
+	/**
+	 * Adds items which have to be written to DB, including the pending deleted
+	 * ones. They stay queued until {@link #removeDeletedItems(Collection)}
+	 * 
+	 * @param dirtyItems
+	 */
+	void collectDirtyItems(Collection<Item> dirtyItems);
+
+	/**
+	 * Removes the given items from the deleted queue once their delete is
+	 * written to DB
+	 * 
+	 * @param storedItems
+	 */
+	void removeDeletedItems(Collection<Item> storedItems);
+
 	/**
 	 * @param item
 	 */
@@ -16,15 +16,11 @@
  */
 package com.aionemu.gameserver.model.items.storage;
 
-import static ch.lambdaj.Lambda.having;
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.select;
-import static org.hamcrest.Matchers.greaterThan;
-import static org.hamcrest.Matchers.lessThan;
-
+import java.util.Collection;
 import java.util.List;
 
 import com.aionemu.gameserver.model.gameobjects.Item;
+import com.aionemu.gameserver.model.gameobjects.PersistentState;
 
 import javolution.util.FastList;
 import javolution.util.FastMap;
@@ -33,12 +29,28 @@ public class ItemStorage {
 	public static final long FIRST_AVAILABLE_SLOT = 65535L;
 
 	private FastMap<Integer, Item> items;
+	/**
+	 * Buckets of items, by extra inventory id of their template (never changes)
+	 */
+	private FastMap<Integer, Item> cubeItems;
+	private FastMap<Integer, Item> specialCubeItems;
+	/**
+	 * Items by template id, in the order they were put (template never changes)
+	 */
+	private FastMap<Integer, FastList<Item>> itemsById;
 	private int limit;
 	private int specialLimit;
 	public ItemStorage(StorageType storageType) {
 		this.limit = storageType.getLimit();
 		this.specialLimit = storageType.getSpecialLimit();
 		this.items = FastMap.newInstance();
+		this.cubeItems = FastMap.newInstance();
+		this.specialCubeItems = FastMap.newInstance();
+		this.itemsById = FastMap.newInstance();
+	}
+
+	private FastMap<Integer, Item> getBucket(Item item) {
+		return item.getItemTemplate().getExtraInventoryId() > 0 ? specialCubeItems : cubeItems;
 	}
 
 	public FastList<Item> getItems() {
@@ -52,7 +64,7 @@ public class ItemStorage {
 	}
 
 	public boolean setLimit(int limit) {
-		if (getCubeItems().size() > limit) {
+		if (cubeItems.size() > limit) {
 			return false;
 		}
 
@@ -61,39 +73,42 @@ public class ItemStorage {
 	}
 
 	public Item getFirstItemById(int itemId) {
-		for (Item item : items.values()) {
-			if (item.getItemTemplate().getTemplateId() == itemId) {
-				return item;
-			}
-		}
-		return null;
+		FastList<Item> sameId = itemsById.get(itemId);
+		return sameId == null ? null : sameId.getFirst();
 	}
 
 	public FastList<Item> getItemsById(int itemId) {
 		FastList<Item> temp = FastList.newInstance();
-		for (Item item : items.values()) {
-			if (item.getItemTemplate().getTemplateId() == itemId) {
-				temp.add(item);
-			}
+		FastList<Item> sameId = itemsById.get(itemId);
+		if (sameId != null) {
+			temp.addAll(sameId);
 		}
 		return temp;
 	}
 
+	public long getItemCountById(int itemId) {
+		FastList<Item> sameId = itemsById.get(itemId);
+		if (sameId == null) {
+			return 0;
+		}
+		long count = 0;
+		for (int i = 0, size = sameId.size(); i < size; i++) {
+			count += sameId.get(i).getItemCount();
+		}
+		return count;
+	}
+
 	public Item getItemByObjId(int itemObjId) {
 		return this.items.get(itemObjId);
 	}
 
 	public long getSlotIdByItemId(int itemId) {
-		for (Item item : this.items.values()) {
-			if (item.getItemTemplate().getTemplateId() == itemId) {
-				return item.getEquipmentSlot();
-			}
-		}
-		return -1;
+		Item item = getFirstItemById(itemId);
+		return item == null ? -1 : item.getEquipmentSlot();
 	}
 
 	public Item getItemBySlotId(short slotId) {
-		for (Item item : getCubeItems()) {
+		for (Item item : cubeItems.values()) {
 			if (item.getEquipmentSlot() == slotId) {
 				return item;
 			}
@@ -102,7 +117,7 @@ public class ItemStorage {
 	}
 
 	public Item getSpecialItemBySlotId(short slotId) {
-		for (Item item : getSpecialCubeItems()) {
+		for (Item item : specialCubeItems.values()) {
 			if (item.getEquipmentSlot() == slotId) {
 				return item;
 			}
@@ -128,35 +143,68 @@ public class ItemStorage {
 			return false;
 		}
 		this.items.put(item.getObjectId(), item);
+		getBucket(item).put(item.getObjectId(), item);
+		int itemId = item.getItemTemplate().getTemplateId();
+		FastList<Item> sameId = itemsById.get(itemId);
+		if (sameId == null) {
+			sameId = new FastList<Item>(1);
+			itemsById.put(itemId, sameId);
+		}
+		sameId.add(item);
 		return true;
 	}
 
 	public Item removeItem(int objId) {
-		return this.items.remove(objId);
+		Item item = this.items.remove(objId);
+		if (item != null) {
+			getBucket(item).remove(objId);
+			int itemId = item.getItemTemplate().getTemplateId();
+			FastList<Item> sameId = itemsById.get(itemId);
+			if (sameId != null && sameId.remove(item) && sameId.isEmpty()) {
+				itemsById.remove(itemId);
+			}
+		}
+		return item;
 	}
 
 	public boolean isFull() {
-		return getCubeItems().size() >= limit;
+		return cubeItems.size() >= limit;
 	}
 
 	public boolean isFullSpecialCube() {
-		return getSpecialCubeItems().size() >= specialLimit;
+		return specialCubeItems.size() >= specialLimit;
 	}
 
 	public List<Item> getSpecialCubeItems() {
-		return select(items.values(), having(on(Item.class).getItemTemplate().getExtraInventoryId(), greaterThan(0)));
+		FastList<Item> temp = FastList.newInstance();
+		temp.addAll(specialCubeItems.values());
+		return temp;
 	}
 
 	public List<Item> getCubeItems() {
-		return select(items.values(), having(on(Item.class).getItemTemplate().getExtraInventoryId(), lessThan(1)));
+		FastList<Item> temp = FastList.newInstance();
+		temp.addAll(cubeItems.values());
+		return temp;
 	}
 
 	public int getFreeSlots() {
-		return limit - getCubeItems().size();
+		return limit - cubeItems.size();
 	}
 
 	public int getSpecialCubeFreeSlots() {
-		return specialLimit - getSpecialCubeItems().size();
+		return specialLimit - specialCubeItems.size();
+	}
+
+	/**
+	 * Adds the items which still have to be written to DB
+	 */
+	public void collectDirtyItems(Collection<Item> dirtyItems) {
+		for (FastMap.Entry<Integer, Item> e = items.head(), end = items.tail(); (e = e.getNext()) != end;) {
+			Item item = e.getValue();
+			if (item.getPersistentState() != PersistentState.UPDATED) {
+				dirtyItems.add(item);
+			}
+		}
 	}
 
 	public int size() {
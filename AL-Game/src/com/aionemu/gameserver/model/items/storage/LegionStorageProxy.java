@@ -16,6 +16,7 @@
  */
 package com.aionemu.gameserver.model.items.storage;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Queue;
 
@@ -170,6 +171,16 @@ public class LegionStorageProxy extends Storage {
 		return storage.getDeletedItems();
 	}
 
+	@Override
+	public void collectDirtyItems(Collection<Item> dirtyItems) {
+		storage.collectDirtyItems(dirtyItems);
+	}
+
+	@Override
+	public void removeDeletedItems(Collection<Item> storedItems) {
+		storage.removeDeletedItems(storedItems);
+	}
+
 	@Override
 	public Item getItemByObjId(int itemObjId) {
 		return storage.getItemByObjId(itemObjId);
@@ -16,6 +16,7 @@
  */
 package com.aionemu.gameserver.model.items.storage;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -285,6 +286,24 @@ public abstract class Storage implements IStorage {
 		return deletedItems;
 	}
 
+	@Override
+	public void collectDirtyItems(Collection<Item> dirtyItems) {
+		itemStorage.collectDirtyItems(dirtyItems);
+		if (kinahItem != null && kinahItem.getPersistentState() != PersistentState.UPDATED) {
+			dirtyItems.add(kinahItem);
+		}
+		if (deletedItems != null) {
+			dirtyItems.addAll(deletedItems);
+		}
+	}
+
+	@Override
+	public void removeDeletedItems(Collection<Item> storedItems) {
+		if (deletedItems != null) {
+			deletedItems.removeAll(storedItems);
+		}
+	}
+
 	@Override
 	public Item getItemByObjId(int itemObjId) {
 		return this.itemStorage.getItemByObjId(itemObjId);
@@ -292,15 +311,7 @@ public abstract class Storage implements IStorage {
 
 	@Override
 	public long getItemCountByItemId(int itemId) {
-		FastList<Item> temp = this.itemStorage.getItemsById(itemId);
-		if (temp.size() == 0) {
-			return 0;
-		}
-		long cnt = 0;
-		for (Item item : temp) {
-			cnt += item.getItemCount();
-		}
-		return cnt;
+		return this.itemStorage.getItemCountById(itemId);
 	}
 
 	@Override
@@ -16,6 +16,8 @@
  */
 package com.aionemu.gameserver.model.stats.container;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -26,13 +28,19 @@ import org.apache.commons.lang.NullArgumentException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.aionemu.gameserver.configs.network.NetworkConfig;
 import com.aionemu.gameserver.model.gameobjects.Creature;
+import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_ATTACK_STATUS;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_ATTACK_STATUS.LOG;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_ATTACK_STATUS.TYPE;
 import com.aionemu.gameserver.services.LifeStatsRestoreService;
 import com.aionemu.gameserver.skillengine.effect.AbnormalState;
+import com.aionemu.gameserver.taskmanager.tasks.PacketBroadcaster.BroadcastMode;
 import com.aionemu.gameserver.utils.PacketSendUtility;
+import com.aionemu.gameserver.world.knownlist.Visitor;
+
+import gnu.trove.map.hash.TIntIntHashMap;
 
 public abstract class CreatureLifeStats<T extends Creature> {
 	private static final Logger log = LoggerFactory.getLogger(CreatureLifeStats.class);
@@ -44,6 +52,8 @@ public abstract class CreatureLifeStats<T extends Creature> {
 	private final Lock mpLock = new ReentrantLock();
 	protected final Lock restoreLock = new ReentrantLock();
 	protected volatile Future<?> lifeRestoreTask;
+	private final Lock attackStatusLock = new ReentrantLock();
+	private List<PendingAttackStatus> pendingAttackStatus;
 
 	public CreatureLifeStats(T owner, int currentHp, int currentMp) {
 		this.owner = owner;
@@ -125,7 +135,115 @@ public abstract class CreatureLifeStats<T extends Creature> {
 		{
 			return;
 		}
-		PacketSendUtility.broadcastPacketAndReceive(owner, new SM_ATTACK_STATUS(owner, owner, type, skillId, value, log));
+		broadcastAttackStatus(owner, type, skillId, value, log);
+	}
+
+	/**
+	 * Broadcasts a hp change of the owner. With coalescing enabled the owner, its master and the attacking player
+	 * get every change immediately, other known players receive them merged on the next PacketBroadcaster tick.<br>
+	 * Changes are merged by type, skill and log regardless of who dealt them, so a merged packet only names the last
+	 * attacker of its entry: observers see the summed value as dealt by that attacker.
+	 */
+	public void broadcastAttackStatus(Creature attacker, TYPE type, int skillId, int value, LOG log) {
+		SM_ATTACK_STATUS packet = new SM_ATTACK_STATUS(owner, attacker, type, skillId, value, log);
+		if (!NetworkConfig.ATTACK_STATUS_COALESCE) {
+			PacketSendUtility.broadcastPacketAndReceive(owner, packet);
+			return;
+		}
+		if (owner instanceof Player) {
+			PacketSendUtility.sendPacket((Player) owner, packet);
+		}
+		Creature master = owner.getMaster();
+		if (master != owner && master instanceof Player && owner.getKnownList().knowns(master)) {
+			PacketSendUtility.sendPacket((Player) master, packet);
+		}
+		Player attackingPlayer = null;
+		Creature attackerMaster = attacker.getMaster();
+		if (attackerMaster != owner && attackerMaster != master && attackerMaster instanceof Player
+			&& owner.getKnownList().knowns(attackerMaster)) {
+			attackingPlayer = (Player) attackerMaster;
+			PacketSendUtility.sendPacket(attackingPlayer, packet);
+		}
+
+		attackStatusLock.lock();
+		try {
+			if (pendingAttackStatus == null) {
+				pendingAttackStatus = new ArrayList<PendingAttackStatus>(NetworkConfig.ATTACK_STATUS_COALESCE_MAX);
+			}
+			PendingAttackStatus status = null;
+			PendingAttackStatus sameType = null;
+			for (PendingAttackStatus pending : pendingAttackStatus) {
+				if (pending.type == type) {
+					if (pending.skillId == skillId && pending.log == log) {
+						status = pending;
+						break;
+					}
+					sameType = pending;
+				}
+			}
+			if (status == null) {
+				if (sameType != null && pendingAttackStatus.size() >= NetworkConfig.ATTACK_STATUS_COALESCE_MAX) {
+					status = sameType;
+					status.skillId = 0;
+					status.log = LOG.REGULAR;
+				} else {
+					status = new PendingAttackStatus(type, skillId, log);
+					pendingAttackStatus.add(status);
+				}
+			}
+			status.add(attacker, attackingPlayer, value);
+		} finally {
+			attackStatusLock.unlock();
+		}
+		owner.addPacketBroadcastMask(BroadcastMode.BROADCAST_ATTACK_STATUS);
+	}
+
+	/**
+	 * Sends the hp changes merged since the last tick to all known players that did not get them already.
+	 */
+	public void broadcastAttackStatusImpl() {
+		final List<PendingAttackStatus> statuses;
+		attackStatusLock.lock();
+		try {
+			statuses = pendingAttackStatus;
+			pendingAttackStatus = null;
+		} finally {
+			attackStatusLock.unlock();
+		}
+		if (statuses == null) {
+			return;
+		}
+		final Creature master = owner.getMaster();
+		final SM_ATTACK_STATUS[] packets = new SM_ATTACK_STATUS[statuses.size()];
+		for (int i = 0; i < packets.length; i++) {
+			PendingAttackStatus status = statuses.get(i);
+			packets[i] = new SM_ATTACK_STATUS(owner, status.attacker, status.type, status.skillId, status.value, status.log);
+		}
+		owner.getKnownList().doOnAllPlayers(new Visitor<Player>() {
+
+			@Override
+			public void visit(Player player) {
+				if (!player.isOnline() || player.equals(master)) {
+					return;
+				}
+				List<SM_ATTACK_STATUS> toSend = new ArrayList<SM_ATTACK_STATUS>(packets.length);
+				for (int i = 0; i < packets.length; i++) {
+					PendingAttackStatus status = statuses.get(i);
+					if (status.sentValues == null || !status.sentValues.containsKey(player.getObjectId())) {
+						toSend.add(packets[i]);
+						continue;
+					}
+					// the attacking player already got its own hits, only the rest is left
+					int value = status.value - status.sentValues.get(player.getObjectId());
+					if (value != 0) {
+						toSend.add(new SM_ATTACK_STATUS(owner, status.attacker, status.type, status.skillId, value, status.log));
+					}
+				}
+				if (!toSend.isEmpty()) {
+					PacketSendUtility.sendPackets(player, toSend);
+				}
+			}
+		});
 	}
 
 	public int increaseHp(TYPE type, int value) {
@@ -350,4 +468,37 @@ public abstract class CreatureLifeStats<T extends Creature> {
 			mpLock.unlock();
 		}
 	}
+
+	private static final class PendingAttackStatus {
+
+		private final TYPE type;
+		private int skillId;
+		private LOG log;
+		/**
+		 * Last attacker merged into this entry, earlier ones are not kept
+		 */
+		private Creature attacker;
+		private int value;
+		/**
+		 * Values already sent to attacking players by object id
+		 */
+		private TIntIntHashMap sentValues;
+
+		private PendingAttackStatus(TYPE type, int skillId, LOG log) {
+			this.type = type;
+			this.skillId = skillId;
+			this.log = log;
+		}
+
+		private void add(Creature attacker, Player sentTo, int value) {
+			this.attacker = attacker;
+			this.value += value;
+			if (sentTo != null) {
+				if (sentValues == null) {
+					sentValues = new TIntIntHashMap(4);
+				}
+				sentValues.adjustOrPutValue(sentTo.getObjectId(), value, value);
+			}
+		}
+	}
 }
\ No newline at end of file
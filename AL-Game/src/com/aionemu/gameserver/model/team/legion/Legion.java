@@ -16,11 +16,6 @@
  */
 package com.aionemu.gameserver.model.team.legion;
 
-import static ch.lambdaj.Lambda.having;
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.select;
-import static org.hamcrest.Matchers.equalTo;
-
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -32,10 +27,11 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.aionemu.commons.utils.collections.ConcurrentIntObjectMap;
 import com.aionemu.gameserver.configs.main.LegionConfig;
 import com.aionemu.gameserver.model.bonus_service.ServiceBuff;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
-import com.aionemu.gameserver.world.World;
+import com.aionemu.gameserver.network.aion.EncodedBlock;
 
 import javolution.util.FastMap;
 
@@ -52,6 +48,7 @@ public class Legion {
 	private int legionRank = 0;
 	private long contributionPoints = 0;
 	private List<Integer> legionMembers = new ArrayList<Integer>();
+	private final ConcurrentIntObjectMap<Player> onlineLegionMembers = new ConcurrentIntObjectMap<Player>();
 	private short deputyPermission = 0x1E0C;
 	private short centurionPermission = 0x1C08;
 	private short legionaryPermission = 0x1800;
@@ -59,8 +56,10 @@ public class Legion {
 	private int disbandTime;
 	private TreeMap<Timestamp, String> announcementList = new TreeMap<Timestamp, String>();
 	private LegionEmblem legionEmblem = new LegionEmblem();
+	private volatile EncodedBlock infoBlock;
 	private LegionWarehouse legionWarehouse;
 	private SortedSet<LegionHistory> legionHistory;
+	private FastMap<Integer, SortedSet<LegionHistory>> legionHistoryByTab = new FastMap<Integer, SortedSet<LegionHistory>>();
 	private AtomicBoolean hasBonus = new AtomicBoolean(false);
 	private FastMap<Integer, LegionJoinRequest> joinRequestMap = new FastMap<Integer, LegionJoinRequest>();
 	private String description = "";
@@ -68,6 +67,15 @@ public class Legion {
 	private int joinType = 0;
 	private LegionTerritory territory;
 
+	private static final Comparator<LegionHistory> HISTORY_ORDER = new Comparator<LegionHistory>() {
+
+		@Override
+		public int compare(LegionHistory o1, LegionHistory o2) {
+			return o1.getTime().getTime() < o2.getTime().getTime() ? 1 : -1;
+		}
+
+	};
+
 	/**
 	 * Only called when a legion is created!
 	 *
@@ -85,14 +93,7 @@ public class Legion {
 	 */
 	public Legion() {
 		this.legionWarehouse = new LegionWarehouse(this);
-		this.legionHistory = new TreeSet<LegionHistory>(new Comparator<LegionHistory>() {
-
-			@Override
-			public int compare(LegionHistory o1, LegionHistory o2) {
-				return o1.getTime().getTime() < o2.getTime().getTime() ? 1 : -1;
-			}
-
-		});
+		this.legionHistory = new TreeSet<LegionHistory>(HISTORY_ORDER);
 	}
 
 	/**
@@ -114,6 +115,7 @@ public class Legion {
 	 */
 	public void setLegionName(String legionName) {
 		this.legionName = legionName;
+		this.infoBlock = null;
 	}
 
 	/**
@@ -138,17 +140,34 @@ public class Legion {
 	}
 
 	/**
-	 * @return the online legionMembers
+	 * @return live view of the online legionMembers
 	 */
-	public ArrayList<Player> getOnlineLegionMembers() {
-		ArrayList<Player> onlineLegionMembers = new ArrayList<Player>();
-		for (int legionMemberObjId : legionMembers) {
-			Player onlineLegionMember = World.getInstance().findPlayer(legionMemberObjId);
-			if (onlineLegionMember != null) {
-				onlineLegionMembers.add(onlineLegionMember);
-			}
-		}
-		return onlineLegionMembers;
+	public Collection<Player> getOnlineLegionMembers() {
+		return onlineLegionMembers.values();
+	}
+
+	/**
+	 * Called when a member enters the world or joins the legion while online
+	 *
+	 * @param player
+	 */
+	public void addOnlineLegionMember(Player player) {
+		onlineLegionMembers.put(player.getObjectId(), player);
+	}
+
+	/**
+	 * @param playerObjId
+	 */
+	public void removeOnlineLegionMember(int playerObjId) {
+		onlineLegionMembers.remove(playerObjId);
+	}
+
+	public boolean isOnlineLegionMember(int playerObjId) {
+		return onlineLegionMembers.containsKey(playerObjId);
+	}
+
+	public int getOnlineMembersCount() {
+		return onlineLegionMembers.size();
 	}
 
 	/**
@@ -171,6 +190,7 @@ public class Legion {
 	 */
 	public void deleteLegionMember(int playerObjId) {
 		legionMembers.remove(new Integer(playerObjId));
+		onlineLegionMembers.remove(playerObjId);
 	}
 
 	/**
@@ -445,6 +465,7 @@ public class Legion {
 	 */
 	public void setLegionEmblem(LegionEmblem legionEmblem) {
 		this.legionEmblem = legionEmblem;
+		this.infoBlock = null;
 	}
 
 	/**
@@ -454,6 +475,17 @@ public class Legion {
 		return legionEmblem;
 	}
 
+	/**
+	 * Cached legion part of SM_PLAYER_INFO, shared by all members.
+	 */
+	public EncodedBlock getInfoBlock() {
+		return infoBlock;
+	}
+
+	public void setInfoBlock(EncodedBlock infoBlock) {
+		this.infoBlock = infoBlock;
+	}
+
 	/**
 	 * @param legionWarehouse the legionWarehouse to set
 	 */
@@ -510,7 +542,10 @@ public class Legion {
 		if (legionHistory.isEmpty()) {
 			return legionHistory;
 		}
-		return select(legionHistory, having(on(LegionHistory.class).getTabId(), equalTo(tabType)));
+		synchronized (legionHistoryByTab) {
+			SortedSet<LegionHistory> tab = legionHistoryByTab.get(tabType);
+			return tab == null ? new ArrayList<LegionHistory>() : new ArrayList<LegionHistory>(tab);
+		}
 	}
 
 	/**
@@ -518,10 +553,18 @@ public class Legion {
 	 */
 	public void addHistory(LegionHistory history) {
 		this.legionHistory.add(history);
+		synchronized (legionHistoryByTab) {
+			SortedSet<LegionHistory> tab = legionHistoryByTab.get(history.getTabId());
+			if (tab == null) {
+				tab = new TreeSet<LegionHistory>(HISTORY_ORDER);
+				legionHistoryByTab.put(history.getTabId(), tab);
+			}
+			tab.add(history);
+		}
 	}
 
 	public void addBonus() {
-		ArrayList<Player> members = getOnlineLegionMembers();
+		Collection<Player> members = getOnlineLegionMembers();
 		// 레기온 창고란 같은 레기온원들 끼리 공동으로 사용하는 창고의 개념이다.
 		// 즉, 다른 레기온원이 이곳에 물건을 넣으면, 자신 외에 다른 권한을 가진 레기온원이 꺼내서 사용할 수 있다는 것.
 		// 아직 영혼 각인하지 않은 무기, 방어구라든지 각종 소비 아이템, 심지어 키나까지도 레기온원들 끼리 공동으로 사용할 수 있게 해주는 아주
@@ -547,7 +590,7 @@ public class Legion {
 	}
 
 	public void removeBonus() {
-		ArrayList<Player> members = getOnlineLegionMembers();
+		Collection<Player> members = getOnlineLegionMembers();
 		if (members.size() < 2) {
 			if (hasBonus.compareAndSet(true, false)) {
 				for (Player member : members) {
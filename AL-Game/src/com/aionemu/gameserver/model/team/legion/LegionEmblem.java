@@ -30,6 +30,11 @@ public class LegionEmblem {
 	private boolean defaultEmblem = true;
 	private LegionEmblemType emblemType = LegionEmblemType.DEFAULT;
 	private PersistentState persistentState;
+	/**
+	 * Bumped on every emblem change, invalidates the cached legion part of
+	 * SM_PLAYER_INFO.
+	 */
+	private volatile int revision;
 
 	private boolean isUploading = false;
 	private int uploadSize = 0;
@@ -81,6 +86,7 @@ public class LegionEmblem {
 
 		setPersistentState(PersistentState.UPDATE_REQUIRED);
 		this.defaultEmblem = false;
+		revision++;
 	}
 
 	/**
@@ -191,6 +197,11 @@ public class LegionEmblem {
 	 */
 	public void setEmblemType(LegionEmblemType emblemType) {
 		this.emblemType = emblemType;
+		revision++;
+	}
+
+	public int getRevision() {
+		return revision;
 	}
 
 	/**
@@ -94,6 +94,7 @@ public class CosmeticItemAction extends AbstractItemAction {
 			playerAppearance.setFace((preset.getFaceType()));
 			playerAppearance.setHeight((preset.getScale()));
 		}
+		player.invalidateAppearanceInfoBlock();
 		DAOManager.getDAO(PlayerAppearanceDAO.class).store(player);
 		player.getInventory().delete(targetItem);
 		PacketSendUtility.sendPacket(player, new SM_PLAYER_INFO(player, false));
@@ -27,15 +27,12 @@ import com.aionemu.gameserver.model.Race;
 import com.aionemu.gameserver.model.gameobjects.Npc;
 import com.aionemu.gameserver.model.gameobjects.PersistentState;
 import com.aionemu.gameserver.model.gameobjects.VisibleObject;
-import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.model.templates.spawns.Spawn;
 import com.aionemu.gameserver.model.templates.spawns.SpawnSpotTemplate;
 import com.aionemu.gameserver.model.templates.spawns.SpawnTemplate;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_TOWNS_LIST;
 import com.aionemu.gameserver.spawnengine.SpawnEngine;
 import com.aionemu.gameserver.utils.PacketSendUtility;
-import com.aionemu.gameserver.world.World;
-import com.aionemu.gameserver.world.knownlist.Visitor;
 
 public class Town {
 	private int id;
@@ -113,15 +110,7 @@ public class Town {
 	private void broadcastUpdate() {
 		Map<Integer, Town> data = new HashMap<Integer, Town>(1);
 		data.put(this.id, this);
-		final SM_TOWNS_LIST packet = new SM_TOWNS_LIST(data);
-		World.getInstance().doOnAllPlayers(new Visitor<Player>() {
-			@Override
-			public void visit(Player player) {
-				if (player.getRace() == race) {
-					PacketSendUtility.sendPacket(player, packet);
-				}
-			}
-		});
+		PacketSendUtility.broadcastPacketToRace(race, new SM_TOWNS_LIST(data));
 	}
 
 	private void spawnNewObjects() {
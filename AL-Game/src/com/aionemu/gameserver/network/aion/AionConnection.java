@@ -19,6 +19,7 @@ package com.aionemu.gameserver.network.aion;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.List;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -334,6 +335,26 @@ public class AionConnection extends AConnection {
 		}
 	}
 
+	/**
+	 * Sends several AionServerPackets to this client, waking up the write dispatcher only once.
+	 *
+	 * @param packets AionServerPackets to be sent, in order.
+	 */
+	public final void sendPackets(List<? extends AionServerPacket> packets) {
+		if (packets.isEmpty()) {
+			return;
+		}
+		synchronized (guard) {
+			if (isWriteDisabled()) {
+				return;
+			}
+			for (int i = 0; i < packets.size(); i++) {
+				sendMsgQueue.addLast(packets.get(i));
+			}
+			enableWriteInterest();
+		}
+	}
+
 	/**
 	 * Its guaranteed that closePacket will be sent before closing connection, but
 	 * all past and future packets wont. Connection will be closed [by Dispatcher
@@ -17,6 +17,7 @@
 package com.aionemu.gameserver.network.aion;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +36,17 @@ public abstract class AionServerPacket extends BaseServerPacket {
 
 	private static final Logger log = LoggerFactory.getLogger(AionServerPacket.class);
 
+	/**
+	 * Scratch buffer for {@link #beginBlock()}, large enough for any cached block.
+	 */
+	private static final ThreadLocal<ByteBuffer> BLOCK_BUFFER = new ThreadLocal<ByteBuffer>() {
+
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+		}
+	};
+
 	/**
 	 * Constructs new server packet
 	 */
@@ -120,6 +132,34 @@ public abstract class AionServerPacket extends BaseServerPacket {
 		}
 	}
 
+	/**
+	 * Redirects the following writes to a scratch buffer, so a viewer independent
+	 * part of the packet can be encoded once, cached and spliced into later
+	 * packets with writeB.
+	 * 
+	 * @return the packet buffer, to be passed to {@link #endBlock(ByteBuffer)}
+	 */
+	protected final ByteBuffer beginBlock() {
+		ByteBuffer packetBuf = buf;
+		ByteBuffer scratch = BLOCK_BUFFER.get();
+		scratch.clear();
+		setBuf(scratch);
+		return packetBuf;
+	}
+
+	/**
+	 * Restores the packet buffer and returns the bytes written since
+	 * {@link #beginBlock()}.
+	 */
+	protected final byte[] endBlock(ByteBuffer packetBuf) {
+		ByteBuffer scratch = buf;
+		byte[] block = new byte[scratch.position()];
+		scratch.flip();
+		scratch.get(block);
+		setBuf(packetBuf);
+		return block;
+	}
+
 	protected void writeNameId(int nameId) {
 		writeH(0x24);
 		writeD(nameId);
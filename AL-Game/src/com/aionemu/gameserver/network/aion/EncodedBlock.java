@@ -0,0 +1,44 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.network.aion;
+
+/**
+ * Viewer independent part of a server packet, encoded once and spliced into
+ * every later packet as long as the state it was built from is unchanged.
+ * 
+ * @see AionServerPacket#beginBlock()
+ */
+public final class EncodedBlock {
+
+	private final Object source;
+	private final long revision;
+	private final byte[] data;
+
+	public EncodedBlock(Object source, long revision, byte[] data) {
+		this.source = source;
+		this.revision = revision;
+		this.data = data;
+	}
+
+	/**
+	 * @return the encoded bytes, or null if the block was built from another
+	 *         source or revision
+	 */
+	public byte[] get(Object source, long revision) {
+		return this.source == source && this.revision == revision ? data : null;
+	}
+}
@@ -156,6 +156,7 @@ public class CM_CHARACTER_EDIT extends AionClientPacket {
 		readC();// always 0
 		readC();// always 0
 		playerAppearance.setHeight(readF());
+		player.invalidateAppearanceInfoBlock();
 	}
 
 	@Override
@@ -16,7 +16,7 @@
  */
 package com.aionemu.gameserver.network.aion.clientpackets;
 
-import java.util.Iterator;
+import java.util.Collection;
 
 import com.aionemu.gameserver.model.gameobjects.Item;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
@@ -65,16 +65,11 @@ public class CM_MEGAPHONE_MESSAGE extends AionClientPacket {
 		if (!deleteItem) {
 			return;
 		}
-		Iterator<Player> players = World.getInstance().getPlayersIterator();
-		while (players.hasNext()) {
-			Player player = (Player) players.next();
-			if (this.isAll) {
-				PacketSendUtility.sendPacket(player,
-						new SM_MEGAPHONE_MESSAGE(activePlayer, this.chatMessage, item.getItemId(), this.isAll));
-			} else if (activePlayer.getRace() == player.getRace()) {
-				PacketSendUtility.sendPacket(player,
-						new SM_MEGAPHONE_MESSAGE(activePlayer, this.chatMessage, item.getItemId(), this.isAll));
-			}
+		Collection<Player> players = this.isAll ? World.getInstance().getAllPlayers()
+				: World.getInstance().getPlayers(activePlayer.getRace());
+		for (Player player : players) {
+			PacketSendUtility.sendPacket(player,
+					new SM_MEGAPHONE_MESSAGE(activePlayer, this.chatMessage, item.getItemId(), this.isAll));
 		}
 	}
 }
\ No newline at end of file
@@ -17,10 +17,12 @@
 // Credits To Magenik and to the Cinus
 package com.aionemu.gameserver.network.aion.serverpackets;
 
+import java.nio.ByteBuffer;
 import java.util.Map.Entry;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.aionemu.gameserver.configs.network.NetworkConfig;
 import com.aionemu.gameserver.model.NpcType;
 import com.aionemu.gameserver.model.Race;
 import com.aionemu.gameserver.model.TribeClass;
@@ -124,25 +126,14 @@ public class SM_NPC_INFO extends AionServerPacket {
 		writeD(_npc.getGameStats().getMaxHp().getCurrent());
 		writeC(_npc.getLevel());
 		NpcEquippedGear gear = npcTemplate.getEquipment();
-		boolean hasWeapon = false;
 		BoundRadius boundRadius = npcTemplate.getBoundRadius();
 		if (gear == null) {
 			writeH(0x00);
 			writeH(0x00);
 			writeF(boundRadius.getFront());
 		} else {
-			writeD(gear.getItemsMask());
-			for (Entry<ItemSlot, ItemTemplate> item : gear) {
-				if (item.getValue().getWeaponType() != null) {
-					hasWeapon = true;
-				}
-				writeD(item.getValue().getTemplateId());
-				writeD(0x00);
-				writeD(0x00);
-				writeH(0x00);
-				writeH(0x00);
-			}
-			writeF(boundRadius.getFront() + 0.125f + (hasWeapon ? 0.1f : 0f));
+			writeGear(gear);
+			writeF(boundRadius.getFront() + 0.125f + (gear.hasWeapon() ? 0.1f : 0f));
 		}
 		writeF(npcTemplate.getHeight());
 		writeF(_npc.getGameStats().getMovementSpeedFloat());
@@ -174,4 +165,30 @@ public class SM_NPC_INFO extends AionServerPacket {
 		writeD(TownService.getInstance().getTownIdByPosition(_npc));
 		writeD(0x00);
 	}
+
+	private void writeGear(NpcEquippedGear gear) {
+		if (!NetworkConfig.PACKET_INFO_CACHE) {
+			writeGearImpl(gear);
+			return;
+		}
+		byte[] data = gear.getInfoBlock();
+		if (data == null) {
+			ByteBuffer packetBuf = beginBlock();
+			writeGearImpl(gear);
+			data = endBlock(packetBuf);
+			gear.setInfoBlock(data);
+		}
+		writeB(data);
+	}
+
+	private void writeGearImpl(NpcEquippedGear gear) {
+		writeD(gear.getItemsMask());
+		for (Entry<ItemSlot, ItemTemplate> item : gear) {
+			writeD(item.getValue().getTemplateId());
+			writeD(0x00);
+			writeD(0x00);
+			writeH(0x00);
+			writeH(0x00);
+		}
+	}
 }
@@ -1,23 +1,30 @@
 package com.aionemu.gameserver.network.aion.serverpackets;
 
+import java.nio.ByteBuffer;
+
 import com.aionemu.commons.database.dao.DAOManager;
 import com.aionemu.commons.utils.Rnd;
 import com.aionemu.gameserver.configs.administration.AdminConfig;
 import com.aionemu.gameserver.configs.main.CustomConfig;
 import com.aionemu.gameserver.configs.main.MembershipConfig;
+import com.aionemu.gameserver.configs.network.NetworkConfig;
 import com.aionemu.gameserver.dao.PlayerDAO;
 import com.aionemu.gameserver.model.Gender;
+import com.aionemu.gameserver.model.Race;
 import com.aionemu.gameserver.model.gameobjects.Item;
+import com.aionemu.gameserver.model.gameobjects.player.Equipment;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.model.gameobjects.player.PlayerAppearance;
 import com.aionemu.gameserver.model.gameobjects.player.PlayerCommonData;
 import com.aionemu.gameserver.model.items.GodStone;
 import com.aionemu.gameserver.model.items.ItemSlot;
 import com.aionemu.gameserver.model.stats.calc.Stat2;
+import com.aionemu.gameserver.model.team.legion.Legion;
 import com.aionemu.gameserver.model.team.legion.LegionEmblem;
 import com.aionemu.gameserver.model.team.legion.LegionEmblemType;
 import com.aionemu.gameserver.network.aion.AionConnection;
 import com.aionemu.gameserver.network.aion.AionServerPacket;
+import com.aionemu.gameserver.network.aion.EncodedBlock;
 import com.aionemu.gameserver.services.EnchantService;
 import com.aionemu.gameserver.services.events.DisplayService;
 import com.aionemu.gameserver.services.events.FFAService;
@@ -173,14 +180,7 @@ public class SM_PLAYER_INFO extends AionServerPacket {
 		writeH(player.getCastingSkillId());
 
 		if (player.isLegionMember() && !player.isBandit() || player.isLegionMember() && !player.isFFA() || player.isLegionMember() && player.getBattleground() == null) {
-			writeD(player.getLegion().getLegionId());
-			writeC(player.getLegion().getLegionEmblem().getEmblemId());
-			writeC(player.getLegion().getLegionEmblem().getEmblemType().getValue());
-			writeC(player.getLegion().getLegionEmblem().getEmblemType() == LegionEmblemType.DEFAULT ? 0x00 : 0xFF);
-			writeC(player.getLegion().getLegionEmblem().getColor_r());
-			writeC(player.getLegion().getLegionEmblem().getColor_g());
-			writeC(player.getLegion().getLegionEmblem().getColor_b());
-			writeS(player.getLegion().getLegionName());
+			writeLegion(player.getLegion());
 		} else if (!player.isSpectating() && player.getBattleground() != null && (player.isInGroup2() || player.isInAlliance2())) {
 			bgIndex = (player.isInGroup2()) ? player.getPlayerGroup2().getBgIndex() : player.getPlayerAlliance2().getBgIndex();
 			LegionEmblem emblem = LadderService.getInstance().getCapeEmblemByIndex(bgIndex);
@@ -221,9 +221,136 @@ public class SM_PLAYER_INFO extends AionServerPacket {
 		writeH(pcd.getDp());// current dp
 		writeC(0x00);// unk (0x00)
 
+		writeEquipment();
+
+		writeAppearance(playerAppearance);
+		writeF(0.25f); // scale
+		writeF(2.0f); // gravity or slide surface o_O
+		writeF(player.getGameStats().getMovementSpeedFloat()); // move speed
+		Stat2 attackSpeed = player.getGameStats().getAttackSpeed();
+		writeH(attackSpeed.getBase());
+		writeH(attackSpeed.getCurrent());
+		writeC(player.getPortAnimation());// port animation
+		writeS(player.hasStore() ? player.getStore().getStoreMessage() : "");// private store message
+
 		/**
-		 * Start Item Appearance
+		 * Movement
 		 */
+		writeF(0);
+		writeF(0);
+		writeF(0);
+		writeF(player.getX());// x
+		writeF(player.getY());// y
+		writeF(player.getZ());// z
+		writeC(0x00); // move type
+		writeC(player.getVisualState()); // visualState
+		writeS(player.getCommonData().getNote()); // note show in right down windows if your target on player
+		writeH(player.getLevel()); // [level]
+		writeH(player.getPlayerSettings().getDisplay()); // unk - 0x04
+		writeH(player.getPlayerSettings().getDeny()); // unk - 0x00
+		writeH((player.isFFA() || player.getBattleground() != null || player.isBandit()) ? 0 : player.getAbyssRank().getRank().getId()); // abyss rank
+		writeH(0x00); // unk - 0x01
+		writeD(player.getTarget() == null ? 0 : player.getTarget().getObjectId());
+		writeC(0); // suspect id
+		writeD(0);
+		writeC(player.isMentor() ? 1 : 0);
+		writeD(player.getHouseOwnerId());
+
+		/**
+		 * System By Ranastic. Remade DainAvenger
+		 */
+	    writeD(player.getPlayersBonusId());
+        // writeD(10); // Player Buff.
+        if (MembershipConfig.PREMIUM_TAG_DISPLAY_ENABLE) {
+            if (player.getMembership() == 1) {
+		        writeD(10); // Player Buff.
+		        writeC(6); // Vip Rank Icon.
+            } 
+            if (player.getMembership() == 2) {
+		        writeD(10); // Player Buff.
+		        writeD(0); // New Buff Icons.
+            }
+        }
+		writeC(raceId == 0 ? 3 : 5); // Language: Asmodians 3/Elyos 5
+		writeC(player.getConquerorInfo().getRank()); // Conqueror 4.8
+		writeC(player.getProtectorInfo().getRank()); // Protector 4.8
+        writeD(1); // unk 5.5
+	}
+
+	private void writeLegion(Legion legion) {
+		if (!NetworkConfig.PACKET_INFO_CACHE) {
+			writeLegionImpl(legion);
+			return;
+		}
+		String name = legion.getLegionName();
+		int revision = legion.getLegionEmblem().getRevision();
+		EncodedBlock block = legion.getInfoBlock();
+		byte[] data = block != null ? block.get(name, revision) : null;
+		if (data == null) {
+			ByteBuffer packetBuf = beginBlock();
+			writeLegionImpl(legion);
+			data = endBlock(packetBuf);
+			legion.setInfoBlock(new EncodedBlock(name, revision, data));
+		}
+		writeB(data);
+	}
+
+	private void writeLegionImpl(Legion legion) {
+		writeD(legion.getLegionId());
+		writeC(legion.getLegionEmblem().getEmblemId());
+		writeC(legion.getLegionEmblem().getEmblemType().getValue());
+		writeC(legion.getLegionEmblem().getEmblemType() == LegionEmblemType.DEFAULT ? 0x00 : 0xFF);
+		writeC(legion.getLegionEmblem().getColor_r());
+		writeC(legion.getLegionEmblem().getColor_g());
+		writeC(legion.getLegionEmblem().getColor_b());
+		writeS(legion.getLegionName());
+	}
+
+	/**
+	 * Item appearance, depends on the equipped items and on the
+	 * bandit/FFA/battleground disguise.
+	 */
+	private void writeEquipment() {
+		if (!NetworkConfig.PACKET_INFO_CACHE) {
+			writeEquipmentImpl();
+			return;
+		}
+		Equipment equipment = player.getEquipment();
+		long revision = ((long) equipment.getAppearanceRevision() << 32)
+				| ((Item.getAppearanceRevision() << 4) & 0xFFFFFFFFL) | getDisplayState();
+		EncodedBlock block = player.getEquipmentInfoBlock();
+		byte[] data = block != null ? block.get(equipment, revision) : null;
+		if (data == null) {
+			ByteBuffer packetBuf = beginBlock();
+			writeEquipmentImpl();
+			data = endBlock(packetBuf);
+			player.setEquipmentInfoBlock(new EncodedBlock(equipment, revision, data));
+		}
+		writeB(data);
+	}
+
+	/**
+	 * @return every player state {@link DisplayService#getDisplayTemplate}
+	 *         looks at, one bit each
+	 */
+	private int getDisplayState() {
+		int state = 0;
+		if (player.isBandit()) {
+			state |= 1;
+		}
+		if (player.isFFA()) {
+			state |= 1 << 1;
+		}
+		if (player.getBattleground() != null) {
+			state |= 1 << 2;
+		}
+		if (player.getRace() == Race.ELYOS) {
+			state |= 1 << 3;
+		}
+		return state;
+	}
+
+	private void writeEquipmentImpl() {
 		int mask = 0;
 
 		FastList<Item> items = player.getEquipment().getEquippedForApparence();
@@ -247,10 +374,26 @@ public class SM_PLAYER_INFO extends AionServerPacket {
 			writeH(EnchantService.EnchantLevel(item));
 			writeH(0);
 		}
+	}
 
-		/**
-		 * Item Appearance End
-		 */
+	private void writeAppearance(PlayerAppearance playerAppearance) {
+		if (!NetworkConfig.PACKET_INFO_CACHE) {
+			writeAppearanceImpl(playerAppearance);
+			return;
+		}
+		int revision = player.getGender().getGenderId();
+		EncodedBlock block = player.getAppearanceInfoBlock();
+		byte[] data = block != null ? block.get(playerAppearance, revision) : null;
+		if (data == null) {
+			ByteBuffer packetBuf = beginBlock();
+			writeAppearanceImpl(playerAppearance);
+			data = endBlock(packetBuf);
+			player.setAppearanceInfoBlock(new EncodedBlock(playerAppearance, revision, data));
+		}
+		writeB(data);
+	}
+
+	private void writeAppearanceImpl(PlayerAppearance playerAppearance) {
 		writeD(playerAppearance.getSkinRGB());
 		writeD(playerAppearance.getHairRGB());
 		writeD(playerAppearance.getEyeRGB());
@@ -319,56 +462,5 @@ public class SM_PLAYER_INFO extends AionServerPacket {
 		writeC(playerAppearance.getCalfThickness());
 		writeC(playerAppearance.getVoice());
 		writeF(playerAppearance.getHeight());
-		writeF(0.25f); // scale
-		writeF(2.0f); // gravity or slide surface o_O
-		writeF(player.getGameStats().getMovementSpeedFloat()); // move speed
-		Stat2 attackSpeed = player.getGameStats().getAttackSpeed();
-		writeH(attackSpeed.getBase());
-		writeH(attackSpeed.getCurrent());
-		writeC(player.getPortAnimation());// port animation
-		writeS(player.hasStore() ? player.getStore().getStoreMessage() : "");// private store message
-
-		/**
-		 * Movement
-		 */
-		writeF(0);
-		writeF(0);
-		writeF(0);
-		writeF(player.getX());// x
-		writeF(player.getY());// y
-		writeF(player.getZ());// z
-		writeC(0x00); // move type
-		writeC(player.getVisualState()); // visualState
-		writeS(player.getCommonData().getNote()); // note show in right down windows if your target on player
-		writeH(player.getLevel()); // [level]
-		writeH(player.getPlayerSettings().getDisplay()); // unk - 0x04
-		writeH(player.getPlayerSettings().getDeny()); // unk - 0x00
-		writeH((player.isFFA() || player.getBattleground() != null || player.isBandit()) ? 0 : player.getAbyssRank().getRank().getId()); // abyss rank
-		writeH(0x00); // unk - 0x01
-		writeD(player.getTarget() == null ? 0 : player.getTarget().getObjectId());
-		writeC(0); // suspect id
-		writeD(0);
-		writeC(player.isMentor() ? 1 : 0);
-		writeD(player.getHouseOwnerId());
-
-		/**
-		 * System By Ranastic. Remade DainAvenger
-		 */
-	    writeD(player.getPlayersBonusId());
-        // writeD(10); // Player Buff.
-        if (MembershipConfig.PREMIUM_TAG_DISPLAY_ENABLE) {
-            if (player.getMembership() == 1) {
-		        writeD(10); // Player Buff.
-		        writeC(6); // Vip Rank Icon.
-            } 
-            if (player.getMembership() == 2) {
-		        writeD(10); // Player Buff.
-		        writeD(0); // New Buff Icons.
-            }
-        }
-		writeC(raceId == 0 ? 3 : 5); // Language: Asmodians 3/Elyos 5
-		writeC(player.getConquerorInfo().getRank()); // Conqueror 4.8
-		writeC(player.getProtectorInfo().getRank()); // Protector 4.8
-        writeD(1); // unk 5.5
 	}
-}
\ No newline at end of file
+}
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +42,7 @@ import com.aionemu.gameserver.model.GameEngine;
 import com.aionemu.gameserver.model.gameobjects.Item;
 import com.aionemu.gameserver.model.gameobjects.Npc;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
+import com.aionemu.gameserver.model.gameobjects.player.QuestStateList;
 import com.aionemu.gameserver.model.templates.QuestTemplate;
 import com.aionemu.gameserver.model.templates.quest.HandlerSideDrop;
 import com.aionemu.gameserver.model.templates.quest.QuestCategory;
@@ -112,6 +114,18 @@ public class QuestEngine implements GameEngine {
 	private TIntArrayList questOnEnterWindStream = new TIntArrayList();
 	private TIntArrayList questRideAction = new TIntArrayList();
 	private TIntArrayList questOnCreativityPoint = new TIntArrayList();
+	private final AtomicLongArray dispatchEvents = new AtomicLongArray(DispatchEvent.values().length);
+	private final AtomicLongArray dispatchHandlers = new AtomicLongArray(DispatchEvent.values().length);
+	private final AtomicLongArray dispatchSkipped = new AtomicLongArray(DispatchEvent.values().length);
+	private final AtomicLongArray dispatchNanos = new AtomicLongArray(DispatchEvent.values().length);
+
+	private static enum DispatchEvent {
+		KILL,
+		ATTACK,
+		AT_DISTANCE,
+		KILL_IN_WORLD,
+		KILL_RANKED
+	}
 
 	private QuestEngine() {
 	}
@@ -162,11 +176,24 @@ public class QuestEngine implements GameEngine {
 	}
 
 	public boolean onKill(QuestEnv env) {
+		long start = System.nanoTime();
+		int handlers = 0;
+		int skipped = 0;
 		try {
 			Npc npc = (Npc) env.getVisibleObject();
-			for (int questId : getQuestNpc(npc.getNpcId()).getOnKillEvent()) {
+			QuestNpc questNpc = questNpcs.get(npc.getNpcId());
+			if (questNpc == null) {
+				return true;
+			}
+			QuestStateList questStateList = env.getPlayer().getQuestStateList();
+			for (int questId : questNpc.getOnKillEvent()) {
+				if (!questStateList.isActive(questId)) {
+					skipped++;
+					continue;
+				}
 				QuestHandler questHandler = getQuestHandlerByQuestId(questId);
 				if (questHandler != null) {
+					handlers++;
 					env.setQuestId(questId);
 					questHandler.onKillEvent(env);
 				}
@@ -174,16 +201,31 @@ public class QuestEngine implements GameEngine {
 		} catch (Exception ex) {
 			log.error("QE: exception in onKill", ex);
 			return false;
+		} finally {
+			addDispatchStats(DispatchEvent.KILL, handlers, skipped, start);
 		}
 		return true;
 	}
 
 	public boolean onAttack(QuestEnv env) {
+		long start = System.nanoTime();
+		int handlers = 0;
+		int skipped = 0;
 		try {
 			Npc npc = (Npc) env.getVisibleObject();
-			for (int questId : getQuestNpc(npc.getNpcId()).getOnAttackEvent()) {
+			QuestNpc questNpc = questNpcs.get(npc.getNpcId());
+			if (questNpc == null) {
+				return true;
+			}
+			QuestStateList questStateList = env.getPlayer().getQuestStateList();
+			for (int questId : questNpc.getOnAttackEvent()) {
+				if (!questStateList.isActive(questId)) {
+					skipped++;
+					continue;
+				}
 				QuestHandler questHandler = getQuestHandlerByQuestId(questId);
 				if (questHandler != null) {
+					handlers++;
 					env.setQuestId(questId);
 					questHandler.onAttackEvent(env);
 				}
@@ -191,6 +233,8 @@ public class QuestEngine implements GameEngine {
 		} catch (Exception ex) {
 			// log.error("QE: exception in onAttack", ex);
 			return false;
+		} finally {
+			addDispatchStats(DispatchEvent.ATTACK, handlers, skipped, start);
 		}
 		return true;
 	}
@@ -362,13 +406,22 @@ public class QuestEngine implements GameEngine {
 	}
 
 	public boolean onKillRanked(QuestEnv env, AbyssRankEnum playerRank) {
+		long start = System.nanoTime();
+		int handlers = 0;
+		int skipped = 0;
 		try {
 			if (playerRank != null) {
 				TIntArrayList questList = getOnKillRankedQuests(playerRank);
+				QuestStateList questStateList = env.getPlayer().getQuestStateList();
 				for (int index = 0; index < questList.size(); index++) {
 					int id = questList.get(index);
+					if (!questStateList.isActive(id)) {
+						skipped++;
+						continue;
+					}
 					QuestHandler questHandler = getQuestHandlerByQuestId(id);
 					if (questHandler != null) {
+						handlers++;
 						env.setQuestId(id);
 						questHandler.onKillRankedEvent(env);
 					}
@@ -377,18 +430,30 @@ public class QuestEngine implements GameEngine {
 		} catch (Exception ex) {
 			// log.error("QE: exception in onKillRanked", ex);
 			return false;
+		} finally {
+			addDispatchStats(DispatchEvent.KILL_RANKED, handlers, skipped, start);
 		}
 		return true;
 	}
 
 	public boolean onKillInWorld(QuestEnv env, int worldId) {
+		long start = System.nanoTime();
+		int handlers = 0;
+		int skipped = 0;
 		try {
-			if (questOnKillInWorld.containsKey(worldId)) {
-				TIntArrayList killInWorldQuests = questOnKillInWorld.get(worldId);
+			TIntArrayList killInWorldQuests = questOnKillInWorld.get(worldId);
+			if (killInWorldQuests != null) {
+				QuestStateList questStateList = env.getPlayer().getQuestStateList();
 				for (int i = 0; i < killInWorldQuests.size(); i++) {
-					QuestHandler questHandler = getQuestHandlerByQuestId(killInWorldQuests.get(i));
+					int id = killInWorldQuests.get(i);
+					if (!questStateList.isActive(id)) {
+						skipped++;
+						continue;
+					}
+					QuestHandler questHandler = getQuestHandlerByQuestId(id);
 					if (questHandler != null) {
-						env.setQuestId(killInWorldQuests.get(i));
+						handlers++;
+						env.setQuestId(id);
 						questHandler.onKillInWorldEvent(env);
 					}
 				}
@@ -396,6 +461,8 @@ public class QuestEngine implements GameEngine {
 		} catch (Exception ex) {
 			// log.error("QE: exception in onKillInWorld", ex);
 			return false;
+		} finally {
+			addDispatchStats(DispatchEvent.KILL_IN_WORLD, handlers, skipped, start);
 		}
 		return true;
 	}
@@ -614,24 +681,26 @@ public class QuestEngine implements GameEngine {
 		return true;
 	}
 
+	/**
+	 * Not filtered by the active quests of the player, most distance handlers start their quest.
+	 */
 	public boolean onAtDistance(QuestEnv env) {
-		QuestNpc questNpc = null;
 		Npc npc = (Npc) env.getVisibleObject();
-		if (!questNpcs.containsKey(npc.getNpcId())) {
-			return false;
-		}
-		questNpc = getQuestNpc(npc.getNpcId());
-		if (getQuestNpc(npc.getNpcId()).getOnDistanceEvent().size() == 0) {
+		QuestNpc questNpc = questNpcs.get(npc.getNpcId());
+		if (questNpc == null || questNpc.getOnDistanceEvent().size() == 0) {
 			return false;
 		}
 		Player player = env.getPlayer();
 		if (!MathUtil.isIn3dRange(npc, player, 20)) {
 			return false;
 		}
+		long start = System.nanoTime();
+		int handlers = 0;
 		try {
 			for (int questId : questNpc.getOnDistanceEvent()) {
 				QuestHandler questHandler = getQuestHandlerByQuestId(questId);
 				if (questHandler != null) {
+					handlers++;
 					env.setQuestId(questId);
 					questHandler.onAtDistanceEvent(env);
 				}
@@ -639,6 +708,8 @@ public class QuestEngine implements GameEngine {
 		} catch (Exception ex) {
 			// log.error("QE: exception in onAtDistance", ex);
 			return false;
+		} finally {
+			addDispatchStats(DispatchEvent.AT_DISTANCE, handlers, 0, start);
 		}
 		return true;
 	}
@@ -928,6 +999,30 @@ public class QuestEngine implements GameEngine {
 			lostTarget.add(questId);
 	}
 
+	private void addDispatchStats(DispatchEvent event, int handlers, int skipped, long start) {
+		int index = event.ordinal();
+		dispatchEvents.incrementAndGet(index);
+		dispatchHandlers.addAndGet(index, handlers);
+		dispatchSkipped.addAndGet(index, skipped);
+		dispatchNanos.addAndGet(index, System.nanoTime() - start);
+	}
+
+	/**
+	 * @return per event type: events, handler calls, quests skipped because the player was not on them and time spent
+	 */
+	public List<String> getDispatchStats() {
+		List<String> stats = new ArrayList<String>();
+		for (DispatchEvent event : DispatchEvent.values()) {
+			int index = event.ordinal();
+			long events = dispatchEvents.get(index);
+			long nanos = dispatchNanos.get(index);
+			stats.add(event + ": events=" + events + " handlers=" + dispatchHandlers.get(index) + " skipped="
+				+ dispatchSkipped.get(index) + " time=" + nanos / 1000000 + "ms avg="
+				+ (events == 0 ? 0 : nanos / events / 1000) + "us");
+		}
+		return stats;
+	}
+
 	public QuestNpc getQuestNpc(int npcId) {
 		if (questNpcs.containsKey(npcId)) {
 			return questNpcs.get(npcId);
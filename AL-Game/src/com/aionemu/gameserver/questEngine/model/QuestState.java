@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 
 import com.aionemu.gameserver.dataholders.DataManager;
 import com.aionemu.gameserver.model.gameobjects.PersistentState;
+import com.aionemu.gameserver.model.gameobjects.player.QuestStateList;
 import com.aionemu.gameserver.model.templates.QuestTemplate;
 
 /**
@@ -40,6 +41,7 @@ public class QuestState {
 	private Timestamp nextRepeatTime;
 	private Integer reward;
 	private PersistentState persistentState;
+	private QuestStateList questStateList;
 
 	private static final Logger log = LoggerFactory.getLogger(QuestState.class);
 
@@ -88,8 +90,18 @@ public class QuestState {
 	public void setStatus(QuestStatus status) {
 		if (status == QuestStatus.COMPLETE && this.status != QuestStatus.COMPLETE)
 			updateCompleteTime();
+		boolean changed = this.status != status;
 		this.status = status;
 		setPersistentState(PersistentState.UPDATE_REQUIRED);
+		if (changed && questStateList != null)
+			questStateList.onStatusChange(this);
+	}
+
+	/**
+	 * @param questStateList the list this state belongs to, notified on status changes
+	 */
+	public void setQuestStateList(QuestStateList questStateList) {
+		this.questStateList = questStateList;
 	}
 
 	public Timestamp getCompleteTime() {
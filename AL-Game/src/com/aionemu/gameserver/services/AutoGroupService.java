@@ -16,14 +16,15 @@
  */
 package com.aionemu.gameserver.services;
 
-import static ch.lambdaj.Lambda.having;
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.select;
-import static org.hamcrest.Matchers.equalTo;
-
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -32,8 +33,6 @@ import org.slf4j.LoggerFactory;
 
 import com.aionemu.commons.network.util.ThreadPoolManager;
 import com.aionemu.gameserver.dataholders.DataManager;
-import com.aionemu.gameserver.instance.InstanceEngine;
-import com.aionemu.gameserver.model.autogroup.AGPlayer;
 import com.aionemu.gameserver.model.autogroup.AGQuestion;
 import com.aionemu.gameserver.model.autogroup.AutoGroupType;
 import com.aionemu.gameserver.model.autogroup.AutoInstance;
@@ -59,12 +58,9 @@ import com.aionemu.gameserver.services.instance.InstanceService;
 import com.aionemu.gameserver.services.instance.IronWallWarfrontService;
 import com.aionemu.gameserver.services.instance.KamarBattlefieldService;
 import com.aionemu.gameserver.services.instance.SuspiciousOphidanBridgeService;
-import com.aionemu.gameserver.spawnengine.SpawnEngine;
 import com.aionemu.gameserver.utils.PacketSendUtility;
 import com.aionemu.gameserver.world.World;
-import com.aionemu.gameserver.world.WorldMap;
 import com.aionemu.gameserver.world.WorldMapInstance;
-import com.aionemu.gameserver.world.WorldMapInstanceFactory;
 
 import javolution.util.FastList;
 import javolution.util.FastMap;
@@ -75,7 +71,15 @@ public class AutoGroupService {
 	private FastMap<Integer, LookingForParty> searchers = new FastMap<Integer, LookingForParty>().shared();
 	private FastMap<Integer, AutoInstance> autoInstances = new FastMap<Integer, AutoInstance>().shared();
 	private Collection<Integer> penaltys = new FastList<Integer>().shared();
-	private Lock lock = new ReentrantLock();
+	/**
+	 * Searches by instance mask id, each mask is matched under its own lock
+	 */
+	private ConcurrentMap<Integer, MaskQueue> queues = new ConcurrentHashMap<Integer, MaskQueue>();
+	/**
+	 * Serializes taking searchers out of the queues, a searcher can wait for
+	 * several masks at once
+	 */
+	private Lock claimLock = new ReentrantLock();
 
 	private AutoGroupService() {
 	}
@@ -95,13 +99,15 @@ public class AutoGroupService {
 			return;
 		}
 		if (lfp == null) {
-			searchers.put(obj, new LookingForParty(player, instanceMaskId, ert));
+			lfp = new LookingForParty(player, instanceMaskId, ert);
+			searchers.put(obj, lfp);
 		} else if (lfp.hasPenalty() || lfp.isRegistredInstance(instanceMaskId)) {
 			PacketSendUtility.sendPacket(player, new SM_SYSTEM_MESSAGE(1400181, agt.getInstanceMapId()));
 			return;
 		} else {
 			lfp.addInstanceMaskId(instanceMaskId, ert);
 		}
+		enqueue(obj, lfp.getSearchInstance(instanceMaskId));
 		if (ert.isGroupEntry()) {
 			for (Player member : player.getPlayerGroup2().getOnlineMembers()) {
 				if (agt.isDredgion()) {
@@ -178,19 +184,25 @@ public class AutoGroupService {
 		startSort(ert, instanceMaskId, true);
 	}
 
-	public synchronized void pressEnter(Player player, int instanceMaskId) {
-		AutoInstance instance = getAutoInstance(player, instanceMaskId);
-		if (instance == null || instance.players.get(player.getObjectId()).isPressedEnter()) {
-			return;
-		}
-		if (player.isInGroup2()) {
-			PlayerGroupService.removePlayer(player);
-		}
-		if (player.isInAlliance2()) {
-			PlayerAllianceService.removePlayer(player);
+	public void pressEnter(Player player, int instanceMaskId) {
+		MaskQueue queue = getQueue(instanceMaskId);
+		queue.lock.lock();
+		try {
+			AutoInstance instance = getAutoInstance(player, instanceMaskId);
+			if (instance == null || instance.players.get(player.getObjectId()).isPressedEnter()) {
+				return;
+			}
+			if (player.isInGroup2()) {
+				PlayerGroupService.removePlayer(player);
+			}
+			if (player.isInAlliance2()) {
+				PlayerAllianceService.removePlayer(player);
+			}
+			instance.onPressEnter(player);
+			PacketSendUtility.sendPacket(player, new SM_AUTO_GROUP(instanceMaskId, 5));
+		} finally {
+			queue.lock.unlock();
 		}
-		instance.onPressEnter(player);
-		PacketSendUtility.sendPacket(player, new SM_AUTO_GROUP(instanceMaskId, 5));
 	}
 
 	public void onEnterInstance(Player player) {
@@ -211,7 +223,7 @@ public class AutoGroupService {
 			lfp.setPenaltyTime();
 			si = lfp.getSearchInstance(instanceMaskId);
 			if (si != null) {
-				if (lfp.unregisterInstance(instanceMaskId) == 0) {
+				if (unregisterSearch(lfp, obj, instanceMaskId) == 0) {
 					searchers.remove(obj);
 					startPenalty(obj);
 				}
@@ -356,7 +368,7 @@ public class AutoGroupService {
 			for (SearchInstance searchInstance : lfp.getSearchInstances()) {
 				if (searchInstance.getEntryRequestType().isGroupEntry() && !player.isInGroup2()) {
 					int instanceMaskId = searchInstance.getInstanceMaskId();
-					lfp.unregisterInstance(instanceMaskId);
+					unregisterSearch(lfp, obj, instanceMaskId);
 					if (searchInstance.isDredgion() && DredgionService2.getInstance().isDredgionAvailable()) {
 						PacketSendUtility.sendPacket(player,
 								new SM_AUTO_GROUP(instanceMaskId, SM_AUTO_GROUP.wnd_EntryIcon));
@@ -487,7 +499,7 @@ public class AutoGroupService {
 				WorldMapInstance instance = autoInstance.instance;
 				if (instance != null) {
 					autoInstance.players.get(obj).setOnline(false);
-					if (select(autoInstance.players, having(on(AGPlayer.class).isOnline(), equalTo(true))).isEmpty()) {
+					if (!autoInstance.hasOnlinePlayers()) {
 						autoInstance = autoInstances.remove(instanceId);
 						InstanceService.destroyInstance(instance);
 						autoInstance.clear();
@@ -504,7 +516,7 @@ public class AutoGroupService {
 			AutoInstance autoInstance = autoInstances.get(instanceId);
 			if (autoInstance != null && autoInstance.players.containsKey(obj)) {
 				autoInstance.onLeaveInstance(player);
-				if (select(autoInstance.players, having(on(AGPlayer.class).isOnline(), equalTo(true))).isEmpty()) {
+				if (!autoInstance.hasOnlinePlayers()) {
 					WorldMapInstance instance = autoInstance.instance;
 					autoInstances.remove(instanceId);
 					if (instance != null) {
@@ -518,97 +530,170 @@ public class AutoGroupService {
 	}
 
 	private void startSort(EntryRequestType ert, Integer instanceMaskId, boolean checkNewGroup) {
-		lock.lock();
+		MaskQueue queue = getQueue(instanceMaskId);
+		queue.lock.lock();
 		try {
-			Collection<Player> players = new HashSet<Player>();
 			if (ert.isFastGroupEntry()) {
-				for (LookingForParty lfp : searchers.values()) {
-					if (lfp.getPlayer() == null || lfp.isOnStartEnterTask()) {
-						continue;
+				fillRunningInstances(queue, instanceMaskId);
+			}
+			if (checkNewGroup) {
+				createNewGroup(queue, instanceMaskId);
+			}
+		} finally {
+			queue.lock.unlock();
+		}
+	}
+
+	/**
+	 * Moves fast entry searchers of this mask into its running instances
+	 */
+	private void fillRunningInstances(MaskQueue queue, int instanceMaskId) {
+		List<AutoInstance> running = new ArrayList<AutoInstance>();
+		for (AutoInstance autoInstance : autoInstances.values()) {
+			if (autoInstance.agt.getInstanceMaskId() == instanceMaskId) {
+				running.add(autoInstance);
+			}
+		}
+		if (running.isEmpty()) {
+			return;
+		}
+		Iterator<Map.Entry<Integer, SearchInstance>> iter = queue.searches.entrySet().iterator();
+		while (iter.hasNext()) {
+			Map.Entry<Integer, SearchInstance> entry = iter.next();
+			SearchInstance searchInstance = entry.getValue();
+			if (!searchInstance.getEntryRequestType().isFastGroupEntry()) {
+				continue;
+			}
+			Integer obj = entry.getKey();
+			LookingForParty lfp = searchers.get(obj);
+			if (lfp == null || lfp.getPlayer() == null) {
+				continue;
+			}
+			for (AutoInstance autoInstance : running) {
+				boolean added;
+				claimLock.lock();
+				try {
+					if (lfp.isOnStartEnterTask()) {
+						break;
 					}
-					for (AutoInstance autoInstance : autoInstances.values()) {
-						int searchMaskId = autoInstance.agt.getInstanceMaskId();
-						SearchInstance searchInstance = lfp.getSearchInstance(searchMaskId);
-						if (searchInstance != null && searchInstance.getEntryRequestType().isFastGroupEntry()) {
-							Player owner = lfp.getPlayer();
-							if (autoInstance.addPlayer(owner, searchInstance).isAdded()) {
-								lfp.setStartEnterTime();
-								if (lfp.unregisterInstance(searchMaskId) == 0) {
-									players.add(owner);
-								}
-								PacketSendUtility.sendPacket(lfp.getPlayer(), new SM_AUTO_GROUP(searchMaskId, 4));
-							}
-						}
+					added = autoInstance.addPlayer(lfp.getPlayer(), searchInstance).isAdded();
+					if (added) {
+						lfp.setStartEnterTime();
 					}
+				} finally {
+					claimLock.unlock();
 				}
-				for (Player p : players) {
-					searchers.remove(p.getObjectId());
+				if (added) {
+					iter.remove();
+					queue.onMatched(searchInstance);
+					if (lfp.unregisterInstance(instanceMaskId) == 0) {
+						searchers.remove(obj);
+					}
+					PacketSendUtility.sendPacket(lfp.getPlayer(), new SM_AUTO_GROUP(instanceMaskId, 4));
+					break;
 				}
-				players.clear();
 			}
-			if (checkNewGroup) {
-				AutoGroupType agt = AutoGroupType.getAGTByMaskId(instanceMaskId);
-				AutoInstance autoInstance = agt.getAutoInstance();
-				autoInstance.initsialize(instanceMaskId);
-				boolean canCreate = false;
-				Iterator<LookingForParty> iter = searchers.values().iterator();
-				LookingForParty lfp;
-				while (iter.hasNext()) {
-					lfp = iter.next();
-					if (lfp.getPlayer() == null || lfp.isOnStartEnterTask()) {
-						continue;
-					}
-					SearchInstance searchInstance = lfp.getSearchInstance(instanceMaskId);
-					if (searchInstance != null) {
-						if (searchInstance.getEntryRequestType().isGroupEntry()) {
-							if (!lfp.getPlayer().isInGroup2()) {
-								if (lfp.unregisterInstance(instanceMaskId) == 0) {
-									iter.remove();
-								}
-								continue;
-							}
-						}
-						AGQuestion question = autoInstance.addPlayer(lfp.getPlayer(), searchInstance);
-						if (!question.isFailed()) {
-							if (searchInstance.getEntryRequestType().isGroupEntry()) {
-								for (Player member : lfp.getPlayer().getPlayerGroup2().getOnlineMembers()) {
-									if (searchInstance.getMembers().contains(member.getObjectId())) {
-										players.add(member);
-									}
-								}
-							} else {
-								players.add(lfp.getPlayer());
-							}
-						}
-						if (question.isReady()) {
-							canCreate = true;
-							break;
-						}
+		}
+	}
+
+	/**
+	 * Creates a new instance once the searchers of this mask fill it
+	 */
+	private void createNewGroup(MaskQueue queue, int instanceMaskId) {
+		while (tryCreateNewGroup(queue, instanceMaskId)) {
+			// the searcher lost to another mask is skipped by the next match,
+			// the others are matched again
+		}
+	}
+
+	/**
+	 * @return true if a matched searcher was claimed by another mask before
+	 *         the instance could be created, so matching has to run again
+	 */
+	private boolean tryCreateNewGroup(MaskQueue queue, int instanceMaskId) {
+		AutoGroupType agt = AutoGroupType.getAGTByMaskId(instanceMaskId);
+		// every group member counts, so nothing can be ready below the instance size
+		if (queue.queuedPlayers < agt.getPlayerSize()) {
+			return false;
+		}
+		AutoInstance autoInstance = agt.getAutoInstance();
+		autoInstance.initsialize(instanceMaskId);
+		Collection<Player> players = new HashSet<Player>();
+		Map<Integer, LookingForParty> matched = new LinkedHashMap<Integer, LookingForParty>();
+		boolean canCreate = false;
+		Iterator<Map.Entry<Integer, SearchInstance>> iter = queue.searches.entrySet().iterator();
+		while (iter.hasNext()) {
+			Map.Entry<Integer, SearchInstance> entry = iter.next();
+			LookingForParty lfp = searchers.get(entry.getKey());
+			if (lfp == null || lfp.getPlayer() == null || lfp.isOnStartEnterTask()) {
+				continue;
+			}
+			SearchInstance searchInstance = entry.getValue();
+			if (searchInstance.getEntryRequestType().isGroupEntry()) {
+				if (!lfp.getPlayer().isInGroup2()) {
+					iter.remove();
+					queue.queuedPlayers -= getWeight(searchInstance);
+					if (lfp.unregisterInstance(instanceMaskId) == 0) {
+						searchers.remove(entry.getKey());
 					}
+					continue;
 				}
-				if (canCreate) {
-					WorldMapInstance instance = createInstance(agt.getInstanceMapId(), agt.getDifficultId());
-					autoInstance.onInstanceCreate(instance);
-					autoInstances.put(instance.getInstanceId(), autoInstance);
-					for (Player player : players) {
-						Integer obj = player.getObjectId();
-						lfp = searchers.get(obj);
-						if (lfp != null) {
-							lfp.setStartEnterTime();
-							if (lfp.unregisterInstance(autoInstance.agt.getInstanceMaskId()) == 0) {
-								searchers.remove(obj);
-							}
+			}
+			AGQuestion question = autoInstance.addPlayer(lfp.getPlayer(), searchInstance);
+			if (!question.isFailed()) {
+				matched.put(entry.getKey(), lfp);
+				if (searchInstance.getEntryRequestType().isGroupEntry()) {
+					for (Player member : lfp.getPlayer().getPlayerGroup2().getOnlineMembers()) {
+						if (searchInstance.getMembers().contains(member.getObjectId())) {
+							players.add(member);
 						}
-						PacketSendUtility.sendPacket(player, new SM_AUTO_GROUP(instanceMaskId, 4));
 					}
 				} else {
+					players.add(lfp.getPlayer());
+				}
+			}
+			if (question.isReady()) {
+				canCreate = true;
+				break;
+			}
+		}
+		if (!canCreate) {
+			autoInstance.clear();
+			return false;
+		}
+		claimLock.lock();
+		try {
+			for (LookingForParty lfp : matched.values()) {
+				// already taken by another mask while this one was matching
+				if (lfp.isOnStartEnterTask()) {
 					autoInstance.clear();
+					return true;
 				}
-				players.clear();
+			}
+			for (LookingForParty lfp : matched.values()) {
+				lfp.setStartEnterTime();
 			}
 		} finally {
-			lock.unlock();
+			claimLock.unlock();
 		}
+		WorldMapInstance instance = InstanceService.getNextAutoInstance(agt.getInstanceMapId(), agt.getDifficultId());
+		autoInstance.onInstanceCreate(instance);
+		autoInstances.put(instance.getInstanceId(), autoInstance);
+		for (Integer obj : matched.keySet()) {
+			queue.onMatched(queue.searches.remove(obj));
+		}
+		for (Player player : players) {
+			Integer obj = player.getObjectId();
+			LookingForParty lfp = searchers.get(obj);
+			if (lfp != null) {
+				lfp.setStartEnterTime();
+				if (lfp.unregisterInstance(instanceMaskId) == 0) {
+					searchers.remove(obj);
+				}
+			}
+			PacketSendUtility.sendPacket(player, new SM_AUTO_GROUP(instanceMaskId, 4));
+		}
+		return false;
 	}
 
 	private boolean canEnter(Player player, EntryRequestType ert, AutoGroupType agt) {
@@ -794,16 +879,6 @@ public class AutoGroupService {
 		return player.getPortalCooldownList().isPortalUseDisabled(worldId) && useDelay > 0;
 	}
 
-	private WorldMapInstance createInstance(int worldId, byte difficultId) {
-		WorldMap map = World.getInstance().getWorldMap(worldId);
-		int nextInstanceId = map.getNextInstanceId();
-		WorldMapInstance worldMapInstance = WorldMapInstanceFactory.createWorldMapInstance(map, nextInstanceId);
-		map.addInstance(nextInstanceId, worldMapInstance);
-		SpawnEngine.spawnInstance(worldId, worldMapInstance.getInstanceId(), difficultId);
-		InstanceEngine.getInstance().onInstanceCreate(worldMapInstance);
-		return worldMapInstance;
-	}
-
 	private void startPenalty(final Integer obj) {
 		if (penaltys.contains(obj)) {
 			penaltys.remove(obj);
@@ -820,15 +895,25 @@ public class AutoGroupService {
 	}
 
 	public void unRegisterInstance(byte instanceMaskId) {
-		for (LookingForParty lfp : searchers.values()) {
-			if (lfp.isRegistredInstance(instanceMaskId)) {
-				if (lfp.getPlayer() != null) {
-					getInstance().unregisterLooking(lfp.getPlayer(), instanceMaskId);
-				} else {
-					getInstance().unRegisterSearchInstance(null, lfp.getSearchInstance(instanceMaskId));
-					if (lfp.unregisterInstance(instanceMaskId) == 0) {
-						searchers.values().remove(lfp);
-					}
+		List<Integer> queued;
+		MaskQueue queue = getQueue(instanceMaskId);
+		queue.lock.lock();
+		try {
+			queued = new ArrayList<Integer>(queue.searches.keySet());
+		} finally {
+			queue.lock.unlock();
+		}
+		for (Integer obj : queued) {
+			LookingForParty lfp = searchers.get(obj);
+			if (lfp == null || !lfp.isRegistredInstance(instanceMaskId)) {
+				continue;
+			}
+			if (lfp.getPlayer() != null) {
+				unregisterLooking(lfp.getPlayer(), instanceMaskId);
+			} else {
+				unRegisterSearchInstance(null, lfp.getSearchInstance(instanceMaskId));
+				if (unregisterSearch(lfp, obj, instanceMaskId) == 0) {
+					searchers.remove(obj);
 				}
 			}
 		}
@@ -915,10 +1000,106 @@ public class AutoGroupService {
 		return autoInstances.containsKey(instanceId);
 	}
 
+	private MaskQueue getQueue(int instanceMaskId) {
+		MaskQueue queue = queues.get(instanceMaskId);
+		if (queue == null) {
+			MaskQueue newQueue = new MaskQueue();
+			queue = queues.putIfAbsent(instanceMaskId, newQueue);
+			if (queue == null) {
+				queue = newQueue;
+			}
+		}
+		return queue;
+	}
+
+	private void enqueue(Integer obj, SearchInstance searchInstance) {
+		MaskQueue queue = getQueue(searchInstance.getInstanceMaskId());
+		queue.lock.lock();
+		try {
+			if (queue.searches.put(obj, searchInstance) == null) {
+				queue.queuedPlayers += getWeight(searchInstance);
+			}
+		} finally {
+			queue.lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes the search from its mask queue and from the searcher
+	 * 
+	 * @return number of searches the searcher still has
+	 */
+	private int unregisterSearch(LookingForParty lfp, Integer obj, int instanceMaskId) {
+		MaskQueue queue = getQueue(instanceMaskId);
+		queue.lock.lock();
+		try {
+			SearchInstance searchInstance = queue.searches.remove(obj);
+			if (searchInstance != null) {
+				queue.queuedPlayers -= getWeight(searchInstance);
+			}
+		} finally {
+			queue.lock.unlock();
+		}
+		return lfp.unregisterInstance(instanceMaskId);
+	}
+
+	private static int getWeight(SearchInstance searchInstance) {
+		return searchInstance.getMembers() != null ? searchInstance.getMembers().size() : 1;
+	}
+
+	public List<String> getStats() {
+		List<String> stats = new ArrayList<String>();
+		stats.add("Auto groups: " + searchers.size() + " searchers, " + autoInstances.size() + " instances");
+		for (Map.Entry<Integer, MaskQueue> entry : queues.entrySet()) {
+			MaskQueue queue = entry.getValue();
+			queue.lock.lock();
+			try {
+				if (queue.searches.isEmpty() && queue.matches == 0) {
+					continue;
+				}
+				stats.add("Mask " + entry.getKey() + ": queued " + queue.searches.size() + " (" + queue.queuedPlayers
+						+ " players), matched " + queue.matches + ", wait avg "
+						+ (queue.matches == 0 ? 0 : queue.totalWait / queue.matches / 1000) + "s max "
+						+ queue.maxWait / 1000 + "s");
+			} finally {
+				queue.lock.unlock();
+			}
+		}
+		return stats;
+	}
+
 	public static AutoGroupService getInstance() {
 		return NewSingletonHolder.INSTANCE;
 	}
 
+	/**
+	 * Searches of one instance mask in registration order, guarded by its lock
+	 */
+	private static class MaskQueue {
+		private final Lock lock = new ReentrantLock();
+		private final Map<Integer, SearchInstance> searches = new LinkedHashMap<Integer, SearchInstance>();
+		/**
+		 * Searchers plus their registered group members
+		 */
+		private int queuedPlayers;
+		private int matches;
+		private long totalWait;
+		private long maxWait;
+
+		/**
+		 * Must be called after the search has left {@link #searches}
+		 */
+		private void onMatched(SearchInstance searchInstance) {
+			queuedPlayers -= getWeight(searchInstance);
+			long wait = System.currentTimeMillis() - searchInstance.getRegistrationTime();
+			matches++;
+			totalWait += wait;
+			if (wait > maxWait) {
+				maxWait = wait;
+			}
+		}
+	}
+
 	private static class NewSingletonHolder {
 		private static final AutoGroupService INSTANCE = new AutoGroupService();
 	}
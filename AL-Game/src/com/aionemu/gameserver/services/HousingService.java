@@ -18,16 +18,19 @@ package com.aionemu.gameserver.services;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.aionemu.commons.database.dao.DAOManager;
 import com.aionemu.commons.utils.internal.chmv8.PlatformDependent;
+import com.aionemu.gameserver.configs.main.HousingConfig;
 import com.aionemu.gameserver.controllers.HouseController;
 import com.aionemu.gameserver.dao.HousesDAO;
 import com.aionemu.gameserver.dataholders.DataManager;
@@ -53,6 +56,7 @@ import com.aionemu.gameserver.questEngine.model.QuestState;
 import com.aionemu.gameserver.questEngine.model.QuestStatus;
 import com.aionemu.gameserver.spawnengine.SpawnEngine;
 import com.aionemu.gameserver.utils.PacketSendUtility;
+import com.aionemu.gameserver.utils.ThreadPoolManager;
 import com.aionemu.gameserver.world.World;
 import com.aionemu.gameserver.world.WorldPosition;
 
@@ -62,7 +66,12 @@ public class HousingService {
 
 	private static final Logger log = LoggerFactory.getLogger(HousingService.class);
 	private static final Map<Integer, List<House>> housesByMapId = new HashMap<Integer, List<House>>();
+	/**
+	 * Houses loaded from DB by address id
+	 */
 	private final Map<Integer, House> customHouses;
+	private final Map<String, House> customHousesByName;
+	private final Map<Integer, List<House>> customHousesByOwnerId;
 	private final Map<Integer, House> studios;
 
 	@SuppressWarnings("synthetic-access")
@@ -80,9 +89,72 @@ public class HousingService {
 				DAOManager.getDAO(HousesDAO.class).loadHouses(DataManager.HOUSE_DATA.getLands(), false));
 		studios = PlatformDependent.newConcurrentHashMap(
 				DAOManager.getDAO(HousesDAO.class).loadHouses(DataManager.HOUSE_DATA.getLands(), true));
+		customHousesByName = new HashMap<String, House>(customHouses.size());
+		customHousesByOwnerId = PlatformDependent.newConcurrentHashMap();
+		for (House house : customHouses.values()) {
+			customHousesByName.put(house.getName(), house);
+			if (house.getOwnerId() != 0) {
+				addOwnedHouse(house.getOwnerId(), house);
+			}
+			house.setIndexed(true);
+		}
+		if (HousingConfig.HOUSE_CONTENT_IDLE_MINUTES > 0) {
+			ThreadPoolManager.getInstance().scheduleAtFixedRate(new Runnable() {
+
+				@Override
+				public void run() {
+					evictIdleContent();
+				}
+			}, 60000, 60000);
+		}
 		log.info("Housing Service loaded.");
 	}
 
+	private void addOwnedHouse(int ownerId, House house) {
+		List<House> owned = customHousesByOwnerId.get(ownerId);
+		if (owned == null) {
+			owned = new CopyOnWriteArrayList<House>();
+			customHousesByOwnerId.put(ownerId, owned);
+		}
+		owned.add(house);
+	}
+
+	private List<House> getOwnedHouses(int ownerId) {
+		List<House> owned = customHousesByOwnerId.get(ownerId);
+		return owned == null ? Collections.<House> emptyList() : owned;
+	}
+
+	/**
+	 * Called by indexed houses when their owner changes
+	 */
+	public void onOwnerChange(House house, int oldOwnerId) {
+		synchronized (customHousesByOwnerId) {
+			if (oldOwnerId != 0) {
+				List<House> owned = customHousesByOwnerId.get(oldOwnerId);
+				if (owned != null && owned.remove(house) && owned.isEmpty()) {
+					customHousesByOwnerId.remove(oldOwnerId);
+				}
+			}
+			if (house.getOwnerId() != 0) {
+				addOwnedHouse(house.getOwnerId(), house);
+			}
+		}
+	}
+
+	/**
+	 * Unloads registered items and scripts of houses nobody has been near for a
+	 * while and whose owner is offline
+	 */
+	private void evictIdleContent() {
+		long idleSince = System.currentTimeMillis() - HousingConfig.HOUSE_CONTENT_IDLE_MINUTES * 60000L;
+		for (House house : customHouses.values()) {
+			// unlocked pre-check, the house checks again under its lock
+			if (house.isContentLoaded()) {
+				house.evictContentIfIdle(idleSince);
+			}
+		}
+	}
+
 	public void spawnHouses(int worldId, int instanceId, int registeredId) {
 		Set<HousingLand> lands = DataManager.HOUSE_DATA.getLandsForWorldId(worldId);
 		if (lands == null) {
@@ -158,11 +230,7 @@ public class HousingService {
 				return houses;
 			}
 		}
-		for (House house : customHouses.values()) {
-			if (house.getOwnerId() == playerObjId) {
-				houses.add(house);
-			}
-		}
+		houses.addAll(getOwnedHouses(playerObjId));
 		return houses;
 	}
 
@@ -172,12 +240,8 @@ public class HousingService {
 				return studios.get(playerId).getAddress().getId();
 			}
 		}
-		for (House house : customHouses.values()) {
-			if (house.getStatus() == HouseStatus.INACTIVE) {
-				continue;
-			}
-			if (house.getOwnerId() == playerId
-					&& (house.getStatus() == HouseStatus.ACTIVE || house.getStatus() == HouseStatus.SELL_WAIT)) {
+		for (House house : getOwnedHouses(playerId)) {
+			if (house.getStatus() == HouseStatus.ACTIVE || house.getStatus() == HouseStatus.SELL_WAIT) {
 				return house.getAddress().getId();
 			}
 		}
@@ -195,26 +259,16 @@ public class HousingService {
 	}
 
 	public House getHouseByName(String houseName) {
-		for (House house : customHouses.values()) {
-			if (house.getName().equals(houseName)) {
-				return house;
-			}
-		}
-		return null;
+		return customHousesByName.get(houseName);
 	}
 
 	public House getHouseByAddress(int address) {
-		for (House house : customHouses.values()) {
-			if (house.getAddress().getId() == address) {
-				return house;
-			}
-		}
-		return null;
+		return customHouses.get(address);
 	}
 
 	public House activateBoughtHouse(int playerId) {
-		for (House house : customHouses.values()) {
-			if (house.getOwnerId() == playerId && house.getStatus() == HouseStatus.INACTIVE) {
+		for (House house : getOwnedHouses(playerId)) {
+			if (house.getStatus() == HouseStatus.INACTIVE) {
 				house.revokeOwner();
 				house.setOwnerId(playerId);
 				house.setFeePaid(true);
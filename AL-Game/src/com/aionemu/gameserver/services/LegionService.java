@@ -78,6 +78,7 @@ import com.aionemu.gameserver.network.aion.serverpackets.SM_LEGION_UPDATE_TITLE;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_QUESTION_WINDOW;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_SYSTEM_MESSAGE;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_WAREHOUSE_INFO;
+import com.aionemu.gameserver.services.player.PlayerNameDirectory;
 import com.aionemu.gameserver.utils.PacketSendUtility;
 import com.aionemu.gameserver.utils.Util;
 import com.aionemu.gameserver.utils.collections.ListSplitter;
@@ -277,6 +278,7 @@ public class LegionService {
 	private void deleteLegionMemberFromDB(LegionMemberEx legionMember) {
 		this.allCachedLegionMembers.remove(legionMember);
 		DAOManager.getDAO(LegionMemberDAO.class).deleteLegionMember(legionMember.getObjectId());
+		PlayerNameDirectory.getInstance().remove(legionMember.getObjectId());
 		Legion legion = legionMember.getLegion();
 		legion.deleteLegionMember(legionMember.getObjectId());
 		addHistory(legion, legionMember.getName(), LegionHistoryType.KICK);
@@ -462,6 +464,7 @@ public class LegionService {
 	public void disbandLegion(Legion legion) {
 		for (Integer memberObjId : legion.getLegionMembers()) {
 			this.allCachedLegionMembers.remove(getLegionMemberEx(memberObjId));
+			PlayerNameDirectory.getInstance().remove(memberObjId);
 		}
 		SiegeService.getInstance().cleanLegionId(legion.getLegionId());
 		updateAfterDisbandLegion(legion);
@@ -887,6 +890,7 @@ public class LegionService {
 			PacketSendUtility.sendPacket(onlineLegionMember,
 					new SM_LEGION_LEAVE_MEMBER(1300302, 0, legion.getLegionName()));
 			onlineLegionMember.resetLegionMember();
+			legion.removeOnlineLegionMember(onlineLegionMember.getObjectId());
 		}
 	}
 
@@ -1351,6 +1355,7 @@ public class LegionService {
 	 */
 	private void addLegionMember(Legion legion, Player player, LegionRank rank) {
 		player.setLegionMember(new LegionMember(player.getObjectId(), legion, rank));
+		legion.addOnlineLegionMember(player);
 		storeLegionMember(player.getLegionMember(), true);
 		PacketSendUtility.sendPacket(player, new SM_LEGION_INFO(legion));
 		ArrayList<LegionMemberEx> totalMembers = loadLegionMemberExList(legion, player.getObjectId());
@@ -1576,6 +1581,7 @@ public class LegionService {
 	 */
 	public void onLogin(Player activePlayer) {
 		Legion legion = activePlayer.getLegion();
+		legion.addOnlineLegionMember(activePlayer);
 		PacketSendUtility.broadcastPacketToLegion(legion, new SM_LEGION_UPDATE_MEMBER(activePlayer, 0, ""),
 				activePlayer.getObjectId());
 		PacketSendUtility.broadcastPacketToLegion(legion,
@@ -1619,6 +1625,7 @@ public class LegionService {
 		storeLegionMemberExInCache(player);
 		storeLegionAnnouncements(legion);
 		legion.removeBonus();
+		legion.removeOnlineLegionMember(player.getObjectId());
 	}
 
 	public void clearCaches() {
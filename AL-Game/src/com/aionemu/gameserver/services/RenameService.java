@@ -26,6 +26,7 @@ import com.aionemu.gameserver.dao.PlayerDAO;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_RENAME;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_SYSTEM_MESSAGE;
+import com.aionemu.gameserver.services.player.PlayerNameDirectory;
 import com.aionemu.gameserver.services.player.PlayerService;
 import com.aionemu.gameserver.utils.PacketSendUtility;
 import com.aionemu.gameserver.utils.audit.AuditLogger;
@@ -71,6 +72,7 @@ public class RenameService {
 			}
 		}
 		DAOManager.getDAO(PlayerDAO.class).storePlayer(player);
+		PlayerNameDirectory.getInstance().update(player);
 		return true;
 	}
 
@@ -36,7 +36,6 @@ import com.aionemu.gameserver.utils.ThreadPoolManager;
 import com.aionemu.gameserver.utils.gametime.DayTime;
 import com.aionemu.gameserver.utils.gametime.GameTime;
 import com.aionemu.gameserver.utils.gametime.GameTimeManager;
-import com.aionemu.gameserver.world.World;
 
 public class WeatherService {
 	private Map<WeatherKey, WeatherEntry[]> worldZoneWeathers;
@@ -246,16 +245,7 @@ public class WeatherService {
 			return;
 		}
 		if (player == null) {
-			for (Iterator<Player> playerIterator = World.getInstance().getPlayersIterator(); playerIterator
-					.hasNext();) {
-				Player currentPlayer = playerIterator.next();
-				if (!currentPlayer.isSpawned()) {
-					continue;
-				}
-				if (currentPlayer.getWorldId() == mapId) {
-					PacketSendUtility.sendPacket(currentPlayer, new SM_WEATHER(weatherEntries));
-				}
-			}
+			PacketSendUtility.broadcastPacketToMap(mapId, new SM_WEATHER(weatherEntries));
 		} else {
 			PacketSendUtility.sendPacket(player, new SM_WEATHER(weatherEntries));
 		}
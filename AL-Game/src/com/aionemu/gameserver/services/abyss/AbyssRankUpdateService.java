@@ -35,6 +35,7 @@ import com.aionemu.gameserver.dao.ServerVariablesDAO;
 import com.aionemu.gameserver.model.Race;
 import com.aionemu.gameserver.model.gameobjects.player.AbyssRank;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
+import com.aionemu.gameserver.services.mail.BulkMail;
 import com.aionemu.gameserver.services.mail.SystemMailService;
 import com.aionemu.gameserver.utils.ThreadPoolManager;
 import com.aionemu.gameserver.utils.stats.AbyssRankEnum;
@@ -117,49 +118,51 @@ public class AbyssRankUpdateService {
 	}
 
 	private void sendRewardWeekly() {
+		final List<BulkMail> rewards = new ArrayList<BulkMail>();
 		World.getInstance().doOnAllPlayers(new Visitor<Player>() {
 			@Override
 			public void visit(Player player) {
 				switch (player.getAbyssRank().getRank()) {
 				case SUPREME_COMMANDER:
 					final int reward1 = rewardRace == Race.ASMODIANS ? 10 : 1;
-					SystemMailService.getInstance().sendTemplateRewardMail(reward1, player.getCommonData());
+					rewards.add(BulkMail.fromTemplate(reward1, player.getName()));
 					break;
 				case COMMANDER:
 					final int reward2 = rewardRace == Race.ASMODIANS ? 11 : 2;
-					SystemMailService.getInstance().sendTemplateRewardMail(reward2, player.getCommonData());
+					rewards.add(BulkMail.fromTemplate(reward2, player.getName()));
 					break;
 				case GREAT_GENERAL:
 					final int reward3 = rewardRace == Race.ASMODIANS ? 12 : 3;
-					SystemMailService.getInstance().sendTemplateRewardMail(reward3, player.getCommonData());
+					rewards.add(BulkMail.fromTemplate(reward3, player.getName()));
 					break;
 				case GENERAL:
 					final int reward4 = rewardRace == Race.ASMODIANS ? 13 : 4;
-					SystemMailService.getInstance().sendTemplateRewardMail(reward4, player.getCommonData());
+					rewards.add(BulkMail.fromTemplate(reward4, player.getName()));
 					break;
 				case STAR5_OFFICER:
 					final int reward5 = rewardRace == Race.ASMODIANS ? 14 : 5;
-					SystemMailService.getInstance().sendTemplateRewardMail(reward5, player.getCommonData());
+					rewards.add(BulkMail.fromTemplate(reward5, player.getName()));
 					break;
 				case STAR4_OFFICER:
 					final int reward6 = rewardRace == Race.ASMODIANS ? 15 : 6;
-					SystemMailService.getInstance().sendTemplateRewardMail(reward6, player.getCommonData());
+					rewards.add(BulkMail.fromTemplate(reward6, player.getName()));
 					break;
 				case STAR3_OFFICER:
 					final int reward7 = rewardRace == Race.ASMODIANS ? 16 : 7;
-					SystemMailService.getInstance().sendTemplateRewardMail(reward7, player.getCommonData());
+					rewards.add(BulkMail.fromTemplate(reward7, player.getName()));
 					break;
 				case STAR2_OFFICER:
 					final int reward8 = rewardRace == Race.ASMODIANS ? 17 : 8;
-					SystemMailService.getInstance().sendTemplateRewardMail(reward8, player.getCommonData());
+					rewards.add(BulkMail.fromTemplate(reward8, player.getName()));
 					break;
 				case STAR1_OFFICER:
 					final int reward9 = rewardRace == Race.ASMODIANS ? 18 : 9;
-					SystemMailService.getInstance().sendTemplateRewardMail(reward9, player.getCommonData());
+					rewards.add(BulkMail.fromTemplate(reward9, player.getName()));
 					break;
 				}
 			}
 		});
+		SystemMailService.getInstance().sendBulkMail(rewards);
 	}
 
 	public void AbyssRankingCacheUpdate() {
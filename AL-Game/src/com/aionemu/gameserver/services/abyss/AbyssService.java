@@ -70,15 +70,12 @@ public class AbyssService {
 	}
 
 	public static final void rankedKillAnnounce(final Player victim) {
-		World.getInstance().doOnAllPlayers(new Visitor<Player>() {
-			@Override
-			public void visit(Player p) {
-				if (p != victim && victim.getWorldId() == p.getWorldId()) {
-					PacketSendUtility.sendPacket(p, SM_SYSTEM_MESSAGE.STR_ABYSS_ORDER_RANKER_DIE(victim,
-							AbyssRankEnum.getRankDescriptionId(victim)));
-				}
+		for (Player p : World.getInstance().getPlayersOnMap(victim.getWorldId())) {
+			if (p != victim) {
+				PacketSendUtility.sendPacket(p, SM_SYSTEM_MESSAGE.STR_ABYSS_ORDER_RANKER_DIE(victim,
+						AbyssRankEnum.getRankDescriptionId(victim)));
 			}
-		});
+		}
 	}
 
 	public static final void rankerSkillAnnounce(final Player player, final int nameId) {
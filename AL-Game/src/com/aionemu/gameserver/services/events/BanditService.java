@@ -49,7 +49,6 @@ import com.aionemu.gameserver.utils.PacketSendUtility;
 import com.aionemu.gameserver.utils.ThreadPoolManager;
 import com.aionemu.gameserver.world.World;
 import com.aionemu.gameserver.world.WorldMapInstance;
-import com.aionemu.gameserver.world.knownlist.Visitor;
 
 /**
  * @author Rinzler (Encom)
@@ -221,26 +220,18 @@ public class BanditService {
 	}
 
 	public void sendAnnounce(final Player player) {
-		World.getInstance().doOnAllPlayers(new Visitor<Player>() {
-			@Override
-			public void visit(Player pl) {
-				if (pl.getWorldId() == player.getWorldId() && pl != player) {
-					PacketSendUtility.sendSys3Message(pl, "[PK] Bandit", "A player just passed <Outlaw>, RUN!");
-				}
+		for (Player pl : World.getInstance().getPlayersOnMap(player.getWorldId())) {
+			if (pl != player) {
+				PacketSendUtility.sendSys3Message(pl, "[PK] Bandit", "A player just passed <Outlaw>, RUN!");
 			}
-		});
+		}
 	}
 
 	public void sendDieAnnounce(final Player looser, final Player killer) {
-		World.getInstance().doOnAllPlayers(new Visitor<Player>() {
-			@Override
-			public void visit(Player pl) {
-				if (pl.getWorldId() == looser.getWorldId()) {
-					PacketSendUtility.sendSys3Message(pl, "[PK] Bandit",
-							killer.getName() + " stop the <Outlaw> (" + looser.getName() + ") !");
-				}
-			}
-		});
+		for (Player pl : World.getInstance().getPlayersOnMap(looser.getWorldId())) {
+			PacketSendUtility.sendSys3Message(pl, "[PK] Bandit",
+					killer.getName() + " stop the <Outlaw> (" + looser.getName() + ") !");
+		}
 	}
 
 	public void onKill(Player player, Player diedPlayer) {
@@ -0,0 +1,150 @@
+/*
+ * This file is part of Encom.
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.services.instance;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.aionemu.gameserver.configs.main.CustomConfig;
+import com.aionemu.gameserver.utils.ThreadPoolManager;
+import com.aionemu.gameserver.world.World;
+import com.aionemu.gameserver.world.WorldMap;
+import com.aionemu.gameserver.world.WorldMapInstance;
+import com.aionemu.gameserver.world.WorldMapType;
+
+/**
+ * Keeps spawned but idle instances of busy maps ready, so entering them doesn't wait for the whole spawn.<br>
+ * Pooled instances are built in the background with owner 0 and default difficulty. Their handler is only started
+ * ({@code onInstanceCreate}) when they are handed out, and the pool is refilled right away.
+ */
+public class InstancePool {
+
+	private static final Logger log = LoggerFactory.getLogger(InstancePool.class);
+
+	/** Filled once on load, read only afterwards */
+	private final Map<Integer, MapPool> pools = new HashMap<Integer, MapPool>();
+
+	public static InstancePool getInstance() {
+		return SingletonHolder.instance;
+	}
+
+	public void load() {
+		String config = CustomConfig.INSTANCES_POOL.trim();
+		if (config.isEmpty()) {
+			return;
+		}
+		for (String entry : config.split(",")) {
+			try {
+				String[] parts = entry.trim().split(":");
+				WorldMap map = World.getInstance().getWorldMap(Integer.parseInt(parts[0].trim()));
+				int size = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+				WorldMapType type = WorldMapType.getWorld(map.getMapId());
+				if (map.isInstanceType() && size > 0 && (type == null || !type.isPersonal())) {
+					pools.put(map.getMapId(), new MapPool(map, size));
+					continue;
+				}
+			} catch (RuntimeException e) {
+				// logged below
+			}
+			log.warn("Ignoring instance pool entry " + entry);
+		}
+		for (MapPool pool : pools.values()) {
+			refill(pool);
+		}
+		log.info("Instance pool: pre-warming " + pools.size() + " maps");
+	}
+
+	/**
+	 * @return an idle instance of the map or null if there is none ready
+	 */
+	WorldMapInstance take(int worldId) {
+		MapPool pool = pools.get(worldId);
+		if (pool == null) {
+			return null;
+		}
+		WorldMapInstance instance = pool.idle.poll();
+		if (instance != null) {
+			pool.hits.incrementAndGet();
+		} else {
+			pool.misses.incrementAndGet();
+		}
+		refill(pool);
+		return instance;
+	}
+
+	private void refill(final MapPool pool) {
+		synchronized (pool) {
+			while (pool.idle.size() + pool.pending < pool.size) {
+				pool.pending++;
+				ThreadPoolManager.getInstance().executeLongRunning(new Runnable() {
+
+					@Override
+					public void run() {
+						try {
+							pool.idle.add(InstanceService.createInstance(pool.map, 0, (byte) 0));
+						} catch (Exception e) {
+							log.error("Error pre-warming instance of " + pool.map.getMapId(), e);
+						} finally {
+							synchronized (pool) {
+								pool.pending--;
+							}
+						}
+					}
+				});
+			}
+		}
+	}
+
+	public List<String> getStats() {
+		List<String> stats = new ArrayList<String>();
+		for (MapPool pool : pools.values()) {
+			long hits = pool.hits.get();
+			long total = hits + pool.misses.get();
+			stats.add(pool.map.getMapId() + ": idle " + pool.idle.size() + "/" + pool.size + ", hits " + hits + "/"
+					+ total + (total > 0 ? " (" + hits * 100 / total + "%)" : ""));
+		}
+		return stats;
+	}
+
+	private static class MapPool {
+
+		private final WorldMap map;
+		private final int size;
+		private final Queue<WorldMapInstance> idle = new ConcurrentLinkedQueue<WorldMapInstance>();
+		private final AtomicLong hits = new AtomicLong();
+		private final AtomicLong misses = new AtomicLong();
+		private int pending;
+
+		private MapPool(WorldMap map, int size) {
+			this.map = map;
+			this.size = size;
+		}
+	}
+
+	private static class SingletonHolder {
+
+		protected static final InstancePool instance = new InstancePool();
+	}
+}
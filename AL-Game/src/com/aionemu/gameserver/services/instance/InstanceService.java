@@ -17,6 +17,7 @@
 package com.aionemu.gameserver.services.instance;
 
 import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,30 +71,69 @@ public class InstanceService {
 		for (String s : CustomConfig.INSTANCES_COOL_DOWN_FILTER.split(",")) {
 			instanceCoolDownFilter.add(Integer.parseInt(s));
 		}
+		InstancePool.getInstance().load();
 	}
 
-	public synchronized static WorldMapInstance getNextAvailableInstance(int worldId, int ownerId) {
+	public static WorldMapInstance getNextAvailableInstance(int worldId, int ownerId) {
 		WorldMap map = World.getInstance().getWorldMap(worldId);
 		if (!map.isInstanceType()) {
 			throw new UnsupportedOperationException("Invalid call for next available instance  of " + worldId);
 		}
-		int nextInstanceId = map.getNextInstanceId();
-		log.info("<Instance In Progress>" + worldId + " id:" + nextInstanceId + " owner:" + ownerId);
-		WorldMapInstance worldMapInstance = WorldMapInstanceFactory.createWorldMapInstance(map, nextInstanceId,
-				ownerId);
-		map.addInstance(nextInstanceId, worldMapInstance);
-		SpawnEngine.spawnInstance(worldId, worldMapInstance.getInstanceId(), (byte) 0, ownerId);
-		InstanceEngine.getInstance().onInstanceCreate(worldMapInstance);
-		if (map.isInstanceType()) {
-			startInstanceChecker(worldMapInstance);
+		WorldMapInstance worldMapInstance = InstancePool.getInstance().take(worldId);
+		if (worldMapInstance == null) {
+			worldMapInstance = createInstance(map, ownerId, (byte) 0);
+		} else if (ownerId != 0 && worldMapInstance instanceof WorldMap2DInstance) {
+			// pooled instances are spawned without owner, personal maps are never pooled
+			((WorldMap2DInstance) worldMapInstance).setOwnerId(ownerId);
 		}
+		InstanceEngine.getInstance().onInstanceCreate(worldMapInstance);
+		startInstanceChecker(worldMapInstance);
 		return worldMapInstance;
 	}
 
-	public synchronized static WorldMapInstance getNextAvailableInstance(int worldId) {
+	public static WorldMapInstance getNextAvailableInstance(int worldId) {
 		return getNextAvailableInstance(worldId, 0);
 	}
 
+	/**
+	 * Same as {@link #getNextAvailableInstance(int, int)}, but builds the instance on the long running pool so the
+	 * caller doesn't wait for the spawn.
+	 */
+	public static CompletableFuture<WorldMapInstance> getNextAvailableInstanceAsync(final int worldId,
+			final int ownerId) {
+		return CompletableFuture.supplyAsync(() -> getNextAvailableInstance(worldId, ownerId),
+				r -> ThreadPoolManager.getInstance().executeLongRunning(r));
+	}
+
+	/**
+	 * Creates an instance for the auto group service, which takes care of destroying it.
+	 */
+	public static WorldMapInstance getNextAutoInstance(int worldId, byte difficultId) {
+		WorldMapInstance worldMapInstance = difficultId == 0 ? InstancePool.getInstance().take(worldId) : null;
+		if (worldMapInstance == null) {
+			worldMapInstance = createInstance(World.getInstance().getWorldMap(worldId), 0, difficultId);
+		}
+		InstanceEngine.getInstance().onInstanceCreate(worldMapInstance);
+		return worldMapInstance;
+	}
+
+	/**
+	 * Creates and spawns a new instance without starting it. Instances of the same map are created one at a time,
+	 * different maps don't block each other.
+	 */
+	static WorldMapInstance createInstance(WorldMap map, int ownerId, byte difficultId) {
+		synchronized (map) {
+			int worldId = map.getMapId();
+			int nextInstanceId = map.getNextInstanceId();
+			log.info("<Instance In Progress>" + worldId + " id:" + nextInstanceId + " owner:" + ownerId);
+			WorldMapInstance worldMapInstance = WorldMapInstanceFactory.createWorldMapInstance(map, nextInstanceId,
+					ownerId);
+			map.addInstance(nextInstanceId, worldMapInstance);
+			SpawnEngine.spawnInstance(worldId, worldMapInstance.getInstanceId(), difficultId, ownerId);
+			return worldMapInstance;
+		}
+	}
+
 	public static void destroyInstance(WorldMapInstance instance) {
 		if (instance.getEmptyInstanceTask() != null) {
 			instance.getEmptyInstanceTask().cancel(false);
@@ -351,12 +391,15 @@ public class InstanceService {
 		return instanceCooldownRate;
 	}
 
-	public synchronized static WorldMapInstance getNextBgInstance(int worldId) {
+	public static WorldMapInstance getNextBgInstance(int worldId) {
 		WorldMap map = World.getInstance().getWorldMap(worldId);
-		int nextInstanceId = map.getNextInstanceId();
-		WorldMapInstance worldMapInstance = WorldMapInstanceFactory.createWorldMapInstance(map, nextInstanceId);
-		map.addInstance(nextInstanceId, worldMapInstance);
-		StaticDoorSpawnManager.spawnTemplate(worldId, worldMapInstance.getInstanceId());
+		WorldMapInstance worldMapInstance;
+		synchronized (map) {
+			int nextInstanceId = map.getNextInstanceId();
+			worldMapInstance = WorldMapInstanceFactory.createWorldMapInstance(map, nextInstanceId);
+			map.addInstance(nextInstanceId, worldMapInstance);
+			StaticDoorSpawnManager.spawnTemplate(worldId, worldMapInstance.getInstanceId());
+		}
 		if (map.isInstanceType()) {
 			startInstanceChecker(worldMapInstance);
 		}
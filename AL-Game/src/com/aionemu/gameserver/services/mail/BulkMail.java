@@ -0,0 +1,104 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.services.mail;
+
+import com.aionemu.gameserver.dataholders.DataManager;
+import com.aionemu.gameserver.model.gameobjects.LetterType;
+import com.aionemu.gameserver.model.templates.mail_reward.MailRewardTemplate;
+
+/**
+ * One letter of a {@link SystemMailService#sendBulkMail} batch.
+ */
+public class BulkMail {
+	private final String sender;
+	private final String recipientName;
+	private final String title;
+	private final String message;
+	private final int itemId;
+	private final long itemCount;
+	private final long kinah;
+	private final long ap;
+	private final LetterType letterType;
+	private boolean delivered;
+
+	public BulkMail(String sender, String recipientName, String title, String message, int itemId, long itemCount,
+			long kinah, long ap, LetterType letterType) {
+		this.sender = sender;
+		this.recipientName = recipientName;
+		this.title = title;
+		this.message = message;
+		this.itemId = itemId;
+		this.itemCount = itemCount;
+		this.kinah = kinah;
+		this.ap = ap;
+		this.letterType = letterType;
+	}
+
+	public static BulkMail fromTemplate(int templateId, String recipientName) {
+		MailRewardTemplate reward = DataManager.MAIL_REWARD.getMailReward(templateId);
+		return new BulkMail(reward.getSender(), recipientName, reward.getTitle(),
+				reward.getBody() + "\\n\\n" + reward.getTail(), reward.getItemId(), reward.getItemCount(),
+				reward.getKinahCount(), reward.getApCount(), LetterType.NORMAL);
+	}
+
+	public String getSender() {
+		return sender;
+	}
+
+	public String getRecipientName() {
+		return recipientName;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public int getItemId() {
+		return itemId;
+	}
+
+	public long getItemCount() {
+		return itemCount;
+	}
+
+	public long getKinah() {
+		return kinah;
+	}
+
+	public long getAp() {
+		return ap;
+	}
+
+	public LetterType getLetterType() {
+		return letterType;
+	}
+
+	/**
+	 * @return true once the letter has been stored for its recipient
+	 */
+	public boolean isDelivered() {
+		return delivered;
+	}
+
+	void setDelivered(boolean delivered) {
+		this.delivered = delivered;
+	}
+}
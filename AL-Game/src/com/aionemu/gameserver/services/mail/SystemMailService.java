@@ -17,7 +17,12 @@
 package com.aionemu.gameserver.services.mail;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,7 +39,6 @@ import com.aionemu.gameserver.model.gameobjects.player.Mailbox;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.model.gameobjects.player.PlayerCommonData;
 import com.aionemu.gameserver.model.items.storage.StorageType;
-import com.aionemu.gameserver.model.templates.item.ItemTemplate;
 import com.aionemu.gameserver.model.templates.mail_reward.MailRewardTemplate;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_MAIL_SERVICE;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_SYSTEM_MESSAGE;
@@ -46,6 +50,7 @@ import com.aionemu.gameserver.world.World;
 
 public class SystemMailService {
 	private static final Logger log = LoggerFactory.getLogger("SYSMAIL_LOG");
+	private static final int BULK_CHUNK_SIZE = 500;
 
 	public static final SystemMailService getInstance() {
 		return SingletonHolder.instance;
@@ -57,78 +62,23 @@ public class SystemMailService {
 
 	public boolean sendMail(String sender, String recipientName, String title, String message, int attachedItemObjId,
 			long attachedItemCount, long attachedKinahCount, long attachedAPCount, LetterType letterType) {
-		if (attachedItemObjId != 0) {
-			ItemTemplate itemTemplate = DataManager.ITEM_DATA.getItemTemplate(attachedItemObjId);
-			if (itemTemplate == null) {
-				// log.info("[SYSMAILSERVICE] > [SenderName: " + sender + "] [RecipientName: " +
-				// recipientName + "] RETURN ITEM ID:" + itemTemplate
-				// + " ITEM COUNT " + attachedItemCount + " KINAH COUNT " + attachedKinahCount +
-				// " ITEM TEMPLATE IS MISSING ");
-				return false;
-			}
-		}
-		if (attachedItemCount == 0 && attachedItemObjId != 0) {
-			return false;
-		}
-		if (recipientName.length() > 16) {
-			// log.info("[SYSMAILSERVICE] > [SenderName: " + sender + "] [RecipientName: " +
-			// recipientName + "] ITEM RETURN" + attachedItemObjId
-			// + " ITEM COUNT " + attachedItemCount + " KINAH COUNT " + attachedKinahCount +
-			// " RECIPIENT NAME LENGTH > 16 ");
-			return false;
-		}
-		if (!sender.startsWith("$$") && sender.length() > 50) {
-			// log.info("[SYSMAILSERVICE] > [SenderName: " + sender + "] [RecipientName: " +
-			// recipientName + "] ITEM RETURN" + attachedItemObjId
-			// + " ITEM COUNT " + attachedItemCount + " KINAH COUNT " + attachedKinahCount +
-			// " SENDER NAME LENGTH > 16 ");
+		if (!isValidMail(sender, recipientName, attachedItemObjId, attachedItemCount)) {
 			return false;
 		}
-		if (title.length() > 20) {
-			title = title.substring(0, 20);
-		}
-		if (message.length() > 1000) {
-			message = message.substring(0, 1000);
-		}
+		title = clamp(title, 20);
+		message = clamp(message, 1000);
 		PlayerCommonData recipientCommonData = DAOManager.getDAO(PlayerDAO.class)
 				.loadPlayerCommonDataByName(recipientName);
 		if (recipientCommonData == null) {
-			// log.info("[SYSMAILSERVICE] > [RecipientName: " + recipientName + "] NO SUCH
-			// CHARACTER NAME.");
 			return false;
 		}
 		Player recipient = World.getInstance().findPlayer(recipientCommonData.getPlayerObjId());
-		if (recipient != null) {
-			if (recipient.getMailbox() != null && !(recipient.getMailbox().size() < 200)) {
-				// log.info("[SYSMAILSERVICE] > [SenderName: " + sender + "] [RecipientName: " +
-				// recipientCommonData.getName() + "] ITEM RETURN"
-				// + attachedItemObjId + " ITEM COUNT " + attachedItemCount + " KINAH COUNT " +
-				// attachedKinahCount + " MAILBOX FULL ");
-				return false;
-			}
-		} else if (recipientCommonData.getMailboxLetters() > 199) {
+		if (!hasMailboxRoom(recipient, recipientCommonData, 0)) {
 			return false;
 		}
-		Item attachedItem = null;
-		long finalAttachedKinahCount = 0;
-		long finalAttachedApCount = 0;
-		int itemId = attachedItemObjId;
-		long count = attachedItemCount;
-		if (itemId != 0) {
-			Item senderItem = ItemFactory.newItem(itemId, count);
-			if (senderItem != null) {
-				senderItem.setEquipped(false);
-				senderItem.setEquipmentSlot(0);
-				senderItem.setItemLocation(StorageType.MAILBOX.getId());
-				attachedItem = senderItem;
-			}
-		}
-		if (attachedKinahCount > 0) {
-			finalAttachedKinahCount = attachedKinahCount;
-		}
-		if (attachedAPCount > 0) {
-			finalAttachedApCount = attachedAPCount;
-		}
+		Item attachedItem = createMailItem(attachedItemObjId, attachedItemCount);
+		long finalAttachedKinahCount = Math.max(attachedKinahCount, 0);
+		long finalAttachedApCount = Math.max(attachedAPCount, 0);
 		String finalSender = sender;
 		Timestamp time = new Timestamp(Calendar.getInstance().getTimeInMillis());
 		Letter newLetter = new Letter(IDFactory.getInstance().nextId(), recipientCommonData.getPlayerObjId(),
@@ -228,6 +178,183 @@ public class SystemMailService {
 		return true;
 	}
 
+	/**
+	 * Delivers a batch of letters: recipients are resolved together, letters and items are stored in chunks of
+	 * {@value #BULK_CHUNK_SIZE} with batched statements and online recipients are notified once the batch is stored.
+	 * Each delivered mail is flagged with {@link BulkMail#isDelivered()}.
+	 *
+	 * @return number of delivered letters
+	 */
+	public int sendBulkMail(List<BulkMail> mails) {
+		if (mails.isEmpty()) {
+			return 0;
+		}
+		long startTime = System.currentTimeMillis();
+		List<String> names = new ArrayList<String>(mails.size());
+		for (BulkMail mail : mails) {
+			names.add(mail.getRecipientName());
+		}
+		Map<String, PlayerCommonData> recipients = DAOManager.getDAO(PlayerDAO.class).loadMailRecipients(names);
+		Map<Integer, Integer> pendingLetters = new HashMap<Integer, Integer>();
+		Map<Integer, List<Letter>> deliveredLetters = new LinkedHashMap<Integer, List<Letter>>();
+		Map<Integer, PlayerCommonData> deliveredRecipients = new HashMap<Integer, PlayerCommonData>();
+		List<Letter> letters = new ArrayList<Letter>(BULK_CHUNK_SIZE);
+		List<BulkMail> chunk = new ArrayList<BulkMail>(BULK_CHUNK_SIZE);
+		int delivered = 0;
+		int processed = 0;
+		for (BulkMail mail : mails) {
+			processed++;
+			PlayerCommonData recipientCommonData = mail.getRecipientName() == null ? null
+					: recipients.get(mail.getRecipientName().toLowerCase());
+			Letter letter = createBulkLetter(mail, recipientCommonData, pendingLetters);
+			if (letter != null) {
+				letters.add(letter);
+				chunk.add(mail);
+				deliveredRecipients.put(letter.getRecipientId(), recipientCommonData);
+			}
+			if (letters.size() >= BULK_CHUNK_SIZE || (processed == mails.size() && !letters.isEmpty())) {
+				if (DAOManager.getDAO(MailDAO.class).storeNewLetters(letters)) {
+					for (int i = 0; i < letters.size(); i++) {
+						Letter stored = letters.get(i);
+						List<Letter> recipientLetters = deliveredLetters.get(stored.getRecipientId());
+						if (recipientLetters == null) {
+							recipientLetters = new ArrayList<Letter>();
+							deliveredLetters.put(stored.getRecipientId(), recipientLetters);
+						}
+						recipientLetters.add(stored);
+						chunk.get(i).setDelivered(true);
+					}
+					delivered += letters.size();
+				} else {
+					releaseBulkLetters(letters, pendingLetters);
+				}
+				if (mails.size() > BULK_CHUNK_SIZE) {
+					long elapsed = Math.max(System.currentTimeMillis() - startTime, 1);
+					log.info("[SYSMAILSERVICE] Bulk mail: " + processed + "/" + mails.size() + " processed, " + delivered
+							+ " delivered (" + delivered * 1000L / elapsed + " letters/s)");
+				}
+				letters.clear();
+				chunk.clear();
+			}
+		}
+
+		List<PlayerCommonData> offlineRecipients = new ArrayList<PlayerCommonData>();
+		for (Map.Entry<Integer, List<Letter>> entry : deliveredLetters.entrySet()) {
+			Player recipient = World.getInstance().findPlayer(entry.getKey());
+			if (recipient != null && recipient.getMailbox() != null) {
+				notifyRecipient(recipient, entry.getValue());
+			} else {
+				PlayerCommonData recipientCommonData = deliveredRecipients.get(entry.getKey());
+				recipientCommonData
+						.setMailboxLetters(recipientCommonData.getMailboxLetters() + entry.getValue().size());
+				offlineRecipients.add(recipientCommonData);
+			}
+		}
+		DAOManager.getDAO(MailDAO.class).updateOfflineMailCounters(offlineRecipients);
+		log.info("[SYSMAILSERVICE] Bulk mail: " + delivered + "/" + mails.size() + " letters delivered to "
+				+ deliveredLetters.size() + " players in " + (System.currentTimeMillis() - startTime) + " ms");
+		return delivered;
+	}
+
+	/**
+	 * Applies the checks of {@link #sendMail} to one bulk letter, counting the letters already queued for the same
+	 * recipient against the mailbox limit.
+	 */
+	private Letter createBulkLetter(BulkMail mail, PlayerCommonData recipientCommonData,
+			Map<Integer, Integer> pendingLetters) {
+		if (recipientCommonData == null
+				|| !isValidMail(mail.getSender(), mail.getRecipientName(), mail.getItemId(), mail.getItemCount())) {
+			return null;
+		}
+		int recipientId = recipientCommonData.getPlayerObjId();
+		Integer pending = pendingLetters.get(recipientId);
+		int queued = pending == null ? 0 : pending;
+		if (!hasMailboxRoom(World.getInstance().findPlayer(recipientId), recipientCommonData, queued)) {
+			return null;
+		}
+		Item attachedItem = createMailItem(mail.getItemId(), mail.getItemCount());
+		pendingLetters.put(recipientId, queued + 1);
+		return new Letter(IDFactory.getInstance().nextId(), recipientId, attachedItem, Math.max(mail.getKinah(), 0),
+				Math.max(mail.getAp(), 0), clamp(mail.getTitle(), 20), clamp(mail.getMessage(), 1000), mail.getSender(),
+				new Timestamp(System.currentTimeMillis()), true, mail.getLetterType());
+	}
+
+	/**
+	 * Checks the attached item and the sender and recipient names of a system mail.
+	 */
+	private static boolean isValidMail(String sender, String recipientName, int itemId, long itemCount) {
+		if (itemId != 0 && (DataManager.ITEM_DATA.getItemTemplate(itemId) == null || itemCount == 0)) {
+			return false;
+		}
+		if (recipientName.length() > 16) {
+			return false;
+		}
+		return sender.startsWith("$$") || sender.length() <= 50;
+	}
+
+	/**
+	 * @param queued letters for the recipient which are not stored yet
+	 * @return true if the mailbox of the recipient can take one more letter
+	 */
+	private static boolean hasMailboxRoom(Player recipient, PlayerCommonData recipientCommonData, int queued) {
+		if (recipient != null) {
+			return recipient.getMailbox() == null || recipient.getMailbox().size() + queued < 200;
+		}
+		return recipientCommonData.getMailboxLetters() + queued <= 199;
+	}
+
+	private static Item createMailItem(int itemId, long count) {
+		if (itemId == 0) {
+			return null;
+		}
+		Item item = ItemFactory.newItem(itemId, count);
+		if (item != null) {
+			item.setEquipped(false);
+			item.setEquipmentSlot(0);
+			item.setItemLocation(StorageType.MAILBOX.getId());
+		}
+		return item;
+	}
+
+	private static String clamp(String text, int maxLength) {
+		return text.length() > maxLength ? text.substring(0, maxLength) : text;
+	}
+
+	/**
+	 * The chunk was rolled back, frees the letter and item ids it took and
+	 * its letters from the per recipient mailbox count
+	 */
+	private void releaseBulkLetters(List<Letter> letters, Map<Integer, Integer> pendingLetters) {
+		List<Integer> ids = new ArrayList<Integer>(letters.size() * 2);
+		for (Letter letter : letters) {
+			ids.add(letter.getObjectId());
+			if (letter.getAttachedItem() != null) {
+				ids.add(letter.getAttachedItem().getObjectId());
+			}
+			pendingLetters.put(letter.getRecipientId(), pendingLetters.get(letter.getRecipientId()) - 1);
+		}
+		IDFactory.getInstance().releaseIds(ids);
+	}
+
+	private void notifyRecipient(Player recipient, List<Letter> letters) {
+		Mailbox recipientMailbox = recipient.getMailbox();
+		boolean express = false;
+		for (Letter letter : letters) {
+			recipientMailbox.putLetterToMailbox(letter);
+			express |= letter.getLetterType() == LetterType.EXPRESS;
+		}
+		PacketSendUtility.sendPacket(recipient, new SM_MAIL_SERVICE(recipientMailbox));
+		recipientMailbox.isMailListUpdateRequired = true;
+		if (recipientMailbox.mailBoxState != 0) {
+			boolean isPostman = (recipientMailbox.mailBoxState & PlayerMailboxState.EXPRESS) == PlayerMailboxState.EXPRESS;
+			PacketSendUtility.sendPacket(recipient, new SM_MAIL_SERVICE(recipient, recipientMailbox.getLetters(), isPostman));
+		}
+		if (express) {
+			// Express mail has arrived.
+			PacketSendUtility.sendPacket(recipient, SM_SYSTEM_MESSAGE.STR_POSTMAN_NOTIFY);
+		}
+	}
+
 	public static void sendTemplateRewardMail(final int templateId, final PlayerCommonData playerData) {
 		final MailRewardTemplate reward = DataManager.MAIL_REWARD.getMailReward(templateId);
 		SystemMailService.getInstance().sendMail(reward.getSender(), playerData.getName(), reward.getTitle(),
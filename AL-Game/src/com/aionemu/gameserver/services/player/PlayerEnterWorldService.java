@@ -772,6 +772,7 @@ public final class PlayerEnterWorldService {
 		log.info("Player logged in: " + player.getName() + " Account: " + player.getClientConnection().getAccount().getName());
 		player.getCommonData().setOnline(true);
 		DAOManager.getDAO(PlayerDAO.class).onlinePlayer(player, true);
+		PlayerNameDirectory.getInstance().update(player);
 		player.onLoggedIn();
 		player.setOnlineTime();
 	}
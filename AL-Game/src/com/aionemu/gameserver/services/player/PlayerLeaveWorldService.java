@@ -157,6 +157,7 @@ public class PlayerLeaveWorldService {
 		player.getCommonData().setFloor(0);
 		player.getCommonData().setOnline(false);
 		player.getCommonData().setLastOnline(new Timestamp(System.currentTimeMillis()));
+		PlayerNameDirectory.getInstance().update(player);
 		player.setClientConnection(null);
 		DAOManager.getDAO(PlayerDAO.class).onlinePlayer(player, false);
 		if (GSConfig.ENABLE_CHAT_SERVER) {
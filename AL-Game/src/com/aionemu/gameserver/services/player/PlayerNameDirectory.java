@@ -0,0 +1,294 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.services.player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.aionemu.commons.database.dao.DAOManager;
+import com.aionemu.gameserver.configs.main.CacheConfig;
+import com.aionemu.gameserver.dao.PlayerDAO;
+import com.aionemu.gameserver.model.gameobjects.player.Player;
+import com.aionemu.gameserver.model.gameobjects.player.PlayerNameEntry;
+import com.aionemu.gameserver.world.World;
+
+/**
+ * Bounded directory of characters by object id and name, used by chat and social packets so offline characters do
+ * not cost a database round trip each time they are listed or looked up.<br>
+ * Entries are refreshed on login, logout, level up, rename and legion changes. Lookups check the directory, then the
+ * online players, then load from the database and keep the result. The least recently used entries are dropped past
+ * {@link CacheConfig#NAME_DIRECTORY_SIZE}.
+ */
+public class PlayerNameDirectory {
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong loaded = new AtomicLong();
+	private final AtomicLong evicted = new AtomicLong();
+	private final Map<String, Integer> objectIds = new HashMap<String, Integer>();
+	private final Map<Integer, PlayerNameEntry> entries = new LinkedHashMap<Integer, PlayerNameEntry>(1024, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, PlayerNameEntry> eldest) {
+			if (size() <= CacheConfig.NAME_DIRECTORY_SIZE) {
+				return false;
+			}
+			removeName(eldest.getValue());
+			evicted.incrementAndGet();
+			return true;
+		}
+	};
+
+	private final Source source;
+
+	private PlayerNameDirectory() {
+		this(new Source() {
+
+			@Override
+			public Map<Integer, PlayerNameEntry> load(Collection<Integer> objectIds) {
+				return DAOManager.getDAO(PlayerDAO.class).loadNameEntries(objectIds);
+			}
+
+			@Override
+			public PlayerNameEntry load(String name) {
+				return DAOManager.getDAO(PlayerDAO.class).loadNameEntry(name);
+			}
+
+			@Override
+			public boolean isNameUsed(String name) {
+				return DAOManager.getDAO(PlayerDAO.class).isNameUsed(name);
+			}
+
+			@Override
+			public PlayerNameEntry findOnline(int objectId) {
+				Player player = World.getInstance().findPlayer(objectId);
+				return player != null ? new PlayerNameEntry(player) : null;
+			}
+
+			@Override
+			public PlayerNameEntry findOnline(String name) {
+				Player player = World.getInstance().findPlayer(name);
+				return player != null ? new PlayerNameEntry(player) : null;
+			}
+		});
+	}
+
+	PlayerNameDirectory(Source source) {
+		this.source = source;
+	}
+
+	/**
+	 * @return entry of the character or null if it does not exist
+	 */
+	public PlayerNameEntry get(int objectId) {
+		PlayerNameEntry entry = getCached(objectId);
+		if (entry != null) {
+			return entry;
+		}
+		misses.incrementAndGet();
+		entry = source.load(Collections.singleton(objectId)).get(objectId);
+		if (entry != null) {
+			loaded.incrementAndGet();
+			put(entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * @return entry of the character, name is case insensitive, or null if it does not exist
+	 */
+	public PlayerNameEntry get(String name) {
+		PlayerNameEntry entry = getCached(name);
+		if (entry != null) {
+			return entry;
+		}
+		misses.incrementAndGet();
+		entry = source.load(name);
+		if (entry != null) {
+			loaded.incrementAndGet();
+			put(entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Resolves several characters at once, the missing ones are loaded in one query per chunk.
+	 *
+	 * @return entries keyed by object id, characters that do not exist are left out
+	 */
+	public Map<Integer, PlayerNameEntry> get(Collection<Integer> objectIds) {
+		Map<Integer, PlayerNameEntry> result = new HashMap<Integer, PlayerNameEntry>(objectIds.size());
+		List<Integer> missing = new ArrayList<Integer>();
+		for (Integer objectId : objectIds) {
+			PlayerNameEntry entry = getCached(objectId);
+			if (entry != null) {
+				result.put(objectId, entry);
+			} else {
+				missing.add(objectId);
+			}
+		}
+		if (!missing.isEmpty()) {
+			misses.addAndGet(missing.size());
+			for (PlayerNameEntry entry : source.load(missing).values()) {
+				loaded.incrementAndGet();
+				put(entry);
+				result.put(entry.getObjectId(), entry);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return name of the character or null if it does not exist
+	 */
+	public String getName(int objectId) {
+		PlayerNameEntry entry = get(objectId);
+		return entry != null ? entry.getName() : null;
+	}
+
+	/**
+	 * A name known to the directory is taken, other names are checked in the database. Misses are not remembered
+	 * since the name may be taken right after.
+	 */
+	public boolean isNameUsed(String name) {
+		if (getCached(name) != null) {
+			return true;
+		}
+		misses.incrementAndGet();
+		return source.isNameUsed(name);
+	}
+
+	/**
+	 * Refreshes the entry of the player from its current data.
+	 */
+	public void update(Player player) {
+		put(new PlayerNameEntry(player));
+	}
+
+	/**
+	 * Drops the entry, the next lookup reloads it. Used when an offline character changes or is deleted.
+	 */
+	public void remove(int objectId) {
+		synchronized (this) {
+			PlayerNameEntry entry = entries.remove(objectId);
+			if (entry != null) {
+				removeName(entry);
+			}
+		}
+	}
+
+	private PlayerNameEntry getCached(int objectId) {
+		PlayerNameEntry entry;
+		synchronized (this) {
+			entry = entries.get(objectId);
+		}
+		if (entry == null) {
+			entry = source.findOnline(objectId);
+			if (entry == null) {
+				return null;
+			}
+			put(entry);
+		}
+		hits.incrementAndGet();
+		return entry;
+	}
+
+	private PlayerNameEntry getCached(String name) {
+		PlayerNameEntry entry = null;
+		synchronized (this) {
+			Integer objectId = objectIds.get(name.toLowerCase());
+			if (objectId != null) {
+				entry = entries.get(objectId);
+			}
+		}
+		if (entry == null) {
+			entry = source.findOnline(name);
+			if (entry == null) {
+				return null;
+			}
+			put(entry);
+		}
+		hits.incrementAndGet();
+		return entry;
+	}
+
+	private void put(PlayerNameEntry entry) {
+		synchronized (this) {
+			PlayerNameEntry old = entries.put(entry.getObjectId(), entry);
+			if (old != null) {
+				removeName(old);
+			}
+			// a zero size directory drops the entry right away
+			if (entries.containsKey(entry.getObjectId())) {
+				objectIds.put(entry.getName().toLowerCase(), entry.getObjectId());
+			}
+		}
+	}
+
+	private void removeName(PlayerNameEntry entry) {
+		String key = entry.getName().toLowerCase();
+		Integer objectId = objectIds.get(key);
+		if (objectId != null && objectId == entry.getObjectId()) {
+			objectIds.remove(key);
+		}
+	}
+
+	public List<String> getStats() {
+		long hitCount = hits.get();
+		long total = hitCount + misses.get();
+		List<String> stats = new ArrayList<String>();
+		synchronized (this) {
+			stats.add("Player name directory: " + entries.size() + "/" + CacheConfig.NAME_DIRECTORY_SIZE + " entries");
+		}
+		stats.add("Hits: " + hitCount + ", misses: " + misses.get() + ", hit rate: "
+				+ (total > 0 ? hitCount * 100 / total : 0) + "%");
+		stats.add("Loaded from db: " + loaded.get() + ", evicted: " + evicted.get());
+		return stats;
+	}
+
+	/**
+	 * Where the directory looks up characters it does not hold, the database and the online players.
+	 */
+	interface Source {
+
+		Map<Integer, PlayerNameEntry> load(Collection<Integer> objectIds);
+
+		PlayerNameEntry load(String name);
+
+		boolean isNameUsed(String name);
+
+		PlayerNameEntry findOnline(int objectId);
+
+		PlayerNameEntry findOnline(String name);
+	}
+
+	public static PlayerNameDirectory getInstance() {
+		return SingletonHolder.INSTANCE;
+	}
+
+	private static final class SingletonHolder {
+		private static final PlayerNameDirectory INSTANCE = new PlayerNameDirectory();
+	}
+}
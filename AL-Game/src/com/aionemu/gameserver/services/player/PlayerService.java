@@ -113,7 +113,7 @@ public class PlayerService {
 	private static final CacheMap<Integer, Player> playerCache = CacheMapFactory.createSoftCacheMap("Player", "player");
 
 	public static boolean isFreeName(String name) {
-		return !DAOManager.getDAO(PlayerDAO.class).isNameUsed(name);
+		return !PlayerNameDirectory.getInstance().isNameUsed(name);
 	}
 
 	public static boolean isOldName(String name) {
@@ -340,6 +340,7 @@ public class PlayerService {
 	public static void deletePlayerFromDB(int playerId) {
 		DAOManager.getDAO(InventoryDAO.class).deletePlayerItems(playerId);
 		DAOManager.getDAO(PlayerDAO.class).deletePlayer(playerId);
+		PlayerNameDirectory.getInstance().remove(playerId);
 	}
 
 	public static int deleteAccountsCharsFromDB(int accountId) {
@@ -16,6 +16,9 @@
  */
 package com.aionemu.gameserver.services.reward;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,6 +28,7 @@ import com.aionemu.gameserver.dataholders.DataManager;
 import com.aionemu.gameserver.model.gameobjects.LetterType;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.model.templates.rewards.RewardEntryItem;
+import com.aionemu.gameserver.services.mail.BulkMail;
 import com.aionemu.gameserver.services.mail.SystemMailService;
 
 import javolution.util.FastList;
@@ -47,27 +51,33 @@ public class RewardService {
 		if (list.size() == 0 || player.getMailbox() == null) {
 			return;
 		}
-		FastList<Integer> rewarded = FastList.newInstance();
+		List<BulkMail> mails = new ArrayList<BulkMail>(list.size());
+		List<RewardEntryItem> entries = new ArrayList<RewardEntryItem>(list.size());
 		for (RewardEntryItem item : list) {
 			if (DataManager.ITEM_DATA.getItemTemplate(item.id) == null) {
 				log.warn("[RewardController][" + item.unique + "] null template for item " + item.id + " on player "
 						+ player.getObjectId() + ".");
 				continue;
 			}
-			try {
-				if (!SystemMailService.getInstance().sendMail("$$CASH_ITEM_MAIL", player.getName(),
-						item.id + ", " + item.count, "0, " + (System.currentTimeMillis() / 1000) + ",", item.id,
-						(int) item.count, 0, 0, LetterType.BLACKCLOUD)) {
-					continue;
-				}
-				log.info("[RewardController][" + item.unique + "] player " + player.getName() + " has received ("
-						+ item.count + ")" + item.id + ".");
-				rewarded.add(item.unique);
-			} catch (Exception e) {
-				log.error("[RewardController][" + item.unique + "] failed to add item (" + item.count + ")" + item.id
-						+ " to " + player.getObjectId(), e);
+			mails.add(new BulkMail("$$CASH_ITEM_MAIL", player.getName(), item.id + ", " + item.count,
+					"0, " + (System.currentTimeMillis() / 1000) + ",", item.id, (int) item.count, 0, 0,
+					LetterType.BLACKCLOUD));
+			entries.add(item);
+		}
+		try {
+			SystemMailService.getInstance().sendBulkMail(mails);
+		} catch (Exception e) {
+			log.error("[RewardController] failed to send rewards to " + player.getObjectId(), e);
+		}
+		FastList<Integer> rewarded = FastList.newInstance();
+		for (int i = 0; i < mails.size(); i++) {
+			RewardEntryItem item = entries.get(i);
+			if (!mails.get(i).isDelivered()) {
 				continue;
 			}
+			log.info("[RewardController][" + item.unique + "] player " + player.getName() + " has received ("
+					+ item.count + ")" + item.id + ".");
+			rewarded.add(item.unique);
 		}
 		if (rewarded.size() > 0) {
 			dao.uncheckAvailable(rewarded);
@@ -17,6 +17,8 @@
 package com.aionemu.gameserver.services.teleport;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,12 +49,17 @@ import com.aionemu.gameserver.questEngine.model.QuestState;
 import com.aionemu.gameserver.questEngine.model.QuestStatus;
 import com.aionemu.gameserver.services.SiegeService;
 import com.aionemu.gameserver.services.instance.InstanceService;
+import com.aionemu.gameserver.utils.MathUtil;
 import com.aionemu.gameserver.utils.PacketSendUtility;
 import com.aionemu.gameserver.world.World;
 import com.aionemu.gameserver.world.WorldMapInstance;
 
 public class PortalService {
 	private static Logger log = LoggerFactory.getLogger(PortalService.class);
+	/** How far the requester may walk away from the portal while the instance is being built */
+	private static final float ENTRY_RANGE = 15;
+	/** Solo entries whose instance is still being built, by player object id */
+	private static final Set<Integer> pendingEntries = ConcurrentHashMap.newKeySet();
 
 	public static void port(final PortalPath portalPath, final Player player, int npcObjectId) {
 		if (!CustomConfig.ENABLE_INSTANCES) {
@@ -63,6 +70,10 @@ public class PortalService {
 			log.warn("No portal loc for locId" + portalPath.getLocId());
 			return;
 		}
+		if (pendingEntries.contains(player.getObjectId())) {
+			PacketSendUtility.sendPacket(player, SM_SYSTEM_MESSAGE.STR_MSG_CANT_INSTANCE_NO_MORE_REGISTER);
+			return;
+		}
 		boolean instanceTitleReq = false;
 		boolean instanceLevelReq = false;
 		boolean instanceRaceReq = false;
@@ -431,12 +442,54 @@ public class PortalService {
 		return true;
 	}
 
-	private static void port(Player requester, PortalLoc loc, boolean reenter, boolean isInstance) {
-		WorldMapInstance instance = null;
+	private static void port(final Player requester, final PortalLoc loc, final boolean reenter, boolean isInstance) {
 		if (isInstance) {
-			instance = InstanceService.getNextAvailableInstance(loc.getWorldId(), requester.getObjectId());
-			InstanceService.registerPlayerWithInstance(instance, requester);
-			transfer(requester, loc, instance, reenter);
+			final int playerId = requester.getObjectId();
+			if (!pendingEntries.add(playerId)) {
+				PacketSendUtility.sendPacket(requester, SM_SYSTEM_MESSAGE.STR_MSG_CANT_INSTANCE_NO_MORE_REGISTER);
+				return;
+			}
+			final int worldId = requester.getWorldId();
+			final int instanceId = requester.getInstanceId();
+			final float x = requester.getX();
+			final float y = requester.getY();
+			final float z = requester.getZ();
+			try {
+				InstanceService.getNextAvailableInstanceAsync(loc.getWorldId(), playerId)
+						.whenComplete((instance, error) -> {
+							try {
+								if (error != null) {
+									log.error("Error creating instance " + loc.getWorldId() + " for "
+											+ requester.getName(), error);
+									PacketSendUtility.sendPacket(requester,
+											SM_SYSTEM_MESSAGE.STR_MSG_CANT_INSTANCE_ENTER_NOTICE);
+									return;
+								}
+								if (!requester.isOnline() || requester.getLifeStats().isAlreadyDead()
+										|| requester.getWorldId() != worldId || requester.getInstanceId() != instanceId
+										|| MathUtil.getDistance(requester, x, y, z) > ENTRY_RANGE) {
+									// nobody is going in, don't keep the instance around until the empty checker runs
+									InstanceService.destroyInstance(instance);
+									PacketSendUtility.sendPacket(requester,
+											SM_SYSTEM_MESSAGE.STR_MSG_CANT_INSTANCE_ENTER_STATE);
+									return;
+								}
+								transfer(requester, loc, instance, reenter);
+							} catch (Exception e) {
+								log.error("Error entering instance " + loc.getWorldId() + " for " + requester.getName(),
+										e);
+								PacketSendUtility.sendPacket(requester,
+										SM_SYSTEM_MESSAGE.STR_MSG_CANT_INSTANCE_ENTER_NOTICE);
+							} finally {
+								pendingEntries.remove(playerId);
+							}
+						});
+			} catch (RuntimeException e) {
+				// the creation was never queued, so nothing will clear the entry
+				pendingEntries.remove(playerId);
+				log.error("Error queuing instance " + loc.getWorldId() + " for " + requester.getName(), e);
+				PacketSendUtility.sendPacket(requester, SM_SYSTEM_MESSAGE.STR_MSG_CANT_INSTANCE_ENTER_NOTICE);
+			}
 		} else {
 			easyTransfer(requester, loc);
 		}
@@ -18,7 +18,6 @@ package com.aionemu.gameserver.services.territory;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.TreeMap;
 
 import com.aionemu.commons.database.dao.DAOManager;
@@ -106,10 +105,8 @@ public class TerritoryService {
 
 	public void scanForIntruders(Player player) {
 		Collection<Player> players = new ArrayList<Player>();
-		Iterator<Player> playerIt = World.getInstance().getPlayersIterator();
-		while (playerIt.hasNext()) {
-			Player enemy = playerIt.next();
-			if (player.getWorldId() == enemy.getWorldId() && player.getRace() != enemy.getRace()) {
+		for (Player enemy : World.getInstance().getPlayersOnMap(player.getWorldId())) {
+			if (player.getRace() != enemy.getRace()) {
 				players.add(enemy);
 			}
 		}
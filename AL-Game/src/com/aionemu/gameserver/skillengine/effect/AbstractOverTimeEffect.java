@@ -25,7 +25,7 @@ import javax.xml.bind.annotation.XmlType;
 
 import com.aionemu.gameserver.model.gameobjects.Creature;
 import com.aionemu.gameserver.skillengine.model.Effect;
-import com.aionemu.gameserver.utils.ThreadPoolManager;
+import com.aionemu.gameserver.taskmanager.tasks.PeriodicEffectTicker;
 
 /**
  * @author kecimis
@@ -65,7 +65,7 @@ public abstract class AbstractOverTimeEffect extends EffectTemplate {
 			return;
 		}
 		try {
-			Future<?> task = ThreadPoolManager.getInstance().scheduleAtFixedRate(new Runnable() {
+			Future<?> task = PeriodicEffectTicker.getInstance().scheduleAtFixedRate(new Runnable() {
 
 				@Override
 				public void run() {
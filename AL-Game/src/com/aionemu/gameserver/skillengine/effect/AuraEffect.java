@@ -30,9 +30,9 @@ import com.aionemu.gameserver.network.aion.serverpackets.SM_MANTRA_EFFECT;
 import com.aionemu.gameserver.services.DuelService;
 import com.aionemu.gameserver.skillengine.model.Effect;
 import com.aionemu.gameserver.skillengine.model.SkillTemplate;
+import com.aionemu.gameserver.taskmanager.tasks.PeriodicEffectTicker;
 import com.aionemu.gameserver.utils.MathUtil;
 import com.aionemu.gameserver.utils.PacketSendUtility;
-import com.aionemu.gameserver.utils.ThreadPoolManager;
 import com.aionemu.gameserver.utils.audit.AuditLogger;
 
 @XmlAccessorType(XmlAccessType.FIELD)
@@ -94,7 +94,7 @@ public class AuraEffect extends EffectTemplate {
 
 	@Override
 	public void startEffect(final Effect effect) {
-		effect.setPeriodicTask(ThreadPoolManager.getInstance().scheduleAtFixedRate(new AuraTask(effect), 0, 6500),
+		effect.setPeriodicTask(PeriodicEffectTicker.getInstance().scheduleAtFixedRate(new AuraTask(effect), 0, 6500),
 				position);
 	}
 
@@ -16,7 +16,7 @@
  */
 package com.aionemu.gameserver.skillengine.effect;
 
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Future;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -37,10 +37,10 @@ import com.aionemu.gameserver.model.gameobjects.Npc;
 import com.aionemu.gameserver.model.stats.container.StatEnum;
 import com.aionemu.gameserver.network.aion.serverpackets.SM_TARGET_IMMOBILIZE;
 import com.aionemu.gameserver.skillengine.model.Effect;
+import com.aionemu.gameserver.taskmanager.tasks.PeriodicEffectTicker;
 import com.aionemu.gameserver.utils.MathUtil;
 import com.aionemu.gameserver.utils.PacketSendUtility;
 import com.aionemu.gameserver.utils.PositionUtil;
-import com.aionemu.gameserver.utils.ThreadPoolManager;
 import com.aionemu.gameserver.world.geo.GeoService;
 
 /**
@@ -81,7 +81,7 @@ public class FearEffect extends EffectTemplate {
 			((NpcAI2) effected.getAi2()).setStateIfNot(AIState.FEAR);
 		}
 		if (GeoDataConfig.FEAR_ENABLE) {
-			ScheduledFuture<?> fearTask = ThreadPoolManager.getInstance()
+			Future<?> fearTask = PeriodicEffectTicker.getInstance()
 					.scheduleAtFixedRate(new FearTask(effector, effected), 0, 1000);
 			effect.setPeriodicTask(fearTask, position);
 		}
@@ -27,7 +27,7 @@ import com.aionemu.gameserver.model.gameobjects.Creature;
 import com.aionemu.gameserver.model.gameobjects.NpcObjectType;
 import com.aionemu.gameserver.model.gameobjects.Servant;
 import com.aionemu.gameserver.skillengine.model.Effect;
-import com.aionemu.gameserver.utils.ThreadPoolManager;
+import com.aionemu.gameserver.taskmanager.tasks.PeriodicEffectTicker;
 
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "SummonSkillAreaEffect")
@@ -106,7 +106,7 @@ public class SummonSkillAreaEffect extends SummonServantEffect {
 		final Servant servant = spawnServant(effect, useTime, NpcObjectType.SKILLAREA, x, y, z);
 		final int finalSkillId = servant.getSkillList() != null ? servant.getSkillList().getRandomSkill().getSkillId()
 				: 0;
-		Future<?> task = ThreadPoolManager.getInstance().scheduleAtFixedRate(new Runnable() {
+		Future<?> task = PeriodicEffectTicker.getInstance().scheduleAtFixedRate(new Runnable() {
 			@Override
 			public void run() {
 				servant.getController().useSkill(finalSkillId);
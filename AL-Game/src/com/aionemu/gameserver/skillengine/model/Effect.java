@@ -55,6 +55,7 @@ import com.aionemu.gameserver.skillengine.effect.SummonEffect;
 import com.aionemu.gameserver.skillengine.effect.TransformEffect;
 import com.aionemu.gameserver.skillengine.periodicaction.PeriodicAction;
 import com.aionemu.gameserver.skillengine.periodicaction.PeriodicActions;
+import com.aionemu.gameserver.taskmanager.tasks.PeriodicEffectTicker;
 import com.aionemu.gameserver.utils.PacketSendUtility;
 import com.aionemu.gameserver.utils.ThreadPoolManager;
 
@@ -970,7 +971,7 @@ public class Effect implements StatOwner {
 			return;
 		}
 		int checktime = periodicActions.getChecktime();
-		periodicActionsTask = ThreadPoolManager.getInstance().scheduleAtFixedRate(new Runnable() {
+		periodicActionsTask = PeriodicEffectTicker.getInstance().scheduleAtFixedRate(new Runnable() {
 
 			@Override
 			public void run() {
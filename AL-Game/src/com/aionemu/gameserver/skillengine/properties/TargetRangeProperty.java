@@ -16,6 +16,8 @@
  */
 package com.aionemu.gameserver.skillengine.properties;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.apache.commons.lang.math.FloatRange;
@@ -30,6 +32,8 @@ import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.skillengine.model.Skill;
 import com.aionemu.gameserver.utils.MathUtil;
 import com.aionemu.gameserver.utils.PositionUtil;
+import com.aionemu.gameserver.world.MapRegion;
+import com.aionemu.gameserver.world.knownlist.KnownList;
 
 /**
  * @author ATracer
@@ -62,9 +66,18 @@ public class TargetRangeProperty {
 				return false;
 			}
 
-			// Create a sorted map of the objects in knownlist
-			// and filter them properly
-			for (VisibleObject nextCreature : firstTarget.getKnownList().getKnownObjects().values())
+			// Only objects of the regions around the area are checked, the knownlist
+			// still decides which of them the first target can reach
+			Collection<VisibleObject> candidates;
+			if (skill.isPointSkill()) {
+				candidates = getKnownObjectsAround(firstTarget, skill.getX(), skill.getY(), skill.getZ(), distance + 1);
+			} else {
+				float areaRadius = properties.getEffectiveWidth() > 0 ? distance + properties.getEffectiveWidth()
+						: distance + firstTarget.getObjectTemplate().getBoundRadius().getCollision();
+				candidates = getKnownObjectsAround(firstTarget, firstTarget.getX(), firstTarget.getY(),
+						firstTarget.getZ(), areaRadius);
+			}
+			for (VisibleObject nextCreature : candidates)
 				if (((nextCreature instanceof Creature)) && (firstTarget != nextCreature)
 						&& (((Creature) nextCreature).getLifeStats() != null)
 						&& (!((Creature) nextCreature).getLifeStats().isAlreadyDead())
@@ -186,7 +199,8 @@ public class TargetRangeProperty {
 			}
 			break;
 		case POINT:
-			for (VisibleObject nextCreature : skill.getEffector().getKnownList().getKnownObjects().values()) {
+			for (VisibleObject nextCreature : getKnownObjectsAround(skill.getEffector(), skill.getX(), skill.getY(),
+					skill.getZ(), distance + 1)) {
 				if (!(nextCreature instanceof Creature)) {
 					continue;
 				}
@@ -209,4 +223,36 @@ public class TargetRangeProperty {
 		}
 		return true;
 	}
+
+	/**
+	 * Objects known by the owner inside the cube of given radius around x,y,z, taken from the regions around the cube.
+	 * Returns the whole knownlist instead when the owner is not spawned or when those regions hold more objects than
+	 * the knownlist, regions being much larger than most areas.
+	 */
+	static Collection<VisibleObject> getKnownObjectsAround(VisibleObject owner, float x, float y, float z,
+			float radius) {
+		KnownList knownList = owner.getKnownList();
+		MapRegion ownerRegion = owner.getActiveRegion();
+		if (ownerRegion == null) {
+			return knownList.getKnownObjects().values();
+		}
+		List<MapRegion> regions = ownerRegion.getParent().getRegionsAround(x, y, z, radius);
+		int regionObjects = 0;
+		for (MapRegion region : regions) {
+			regionObjects += region.getObjects().size();
+		}
+		if (regionObjects >= knownList.getKnownObjects().size()) {
+			return knownList.getKnownObjects().values();
+		}
+		List<VisibleObject> objects = new ArrayList<VisibleObject>();
+		for (MapRegion region : regions) {
+			for (VisibleObject object : region.getObjects().values()) {
+				if (Math.abs(object.getX() - x) <= radius && Math.abs(object.getY() - y) <= radius
+						&& Math.abs(object.getZ() - z) <= radius && knownList.knowns(object)) {
+					objects.add(object);
+				}
+			}
+		}
+		return objects;
+	}
 }
\ No newline at end of file
@@ -18,6 +18,8 @@ package com.aionemu.gameserver.taskmanager.tasks;
 
 import static com.aionemu.gameserver.taskmanager.parallel.ForEach.forEach;
 
+import com.aionemu.commons.utils.collections.ConcurrentIntObjectMap;
+import com.aionemu.commons.utils.collections.ValueVisitor;
 import com.aionemu.commons.utils.internal.chmv8.ForkJoinTask;
 import com.aionemu.gameserver.ai2.event.AIEventType;
 import com.aionemu.gameserver.ai2.poll.AIQuestion;
@@ -28,10 +30,9 @@ import com.aionemu.gameserver.world.zone.ZoneUpdateService;
 import com.google.common.base.Predicate;
 
 import javolution.util.FastList;
-import javolution.util.FastMap;
 
 public class MoveTaskManager extends AbstractPeriodicTaskManager {
-	private final FastMap<Integer, Creature> movingCreatures = new FastMap<Integer, Creature>().shared();
+	private final ConcurrentIntObjectMap<Creature> movingCreatures = new ConcurrentIntObjectMap<Creature>();
 
 	public static final int UPDATE_PERIOD = 100;
 
@@ -64,11 +65,14 @@ public class MoveTaskManager extends AbstractPeriodicTaskManager {
 
 	@Override
 	public void run() {
-		final FastList<Creature> copy = new FastList<Creature>();
-		for (FastMap.Entry<Integer, Creature> e = movingCreatures.head(),
-				mapEnd = movingCreatures.tail(); (e = e.getNext()) != mapEnd;) {
-			copy.add(e.getValue());
-		}
+		final FastList<Creature> copy = new FastList<Creature>(movingCreatures.size());
+		movingCreatures.forEachValue(new ValueVisitor<Creature>() {
+
+			@Override
+			public void visit(Creature creature) {
+				copy.add(creature);
+			}
+		});
 		ForkJoinTask<Creature> task = forEach(copy, CREATURE_MOVE_PREDICATE);
 		if (task != null) {
 			ThreadPoolManager.getInstance().getForkingPool().invoke(task);
@@ -91,6 +91,14 @@ public final class PacketBroadcaster extends AbstractFIFOPeriodicTaskManager<Cre
 			public void sendPacket(Creature creature) {
 				creature.getEffectController().broadCastEffectsImp();
 			}
+		},
+
+		BROADCAST_ATTACK_STATUS {
+
+			@Override
+			public void sendPacket(Creature creature) {
+				creature.getLifeStats().broadcastAttackStatusImpl();
+			}
 		};
 
 		private final byte MASK;
@@ -107,8 +115,9 @@ public final class PacketBroadcaster extends AbstractFIFOPeriodicTaskManager<Cre
 
 		protected final void trySendPacket(final Creature creature, byte mask) {
 			if ((mask & mask()) == mask()) {
-				sendPacket(creature);
+				// cleared first so that a request made while sending is not lost
 				creature.removePacketBroadcastMask(this);
+				sendPacket(creature);
 			}
 		}
 	}
@@ -0,0 +1,101 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.taskmanager.tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.aionemu.gameserver.configs.main.GeoDataConfig;
+import com.aionemu.gameserver.taskmanager.AbstractPeriodicTaskManager;
+import com.aionemu.gameserver.world.geo.nav.NavRequest;
+import com.aionemu.gameserver.world.geo.nav.NavService;
+
+/**
+ * Runs queued npc path searches off the movement tick. Each tick handles queued requests in order until
+ * {@link GeoDataConfig#GEO_NAV_TICK_BUDGET} ms are spent, the rest waits for the next tick. At least one
+ * request is handled per tick so the queue always drains. Cancelled requests are dropped without searching
+ * and are not charged to the budget.
+ */
+public class PathfindingTaskManager extends AbstractPeriodicTaskManager {
+
+	public static final int UPDATE_PERIOD = 100;
+
+	private final ConcurrentLinkedQueue<NavRequest> requests = new ConcurrentLinkedQueue<NavRequest>();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicLong processed = new AtomicLong();
+	private final AtomicLong cancelled = new AtomicLong();
+	private final AtomicLong deferredTicks = new AtomicLong();
+	private volatile int maxQueued;
+
+	private PathfindingTaskManager() {
+		super(UPDATE_PERIOD);
+	}
+
+	public void add(NavRequest request) {
+		requests.add(request);
+		int size = queued.incrementAndGet();
+		if (size > maxQueued) {
+			maxQueued = size;
+		}
+	}
+
+	@Override
+	public void run() {
+		long end = System.nanoTime() + GeoDataConfig.GEO_NAV_TICK_BUDGET * 1000000L;
+		NavRequest request;
+		while ((request = requests.poll()) != null) {
+			queued.decrementAndGet();
+			if (request.isCancelled()) {
+				cancelled.incrementAndGet();
+				continue;
+			}
+			try {
+				NavService.getInstance().process(request);
+			} catch (Exception e) {
+				log.error("Exception while searching a path", e);
+			}
+			processed.incrementAndGet();
+			if (System.nanoTime() >= end) {
+				if (!requests.isEmpty()) {
+					deferredTicks.incrementAndGet();
+				}
+				break;
+			}
+		}
+		NavService.getInstance().purgeSharedPaths();
+	}
+
+	public List<String> getStats() {
+		List<String> stats = new ArrayList<String>();
+		stats.add("Pathfinding: " + queued.get() + " queued (max " + maxQueued + "), " + processed.get()
+				+ " processed, " + cancelled.get() + " cancelled, budget " + GeoDataConfig.GEO_NAV_TICK_BUDGET + "ms per " + UPDATE_PERIOD + "ms tick");
+		stats.add("Ticks over budget: " + deferredTicks.get());
+		stats.addAll(NavService.getInstance().getStats());
+		return stats;
+	}
+
+	public static PathfindingTaskManager getInstance() {
+		return SingletonHolder.INSTANCE;
+	}
+
+	private static final class SingletonHolder {
+		private static final PathfindingTaskManager INSTANCE = new PathfindingTaskManager();
+	}
+}
@@ -0,0 +1,309 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.taskmanager.tasks;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.aionemu.gameserver.taskmanager.AbstractPeriodicTaskManager;
+import com.aionemu.gameserver.utils.ThreadPoolManager;
+
+/**
+ * Runs the periodic parts of effects (dots, hots, auras, fear, periodic actions, skill areas) from one ticker
+ * instead of one scheduled task per effect. Tasks are grouped in buckets by period, each bucket is split in one slot
+ * per tick of its period and a task always stays in the same slot, so it keeps its own phase and runs once per
+ * period. Every tick the due slot of each bucket is handed to the instant pool as a single pass.<br>
+ * Timing is rounded to {@link #UPDATE_PERIOD} and follows {@link System#nanoTime()}, so wall clock steps don't stall
+ * or rush the buckets. The returned futures are cancelled like the scheduled ones, cancelled tasks are dropped on the
+ * next pass over their slot.
+ */
+public class PeriodicEffectTicker extends AbstractPeriodicTaskManager {
+
+	public static final int UPDATE_PERIOD = 100;
+	private static final long NANOS_PER_TICK = TimeUnit.MILLISECONDS.toNanos(UPDATE_PERIOD);
+
+	private final LongSupplier nanoClock;
+	private final Executor executor;
+	/** Clock value of tick 0, nanoTime may be negative */
+	private final long origin;
+	private final ConcurrentMap<Integer, Bucket> buckets = new ConcurrentHashMap<Integer, Bucket>();
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicLong scheduled = new AtomicLong();
+	private final AtomicLong executed = new AtomicLong();
+	private final AtomicLong passes = new AtomicLong();
+
+	private PeriodicEffectTicker() {
+		this(new LongSupplier() {
+
+			@Override
+			public long getAsLong() {
+				return System.nanoTime();
+			}
+		}, new Executor() {
+
+			@Override
+			public void execute(Runnable command) {
+				ThreadPoolManager.getInstance().execute(command);
+			}
+		});
+	}
+
+	/**
+	 * @param nanoClock monotonic time in nanoseconds
+	 * @param executor runs the slot passes and the first run of tasks without delay
+	 */
+	PeriodicEffectTicker(LongSupplier nanoClock, Executor executor) {
+		super(UPDATE_PERIOD);
+		this.nanoClock = nanoClock;
+		this.executor = executor;
+		this.origin = nanoClock.getAsLong();
+	}
+
+	/**
+	 * Same contract as {@link ThreadPoolManager#scheduleAtFixedRate(Runnable, long, long)}, with delay and period
+	 * rounded to the ticker resolution. A zero delay runs the task right away in the instant pool.
+	 */
+	public Future<?> scheduleAtFixedRate(Runnable runnable, long delay, long period) {
+		int periodTicks = (int) Math.max(1, Math.round((double) period / UPDATE_PERIOD));
+		long currentTick = currentTick();
+		TickerTask task;
+		if (delay <= 0) {
+			task = new TickerTask(runnable, currentTick + periodTicks);
+			executor.execute(task);
+		} else {
+			task = new TickerTask(runnable, currentTick + Math.max(1, Math.round((double) delay / UPDATE_PERIOD)));
+		}
+		getBucket(periodTicks).add(task);
+		active.incrementAndGet();
+		scheduled.incrementAndGet();
+		return task;
+	}
+
+	private Bucket getBucket(int periodTicks) {
+		Bucket bucket = buckets.get(periodTicks);
+		if (bucket == null) {
+			bucket = new Bucket(periodTicks, currentTick());
+			Bucket old = buckets.putIfAbsent(periodTicks, bucket);
+			if (old != null) {
+				bucket = old;
+			}
+		}
+		return bucket;
+	}
+
+	private long currentTick() {
+		return (nanoClock.getAsLong() - origin) / NANOS_PER_TICK;
+	}
+
+	@Override
+	public void run() {
+		long currentTick = currentTick();
+		for (Bucket bucket : buckets.values()) {
+			bucket.advance(currentTick);
+		}
+	}
+
+	/**
+	 * @return number of tasks not yet dropped, cancelled ones count until their slot is passed
+	 */
+	int getActiveTasks() {
+		return active.get();
+	}
+
+	public List<String> getStats() {
+		List<String> stats = new ArrayList<String>();
+		stats.add("Periodic effect ticker: " + getActiveTasks() + " tasks in " + buckets.size() + " buckets, resolution "
+				+ UPDATE_PERIOD + "ms");
+		for (Map.Entry<Integer, Bucket> e : buckets.entrySet()) {
+			stats.add("  period " + e.getKey() * UPDATE_PERIOD + "ms: " + e.getValue().size.get() + " tasks");
+		}
+		stats.add("Scheduled: " + scheduled.get() + ", executed: " + executed.get() + ", slot passes: " + passes.get());
+		stats.add("Scheduled pool queue: " + ThreadPoolManager.getInstance().getScheduledQueueSize()
+				+ ", without the ticker it would also hold the " + active.get() + " tasks above");
+		return stats;
+	}
+
+	public static PeriodicEffectTicker getInstance() {
+		return SingletonHolder.INSTANCE;
+	}
+
+	/**
+	 * Tasks sharing one period. Only the ticker thread advances it.
+	 */
+	private final class Bucket {
+
+		private final List<ConcurrentLinkedQueue<TickerTask>> slots;
+		private final AtomicInteger size = new AtomicInteger();
+		private long lastTick;
+
+		private Bucket(int periodTicks, long currentTick) {
+			this.slots = new ArrayList<ConcurrentLinkedQueue<TickerTask>>(periodTicks);
+			for (int i = 0; i < periodTicks; i++) {
+				slots.add(new ConcurrentLinkedQueue<TickerTask>());
+			}
+			this.lastTick = currentTick;
+		}
+
+		private ConcurrentLinkedQueue<TickerTask> getSlot(long tick) {
+			return slots.get((int) (tick % slots.size()));
+		}
+
+		private void add(TickerTask task) {
+			getSlot(task.firstTick).add(task);
+			size.incrementAndGet();
+		}
+
+		private void advance(long currentTick) {
+			// when late, each slot is passed at most once, like a late fixed rate task
+			for (long tick = Math.max(lastTick + 1, currentTick - slots.size() + 1); tick <= currentTick; tick++) {
+				ConcurrentLinkedQueue<TickerTask> slot = getSlot(tick);
+				if (!slot.isEmpty()) {
+					executor.execute(new SlotPass(this, slot, tick));
+				}
+			}
+			lastTick = currentTick;
+		}
+	}
+
+	/**
+	 * One pass over the tasks of a slot.
+	 */
+	private final class SlotPass implements Runnable {
+
+		private final Bucket bucket;
+		private final ConcurrentLinkedQueue<TickerTask> slot;
+		private final long tick;
+
+		private SlotPass(Bucket bucket, ConcurrentLinkedQueue<TickerTask> slot, long tick) {
+			this.bucket = bucket;
+			this.slot = slot;
+			this.tick = tick;
+		}
+
+		@Override
+		public void run() {
+			passes.incrementAndGet();
+			for (Iterator<TickerTask> iterator = slot.iterator(); iterator.hasNext();) {
+				TickerTask task = iterator.next();
+				if (task.isCancelled()) {
+					iterator.remove();
+					bucket.size.decrementAndGet();
+					active.decrementAndGet();
+					continue;
+				}
+				if (task.firstTick <= tick) {
+					task.run();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Periodic task handle, cancelled like the scheduled futures it replaces.
+	 */
+	private final class TickerTask implements Runnable, Future<Object> {
+
+		private final Runnable runnable;
+		private final long firstTick;
+		private volatile boolean cancelled;
+
+		private TickerTask(Runnable runnable, long firstTick) {
+			this.runnable = runnable;
+			this.firstTick = firstTick;
+		}
+
+		@Override
+		public void run() {
+			if (cancelled) {
+				return;
+			}
+			try {
+				runnable.run();
+				executed.incrementAndGet();
+			} catch (Throwable t) {
+				log.error("Exception in periodic effect task " + runnable.getClass().getName(), t);
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			synchronized (this) {
+				if (cancelled) {
+					return false;
+				}
+				cancelled = true;
+				notifyAll();
+			}
+			return true;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public boolean isDone() {
+			return cancelled;
+		}
+
+		/**
+		 * A periodic task never completes normally, this waits until it is cancelled.
+		 */
+		@Override
+		public Object get() throws InterruptedException {
+			synchronized (this) {
+				while (!cancelled) {
+					wait();
+				}
+			}
+			throw new CancellationException();
+		}
+
+		@Override
+		public Object get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+			long end = System.currentTimeMillis() + unit.toMillis(timeout);
+			synchronized (this) {
+				long remaining;
+				while (!cancelled && (remaining = end - System.currentTimeMillis()) > 0) {
+					wait(remaining);
+				}
+			}
+			if (!cancelled) {
+				throw new TimeoutException();
+			}
+			throw new CancellationException();
+		}
+	}
+
+	private static final class SingletonHolder {
+		private static final PeriodicEffectTicker INSTANCE = new PeriodicEffectTicker();
+	}
+}
@@ -17,10 +17,6 @@
 package com.aionemu.gameserver.taskmanager.tasks;
 
 import com.aionemu.gameserver.model.gameobjects.player.Player;
-import com.aionemu.gameserver.model.team2.alliance.PlayerAllianceService;
-import com.aionemu.gameserver.model.team2.common.legacy.GroupEvent;
-import com.aionemu.gameserver.model.team2.common.legacy.PlayerAllianceEvent;
-import com.aionemu.gameserver.model.team2.group.PlayerGroupService;
 import com.aionemu.gameserver.taskmanager.AbstractIterativePeriodicTaskManager;
 
 public final class TeamEffectUpdater extends AbstractIterativePeriodicTaskManager<Player> {
@@ -38,14 +34,8 @@ public final class TeamEffectUpdater extends AbstractIterativePeriodicTaskManage
 
 	@Override
 	protected void callTask(Player player) {
-		if (player.isOnline()) {
-			if (player.isInGroup2()) {
-				PlayerGroupService.updateGroup(player, GroupEvent.UPDATE);
-				PlayerGroupService.updateGroup(player, GroupEvent.UNK_53);
-			}
-			if (player.isInAlliance2()) {
-				PlayerAllianceService.updateAlliance(player, PlayerAllianceEvent.UPDATE);
-			}
+		if (player.isOnline() && (player.isInGroup2() || player.isInAlliance2())) {
+			TeamStateUpdater.getInstance().markDirty(player, TeamStateUpdater.EFFECTS);
 		}
 		this.stopTask(player);
 	}
@@ -17,10 +17,6 @@
 package com.aionemu.gameserver.taskmanager.tasks;
 
 import com.aionemu.gameserver.model.gameobjects.player.Player;
-import com.aionemu.gameserver.model.team2.alliance.PlayerAllianceService;
-import com.aionemu.gameserver.model.team2.common.legacy.GroupEvent;
-import com.aionemu.gameserver.model.team2.common.legacy.PlayerAllianceEvent;
-import com.aionemu.gameserver.model.team2.group.PlayerGroupService;
 import com.aionemu.gameserver.taskmanager.AbstractIterativePeriodicTaskManager;
 
 /**
@@ -43,11 +39,8 @@ public final class TeamMoveUpdater extends AbstractIterativePeriodicTaskManager<
 
 	@Override
 	protected void callTask(Player player) {
-		if (player.isInGroup2()) {
-			PlayerGroupService.updateGroup(player, GroupEvent.MOVEMENT);
-		}
-		if (player.isInAlliance2()) {
-			PlayerAllianceService.updateAlliance(player, PlayerAllianceEvent.MOVEMENT);
+		if (player.isInGroup2() || player.isInAlliance2()) {
+			TeamStateUpdater.getInstance().markDirty(player, TeamStateUpdater.MOVEMENT);
 		}
 
 		// Remove task from list. It will be re-added if player moves again.
@@ -0,0 +1,221 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.taskmanager.tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.aionemu.gameserver.model.gameobjects.player.Player;
+import com.aionemu.gameserver.model.stats.container.PlayerLifeStats;
+import com.aionemu.gameserver.model.team2.TemporaryPlayerTeam;
+import com.aionemu.gameserver.model.team2.alliance.PlayerAlliance;
+import com.aionemu.gameserver.model.team2.common.legacy.GroupEvent;
+import com.aionemu.gameserver.model.team2.common.legacy.PlayerAllianceEvent;
+import com.aionemu.gameserver.model.team2.group.PlayerGroup;
+import com.aionemu.gameserver.network.aion.AionServerPacket;
+import com.aionemu.gameserver.network.aion.serverpackets.SM_ALLIANCE_MEMBER_INFO;
+import com.aionemu.gameserver.network.aion.serverpackets.SM_GROUP_MEMBER_INFO;
+import com.aionemu.gameserver.skillengine.model.Effect;
+import com.aionemu.gameserver.taskmanager.AbstractPeriodicTaskManager;
+import com.aionemu.gameserver.utils.PacketSendUtility;
+import com.aionemu.gameserver.world.WorldPosition;
+
+import javolution.util.FastMap;
+
+/**
+ * Collects the group and alliance member updates of {@link TeamMoveUpdater} and {@link TeamEffectUpdater} and sends
+ * them once per tick: every member gets the updates of their team mates in one batch, and members whose state didn't
+ * change since their last update are skipped. Effects are only written by the full update, so it's sent whenever they
+ * changed since the last full update, no matter which field was marked.
+ */
+public final class TeamStateUpdater extends AbstractPeriodicTaskManager {
+
+	public static final int MOVEMENT = 1;
+	public static final int EFFECTS = 1 << 1;
+
+	private static final class SingletonHolder {
+
+		private static final TeamStateUpdater INSTANCE = new TeamStateUpdater();
+	}
+
+	public static TeamStateUpdater getInstance() {
+		return SingletonHolder.INSTANCE;
+	}
+
+	private Map<Player, Integer> dirty = new FastMap<Player, Integer>();
+	/** Last sent state of each member, only used by the updater thread */
+	private final Map<Player, MemberState> sentStates = new WeakHashMap<Player, MemberState>();
+	/**
+	 * Effects of each member as of the last packet which carried them, only used by the updater thread. MOVEMENT
+	 * packets don't write effects, so this is tracked apart from {@link #sentStates}.
+	 */
+	private final Map<Player, Integer> sentEffects = new WeakHashMap<Player, Integer>();
+
+	public TeamStateUpdater() {
+		super(500);
+	}
+
+	/**
+	 * Marks fields of a team member to be sent with the next update.
+	 */
+	public void markDirty(Player player, int fields) {
+		writeLock();
+		try {
+			Integer current = dirty.get(player);
+			dirty.put(player, current == null ? fields : current | fields);
+		} finally {
+			writeUnlock();
+		}
+	}
+
+	@Override
+	public void run() {
+		Map<Player, Integer> updates;
+		writeLock();
+		try {
+			if (dirty.isEmpty()) {
+				return;
+			}
+			updates = dirty;
+			dirty = new FastMap<Player, Integer>();
+		} finally {
+			writeUnlock();
+		}
+
+		Map<TemporaryPlayerTeam<?>, List<TeamUpdate>> teams = new FastMap<TemporaryPlayerTeam<?>, List<TeamUpdate>>();
+		for (Map.Entry<Player, Integer> entry : updates.entrySet()) {
+			Player player = entry.getKey();
+			if (!player.isOnline()) {
+				continue;
+			}
+			MemberState state = new MemberState(player);
+			int effectsHash = effectsHash(player);
+			Integer lastEffects = sentEffects.get(player);
+			boolean effects = lastEffects == null || lastEffects != effectsHash;
+			if (!effects && state.equals(sentStates.get(player))) {
+				continue;
+			}
+			sentStates.put(player, state);
+			if (effects) {
+				sentEffects.put(player, effectsHash);
+			}
+			if (player.isInGroup2()) {
+				PlayerGroup group = player.getPlayerGroup2();
+				TeamUpdate update = add(teams, group, player);
+				if (effects) {
+					update.packets.add(new SM_GROUP_MEMBER_INFO(group, player, GroupEvent.UPDATE));
+					update.packets.add(new SM_GROUP_MEMBER_INFO(group, player, GroupEvent.UNK_53));
+				} else {
+					update.packets.add(new SM_GROUP_MEMBER_INFO(group, player, GroupEvent.MOVEMENT));
+				}
+			}
+			if (player.isInAlliance2()) {
+				PlayerAlliance alliance = player.getPlayerAlliance2();
+				TeamUpdate update = add(teams, alliance, player);
+				update.packets.add(new SM_ALLIANCE_MEMBER_INFO(alliance.getMember(player.getObjectId()),
+						effects ? PlayerAllianceEvent.UPDATE : PlayerAllianceEvent.MOVEMENT));
+			}
+		}
+
+		List<AionServerPacket> batch = new ArrayList<AionServerPacket>();
+		for (Map.Entry<TemporaryPlayerTeam<?>, List<TeamUpdate>> entry : teams.entrySet()) {
+			List<TeamUpdate> teamUpdates = entry.getValue();
+			for (Player member : entry.getKey().getOnlineMembers()) {
+				batch.clear();
+				for (TeamUpdate update : teamUpdates) {
+					if (update.player != member) {
+						batch.addAll(update.packets);
+					}
+				}
+				PacketSendUtility.sendPackets(member, batch);
+			}
+		}
+	}
+
+	private static TeamUpdate add(Map<TemporaryPlayerTeam<?>, List<TeamUpdate>> teams, TemporaryPlayerTeam<?> team,
+			Player player) {
+		List<TeamUpdate> teamUpdates = teams.get(team);
+		if (teamUpdates == null) {
+			teams.put(team, teamUpdates = new ArrayList<TeamUpdate>());
+		}
+		TeamUpdate update = new TeamUpdate(player);
+		teamUpdates.add(update);
+		return update;
+	}
+
+	private static int effectsHash(Player player) {
+		int hash = 1;
+		for (Effect effect : player.getEffectController().getAbnormalEffects()) {
+			// reapplied effects are new instances
+			hash = 31 * hash + System.identityHashCode(effect);
+		}
+		return hash;
+	}
+
+	private static final class TeamUpdate {
+
+		private final Player player;
+		private final List<AionServerPacket> packets = new ArrayList<AionServerPacket>(2);
+
+		private TeamUpdate(Player player) {
+			this.player = player;
+		}
+	}
+
+	/**
+	 * Fields of SM_GROUP_MEMBER_INFO / SM_ALLIANCE_MEMBER_INFO which change during play, except the effects
+	 */
+	private static final class MemberState {
+
+		private final int mapId, level, hp, maxHp, mp, maxMp, fp, maxFp;
+		private final float x, y, z;
+
+		private MemberState(Player player) {
+			WorldPosition position = player.getPosition();
+			PlayerLifeStats stats = player.getLifeStats();
+			mapId = position.getMapId();
+			x = position.getX();
+			y = position.getY();
+			z = position.getZ();
+			level = player.getLevel();
+			hp = stats.getCurrentHp();
+			maxHp = stats.getMaxHp();
+			mp = stats.getCurrentMp();
+			maxMp = stats.getMaxMp();
+			fp = stats.getCurrentFp();
+			maxFp = stats.getMaxFp();
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * mapId + hp;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof MemberState)) {
+				return false;
+			}
+			MemberState other = (MemberState) obj;
+			return mapId == other.mapId && level == other.level && hp == other.hp && maxHp == other.maxHp
+					&& mp == other.mp && maxMp == other.maxMp && fp == other.fp && maxFp == other.maxFp && x == other.x
+					&& y == other.y && z == other.z;
+		}
+	}
+}
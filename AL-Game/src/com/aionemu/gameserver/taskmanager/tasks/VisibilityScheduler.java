@@ -0,0 +1,307 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.taskmanager.tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.aionemu.commons.utils.collections.ConcurrentIntObjectMap;
+import com.aionemu.commons.utils.collections.ValueVisitor;
+import com.aionemu.gameserver.configs.network.NetworkConfig;
+import com.aionemu.gameserver.model.gameobjects.Creature;
+import com.aionemu.gameserver.model.gameobjects.Kisk;
+import com.aionemu.gameserver.model.gameobjects.Npc;
+import com.aionemu.gameserver.model.gameobjects.Summon;
+import com.aionemu.gameserver.model.gameobjects.VisibleObject;
+import com.aionemu.gameserver.model.gameobjects.player.Player;
+import com.aionemu.gameserver.taskmanager.AbstractPeriodicTaskManager;
+import com.aionemu.gameserver.utils.MathUtil;
+
+/**
+ * Paces the "appear" packets a player receives when many objects become
+ * visible at once (teleport into a city, entering a siege zone...). Every
+ * player gets a packet and byte budget per tick; objects above the budget are
+ * queued and sent on the next ticks, hostile creatures first, then the nearest
+ * ones. Objects leaving the visual range before their turn are dropped without
+ * any packet.
+ */
+public class VisibilityScheduler extends AbstractPeriodicTaskManager {
+
+	public static final int UPDATE_PERIOD = 100;
+
+	private final ConcurrentIntObjectMap<PlayerQueue> queues = new ConcurrentIntObjectMap<PlayerQueue>();
+	private volatile int tick;
+
+	private final AtomicLong direct = new AtomicLong();
+	private final AtomicLong deferred = new AtomicLong();
+	private final AtomicLong flushed = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile int maxDepth;
+
+	private VisibilityScheduler() {
+		super(UPDATE_PERIOD);
+	}
+
+	public static boolean isEnabled() {
+		return NetworkConfig.VISIBILITY_SCHEDULER_ENABLE;
+	}
+
+	/**
+	 * @return true if the appear packets of object can be sent to player right
+	 *         now (the budget is charged), false if they were queued
+	 */
+	public boolean schedule(Player player, VisibleObject object) {
+		while (true) {
+			PlayerQueue queue = queues.get(player.getObjectId());
+			if (queue == null) {
+				queue = new PlayerQueue(player);
+				PlayerQueue old = queues.putIfAbsent(player.getObjectId(), queue);
+				if (old != null) {
+					queue = old;
+				}
+			}
+			synchronized (queue) {
+				if (queue.removed) {
+					continue;
+				}
+				if (queue.player != player) {
+					queue.player = player;
+					queue.pending.clear();
+				}
+				queue.resetBudget(tick);
+				if (queue.pending.isEmpty() && queue.tryCharge(object)) {
+					direct.incrementAndGet();
+					return true;
+				}
+				queue.pending.put(object.getObjectId(), object);
+				deferred.incrementAndGet();
+				if (queue.pending.size() > maxDepth) {
+					maxDepth = queue.pending.size();
+				}
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Removes object from the pending appear packets of player.
+	 *
+	 * @return true if object was still queued, so the client never received it
+	 */
+	public boolean cancel(Player player, VisibleObject object) {
+		PlayerQueue queue = queues.get(player.getObjectId());
+		if (queue == null) {
+			return false;
+		}
+		synchronized (queue) {
+			if (queue.player == player && queue.pending.remove(object.getObjectId()) != null) {
+				dropped.incrementAndGet();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void run() {
+		final int currentTick = ++tick;
+		final List<PlayerQueue> copy = new ArrayList<PlayerQueue>(queues.size());
+		queues.forEachValue(new ValueVisitor<PlayerQueue>() {
+
+			@Override
+			public void visit(PlayerQueue queue) {
+				copy.add(queue);
+			}
+		});
+		for (PlayerQueue queue : copy) {
+			try {
+				flush(queue, currentTick);
+			} catch (Exception e) {
+				log.error("Exception while flushing visibility queue of " + queue.player.getName(), e);
+			}
+		}
+	}
+
+	private void flush(PlayerQueue queue, int currentTick) {
+		synchronized (queue) {
+			Player player = queue.player;
+			if (queue.pending.isEmpty() || !player.isOnline()) {
+				// idle for a whole tick, the next burst creates a new queue
+				if (queue.pending.isEmpty() && queue.tick == currentTick - 1) {
+					return;
+				}
+				dropped.addAndGet(queue.pending.size());
+				queue.pending.clear();
+				queue.removed = true;
+				queues.remove(player.getObjectId());
+				return;
+			}
+			queue.resetBudget(currentTick);
+			List<PendingObject> objects = new ArrayList<PendingObject>(queue.pending.size());
+			for (VisibleObject object : queue.pending.values()) {
+				objects.add(new PendingObject(player, object));
+			}
+			Collections.sort(objects);
+			for (PendingObject pending : objects) {
+				VisibleObject object = pending.object;
+				if (!player.getKnownList().getVisibleObjects().containsKey(object.getObjectId())) {
+					queue.pending.remove(object.getObjectId());
+					dropped.incrementAndGet();
+					continue;
+				}
+				if (!queue.tryCharge(object)) {
+					break;
+				}
+				queue.pending.remove(object.getObjectId());
+				// sent under the queue lock, so a concurrent notSee can't overtake it
+				player.getController().sendAppearPackets(object);
+				flushed.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Rough number of packets sent when object appears.
+	 */
+	private static int cost(VisibleObject object) {
+		if (object instanceof Player) {
+			return 6;
+		} else if (object instanceof Npc) {
+			return 3;
+		} else if (object instanceof Summon) {
+			return 2;
+		}
+		return 1;
+	}
+
+	/**
+	 * Rough size in bytes of the packets sent when object appears.
+	 */
+	private static int size(VisibleObject object) {
+		if (object instanceof Player) {
+			return 1200;
+		} else if (object instanceof Kisk) {
+			return 450;
+		} else if (object instanceof Npc) {
+			return 400;
+		} else if (object instanceof Summon) {
+			return 300;
+		}
+		return 100;
+	}
+
+	public List<String> getStats() {
+		final int[] players = new int[1];
+		final int[] depth = new int[1];
+		queues.forEachValue(new ValueVisitor<PlayerQueue>() {
+
+			@Override
+			public void visit(PlayerQueue queue) {
+				synchronized (queue) {
+					if (!queue.pending.isEmpty()) {
+						players[0]++;
+						depth[0] += queue.pending.size();
+					}
+				}
+			}
+		});
+		List<String> stats = new ArrayList<String>();
+		stats.add("Visibility scheduler: " + (isEnabled() ? "enabled" : "disabled") + ", budget "
+				+ NetworkConfig.VISIBILITY_SCHEDULER_PACKETS + " packets / " + NetworkConfig.VISIBILITY_SCHEDULER_BYTES
+				+ " bytes per " + UPDATE_PERIOD + "ms");
+		stats.add("Queued: " + depth[0] + " objects for " + players[0] + " players, max depth " + maxDepth);
+		stats.add("Direct: " + direct.get() + ", deferred: " + deferred.get() + ", flushed: " + flushed.get()
+				+ ", dropped: " + dropped.get());
+		return stats;
+	}
+
+	/**
+	 * Creating the instance schedules the flush task, so callers check {@link #isEnabled()} first
+	 */
+	public static VisibilityScheduler getInstance() {
+		return SingletonHolder.INSTANCE;
+	}
+
+	private static final class PlayerQueue {
+
+		private final LinkedHashMap<Integer, VisibleObject> pending = new LinkedHashMap<Integer, VisibleObject>();
+		private Player player;
+		private boolean removed;
+		private int tick;
+		private int packets;
+		private int bytes;
+
+		private PlayerQueue(Player player) {
+			this.player = player;
+		}
+
+		private void resetBudget(int currentTick) {
+			if (tick != currentTick) {
+				tick = currentTick;
+				packets = 0;
+				bytes = 0;
+			}
+		}
+
+		/**
+		 * The first object of a tick always fits, even above the budget.
+		 */
+		private boolean tryCharge(VisibleObject object) {
+			int cost = cost(object);
+			int size = size(object);
+			if (packets > 0 && (packets + cost > NetworkConfig.VISIBILITY_SCHEDULER_PACKETS
+					|| bytes + size > NetworkConfig.VISIBILITY_SCHEDULER_BYTES)) {
+				return false;
+			}
+			packets += cost;
+			bytes += size;
+			return true;
+		}
+	}
+
+	/**
+	 * Queued object with its priority frozen at sort time: hostile creatures
+	 * first, then by distance.
+	 */
+	private static final class PendingObject implements Comparable<PendingObject> {
+
+		private final VisibleObject object;
+		private final boolean hostile;
+		private final double distance;
+
+		private PendingObject(Player player, VisibleObject object) {
+			this.object = object;
+			this.hostile = object instanceof Creature && player.isEnemy((Creature) object);
+			this.distance = MathUtil.getDistance(player, object);
+		}
+
+		@Override
+		public int compareTo(PendingObject o) {
+			if (hostile != o.hostile) {
+				return hostile ? -1 : 1;
+			}
+			return Double.compare(distance, o.distance);
+		}
+	}
+
+	private static final class SingletonHolder {
+		private static final VisibilityScheduler INSTANCE = new VisibilityScheduler();
+	}
+}
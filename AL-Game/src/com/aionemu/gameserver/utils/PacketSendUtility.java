@@ -16,8 +16,11 @@
  */
 package com.aionemu.gameserver.utils;
 
+import java.util.List;
+
 import com.aionemu.commons.objects.filter.ObjectFilter;
 import com.aionemu.gameserver.model.ChatType;
+import com.aionemu.gameserver.model.Race;
 import com.aionemu.gameserver.model.gameobjects.Npc;
 import com.aionemu.gameserver.model.gameobjects.VisibleObject;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
@@ -91,6 +94,12 @@ public class PacketSendUtility {
 		}
 	}
 
+	public static void sendPackets(Player player, List<? extends AionServerPacket> packets) {
+		if (player.getClientConnection() != null) {
+			player.getClientConnection().sendPackets(packets);
+		}
+	}
+
 	/**
 	 * Player Send Packet
 	 */
@@ -204,6 +213,27 @@ public class PacketSendUtility {
 		});
 	}
 
+	public static void broadcastPacketToRace(Race race, AionServerPacket packet) {
+		for (Player player : World.getInstance().getPlayers(race)) {
+			sendPacket(player, packet);
+		}
+	}
+
+	/**
+	 * Sends the packet to the players spawned on the map, in any of its instances.
+	 */
+	public static void broadcastPacketToMap(int mapId, AionServerPacket packet) {
+		for (Player player : World.getInstance().getPlayersOnMap(mapId)) {
+			sendPacket(player, packet);
+		}
+	}
+
+	public static void broadcastPacketToMap(int mapId, Race race, AionServerPacket packet) {
+		for (Player player : World.getInstance().getPlayersOnMap(mapId, race)) {
+			sendPacket(player, packet);
+		}
+	}
+
 	public static void broadcastPacketToLegion(Legion legion, AionServerPacket packet) {
 		for (Player onlineLegionMember : legion.getOnlineLegionMembers()) {
 			sendPacket(onlineLegionMember, packet);
@@ -161,6 +161,10 @@ public final class ThreadPoolManager {
 		workStealingPool.shutdownNow();
 	}
 
+	public int getScheduledQueueSize() {
+		return scheduledPool.getQueue().size();
+	}
+
 	private int getTaskCount(ThreadPoolExecutor tp) {
 		return tp.getQueue().size() + tp.getActiveCount();
 	}
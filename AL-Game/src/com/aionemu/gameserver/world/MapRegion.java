@@ -29,6 +29,7 @@ import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.aionemu.commons.utils.collections.ConcurrentIntObjectMap;
 import com.aionemu.gameserver.ai2.event.AIEventType;
 import com.aionemu.gameserver.configs.administration.DeveloperConfig;
 import com.aionemu.gameserver.configs.main.SiegeConfig;
@@ -71,7 +72,7 @@ public class MapRegion {
 	/**
 	 * Objects on this map region.
 	 */
-	private final FastMap<Integer, VisibleObject> objects = new FastMap<Integer, VisibleObject>().shared();
+	private final ConcurrentIntObjectMap<VisibleObject> objects = new ConcurrentIntObjectMap<VisibleObject>();
 
 	private final AtomicInteger playerCount = new AtomicInteger(0);
 
@@ -138,7 +139,7 @@ public class MapRegion {
 	 * 
 	 * @return objects iterator
 	 */
-	public FastMap<Integer, VisibleObject> getObjects() {
+	public ConcurrentIntObjectMap<VisibleObject> getObjects() {
 		return objects;
 	}
 
@@ -24,8 +24,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.aionemu.commons.utils.GenericValidator;
+import com.aionemu.commons.utils.collections.ConcurrentIntObjectMap;
 import com.aionemu.gameserver.dataholders.DataManager;
 import com.aionemu.gameserver.dataholders.PlayerInitialData.LocationData;
+import com.aionemu.gameserver.model.Race;
 import com.aionemu.gameserver.model.gameobjects.Creature;
 import com.aionemu.gameserver.model.gameobjects.Npc;
 import com.aionemu.gameserver.model.gameobjects.VisibleObject;
@@ -45,17 +47,16 @@ import com.aionemu.gameserver.world.knownlist.Visitor;
 
 import gnu.trove.map.hash.TIntObjectHashMap;
 import javolution.util.FastList;
-import javolution.util.FastMap;
 
 public class World {
 
 	private static final Logger log = LoggerFactory.getLogger(World.class);
 	private final PlayerContainer allPlayers;
-	private final FastMap<Integer, VisibleObject> allObjects;
+	private final ConcurrentIntObjectMap<VisibleObject> allObjects;
 	private final TIntObjectHashMap<Collection<SiegeNpc>> localSiegeNpcs = new TIntObjectHashMap<Collection<SiegeNpc>>();
 	private final TIntObjectHashMap<Collection<BaseNpc>> localBaseNpcs = new TIntObjectHashMap<Collection<BaseNpc>>();
 	private final TIntObjectHashMap<Collection<OutpostNpc>> localOutpostNpcs = new TIntObjectHashMap<Collection<OutpostNpc>>();
-	private final FastMap<Integer, Npc> allNpcs;
+	private final ConcurrentIntObjectMap<Npc> allNpcs;
 	private final TIntObjectHashMap<WorldMap> worldMaps;
 
 	/**
@@ -64,8 +65,8 @@ public class World {
 	private World() {
 		Util.printSection(" *** World *** ");
 		allPlayers = new PlayerContainer();
-		allObjects = new FastMap<Integer, VisibleObject>().shared();
-		allNpcs = new FastMap<Integer, Npc>().shared();
+		allObjects = new ConcurrentIntObjectMap<VisibleObject>();
+		allNpcs = new ConcurrentIntObjectMap<Npc>();
 		worldMaps = new TIntObjectHashMap<WorldMap>();
 		for (WorldMapTemplate template : DataManager.WORLD_MAPS_DATA) {
 			worldMaps.put(template.getMapId(), new WorldMap(template, this));
@@ -172,6 +173,16 @@ public class World {
 		}
 	}
 
+	/**
+	 * Re-indexes an online player whose race was changed
+	 */
+	public void onRaceChange(Player player) {
+		allPlayers.onRaceChange(player);
+		if (player.isSpawned()) {
+			getWorldMap(player.getWorldId()).onRaceChange(player);
+		}
+	}
+
 	/**
 	 * Returns Players iterator.
 	 */
@@ -433,6 +444,38 @@ public class World {
 		return allPlayers.getAllPlayers();
 	}
 
+	/**
+	 * @return live view of the online players of the race
+	 */
+	public Collection<Player> getPlayers(Race race) {
+		return allPlayers.getPlayers(race);
+	}
+
+	/**
+	 * @return live view of the players spawned on the map (all its instances)
+	 */
+	public Collection<Player> getPlayersOnMap(int mapId) {
+		WorldMap map = worldMaps.get(mapId);
+		return map != null ? map.getPlayers() : Collections.<Player> emptyList();
+	}
+
+	/**
+	 * @return live view of the players of the race spawned on the map (all its instances)
+	 */
+	public Collection<Player> getPlayersOnMap(int mapId, Race race) {
+		WorldMap map = worldMaps.get(mapId);
+		return map != null ? map.getPlayers(race) : Collections.<Player> emptyList();
+	}
+
+	/**
+	 * @return players spawned in the map instance
+	 */
+	public Collection<Player> getPlayersInInstance(int mapId, int instanceId) {
+		WorldMap map = worldMaps.get(mapId);
+		WorldMapInstance instance = map != null ? map.getWorldMapInstanceById(instanceId) : null;
+		return instance != null ? instance.getPlayersInside() : Collections.<Player> emptyList();
+	}
+
 	/**
 	 * @param visitor
 	 */
@@ -445,13 +488,7 @@ public class World {
 	 */
 	public void doOnAllObjects(Visitor<VisibleObject> visitor) {
 		try {
-			for (FastMap.Entry<Integer, VisibleObject> e = allObjects.head(),
-					mapEnd = allObjects.tail(); (e = e.getNext()) != mapEnd;) {
-				VisibleObject object = e.getValue();
-				if (object != null) {
-					visitor.visit(object);
-				}
-			}
+			allObjects.forEachValue(visitor);
 		} catch (Exception ex) {
 			log.error("Exception when running visitor on all objects", ex);
 		}
@@ -21,7 +21,11 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.aionemu.commons.utils.collections.ConcurrentIntObjectMap;
+import com.aionemu.gameserver.model.Race;
+import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.model.templates.world.WorldMapTemplate;
+import com.aionemu.gameserver.world.container.PlayerRaceIndex;
 import com.aionemu.gameserver.world.zone.ZoneAttributes;
 
 import javolution.util.FastMap;
@@ -41,6 +45,12 @@ public class WorldMap {
 	 */
 	private Map<Integer, WorldMapInstance> instances = new FastMap<Integer, WorldMapInstance>().shared();
 
+	/**
+	 * Players spawned in any instance of this map, maintained by {@link WorldMapInstance}.
+	 */
+	private final ConcurrentIntObjectMap<Player> players = new ConcurrentIntObjectMap<Player>();
+	private final PlayerRaceIndex playersByRace = new PlayerRaceIndex();
+
 	/** World to which belongs this WorldMap */
 	private World world;
 	private int worldOptions;
@@ -259,6 +269,36 @@ public class WorldMap {
 		return instances.values();
 	}
 
+	void onPlayerEnter(Player player) {
+		players.put(player.getObjectId(), player);
+		playersByRace.add(player);
+	}
+
+	void onPlayerLeave(Player player) {
+		players.remove(player.getObjectId());
+		playersByRace.remove(player);
+	}
+
+	void onRaceChange(Player player) {
+		if (players.get(player.getObjectId()) == player) {
+			playersByRace.update(player);
+		}
+	}
+
+	/**
+	 * @return live view of the players spawned in any instance of this map
+	 */
+	public Collection<Player> getPlayers() {
+		return players.values();
+	}
+
+	/**
+	 * @return live view of the players of the race spawned in any instance of this map
+	 */
+	public Collection<Player> getPlayers(Race race) {
+		return playersByRace.get(race);
+	}
+
 	public WorldDropType getWorldDropType() {
 		return worldMapTemplate.getWorldDropType();
 	}
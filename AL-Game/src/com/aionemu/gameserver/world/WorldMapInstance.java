@@ -191,6 +191,35 @@ public abstract class WorldMapInstance {
 		return getParent().getWorld();
 	}
 
+	/**
+	 * Returns the regions overlapping the cube of given radius around x,y,z. Their objects are only candidates, the
+	 * exact shape still has to be checked by the caller.
+	 *
+	 * @return list of regions, empty if the point is outside of the map
+	 */
+	public List<MapRegion> getRegionsAround(float x, float y, float z, float radius) {
+		List<MapRegion> result = new ArrayList<MapRegion>(4);
+		int maxX = toRegionCell(x + radius);
+		int maxY = toRegionCell(y + radius);
+		int maxZ = toRegionCell(z + radius);
+		for (int cx = toRegionCell(x - radius); cx <= maxX; cx++) {
+			for (int cy = toRegionCell(y - radius); cy <= maxY; cy++) {
+				for (int cz = toRegionCell(z - radius); cz <= maxZ; cz++) {
+					// 2D maps ignore z, so the same region comes back for every cz
+					MapRegion region = getRegion(cx * regionSize, cy * regionSize, cz * regionSize);
+					if (region != null && !result.contains(region)) {
+						result.add(region);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private static int toRegionCell(float coordinate) {
+		return Math.max(0, (int) coordinate) / regionSize;
+	}
+
 	/**
 	 * @param object
 	 */
@@ -215,6 +244,7 @@ public abstract class WorldMapInstance {
 				((Player) object).setInsideZoneType(ZoneType.FLY);
 			}
 			worldMapPlayers.put(object.getObjectId(), (Player) object);
+			parent.onPlayerEnter((Player) object);
 		}
 	}
 
@@ -227,7 +257,9 @@ public abstract class WorldMapInstance {
 			if (this.getParent().isPossibleFly()) {
 				((Player) object).unsetInsideZoneType(ZoneType.FLY);
 			}
-			worldMapPlayers.remove(object.getObjectId());
+			if (worldMapPlayers.remove(object.getObjectId()) != null) {
+				parent.onPlayerLeave((Player) object);
+			}
 		}
 	}
 
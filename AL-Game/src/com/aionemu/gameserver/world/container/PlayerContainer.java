@@ -22,6 +22,8 @@ import java.util.Iterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.aionemu.commons.utils.collections.ConcurrentIntObjectMap;
+import com.aionemu.gameserver.model.Race;
 import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.world.exceptions.DuplicateAionObjectException;
 import com.aionemu.gameserver.world.knownlist.Visitor;
@@ -40,11 +42,12 @@ public class PlayerContainer implements Iterable<Player> {
 	/**
 	 * Map<ObjectId,Player>
 	 */
-	private final FastMap<Integer, Player> playersById = new FastMap<Integer, Player>().shared();
+	private final ConcurrentIntObjectMap<Player> playersById = new ConcurrentIntObjectMap<Player>();
 	/**
 	 * Map<Name,Player>
 	 */
 	private final FastMap<String, Player> playersByName = new FastMap<String, Player>().shared();
+	private final PlayerRaceIndex playersByRace = new PlayerRaceIndex();
 
 	/**
 	 * Add Player to this Container.
@@ -58,6 +61,7 @@ public class PlayerContainer implements Iterable<Player> {
 		if (playersByName.put(player.getName(), player) != null) {
 			throw new DuplicateAionObjectException();
 		}
+		playersByRace.add(player);
 	}
 
 	/**
@@ -68,6 +72,7 @@ public class PlayerContainer implements Iterable<Player> {
 	public void remove(Player player) {
 		playersById.remove(player.getObjectId());
 		playersByName.remove(player.getName());
+		playersByRace.remove(player);
 	}
 
 	/**
@@ -103,13 +108,7 @@ public class PlayerContainer implements Iterable<Player> {
 	@SuppressWarnings("unused")
 	public void doOnAllPlayers(Visitor<Player> visitor) {
 		try {
-			for (FastMap.Entry<Integer, Player> e = playersById.head(),
-					mapEnd = playersById.tail(); (e = e.getNext()) != mapEnd;) {
-				Player player = e.getValue();
-				if (player != null) {
-					visitor.visit(player);
-				}
-			}
+			playersById.forEachValue(visitor);
 		} catch (Exception ex) {
 			log.error("Exception when running visitor on all players" + ex);
 		}
@@ -118,4 +117,17 @@ public class PlayerContainer implements Iterable<Player> {
 	public Collection<Player> getAllPlayers() {
 		return playersById.values();
 	}
+
+	/**
+	 * Re-indexes the player by its new race, if it is in this container
+	 */
+	public void onRaceChange(Player player) {
+		if (playersById.get(player.getObjectId()) == player) {
+			playersByRace.update(player);
+		}
+	}
+
+	public Collection<Player> getPlayers(Race race) {
+		return playersByRace.get(race);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.world.container;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import com.aionemu.commons.utils.collections.ConcurrentIntObjectMap;
+import com.aionemu.gameserver.model.Race;
+import com.aionemu.gameserver.model.gameobjects.player.Player;
+
+/**
+ * Players split by race. Besides add and remove, the owner calls {@link #update(Player)} when an online player's race
+ * is changed, which only admin commands do.
+ */
+public class PlayerRaceIndex {
+
+	private final ConcurrentIntObjectMap<Player> elyos = new ConcurrentIntObjectMap<Player>();
+	private final ConcurrentIntObjectMap<Player> asmodians = new ConcurrentIntObjectMap<Player>();
+
+	public void add(Player player) {
+		ConcurrentIntObjectMap<Player> players = getMap(player.getRace());
+		if (players != null) {
+			players.put(player.getObjectId(), player);
+		}
+	}
+
+	/**
+	 * Moves an indexed player to the players of its current race
+	 */
+	public void update(Player player) {
+		ConcurrentIntObjectMap<Player> players = getMap(player.getRace());
+		if (players != null) {
+			players.put(player.getObjectId(), player);
+		}
+		if (players != elyos) {
+			elyos.remove(player.getObjectId());
+		}
+		if (players != asmodians) {
+			asmodians.remove(player.getObjectId());
+		}
+	}
+
+	public void remove(Player player) {
+		elyos.remove(player.getObjectId());
+		asmodians.remove(player.getObjectId());
+	}
+
+	/**
+	 * @return live view of the players of the race, empty for non player races
+	 */
+	public Collection<Player> get(Race race) {
+		ConcurrentIntObjectMap<Player> players = getMap(race);
+		return players != null ? players.values() : Collections.<Player> emptyList();
+	}
+
+	public int size(Race race) {
+		ConcurrentIntObjectMap<Player> players = getMap(race);
+		return players != null ? players.size() : 0;
+	}
+
+	private ConcurrentIntObjectMap<Player> getMap(Race race) {
+		switch (race) {
+			case ELYOS:
+				return elyos;
+			case ASMODIANS:
+				return asmodians;
+			default:
+				return null;
+		}
+	}
+}
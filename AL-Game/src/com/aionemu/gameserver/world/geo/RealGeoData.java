@@ -1,6 +1,8 @@
 package com.aionemu.gameserver.world.geo;
 
 import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -9,8 +11,10 @@ import java.util.concurrent.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.aionemu.gameserver.configs.main.GeoDataConfig;
 import com.aionemu.gameserver.dataholders.DataManager;
 import com.aionemu.gameserver.geoEngine.GeoWorldLoader;
+import com.aionemu.gameserver.geoEngine.models.GeoHeightCache;
 import com.aionemu.gameserver.geoEngine.models.GeoMap;
 import com.aionemu.gameserver.geoEngine.scene.Spatial;
 import com.aionemu.gameserver.model.templates.world.WorldMapTemplate;
@@ -22,9 +26,16 @@ public class RealGeoData implements GeoData {
     private static final Logger log = LoggerFactory.getLogger(RealGeoData.class);
     private final TIntObjectHashMap<GeoMap> geoMaps = new TIntObjectHashMap<>();
     private final ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    private GeoHeightCache heightCache;
 
     @Override
     public void loadGeoMaps() {
+        long start = System.currentTimeMillis();
+        log.info("Geodata: memory before loading: {}", memoryUsage());
+        if (GeoDataConfig.GEO_HEIGHT_CACHE_ENABLE) {
+            heightCache = new GeoHeightCache(GeoDataConfig.GEO_HEIGHT_CACHE_TILES);
+            log.info("Geodata: height cache enabled, {} tiles", heightCache.getMaxTiles());
+        }
         final Map<String, Spatial> models = loadMeshes();
         loadWorldMaps(models);
         models.clear();
@@ -36,7 +47,21 @@ public class RealGeoData implements GeoData {
         } catch (InterruptedException e) {
             executorService.shutdownNow();
         }
-        log.info("Geodata: {} geo maps loaded!", geoMaps.size());
+        log.info("Geodata: {} geo maps loaded in {} ms ({}), memory after loading: {}", geoMaps.size(),
+                System.currentTimeMillis() - start, GeoDataConfig.GEO_MAPPED_ENABLE ? "mapped" : "heap", memoryUsage());
+    }
+
+    /**
+     * @return heap usage and direct / mapped buffer pool usage, to compare geodata footprint between load modes
+     */
+    private static String memoryUsage() {
+        Runtime rt = Runtime.getRuntime();
+        StringBuilder sb = new StringBuilder();
+        sb.append("heap ").append((rt.totalMemory() - rt.freeMemory()) / 1048576).append(" MB");
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            sb.append(", ").append(pool.getName()).append(' ').append(pool.getMemoryUsed() / 1048576).append(" MB");
+        }
+        return sb.toString();
     }
 
     protected void loadWorldMaps(final Map<String, Spatial> models) {
@@ -55,6 +80,9 @@ public class RealGeoData implements GeoData {
                     try {
                         if (GeoWorldLoader.loadWorld(mapId, models, geoMap)) {
                             synchronized (geoMaps) {
+                                if (heightCache != null) {
+                                    geoMap.setHeightCache(heightCache);
+                                }
                                 geoMaps.put(mapId, geoMap);
                             }
                         }
@@ -87,6 +115,13 @@ public class RealGeoData implements GeoData {
 
     protected Map<String, Spatial> loadMeshes() {
         log.info("Loading meshes..");
+        if (GeoDataConfig.GEO_MAPPED_ENABLE) {
+            try {
+                return GeoWorldLoader.loadCompiledMeshs("data/geo/meshs.geo");
+            } catch (IOException | RuntimeException e) {
+                log.warn("Can't use precompiled meshes, loading them to memory instead", e);
+            }
+        }
         try {
             return GeoWorldLoader.loadMeshs("data/geo/meshs.geo");
         } catch (IOException e) {
@@ -0,0 +1,32 @@
+/**
+ * This file is part of the Aion Reconstruction Project Server.
+ *
+ * The Aion Reconstruction Project Server is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * The Aion Reconstruction Project Server is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with the Aion Reconstruction Project Server. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * @AionReconstructionProjectTeam
+ */
+package com.aionemu.gameserver.world.geo.nav;
+
+import com.aionemu.gameserver.geoEngine.scene.NavGeometry;
+
+/**
+ * The last {@link NavGeometry} a creature was found standing on, kept on the creature so
+ * {@link NavService} only resolves the tile again once the creature has left it.
+ */
+public final class CachedNavTile {
+	
+	final int worldId;
+	final NavGeometry tile;
+	
+	CachedNavTile(int worldId, NavGeometry tile) {
+		this.worldId = worldId;
+		this.tile = tile;
+	}
+}
@@ -25,6 +25,10 @@ import com.aionemu.gameserver.world.geo.nav.NavService.NavPathway;
 
 /**
  * Implements a pathfinding algorithm similar to A* to traverse through {@link NavGeometry}.
+ * <p>
+ * A helper is reused for many searches: {@link #reset(NavGeometry, NavGeometry, float, float, float, float, float, float) reset}
+ * prepares the next search, and the nodes, heap and lookup map of the previous ones are recycled. A helper is not
+ * thread safe, {@link NavService} keeps one per pathfinding thread.
  * 
  * @author Yon (Aion Reconstruction Project)
  */
@@ -115,12 +119,15 @@ class NavHelper {
 		float pathCost, targetDist;
 		
 		/**
-		 * Basic constructor. Only used by the initial starting node of the path.
+		 * Basic initializer. Only used by the initial starting node of the path.
 		 * 
 		 * @param node -- The {@link NavGeometry} this node represents.
 		 */
-		NavHeapNode(NavGeometry node) {
+		void init(NavGeometry node) {
 			this.tile = node;
+			this.open = false;
+			this.parent = null;
+			this.pathCost = 0;
 			if (tile == endTile) {
 				targetDist = 0;
 			} else {
@@ -129,7 +136,7 @@ class NavHelper {
 		}
 		
 		/**
-		 * Constructor. This node is created with the given parent node (which cannot be null),
+		 * Initializer. This node is set up with the given parent node (which cannot be null),
 		 * and estimates its {@link #pathCost} based on said parent node. The {@link #targetDist}
 		 * is also estimated.
 		 * 
@@ -138,8 +145,8 @@ class NavHelper {
 		 * @param useWeight -- If true, the {@link #pathCost} will have an extra percentage added onto it
 		 * (see {@link NavHelper#PATH_WEIGHT PATH WEIGHT}).
 		 */
-		NavHeapNode(NavGeometry node, NavHeapNode parent, boolean useWeight) {
-			this(node);
+		void init(NavGeometry node, NavHeapNode parent, boolean useWeight) {
+			init(node);
 			this.parent = parent;
 			float basePriority = parent.pathCost + parent.tile.getInRad();
 			if (useWeight) {
@@ -209,7 +216,8 @@ class NavHelper {
 //			}
 			if (tile.getEdge1() != null) if (!contains(tile.getEdge1())) {
 				//If they aren't, then create and add them
-				NavHeapNode newNode = new NavHeapNode(tile.getEdge1(), this, !tile.isTowardsEdge((byte) 1, vec));
+				NavHeapNode newNode = obtainNode();
+				newNode.init(tile.getEdge1(), this, !tile.isTowardsEdge((byte) 1, vec));
 				add(newNode);
 			} else {
 				//If they are, run checkAndUpdateParent
@@ -218,7 +226,8 @@ class NavHelper {
 			}
 			
 			if (tile.getEdge2() != null) if (!contains(tile.getEdge2())) {
-				NavHeapNode newNode = new NavHeapNode(tile.getEdge2(), this, !tile.isTowardsEdge((byte) 2, vec));
+				NavHeapNode newNode = obtainNode();
+				newNode.init(tile.getEdge2(), this, !tile.isTowardsEdge((byte) 2, vec));
 				add(newNode);
 			} else {
 				NavHeapNode child = getNode(tile.getEdge2());
@@ -226,7 +235,8 @@ class NavHelper {
 			}
 			
 			if (tile.getEdge3() != null) if (!contains(tile.getEdge3())) {
-				NavHeapNode newNode = new NavHeapNode(tile.getEdge3(), this, !tile.isTowardsEdge((byte) 3, vec));
+				NavHeapNode newNode = obtainNode();
+				newNode.init(tile.getEdge3(), this, !tile.isTowardsEdge((byte) 3, vec));
 				add(newNode);
 			} else {
 				NavHeapNode child = getNode(tile.getEdge3());
@@ -263,12 +273,12 @@ class NavHelper {
 	/**
 	 * Starting coordinate component
 	 */
-	final float x1, y1, z1;
+	float x1, y1, z1;
 	
 	/**
 	 * Target coordinate component
 	 */
-	final float x2, y2, z2;
+	float x2, y2, z2;
 	
 	/**
 	 * The target {@link NavGeometry} to find a path to.
@@ -281,7 +291,18 @@ class NavHelper {
 	 * This list is used to determine if a Nav Mesh node has already been explored after it's been
 	 * removed from the heap.
 	 */
-	private HashMap<NavGeometry, NavHeapNode> list;
+	private final HashMap<NavGeometry, NavHeapNode> list = new HashMap<NavGeometry, NavHeapNode>();
+	
+	/**
+	 * Every {@link NavHeapNode} this helper has created. The first {@link #usedNodes} belong to the current
+	 * search, the others are free to be reused.
+	 */
+	private final ArrayList<NavHeapNode> nodes = new ArrayList<NavHeapNode>();
+	
+	/**
+	 * The number of {@link #nodes} used by the current search.
+	 */
+	private int usedNodes = 0;
 	
 	/**
 	 * A simple array that is treated as the underlying structure of a heap. The {@link NavHelper} class maintains
@@ -290,7 +311,7 @@ class NavHelper {
 	 * This array is expanded as needed. Due to the size being larger than the contents, {@link #currentHeapCount}
 	 * is used to track how many indices of this array are relevant.
 	 */
-	private NavHeapNode[] heap;
+	private NavHeapNode[] heap = new NavHeapNode[100];
 	
 	/**
 	 * The current number of items being stored on the {@link #heap}.
@@ -298,10 +319,10 @@ class NavHelper {
 	private int currentHeapCount = 0;
 	
 	/**
-	 * Creates a new {@link NavHelper} that is ready to {@link #createPathway() construct a path}
+	 * Prepares this {@link NavHelper} to {@link #createPathway() construct a path}
 	 * from the given starting point to the given end point.
 	 * <p>
-	 * Callers should run {@link #destroy()} when they are done with this object.
+	 * Callers should run {@link #clear()} when they are done with the search.
 	 * 
 	 * @param startTile -- The {@link NavGeometry} this should create a path from. Cannot be null.
 	 * @param endTile -- The {@link NavGeometry} this should pathfind to. Can be null.
@@ -312,10 +333,9 @@ class NavHelper {
 	 * @param y2 -- The y-component of the end position.
 	 * @param z2 -- The z-component of the end position.
 	 */
-	NavHelper(NavGeometry startTile, NavGeometry endTile, float x1, float y1, float z1, float x2, float y2, float z2) {
+	void reset(NavGeometry startTile, NavGeometry endTile, float x1, float y1, float z1, float x2, float y2, float z2) {
 		assert startTile != null;
-		heap = new NavHeapNode[100];
-		list = new HashMap<NavGeometry, NavHeapNode>();
+		assert usedNodes == 0:"NavHelper reused without clear()";
 		this.endTile = endTile;
 		this.x1 = x1; this.y1 = y1; this.z1 = z1;
 		this.x2 = x2; this.y2 = y2; this.z2 = z2;
@@ -329,28 +349,42 @@ class NavHelper {
 	 * @param tile -- The starting {@link NavGeometry} for the path to be generated.
 	 */
 	private void init(NavGeometry tile) {
-		NavHeapNode startNode = new NavHeapNode(tile);
+		NavHeapNode startNode = obtainNode();
+		startNode.init(tile);
 		add(startNode);
 	}
 	
 	/**
-	 * Creates a new thread that iterates through {@link #list} and nulls all
-	 * {@link NavHeapNode#parent} references to prevent memory leaks. The list is then
-	 * {@link HashMap#clear() cleared}.
-	 * <p>
-	 * The thread's name is set to "NavHelper GC".
+	 * Returns an unused {@link NavHeapNode}, creating one if all of them are taken by the current search.
+	 * The caller must initialize it.
+	 * 
+	 * @return A {@link NavHeapNode} that belongs to the current search.
 	 */
-	public void destroy() {
-		Thread gc = new Thread() {
-			public void run() {
-				for (NavGeometry key : list.keySet()) {
-					list.get(key).parent = null;
-				}
-				list.clear();
-			}
-		};
-		gc.setName("NavHelper GC");
-		gc.start();
+	private NavHeapNode obtainNode() {
+		if (usedNodes == nodes.size()) {
+			nodes.add(new NavHeapNode());
+		}
+		return nodes.get(usedNodes++);
+	}
+	
+	/**
+	 * Ends the current search: the used {@link NavHeapNode nodes} drop their tile and parent references so
+	 * no nav mesh is kept alive, the {@link #heap} and {@link #list} are emptied and the nodes are made
+	 * available for the next {@link #reset(NavGeometry, NavGeometry, float, float, float, float, float, float) reset}.
+	 */
+	void clear() {
+		for (int i = 0; i < usedNodes; i++) {
+			NavHeapNode node = nodes.get(i);
+			node.tile = null;
+			node.parent = null;
+		}
+		usedNodes = 0;
+		for (int i = 0; i < currentHeapCount; i++) {
+			heap[i] = null;
+		}
+		currentHeapCount = 0;
+		list.clear();
+		endTile = null;
 	}
 	
 	/**
@@ -0,0 +1,82 @@
+/**
+ * This file is part of the Aion Reconstruction Project Server.
+ *
+ * The Aion Reconstruction Project Server is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * The Aion Reconstruction Project Server is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with the Aion Reconstruction Project Server. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * @AionReconstructionProjectTeam
+ */
+package com.aionemu.gameserver.world.geo.nav;
+
+import com.aionemu.gameserver.model.gameobjects.Creature;
+
+/**
+ * A path search queued with {@link NavService#requestPathToTarget(Creature, Creature)} or
+ * {@link NavService#requestPathToLocation(Creature, float, float, float)}. Positions are read when
+ * the search runs, not when it is queued.
+ */
+public final class NavRequest {
+	
+	final Creature owner;
+	
+	/**
+	 * The entity to path to, null when pathing to {@link #x}, {@link #y}, {@link #z}.
+	 */
+	final Creature target;
+	
+	final float x, y, z;
+	
+	private volatile float[][] path;
+	private volatile boolean done;
+	private volatile boolean cancelled;
+	
+	NavRequest(Creature owner, Creature target, float x, float y, float z) {
+		this.owner = owner;
+		this.target = target;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+	
+	void complete(float[][] path) {
+		this.path = path;
+		this.done = true;
+	}
+	
+	/**
+	 * @return The entity this request paths to, null for a location request.
+	 */
+	public Creature getTarget() {
+		return target;
+	}
+	
+	public boolean isDone() {
+		return done;
+	}
+	
+	/**
+	 * Drops this request, the {@link com.aionemu.gameserver.taskmanager.tasks.PathfindingTaskManager} skips it
+	 * without searching if it is still queued.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+	
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	
+	/**
+	 * @return The found path, with the same meaning as {@link NavService#navigateToTarget(Creature, Creature)}.
+	 * Only valid once {@link #isDone()} returns true.
+	 */
+	public float[][] getPath() {
+		return path;
+	}
+}
@@ -15,10 +15,14 @@
 package com.aionemu.gameserver.world.geo.nav;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.aionemu.commons.utils.collections.ConcurrentIntObjectMap;
+import com.aionemu.commons.utils.collections.IntObjectVisitor;
 import com.aionemu.gameserver.configs.main.GeoDataConfig;
 import com.aionemu.gameserver.geoEngine.bounding.BoundingBox;
 import com.aionemu.gameserver.geoEngine.collision.CollisionResults;
@@ -28,6 +32,7 @@ import com.aionemu.gameserver.geoEngine.models.GeoMap;
 import com.aionemu.gameserver.geoEngine.scene.NavGeometry;
 import com.aionemu.gameserver.geoEngine.scene.Spatial;
 import com.aionemu.gameserver.model.gameobjects.Creature;
+import com.aionemu.gameserver.taskmanager.tasks.PathfindingTaskManager;
 
 /**
  * Similar to {@link com.aionemu.gameserver.world.geo.GeoService GeoService}, this class is the entry point
@@ -40,6 +45,26 @@ public final class NavService {
 	private static final Logger LOG = LoggerFactory.getLogger(NavService.class);
 	private final NavData navData = NavData.getInstance();
 	
+	/**
+	 * One {@link NavHelper} per pathfinding thread, reused for every search of that thread.
+	 */
+	private final ThreadLocal<NavHelper> helpers = new ThreadLocal<NavHelper>() {
+		@Override
+		protected NavHelper initialValue() {
+			return new NavHelper();
+		}
+	};
+	
+	/**
+	 * The last path found towards each target, by target object id. See {@link #getSharedPath(Creature, NavGeometry, NavGeometry)}.
+	 */
+	private final ConcurrentIntObjectMap<SharedPath> sharedPaths = new ConcurrentIntObjectMap<SharedPath>();
+	
+	private final AtomicLong searches = new AtomicLong();
+	private final AtomicLong sharedPathHits = new AtomicLong();
+	private final AtomicLong tileLookups = new AtomicLong();
+	private final AtomicLong cachedTileHits = new AtomicLong();
+	
 	private NavService() {};
 	
 	public void initializeNav() {
@@ -75,13 +100,13 @@ public final class NavService {
 		if (!GeoDataConfig.GEO_NAV_ENABLE) return true;
 		if (target.isFlying()) return true;
 		float x1 = creature.getX(), y1 = creature.getY(), z1 = creature.getZ();
-		NavGeometry tile1 = getNavTile(creature.getWorldId(), x1, y1, z1);
+		NavGeometry tile1 = getNavTile(creature);
 		if (tile1 == null) {
 			tile1 = getNavTileWithBox(creature.getWorldId(), x1, y1, z1);
 			if (tile1 == null) return false;
 		}
 		float x2 = target.getX(), y2 = target.getY(), z2 = target.getZ();
-		NavGeometry tile2 = getNavTile(target.getWorldId(), x2, y2, z2);
+		NavGeometry tile2 = getNavTile(target);
 		if (tile2 == null) {
 			tile2 = getNavTileWithBox(target.getWorldId(), x2, y2, z2);
 			if (tile2 == null) return false;
@@ -164,6 +189,45 @@ public final class NavService {
 		return null;
 	}
 	
+	/**
+	 * Queues a path search from the creature to the target. The search is run by the {@link PathfindingTaskManager}
+	 * within its per tick budget, the caller polls {@link NavRequest#isDone()}.
+	 * 
+	 * @param pathOwner -- The entity that will follow the path.
+	 * @param target -- The entity to find a path to.
+	 * @return The queued request.
+	 */
+	public NavRequest requestPathToTarget(Creature pathOwner, Creature target) {
+		NavRequest request = new NavRequest(pathOwner, target, 0, 0, 0);
+		PathfindingTaskManager.getInstance().add(request);
+		return request;
+	}
+	
+	/**
+	 * Queues a path search from the creature to the given location, see {@link #requestPathToTarget(Creature, Creature)}.
+	 */
+	public NavRequest requestPathToLocation(Creature pathOwner, float x, float y, float z) {
+		NavRequest request = new NavRequest(pathOwner, null, x, y, z);
+		PathfindingTaskManager.getInstance().add(request);
+		return request;
+	}
+	
+	/**
+	 * Runs a queued request on the calling thread and completes it.
+	 */
+	public void process(NavRequest request) {
+		float[][] path = null;
+		try {
+			if (request.target != null) {
+				path = navigateToTarget(request.owner, request.target);
+			} else {
+				path = navigateToLocation(request.owner, request.x, request.y, request.z);
+			}
+		} finally {
+			request.complete(path);
+		}
+	}
+	
 	public float[][] navigateToTarget(Creature pathOwner, Creature target) {
 		//basic checks
 		if (pathOwner == null) return null;
@@ -175,8 +239,64 @@ public final class NavService {
 		int worldId = pathOwner.getWorldId();
 		float x1 = pathOwner.getX(), y1 = pathOwner.getY(), z1 = pathOwner.getZ();
 		float x2 = target.getX(), y2 = target.getY(), z2 = target.getZ();
-		//TO-DO: Use Cached Tile for Creature
-		return navigateFromLocationToLocation(worldId, null, null, x1, y1, z1, x2, y2, z2);
+		NavGeometry tile = getNavTile(pathOwner);
+		NavGeometry tile2 = getNavTile(target);
+		if (tile == null || tile2 == null) {
+			//Off the mesh, leave it to the box lookups
+			return navigateFromLocationToLocation(worldId, tile, tile2, x1, y1, z1, x2, y2, z2);
+		}
+		float[][] path = getSharedPath(target, tile, tile2);
+		if (path != null) {
+			sharedPathHits.incrementAndGet();
+			return path;
+		}
+		path = navigateFromLocationToLocation(worldId, tile, tile2, x1, y1, z1, x2, y2, z2);
+		if (path != null && GeoDataConfig.GEO_NAV_PATH_SHARE_TIME > 0) {
+			sharedPaths.put(target.getObjectId(), new SharedPath(tile, tile2, copyPath(path)));
+		}
+		return path;
+	}
+	
+	/**
+	 * Returns a copy of the last path found towards the target if it is recent enough, still ends on the tile
+	 * the target is standing on, and starts on the given tile or one next to it. This lets a pack chasing the
+	 * same target search once instead of once per member.
+	 */
+	private float[][] getSharedPath(Creature target, NavGeometry tile, NavGeometry targetTile) {
+		if (GeoDataConfig.GEO_NAV_PATH_SHARE_TIME <= 0) return null;
+		SharedPath shared = sharedPaths.get(target.getObjectId());
+		if (shared == null || shared.isExpired(System.currentTimeMillis())) return null;
+		if (shared.to != targetTile) return null;
+		if (shared.from != tile && shared.from.getEdgeMatching(tile) == 0) return null;
+		return copyPath(shared.path);
+	}
+	
+	/**
+	 * Removes the shared paths that expired, called periodically by the {@link PathfindingTaskManager}.
+	 */
+	public void purgeSharedPaths() {
+		if (sharedPaths.isEmpty()) return;
+		final long now = System.currentTimeMillis();
+		sharedPaths.forEachEntry(new IntObjectVisitor<SharedPath>() {
+			@Override
+			public boolean visit(int key, SharedPath value) {
+				if (value.isExpired(now)) {
+					sharedPaths.remove(key);
+				}
+				return true;
+			}
+		});
+	}
+	
+	/**
+	 * Paths are handed out to callers that modify their points, so every caller gets its own copy.
+	 */
+	private static float[][] copyPath(float[][] path) {
+		float[][] ret = new float[path.length][];
+		for (int i = 0; i < path.length; i++) {
+			ret[i] = path[i].clone();
+		}
+		return ret;
 	}
 	
 	public float[][] navigateToLocation(Creature pathOwner, float x, float y, float z) {
@@ -185,8 +305,7 @@ public final class NavService {
 		if (pathOwner.getLifeStats().isAlreadyDead()) return null;
 		int worldId = pathOwner.getWorldId();
 		float x1 = pathOwner.getX(), y1 = pathOwner.getY(), z1 = pathOwner.getZ();
-		//TO-DO: Use Cached Tile for Creature
-		return navigateFromLocationToLocation(worldId, null, null, x1, y1, z1, x, y, z);
+		return navigateFromLocationToLocation(worldId, getNavTile(pathOwner), null, x1, y1, z1, x, y, z);
 	}
 	
 	private float[][] navigateFromLocationToLocation(int worldId, NavGeometry tile, NavGeometry tile2, float x1, float y1, float z1, float x2, float y2, float z2) {
@@ -212,9 +331,7 @@ public final class NavService {
 			float[] p = tile.getClosestPoint(x1, y1, z1);
 			float[][] pathFromP = attemptStraightLinePath(tile, tile2, x1, y1, z1, x2, y2, z2);
 			if (pathFromP == null) {
-				NavHelper helper = new NavHelper(tile, tile2, p[0], p[1], p[2], x2, y2, z2);
-				NavPathway[] pathway = helper.createPathway();
-				helper.destroy();
+				NavPathway[] pathway = createPathway(tile, tile2, p[0], p[1], p[2], x2, y2, z2);
 				pathFromP = funnelPathway(pathway, tile2 != null, p[0], p[1], p[2], x2, y2, z2);
 			}
 			float[][] ret = new float[pathFromP.length + 1][];
@@ -226,12 +343,21 @@ public final class NavService {
 		if (straightLinePath != null) {
 			return straightLinePath;
 		}
-		NavHelper helper = new NavHelper(tile, tile2, x1, y1, z1, x2, y2, z2);
-		NavPathway[] pathway = helper.createPathway();
-		helper.destroy();
+		NavPathway[] pathway = createPathway(tile, tile2, x1, y1, z1, x2, y2, z2);
 		return funnelPathway(pathway, tile2 != null, x1, y1, z1, x2, y2, z2);
 	}
 	
+	private NavPathway[] createPathway(NavGeometry tile, NavGeometry tile2, float x1, float y1, float z1, float x2, float y2, float z2) {
+		searches.incrementAndGet();
+		NavHelper helper = helpers.get();
+		helper.reset(tile, tile2, x1, y1, z1, x2, y2, z2);
+		try {
+			return helper.createPathway();
+		} finally {
+			helper.clear();
+		}
+	}
+	
 	private static float[][] funnelPathway(NavPathway[] pathway, boolean includeTargetPoint, float x1, float y1, float z1, float x2, float y2, float z2) {
 		if (pathway == null) return null; //Mob will ignore all obstacles
 		if (pathway.length == 0) return new float[][] {{x1, y1, z1}}; //Mob will not move
@@ -382,6 +508,24 @@ public final class NavService {
 //		return ((x1 * y2) - (y1 * x2));
 	}
 	
+	/**
+	 * Returns the tile the creature is standing on. The tile is cached on the creature and only looked up
+	 * again once the creature has left it.
+	 */
+	private NavGeometry getNavTile(Creature creature) {
+		int worldId = creature.getWorldId();
+		float x = creature.getX(), y = creature.getY(), z = creature.getZ();
+		CachedNavTile cached = creature.getNavTile();
+		if (cached != null && cached.worldId == worldId && cached.tile.isStandingOn(x, y, z)) {
+			cachedTileHits.incrementAndGet();
+			return cached.tile;
+		}
+		tileLookups.incrementAndGet();
+		NavGeometry tile = getNavTile(worldId, x, y, z);
+		creature.setNavTile(tile != null ? new CachedNavTile(worldId, tile) : null);
+		return tile;
+	}
+	
 	private NavGeometry getNavTile(int worldId, float x, float y, float z) {
 		GeoMap navMap = navData.getNavMap(worldId);
 		if (navMap == null) return null;
@@ -456,6 +600,33 @@ public final class NavService {
 		}
 	}
 	
+	public List<String> getStats() {
+		List<String> stats = new ArrayList<String>();
+		stats.add("Searches: " + searches.get() + ", shared paths used: " + sharedPathHits.get() + ", shared paths kept: " + sharedPaths.size());
+		stats.add("Tile lookups: " + tileLookups.get() + ", cached tiles used: " + cachedTileHits.get());
+		return stats;
+	}
+	
+	/**
+	 * The last path found towards a target, with the tiles it was searched between.
+	 */
+	private static final class SharedPath {
+		final NavGeometry from;
+		final NavGeometry to;
+		final float[][] path;
+		final long time = System.currentTimeMillis();
+		
+		SharedPath(NavGeometry from, NavGeometry to, float[][] path) {
+			this.from = from;
+			this.to = to;
+			this.path = path;
+		}
+		
+		boolean isExpired(long now) {
+			return now - time > GeoDataConfig.GEO_NAV_PATH_SHARE_TIME;
+		}
+	}
+	
 	public static final NavService getInstance() {
 		return SingletonHolder.INSTANCE;
 	}
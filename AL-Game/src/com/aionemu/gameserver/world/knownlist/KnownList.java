@@ -23,6 +23,8 @@ import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.aionemu.commons.utils.collections.ConcurrentIntObjectMap;
+import com.aionemu.commons.utils.collections.IntObjectVisitor;
 import com.aionemu.gameserver.configs.main.SecurityConfig;
 import com.aionemu.gameserver.model.gameobjects.AionObject;
 import com.aionemu.gameserver.model.gameobjects.Creature;
@@ -32,8 +34,6 @@ import com.aionemu.gameserver.model.gameobjects.player.Player;
 import com.aionemu.gameserver.utils.MathUtil;
 import com.aionemu.gameserver.world.MapRegion;
 
-import javolution.util.FastMap;
-
 /**
  * KnownList.
  *
@@ -52,22 +52,22 @@ public class KnownList {
 	/**
 	 * List of objects that this KnownList owner known
 	 */
-	protected final FastMap<Integer, VisibleObject> knownObjects = new FastMap<Integer, VisibleObject>().shared();
+	protected final ConcurrentIntObjectMap<VisibleObject> knownObjects = new ConcurrentIntObjectMap<VisibleObject>();
 
 	/**
 	 * List of player that this KnownList owner known
 	 */
-	protected volatile FastMap<Integer, Player> knownPlayers;
+	protected volatile ConcurrentIntObjectMap<Player> knownPlayers;
 
 	/**
 	 * List of objects that this KnownList owner known
 	 */
-	protected final FastMap<Integer, VisibleObject> visualObjects = new FastMap<Integer, VisibleObject>().shared();
+	protected final ConcurrentIntObjectMap<VisibleObject> visualObjects = new ConcurrentIntObjectMap<VisibleObject>();
 
 	/**
 	 * List of player that this KnownList owner known
 	 */
-	protected volatile FastMap<Integer, Player> visualPlayers;
+	protected volatile ConcurrentIntObjectMap<Player> visualPlayers;
 
 	private ReentrantLock lock = new ReentrantLock();
 
@@ -205,33 +205,36 @@ public class KnownList {
 
 		MapRegion[] regions = owner.getActiveRegion().getNeighbours();
 		for (int i = 0; i < regions.length; i++) {
-			MapRegion r = regions[i];
-			FastMap<Integer, VisibleObject> objects = r.getObjects();
-			for (FastMap.Entry<Integer, VisibleObject> e = objects.head(),
-					mapEnd = objects.tail(); (e = e.getNext()) != mapEnd;) {
-				VisibleObject newObject = e.getValue();
-				if (newObject == owner || newObject == null) {
-					continue;
-				}
-				if (!isAwareOf(newObject)) {
-					continue;
-				}
-				if (knownObjects.containsKey(newObject.getObjectId())) {
-					continue;
-				}
-				if (!checkObjectInRange(newObject) && !newObject.getKnownList().checkReversedObjectInRange(owner)) {
-					continue;
-				}
-				/**
-				 * New object is not known.
-				 */
-				if (add(newObject)) {
-					newObject.getKnownList().add(owner);
-				}
-			}
+			regions[i].getObjects().forEachEntry(findVisibleObject);
 		}
 	}
 
+	private final IntObjectVisitor<VisibleObject> findVisibleObject = new IntObjectVisitor<VisibleObject>() {
+
+		@Override
+		public boolean visit(int objectId, VisibleObject newObject) {
+			if (newObject == owner) {
+				return true;
+			}
+			if (!isAwareOf(newObject)) {
+				return true;
+			}
+			if (knownObjects.containsKey(objectId)) {
+				return true;
+			}
+			if (!checkObjectInRange(newObject) && !newObject.getKnownList().checkReversedObjectInRange(owner)) {
+				return true;
+			}
+			/**
+			 * New object is not known.
+			 */
+			if (add(newObject)) {
+				newObject.getKnownList().add(owner);
+			}
+			return true;
+		}
+	};
+
 	/**
 	 * Whether knownlist owner aware of found object (should be kept in knownlist)
 	 *
@@ -265,60 +268,61 @@ public class KnownList {
 		doOnAllNpcs(visitor, Integer.MAX_VALUE);
 	}
 
-	public int doOnAllNpcs(Visitor<Npc> visitor, int iterationLimit) {
-		int counter = 0;
+	public int doOnAllNpcs(final Visitor<Npc> visitor, final int iterationLimit) {
+		final int[] counter = new int[1];
 		try {
-			for (FastMap.Entry<Integer, VisibleObject> e = knownObjects.head(),
-					mapEnd = knownObjects.tail(); (e = e.getNext()) != mapEnd;) {
-				VisibleObject newObject = e.getValue();
-				if (newObject instanceof Npc) {
-					if ((++counter) == iterationLimit) {
-						break;
+			knownObjects.forEachEntry(new IntObjectVisitor<VisibleObject>() {
+
+				@Override
+				public boolean visit(int objectId, VisibleObject newObject) {
+					if (newObject instanceof Npc) {
+						if ((++counter[0]) == iterationLimit) {
+							return false;
+						}
+						visitor.visit((Npc) newObject);
 					}
-					visitor.visit((Npc) newObject);
+					return true;
 				}
-			}
+			});
 		} catch (Exception ex) {
 			log.error("Exception when running visitor on all npcs" + ex);
 		}
-		return counter;
+		return counter[0];
 	}
 
 	public void doOnAllNpcsWithOwner(VisitorWithOwner<Npc, VisibleObject> visitor) {
 		doOnAllNpcsWithOwner(visitor, Integer.MAX_VALUE);
 	}
 
-	public int doOnAllNpcsWithOwner(VisitorWithOwner<Npc, VisibleObject> visitor, int iterationLimit) {
-		int counter = 0;
+	public int doOnAllNpcsWithOwner(final VisitorWithOwner<Npc, VisibleObject> visitor, final int iterationLimit) {
+		final int[] counter = new int[1];
 		try {
-			for (FastMap.Entry<Integer, VisibleObject> e = knownObjects.head(),
-					mapEnd = knownObjects.tail(); (e = e.getNext()) != mapEnd;) {
-				VisibleObject newObject = e.getValue();
-				if (newObject instanceof Npc) {
-					if ((++counter) == iterationLimit) {
-						break;
+			knownObjects.forEachEntry(new IntObjectVisitor<VisibleObject>() {
+
+				@Override
+				public boolean visit(int objectId, VisibleObject newObject) {
+					if (newObject instanceof Npc) {
+						if ((++counter[0]) == iterationLimit) {
+							return false;
+						}
+						visitor.visit((Npc) newObject, owner);
 					}
-					visitor.visit((Npc) newObject, owner);
+					return true;
 				}
-			}
+			});
 		} catch (Exception ex) {
 			log.error("Exception when running visitor on all npcs" + ex);
 		}
-		return counter;
+		return counter[0];
 	}
 
 	public void doOnAllPlayers(Visitor<Player> visitor) {
-		if (knownPlayers == null) {
+		ConcurrentIntObjectMap<Player> players = knownPlayers;
+		if (players == null) {
 			return;
 		}
 		try {
-			for (FastMap.Entry<Integer, Player> e = knownPlayers.head(),
-					mapEnd = knownPlayers.tail(); (e = e.getNext()) != mapEnd;) {
-				Player player = e.getValue();
-				if (player != null) {
-					visitor.visit(player);
-				}
-			}
+			players.forEachValue(visitor);
 		} catch (Exception ex) {
 			log.error("Exception when running visitor on all players" + ex);
 		}
@@ -326,13 +330,7 @@ public class KnownList {
 
 	public void doOnAllObjects(Visitor<VisibleObject> visitor) {
 		try {
-			for (FastMap.Entry<Integer, VisibleObject> e = knownObjects.head(),
-					mapEnd = knownObjects.tail(); (e = e.getNext()) != mapEnd;) {
-				VisibleObject newObject = e.getValue();
-				if (newObject != null) {
-					visitor.visit(newObject);
-				}
-			}
+			knownObjects.forEachValue(visitor);
 		} catch (Exception ex) {
 			log.error("Exception when running visitor on all objects" + ex);
 		}
@@ -358,7 +356,7 @@ public class KnownList {
 		if (knownPlayers == null) {
 			synchronized (this) {
 				if (knownPlayers == null) {
-					knownPlayers = new FastMap<Integer, Player>().shared();
+					knownPlayers = new ConcurrentIntObjectMap<Player>();
 				}
 			}
 		}
@@ -368,7 +366,7 @@ public class KnownList {
 		if (visualPlayers == null) {
 			synchronized (this) {
 				if (visualPlayers == null) {
-					visualPlayers = new FastMap<Integer, Player>().shared();
+					visualPlayers = new ConcurrentIntObjectMap<Player>();
 				}
 			}
 		}
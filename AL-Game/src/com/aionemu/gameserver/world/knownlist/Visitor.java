@@ -16,10 +16,13 @@
  */
 package com.aionemu.gameserver.world.knownlist;
 
+import com.aionemu.commons.utils.collections.ValueVisitor;
+
 /**
  * @author ATracer
  */
-public interface Visitor<T> {
+public interface Visitor<T> extends ValueVisitor<T> {
 
+	@Override
 	void visit(T object);
 }
\ No newline at end of file
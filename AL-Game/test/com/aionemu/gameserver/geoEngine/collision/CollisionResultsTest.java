@@ -0,0 +1,90 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.geoEngine.collision;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.aionemu.gameserver.geoEngine.scene.Geometry;
+
+public class CollisionResultsTest {
+
+	private static final float DELTA = 0.0001f;
+
+	@Test
+	public void pooledResultsAreReusedAfterClear() {
+		CollisionResults results = new CollisionResults(CollisionIntention.PHYSICAL.getId(), false, 1);
+		CollisionResult first = results.addCollision(1, 2, 3, 4);
+		CollisionResult second = results.addCollision(5, 6, 7, 8);
+		assertNotSame(first, second);
+		first.setGeometry(new Geometry("box"));
+
+		results.clear();
+		assertEquals(0, results.size());
+		CollisionResult reused = results.addCollision(9, 10, 11, 12);
+		assertSame(first, reused);
+		assertEquals(9, reused.getContactPoint().x, DELTA);
+		assertEquals(10, reused.getContactPoint().y, DELTA);
+		assertEquals(11, reused.getContactPoint().z, DELTA);
+		assertEquals(12, reused.getDistance(), DELTA);
+		assertNull(reused.getGeometry());
+		assertSame(second, results.addCollision(0, 0, 0, 1));
+		assertEquals(2, results.size());
+	}
+
+	@Test
+	public void invalidDistanceIsIgnored() {
+		CollisionResults results = new CollisionResults(CollisionIntention.PHYSICAL.getId(), false, 1);
+		assertNull(results.addCollision(1, 2, 3, Float.NaN));
+		assertEquals(0, results.size());
+		assertNull(results.getClosestCollision());
+	}
+
+	@Test
+	public void resultsAreSortedByDistance() {
+		CollisionResults results = new CollisionResults(CollisionIntention.PHYSICAL.getId(), false, 1);
+		results.addCollision(0, 0, 5, 5);
+		results.addCollision(0, 0, 1, 1);
+		results.addCollision(0, 0, 3, 3);
+		assertEquals(1, results.getClosestCollision().getDistance(), DELTA);
+		assertEquals(5, results.getFarthestCollision().getDistance(), DELTA);
+		assertEquals(3, results.getCollision(1).getDistance(), DELTA);
+
+		// reused instances are sorted again after the reset
+		results.reset(CollisionIntention.PHYSICAL.getId(), false, 1);
+		results.addCollision(0, 0, 2, 2);
+		results.addCollision(0, 0, 0.5f, 0.5f);
+		assertEquals(0.5f, results.getClosestCollision().getDistance(), DELTA);
+		assertEquals(2, results.getFarthestCollision().getDistance(), DELTA);
+	}
+
+	@Test
+	public void resetReconfigures() {
+		CollisionResults results = new CollisionResults(CollisionIntention.PHYSICAL.getId(), false, 1);
+		results.addCollision(0, 0, 1, 1);
+		results.reset(CollisionIntention.DOOR.getId(), true, 3);
+		assertEquals(0, results.size());
+		assertEquals(CollisionIntention.DOOR.getId(), results.getIntentions());
+		assertTrue(results.isOnlyFirst());
+		assertEquals(3, results.getInstanceId());
+	}
+}
@@ -0,0 +1,164 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.geoEngine.collision;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.aionemu.gameserver.geoEngine.collision.bih.BIHNode;
+
+public class GeoQueryContextTest {
+
+	private static final float DELTA = 0.0001f;
+
+	@Test
+	public void sameLevelIsReused() {
+		GeoQueryContext first = GeoQueryContext.acquire();
+		first.release();
+		GeoQueryContext second = GeoQueryContext.acquire();
+		second.release();
+		assertSame(first, second);
+	}
+
+	@Test
+	public void nestedQueriesGetTheirOwnLevel() {
+		GeoQueryContext outer = GeoQueryContext.acquire();
+		try {
+			GeoQueryContext inner = GeoQueryContext.acquire();
+			try {
+				assertNotSame(outer, inner);
+				assertNotSame(outer.ray, inner.ray);
+				assertNotSame(outer.results, inner.results);
+			} finally {
+				inner.release();
+			}
+			GeoQueryContext again = GeoQueryContext.acquire();
+			again.release();
+			assertSame(inner, again);
+		} finally {
+			outer.release();
+		}
+	}
+
+	@Test
+	public void deepNestingGrowsTheLevels() {
+		GeoQueryContext[] contexts = new GeoQueryContext[10];
+		for (int i = 0; i < contexts.length; i++) {
+			contexts[i] = GeoQueryContext.acquire();
+			for (int j = 0; j < i; j++) {
+				assertNotSame(contexts[j], contexts[i]);
+			}
+		}
+		for (int i = contexts.length - 1; i >= 0; i--) {
+			contexts[i].release();
+		}
+		GeoQueryContext first = GeoQueryContext.acquire();
+		first.release();
+		assertSame(contexts[0], first);
+	}
+
+	@Test
+	public void threadsHaveTheirOwnContexts() throws Exception {
+		GeoQueryContext mine = GeoQueryContext.acquire();
+		mine.release();
+		final AtomicReference<GeoQueryContext> other = new AtomicReference<GeoQueryContext>();
+		Thread thread = new Thread() {
+
+			@Override
+			public void run() {
+				GeoQueryContext ctx = GeoQueryContext.acquire();
+				ctx.release();
+				other.set(ctx);
+			}
+		};
+		thread.start();
+		thread.join();
+		assertNotSame(mine, other.get());
+	}
+
+	@Test
+	public void setRayPointsAtTheTarget() {
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			assertEquals(5, ctx.setRay(1, 2, 3, 4, 6, 3), DELTA);
+			assertEquals(1, ctx.ray.getOrigin().x, DELTA);
+			assertEquals(2, ctx.ray.getOrigin().y, DELTA);
+			assertEquals(0.6f, ctx.ray.getDirection().x, DELTA);
+			assertEquals(0.8f, ctx.ray.getDirection().y, DELTA);
+			assertEquals(0, ctx.ray.getDirection().z, DELTA);
+			assertEquals(5, ctx.ray.getLimit(), DELTA);
+
+			ctx.setRay(0, 0, 10, 0, 0, 0);
+			assertEquals(-1, ctx.ray.getDirection().z, DELTA);
+			assertEquals(10, ctx.ray.getLimit(), DELTA);
+		} finally {
+			ctx.release();
+		}
+	}
+
+	@Test
+	public void resultsAreClearedForEachQuery() {
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			CollisionResults results = ctx.results(CollisionIntention.PHYSICAL.getId(), false, 1);
+			results.addCollision(1, 2, 3, 4);
+			assertEquals(1, results.size());
+
+			CollisionResults again = ctx.results(CollisionIntention.DOOR.getId(), true, 7);
+			assertSame(results, again);
+			assertEquals(0, again.size());
+			assertEquals(CollisionIntention.DOOR.getId(), again.getIntentions());
+			assertTrue(again.isOnlyFirst());
+			assertEquals(7, again.getInstanceId());
+		} finally {
+			ctx.release();
+		}
+	}
+
+	@Test
+	public void ensureStackKeepsEntries() {
+		GeoQueryContext ctx = GeoQueryContext.acquire();
+		try {
+			int initial = ctx.stackMin.length;
+			ctx.ensureStack(initial);
+			assertEquals(initial, ctx.stackMin.length);
+
+			BIHNode node = new BIHNode(0, 1);
+			ctx.stackIndices[initial - 1] = 42;
+			ctx.stackNodes[initial - 1] = node;
+			ctx.stackMin[initial - 1] = 1.5f;
+			ctx.stackMax[initial - 1] = 2.5f;
+			ctx.ensureStack(initial + 1);
+			assertTrue(ctx.stackMin.length > initial);
+			assertEquals(ctx.stackMin.length, ctx.stackMax.length);
+			assertEquals(ctx.stackMin.length, ctx.stackNodes.length);
+			assertEquals(ctx.stackMin.length, ctx.stackIndices.length);
+			assertEquals(42, ctx.stackIndices[initial - 1]);
+			assertSame(node, ctx.stackNodes[initial - 1]);
+			assertEquals(1.5f, ctx.stackMin[initial - 1], 0);
+			assertEquals(2.5f, ctx.stackMax[initial - 1], 0);
+		} finally {
+			ctx.release();
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.geoEngine.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aionemu.gameserver.geoEngine.collision.Collidable;
+import com.aionemu.gameserver.geoEngine.collision.CollisionResults;
+import com.aionemu.gameserver.geoEngine.math.Ray;
+
+public class GeoHeightCacheTest {
+
+	private static final float DELTA = 0.001f;
+
+	private GeoHeightCache cache;
+	private FlatMap map;
+	private int mapId;
+
+	@Before
+	public void setUp() {
+		// a single segment keeps the LRU order global
+		cache = new GeoHeightCache(2, 1);
+		map = new FlatMap();
+		mapId = cache.register();
+	}
+
+	@Test
+	public void returnsHighestSurfaceInRange() {
+		map.surfaces = new float[] { 100, 50 };
+		assertEquals(100, cache.getMeshZ(map, mapId, 10.2f, 10.7f, 200, 0, 1), DELTA);
+		assertEquals(50, cache.getMeshZ(map, mapId, 10.2f, 10.7f, 80, 0, 1), DELTA);
+		assertEquals(GeoHeightCache.NO_LAYER, cache.getMeshZ(map, mapId, 10.2f, 10.7f, 40, 0, 1), 0);
+	}
+
+	@Test
+	public void castsOnlyOncePerCell() {
+		map.surfaces = new float[] { 100 };
+		cache.getMeshZ(map, mapId, 10.2f, 10.7f, 200, 0, 1);
+		int casts = map.casts;
+		cache.getMeshZ(map, mapId, 10.8f, 10.1f, 200, 0, 1);
+		cache.getMeshZ(map, mapId, 10.5f, 10.5f, 150, 0, 1);
+		assertEquals(casts, map.casts);
+	}
+
+	@Test
+	public void keepsInstancesApart() {
+		map.surfaces = new float[] { 100 };
+		cache.getMeshZ(map, mapId, 10, 10, 200, 0, 1);
+		map.surfaces = new float[] { 60 };
+		assertEquals(60, cache.getMeshZ(map, mapId, 10, 10, 200, 0, 2), DELTA);
+		assertEquals(100, cache.getMeshZ(map, mapId, 10, 10, 200, 0, 1), DELTA);
+	}
+
+	@Test
+	public void tooManySurfacesAreAlwaysCast() {
+		map.surfaces = new float[GeoHeightCache.MAX_LAYERS + 1];
+		for (int i = 0; i < map.surfaces.length; i++) {
+			map.surfaces[i] = 100 - i * 10;
+		}
+		assertTrue(Float.isNaN(cache.getMeshZ(map, mapId, 10, 10, 200, 0, 1)));
+		int casts = map.casts;
+		assertTrue(Float.isNaN(cache.getMeshZ(map, mapId, 10, 10, 200, 0, 1)));
+		assertEquals(casts, map.casts);
+	}
+
+	@Test
+	public void invalidateDropsCoveredTiles() {
+		map.surfaces = new float[] { 100 };
+		cache.getMeshZ(map, mapId, 10, 10, 200, 0, 1);
+		map.surfaces = new float[] { 70 };
+		cache.invalidate(mapId, 1, 5, 5, 12, 12);
+		assertEquals(70, cache.getMeshZ(map, mapId, 10, 10, 200, 0, 1), DELTA);
+	}
+
+	@Test
+	public void invalidateDuringCastIsNotLost() {
+		map.surfaces = new float[] { 100 };
+		// a door closes while the column is being cast, the cast saw the old surface
+		map.onCast = new Runnable() {
+
+			@Override
+			public void run() {
+				map.onCast = null;
+				map.surfaces = new float[] { 70 };
+				cache.invalidate(mapId, 1, 0, 0, 20, 20);
+				map.surfaces = new float[] { 100 };
+			}
+		};
+		assertTrue(Float.isNaN(cache.getMeshZ(map, mapId, 10, 10, 200, 0, 1)));
+		map.surfaces = new float[] { 70 };
+		assertEquals(70, cache.getMeshZ(map, mapId, 10, 10, 200, 0, 1), DELTA);
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedTile() {
+		map.surfaces = new float[] { 100 };
+		cache.getMeshZ(map, mapId, 10, 10, 200, 0, 1);
+		cache.getMeshZ(map, mapId, 40, 10, 200, 0, 1);
+		// touch the first tile so the second one is the oldest
+		cache.getMeshZ(map, mapId, 10, 10, 200, 0, 1);
+		cache.getMeshZ(map, mapId, 70, 10, 200, 0, 1);
+		int casts = map.casts;
+		cache.getMeshZ(map, mapId, 10, 10, 200, 0, 1);
+		assertEquals(casts, map.casts);
+		cache.getMeshZ(map, mapId, 40, 10, 200, 0, 1);
+		assertTrue(map.casts > casts);
+		assertTrue(cache.toString().contains("evictions=2"));
+	}
+
+	@Test
+	public void segmentsAreSizedByCapacity() {
+		assertEquals(16, new GeoHeightCache(1000).getSegmentCount());
+		assertEquals(4, new GeoHeightCache(5).getSegmentCount());
+		assertEquals(1, new GeoHeightCache(1).getSegmentCount());
+	}
+
+	@Test
+	public void segmentsNeverExceedTheirShare() {
+		GeoHeightCache striped = new GeoHeightCache(10, 4);
+		int id = striped.register();
+		map.surfaces = new float[] { 100 };
+		for (int i = 0; i < 200; i++) {
+			assertEquals(100, striped.getMeshZ(map, id, i * 16 + 1, 1, 200, 0, 1), DELTA);
+		}
+		String stats = striped.toString();
+		assertTrue(stats, stats.contains("tiles=10/10"));
+		assertTrue(stats, stats.contains("evictions=190"));
+	}
+
+	@Test
+	public void concurrentLookupsAgree() throws Exception {
+		final GeoHeightCache striped = new GeoHeightCache(64);
+		final int id = striped.register();
+		final AtomicInteger wrong = new AtomicInteger();
+		map.surfaces = new float[] { 100 };
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			Future<?>[] futures = new Future<?>[8];
+			for (int t = 0; t < futures.length; t++) {
+				final int seed = t;
+				futures[t] = pool.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() {
+						for (int i = 0; i < 20000; i++) {
+							int tile = (i * 31 + seed * 7) % 96;
+							float z = striped.getMeshZ(map, id, tile * 16 + 3.5f, (i & 15) + 0.5f, 200, 0, 1 + (i & 1));
+							// NaN only tells the caller to ray cast, e.g. when an invalidation raced the fill
+							if (z == z && z != 100) {
+								wrong.incrementAndGet();
+							}
+							if (i % 5000 == 0) {
+								striped.invalidate(id, 1, tile * 16, 0, tile * 16 + 15, 15);
+							}
+						}
+						return null;
+					}
+				});
+			}
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(0, wrong.get());
+		assertFalse(striped.toString().contains("tiles=0/"));
+	}
+
+	/**
+	 * Map made of flat surfaces covering everything.
+	 */
+	private static final class FlatMap extends GeoMap {
+
+		private volatile float[] surfaces = new float[0];
+		private volatile Runnable onCast;
+		private int casts;
+
+		private FlatMap() {
+			super("test", 0);
+		}
+
+		@Override
+		public int collideWith(Collidable other, CollisionResults results) {
+			casts++;
+			Ray ray = (Ray) other;
+			float[] current = surfaces;
+			for (float z : current) {
+				results.addCollision(ray.getOrigin().x, ray.getOrigin().y, z, ray.getOrigin().z - z);
+			}
+			Runnable hook = onCast;
+			if (hook != null) {
+				hook.run();
+			}
+			return current.length;
+		}
+	}
+}
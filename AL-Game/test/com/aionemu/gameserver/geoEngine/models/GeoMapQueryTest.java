@@ -0,0 +1,122 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.geoEngine.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aionemu.gameserver.geoEngine.collision.CollisionIntention;
+import com.aionemu.gameserver.geoEngine.collision.GeoQueryContext;
+import com.aionemu.gameserver.geoEngine.math.Vector3f;
+
+/**
+ * Queries against a flat map at height 100 with a box from (100, 100) to (120, 120), top at 120.
+ */
+public class GeoMapQueryTest {
+
+	private static final float DELTA = 0.01f;
+
+	private GeoMap map;
+
+	@Before
+	public void setUp() {
+		map = SyntheticGeoMap.createFlat(512, 100, 100, 20, 120);
+	}
+
+	@Test
+	public void getZFindsBoxTopAndTerrain() {
+		assertEquals(120, map.getZ(110, 110, 125, 1), DELTA);
+		assertEquals(100, map.getZ(50, 50, 105, 1), DELTA);
+		assertEquals(120, map.getZ(110, 110), DELTA);
+		assertEquals(100, map.getZ(50, 50), DELTA);
+	}
+
+	@Test
+	public void boxBlocksSightAndPassage() {
+		assertFalse(map.canSee(90, 110, 101, 130, 110, 101, 100, 1));
+		assertTrue(map.canSee(90, 150, 101, 130, 150, 101, 100, 1));
+		assertFalse(map.canPass(90, 110, 101, 130, 110, 101, 100, 1));
+		assertTrue(map.canPass(90, 150, 101, 130, 150, 101, 100, 1));
+	}
+
+	@Test
+	public void closestCollisionStopsInFrontOfTheBox() {
+		Vector3f stop = map.getClosestCollision(80, 110, 100, 140, 110, 100, true, false, 1,
+				CollisionIntention.PHYSICAL.getId());
+		assertTrue(stop.x < 100);
+		assertTrue(stop.x > 95);
+		assertEquals(100, stop.z, DELTA);
+
+		Vector3f free = map.getClosestCollision(80, 150, 100, 90, 150, 100, true, false, 1,
+				CollisionIntention.PHYSICAL.getId());
+		assertEquals(90, free.x, DELTA);
+		assertEquals(100, free.z, DELTA);
+	}
+
+	@Test
+	public void queriesReleaseTheirContexts() {
+		GeoQueryContext before = GeoQueryContext.acquire();
+		before.release();
+		map.getZ(110, 110, 125, 1);
+		map.canSee(90, 110, 101, 130, 110, 101, 100, 1);
+		map.getClosestCollision(80, 110, 100, 140, 110, 100, true, false, 1, CollisionIntention.PHYSICAL.getId());
+		GeoQueryContext after = GeoQueryContext.acquire();
+		after.release();
+		assertSame(before, after);
+	}
+
+	@Test
+	public void repeatedQueriesDoNotAllocate() {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		float sum = 0;
+		for (int i = 0; i < 1000; i++) {
+			sum += runQueries(i);
+		}
+		// best of three, so a one-off allocation by the runtime (JIT, class loading) doesn't count
+		long allocated = Long.MAX_VALUE;
+		for (int round = 0; round < 3; round++) {
+			long start = bean.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < 10000; i++) {
+				sum += runQueries(i);
+			}
+			allocated = Math.min(allocated, bean.getThreadAllocatedBytes(threadId) - start);
+		}
+		assertTrue(sum != 0);
+		// a few bytes of slack for the bean itself
+		assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+	}
+
+	private float runQueries(int i) {
+		float offset = i % 20;
+		float z = map.getZ(100 + offset, 110, 125, 1);
+		if (map.canSee(90, 100 + offset, 101, 130, 100 + offset, 101, 100, 1)) {
+			z++;
+		}
+		if (map.canPass(90, 150, 101, 130, 150 - offset, 101, 100, 1)) {
+			z++;
+		}
+		return z;
+	}
+}
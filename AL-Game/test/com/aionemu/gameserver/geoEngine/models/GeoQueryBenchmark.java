@@ -0,0 +1,108 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.geoEngine.models;
+
+import java.util.Random;
+
+import com.aionemu.gameserver.geoEngine.collision.CollisionIntention;
+import com.aionemu.gameserver.utils.MicroBenchmark;
+
+/**
+ * Times the hot geo queries on a generated field sized map, with the queries spread over the whole map. Run with
+ * <tt>ant benchmark -Dbenchmark=com.aionemu.gameserver.geoEngine.models.GeoQueryBenchmark</tt>.
+ */
+public class GeoQueryBenchmark {
+
+	private static final int WORLD_SIZE = 2048;
+	private static final int BOXES = 4000;
+	private static final int POINTS = 4096;
+
+	public static void main(String[] args) throws Exception {
+		final GeoMap map = SyntheticGeoMap.create(WORLD_SIZE, BOXES, 1);
+		final float[] points = new float[POINTS * 6];
+		Random rnd = new Random(2);
+		for (int i = 0; i < points.length; i += 6) {
+			float x = 50 + rnd.nextFloat() * (WORLD_SIZE - 100);
+			float y = 50 + rnd.nextFloat() * (WORLD_SIZE - 100);
+			points[i] = x;
+			points[i + 1] = y;
+			points[i + 2] = SyntheticGeoMap.terrainZ(x, y) + 1;
+			points[i + 3] = x + rnd.nextFloat() * 60 - 30;
+			points[i + 4] = y + rnd.nextFloat() * 60 - 30;
+			points[i + 5] = SyntheticGeoMap.terrainZ(points[i + 3], points[i + 4]) + 1;
+		}
+		final byte physical = CollisionIntention.PHYSICAL.getId();
+		MicroBenchmark benchmark = new MicroBenchmark();
+		System.out.println("Synthetic map " + WORLD_SIZE + "x" + WORLD_SIZE + ", " + BOXES + " boxes");
+		benchmark.run("getZ", 200000, new MicroBenchmark.Case() {
+
+			@Override
+			public long run(int ops) {
+				float sum = 0;
+				for (int i = 0; i < ops; i++) {
+					int p = (i % POINTS) * 6;
+					sum += map.getZ(points[p], points[p + 1], points[p + 2], 1);
+				}
+				return (long) sum;
+			}
+		});
+		benchmark.run("canSee", 100000, new MicroBenchmark.Case() {
+
+			@Override
+			public long run(int ops) {
+				long visible = 0;
+				for (int i = 0; i < ops; i++) {
+					int p = (i % POINTS) * 6;
+					if (map.canSee(points[p], points[p + 1], points[p + 2], points[p + 3], points[p + 4], points[p + 5], 100,
+							1)) {
+						visible++;
+					}
+				}
+				return visible;
+			}
+		});
+		benchmark.run("canPass", 100000, new MicroBenchmark.Case() {
+
+			@Override
+			public long run(int ops) {
+				long passable = 0;
+				for (int i = 0; i < ops; i++) {
+					int p = (i % POINTS) * 6;
+					if (map.canPass(points[p], points[p + 1], points[p + 2], points[p + 3], points[p + 4], points[p + 5], 100,
+							1)) {
+						passable++;
+					}
+				}
+				return passable;
+			}
+		});
+		benchmark.run("getClosestCollision", 50000, new MicroBenchmark.Case() {
+
+			@Override
+			public long run(int ops) {
+				float sum = 0;
+				for (int i = 0; i < ops; i++) {
+					int p = (i % POINTS) * 6;
+					sum += map.getClosestCollision(points[p], points[p + 1], points[p + 2], points[p + 3], points[p + 4],
+							points[p + 5], true, false, 1, physical).x;
+				}
+				return (long) sum;
+			}
+		});
+		benchmark.done();
+	}
+}
@@ -0,0 +1,100 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.geoEngine.models;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.aionemu.gameserver.geoEngine.collision.CollisionIntention;
+import com.aionemu.gameserver.geoEngine.math.Matrix3f;
+import com.aionemu.gameserver.geoEngine.math.Vector3f;
+import com.aionemu.gameserver.geoEngine.scene.Geometry;
+import com.aionemu.gameserver.geoEngine.scene.Mesh;
+import com.aionemu.gameserver.geoEngine.scene.VertexBuffer;
+
+/**
+ * Builds geo maps from generated terrain and boxes, the real geodata is not part of the repository.
+ */
+final class SyntheticGeoMap {
+
+	private static final short[] BOX_INDEXES = { 0, 1, 2, 0, 2, 3, // bottom
+			4, 6, 5, 4, 7, 6, // top
+			0, 4, 5, 0, 5, 1, 1, 5, 6, 1, 6, 2, 2, 6, 7, 2, 7, 3, 3, 7, 4, 3, 4, 0 };
+
+	private SyntheticGeoMap() {
+	}
+
+	/**
+	 * @return rolling terrain over the whole map with <tt>boxes</tt> boxes standing on it
+	 */
+	static GeoMap create(int worldSize, int boxes, long seed) {
+		GeoMap map = new GeoMap("synthetic", worldSize);
+		int size = worldSize / 2 + 1;
+		short[] terrain = new short[size * size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				terrain[y + x * size] = (short) (terrainZ(x * 2, y * 2) * 32);
+			}
+		}
+		map.setTerrainData(terrain);
+		Random rnd = new Random(seed);
+		for (int i = 0; i < boxes; i++) {
+			float x = 20 + rnd.nextFloat() * (worldSize - 40);
+			float y = 20 + rnd.nextFloat() * (worldSize - 40);
+			float width = 4 + rnd.nextFloat() * 16;
+			float height = 5 + rnd.nextFloat() * 25;
+			map.attachChild(box(x, y, terrainZ(x, y) - 5, width, width, height + 5));
+		}
+		map.updateModelBound();
+		return map;
+	}
+
+	/**
+	 * @return a flat map at height 100 with one box covering (x, y) to (x + width, y + width), from z 90 to top
+	 */
+	static GeoMap createFlat(int worldSize, float x, float y, float width, float top) {
+		GeoMap map = new GeoMap("flat", worldSize);
+		int size = worldSize / 2 + 1;
+		short[] terrain = new short[size * size];
+		Arrays.fill(terrain, (short) (100 * 32));
+		map.setTerrainData(terrain);
+		map.attachChild(box(x, y, 90, width, width, top - 90));
+		map.updateModelBound();
+		return map;
+	}
+
+	static float terrainZ(float x, float y) {
+		return 100 + 20 * (float) Math.sin(x / 40) + 15 * (float) Math.cos(y / 55);
+	}
+
+	/**
+	 * @return an axis aligned box with its lower corner at (x, y, z)
+	 */
+	static Geometry box(float x, float y, float z, float sizeX, float sizeY, float sizeZ) {
+		float[] vertices = { 0, 0, 0, sizeX, 0, 0, sizeX, sizeY, 0, 0, sizeY, 0, //
+				0, 0, sizeZ, sizeX, 0, sizeZ, sizeX, sizeY, sizeZ, 0, sizeY, sizeZ };
+		Mesh mesh = new Mesh();
+		mesh.setBuffer(VertexBuffer.Type.Position, 3, vertices);
+		mesh.setBuffer(VertexBuffer.Type.Index, 3, BOX_INDEXES.clone());
+		mesh.setCollisionFlags((short) (CollisionIntention.PHYSICAL.getId() << 8));
+		mesh.createCollisionData();
+		Geometry geometry = new Geometry("box", mesh);
+		geometry.setTransform(new Matrix3f(), new Vector3f(x, y, z), 1);
+		geometry.updateModelBound();
+		return geometry;
+	}
+}
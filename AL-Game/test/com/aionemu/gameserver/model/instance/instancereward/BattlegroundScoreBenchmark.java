@@ -0,0 +1,143 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.model.instance.instancereward;
+
+import static ch.lambdaj.Lambda.maxFrom;
+import static ch.lambdaj.Lambda.on;
+import static ch.lambdaj.Lambda.sort;
+
+import java.util.Comparator;
+import java.util.List;
+
+import com.aionemu.commons.utils.Rnd;
+import com.aionemu.gameserver.dataholders.DataManager;
+import com.aionemu.gameserver.dataholders.InstanceBuffData;
+import com.aionemu.gameserver.model.Race;
+import com.aionemu.gameserver.model.instance.playerreward.KamarBattlefieldPlayerReward;
+import com.aionemu.gameserver.utils.MicroBenchmark;
+
+/**
+ * Compares the score refresh of a 24 vs 24 battleground with the lambdaj queries it used before. Run with
+ * <tt>ant benchmark -Dbenchmark=com.aionemu.gameserver.model.instance.instancereward.BattlegroundScoreBenchmark</tt>.
+ * <br>
+ * One operation is the work of one score table: the cap check and the rank of each of the 48 rows. lambdaj sorted a
+ * proxied copy for every rank, the rewards now count the rank over the players or sort once with a comparator.
+ */
+public class BattlegroundScoreBenchmark {
+
+	private static final int PLAYERS = 48;
+
+	private static final Comparator<Integer> DESC = new Comparator<Integer>() {
+
+		@Override
+		public int compare(Integer o1, Integer o2) {
+			return o2.compareTo(o1);
+		}
+	};
+
+	public static void main(String[] args) throws Exception {
+		DataManager.INSTANCE_BUFF_DATA = new InstanceBuffData();
+		final KamarBattlefieldReward reward = new KamarBattlefieldReward(301120000, 1, null);
+		for (int i = 0; i < PLAYERS; i++) {
+			KamarBattlefieldPlayerReward playerReward = new KamarBattlefieldPlayerReward(i + 1, 12000, (byte) 10,
+					i % 2 == 0 ? Race.ELYOS : Race.ASMODIANS);
+			playerReward.addPoints(Rnd.get(0, 20000));
+			reward.addPlayerReward(playerReward);
+		}
+		final List<KamarBattlefieldPlayerReward> rewards = reward.getInstanceRewards();
+
+		MicroBenchmark benchmark = new MicroBenchmark();
+		benchmark.run("lambdaj sort per rank, " + PLAYERS + " players", 100, new MicroBenchmark.Case() {
+
+			@Override
+			public long run(int ops) {
+				long sum = 0;
+				for (int i = 0; i < ops; i++) {
+					sum += maxFrom(rewards).getPoints() >= reward.getCapPoints() ? 1 : 0;
+					for (KamarBattlefieldPlayerReward row : rewards) {
+						int rank = -1;
+						List<KamarBattlefieldPlayerReward> sorted = sort(rewards,
+								on(KamarBattlefieldPlayerReward.class).getScorePoints(), DESC);
+						for (KamarBattlefieldPlayerReward other : sorted) {
+							if (other.getScorePoints() >= row.getScorePoints()) {
+								rank++;
+							}
+						}
+						sum += rank;
+					}
+				}
+				return sum;
+			}
+		});
+		benchmark.run("comparator sort per rank, " + PLAYERS + " players", 1000, new MicroBenchmark.Case() {
+
+			@Override
+			public long run(int ops) {
+				long sum = 0;
+				for (int i = 0; i < ops; i++) {
+					sum += reward.hasCapPoints() ? 1 : 0;
+					for (KamarBattlefieldPlayerReward row : rewards) {
+						int rank = -1;
+						for (KamarBattlefieldPlayerReward other : reward.sortPoints()) {
+							if (other.getScorePoints() >= row.getScorePoints()) {
+								rank++;
+							}
+						}
+						sum += rank;
+					}
+				}
+				return sum;
+			}
+		});
+		benchmark.run("counted rank, " + PLAYERS + " players", 10000, new MicroBenchmark.Case() {
+
+			@Override
+			public long run(int ops) {
+				long sum = 0;
+				for (int i = 0; i < ops; i++) {
+					sum += reward.hasCapPoints() ? 1 : 0;
+					for (KamarBattlefieldPlayerReward row : rewards) {
+						int rank = -1;
+						for (KamarBattlefieldPlayerReward other : rewards) {
+							if (other.getScorePoints() >= row.getScorePoints()) {
+								rank++;
+							}
+						}
+						sum += rank;
+					}
+				}
+				return sum;
+			}
+		});
+		benchmark.run("one comparator sort, " + PLAYERS + " players", 10000, new MicroBenchmark.Case() {
+
+			@Override
+			public long run(int ops) {
+				long sum = 0;
+				for (int i = 0; i < ops; i++) {
+					sum += reward.hasCapPoints() ? 1 : 0;
+					int rank = 0;
+					for (KamarBattlefieldPlayerReward row : reward.sortPoints()) {
+						sum += rank++;
+					}
+				}
+				return sum;
+			}
+		});
+		benchmark.done();
+	}
+}
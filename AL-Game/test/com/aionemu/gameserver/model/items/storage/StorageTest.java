@@ -0,0 +1,77 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.model.items.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.aionemu.gameserver.model.gameobjects.Item;
+
+import sun.misc.Unsafe;
+
+public class StorageTest {
+
+	@Test
+	public void deletedItemsStayQueuedUntilStored() throws Exception {
+		PlayerStorage storage = new PlayerStorage(StorageType.CUBE);
+		Item deleted = item();
+		storage.getDeletedItems().add(deleted);
+
+		List<Item> dirtyItems = new ArrayList<Item>();
+		storage.collectDirtyItems(dirtyItems);
+		assertEquals(Collections.singletonList(deleted), dirtyItems);
+
+		// a failed store collects them again
+		dirtyItems.clear();
+		storage.collectDirtyItems(dirtyItems);
+		assertEquals(Collections.singletonList(deleted), dirtyItems);
+
+		storage.removeDeletedItems(dirtyItems);
+		assertTrue(storage.getDeletedItems().isEmpty());
+	}
+
+	@Test
+	public void removeKeepsItemsDeletedAfterTheCollect() throws Exception {
+		PlayerStorage storage = new PlayerStorage(StorageType.CUBE);
+		Item first = item();
+		storage.getDeletedItems().add(first);
+		List<Item> dirtyItems = new ArrayList<Item>();
+		storage.collectDirtyItems(dirtyItems);
+
+		Item second = item();
+		storage.getDeletedItems().add(second);
+		storage.removeDeletedItems(dirtyItems);
+		assertEquals(1, storage.getDeletedItems().size());
+		assertTrue(storage.getDeletedItems().contains(second));
+	}
+
+	/**
+	 * Items are allocated without their constructor, which needs the item templates.
+	 */
+	private static Item item() throws Exception {
+		Field field = Unsafe.class.getDeclaredField("theUnsafe");
+		field.setAccessible(true);
+		return (Item) ((Unsafe) field.get(null)).allocateInstance(Item.class);
+	}
+}
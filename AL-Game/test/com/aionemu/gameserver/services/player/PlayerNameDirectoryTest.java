@@ -0,0 +1,262 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.services.player;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aionemu.gameserver.configs.main.CacheConfig;
+import com.aionemu.gameserver.model.PlayerClass;
+import com.aionemu.gameserver.model.Race;
+import com.aionemu.gameserver.model.gameobjects.player.PlayerNameEntry;
+
+public class PlayerNameDirectoryTest {
+
+	private final FakeSource source = new FakeSource();
+	private PlayerNameDirectory directory;
+	private int savedSize;
+
+	@Before
+	public void setUp() {
+		savedSize = CacheConfig.NAME_DIRECTORY_SIZE;
+		CacheConfig.NAME_DIRECTORY_SIZE = 3;
+		directory = new PlayerNameDirectory(source);
+	}
+
+	@After
+	public void tearDown() {
+		CacheConfig.NAME_DIRECTORY_SIZE = savedSize;
+	}
+
+	@Test
+	public void loadsOnceThenServesFromDirectory() {
+		source.store(entry(1, "Alpha"));
+		PlayerNameEntry first = directory.get(1);
+		assertEquals("Alpha", first.getName());
+		assertSame(first, directory.get(1));
+		assertSame(first, directory.get("alpha"));
+		assertEquals("Alpha", directory.getName(1));
+		assertEquals(1, source.loads);
+	}
+
+	@Test
+	public void nameLookupIsCaseInsensitive() {
+		source.store(entry(1, "Alpha"));
+		PlayerNameEntry entry = directory.get("ALPHA");
+		assertEquals(1, entry.getObjectId());
+		assertSame(entry, directory.get("alpha"));
+		assertSame(entry, directory.get(1));
+		assertTrue(directory.isNameUsed("aLpHa"));
+		assertEquals(1, source.loads);
+		assertEquals(0, source.nameChecks);
+	}
+
+	@Test
+	public void dropsLeastRecentlyUsed() {
+		for (int id = 1; id <= 3; id++) {
+			source.store(entry(id, "Name" + id));
+			directory.get(id);
+		}
+		// touching 1 leaves 2 as the eldest
+		directory.get(1);
+		source.store(entry(4, "Name4"));
+		directory.get(4);
+		assertEquals(4, source.loads);
+
+		directory.get(1);
+		directory.get(3);
+		directory.get("name4");
+		assertEquals(4, source.loads);
+
+		// the name of a dropped entry is dropped with it
+		assertTrue(directory.isNameUsed("Name2"));
+		assertEquals(1, source.nameChecks);
+		directory.get("name2");
+		assertEquals(5, source.loads);
+	}
+
+	@Test
+	public void replacedEntryDropsItsOldName() {
+		source.store(entry(1, "Alpha"));
+		directory.get(1);
+		source.online(entry(1, "Beta"));
+		assertEquals(1, directory.get("beta").getObjectId());
+		assertSame(directory.get("beta"), directory.get(1));
+
+		source.remove(1);
+		assertNull(directory.get("alpha"));
+		assertFalse(directory.isNameUsed("alpha"));
+	}
+
+	@Test
+	public void droppingEntryKeepsNameTakenByAnother() {
+		source.store(entry(1, "Alpha"));
+		directory.get(1);
+		// the name moved to another character before the directory saw the rename
+		source.store(entry(2, "alpha"));
+		directory.get(Arrays.asList(2));
+		source.store(entry(3, "Gamma"));
+		source.store(entry(4, "Delta"));
+		directory.get(Arrays.asList(3, 4));
+		int loads = source.loads;
+
+		assertEquals(2, directory.get("Alpha").getObjectId());
+		assertEquals(loads, source.loads);
+	}
+
+	@Test
+	public void batchLoadsOnlyMissingEntries() {
+		for (int id = 1; id <= 3; id++) {
+			source.store(entry(id, "Name" + id));
+		}
+		directory.get(1);
+		source.batches.clear();
+		Map<Integer, PlayerNameEntry> result = directory.get(Arrays.asList(1, 2, 3, 9));
+		assertEquals(3, result.size());
+		assertEquals("Name2", result.get(2).getName());
+		assertFalse(result.containsKey(9));
+		assertEquals(1, source.batches.size());
+		assertEquals(Arrays.asList(2, 3, 9), source.batches.get(0));
+	}
+
+	@Test
+	public void onlinePlayersAreFoundWithoutLoading() {
+		source.online(entry(5, "Online"));
+		assertEquals("Online", directory.get(5).getName());
+		assertEquals(5, directory.get("online").getObjectId());
+		assertEquals(0, source.loads);
+	}
+
+	@Test
+	public void missingCharactersAreNotRemembered() {
+		assertNull(directory.get(7));
+		assertNull(directory.get("Nobody"));
+		assertFalse(directory.isNameUsed("Nobody"));
+		source.store(entry(7, "Nobody"));
+		assertTrue(directory.isNameUsed("Nobody"));
+		assertEquals(7, directory.get("nobody").getObjectId());
+	}
+
+	@Test
+	public void zeroSizeKeepsNothing() {
+		CacheConfig.NAME_DIRECTORY_SIZE = 0;
+		source.store(entry(1, "Alpha"));
+		directory.get(1);
+		directory.get(1);
+		directory.get("alpha");
+		assertEquals(3, source.loads);
+	}
+
+	@Test
+	public void removeForcesReload() {
+		source.store(entry(1, "Alpha"));
+		directory.get(1);
+		source.store(entry(1, "Beta"));
+		assertEquals("Alpha", directory.getName(1));
+		directory.remove(1);
+		assertEquals("Beta", directory.getName(1));
+		assertEquals(2, source.loads);
+	}
+
+	private static PlayerNameEntry entry(int objectId, String name) {
+		return new PlayerNameEntry(objectId, name, 10, PlayerClass.WARRIOR, Race.ELYOS, 0, 0, null, null);
+	}
+
+	/**
+	 * Database and online players kept in maps, counting the lookups that reach them.
+	 */
+	private static final class FakeSource implements PlayerNameDirectory.Source {
+
+		private final Map<Integer, PlayerNameEntry> stored = new HashMap<Integer, PlayerNameEntry>();
+		private final Map<Integer, PlayerNameEntry> online = new HashMap<Integer, PlayerNameEntry>();
+		private final List<List<Integer>> batches = new ArrayList<List<Integer>>();
+		private int loads;
+		private int nameChecks;
+
+		void store(PlayerNameEntry entry) {
+			stored.put(entry.getObjectId(), entry);
+		}
+
+		void online(PlayerNameEntry entry) {
+			online.put(entry.getObjectId(), entry);
+		}
+
+		void remove(int objectId) {
+			stored.remove(objectId);
+			online.remove(objectId);
+		}
+
+		@Override
+		public Map<Integer, PlayerNameEntry> load(Collection<Integer> objectIds) {
+			loads++;
+			batches.add(new ArrayList<Integer>(objectIds));
+			Map<Integer, PlayerNameEntry> result = new HashMap<Integer, PlayerNameEntry>();
+			for (Integer objectId : objectIds) {
+				PlayerNameEntry entry = stored.get(objectId);
+				if (entry != null) {
+					result.put(objectId, entry);
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public PlayerNameEntry load(String name) {
+			loads++;
+			return byName(stored, name);
+		}
+
+		@Override
+		public boolean isNameUsed(String name) {
+			nameChecks++;
+			return byName(stored, name) != null;
+		}
+
+		@Override
+		public PlayerNameEntry findOnline(int objectId) {
+			return online.get(objectId);
+		}
+
+		@Override
+		public PlayerNameEntry findOnline(String name) {
+			return byName(online, name);
+		}
+
+		private static PlayerNameEntry byName(Map<Integer, PlayerNameEntry> entries, String name) {
+			for (PlayerNameEntry entry : entries.values()) {
+				if (entry.getName().equalsIgnoreCase(name)) {
+					return entry;
+				}
+			}
+			return null;
+		}
+	}
+}
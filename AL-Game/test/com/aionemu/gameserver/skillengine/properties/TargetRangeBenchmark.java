@@ -0,0 +1,193 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.skillengine.properties;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Random;
+
+import com.aionemu.gameserver.configs.main.WorldConfig;
+import com.aionemu.gameserver.model.gameobjects.VisibleObject;
+import com.aionemu.gameserver.model.templates.world.WorldMapTemplate;
+import com.aionemu.gameserver.utils.MicroBenchmark;
+import com.aionemu.gameserver.world.MapRegion;
+import com.aionemu.gameserver.world.WorldMap;
+import com.aionemu.gameserver.world.WorldMap2DInstance;
+import com.aionemu.gameserver.world.WorldMapInstance;
+import com.aionemu.gameserver.world.WorldPosition;
+import com.aionemu.gameserver.world.knownlist.KnownList;
+
+import gnu.trove.map.hash.TIntObjectHashMap;
+import sun.misc.Unsafe;
+
+/**
+ * Compares the area skill candidate lookup, which scans the map regions around the area when they hold fewer
+ * objects than the knownlist, with the plain knownlist scan, for a caster in a siege sized crowd. Run with
+ * <tt>ant benchmark -Dbenchmark=com.aionemu.gameserver.skillengine.properties.TargetRangeBenchmark</tt>.<br>
+ * The map instance is built without its constructor, which needs the zone data, and has no zones.
+ */
+public class TargetRangeBenchmark {
+
+	private static final int MAP_ID = 400010000;
+	private static final int WORLD_SIZE = 4096;
+	/** The crowd fills a square of this size around the caster */
+	private static final float CROWD_SIZE = 240;
+	/** Caster on a region corner, where the area spans several regions, and in a region center */
+	private static final float[] CASTER_OFFSETS = { 0, 0.5f };
+	private static final int[] CROWDS = { 500, 2000, 5000 };
+	private static final float[] RADIUSES = { 6, 16, 26 };
+	private static final int AREAS = 1024;
+
+	public static void main(String[] args) throws Exception {
+		WorldConfig.WORLD_REGION_SIZE = 128;
+		MicroBenchmark benchmark = new MicroBenchmark();
+		for (int crowd : CROWDS) {
+			for (float offset : CASTER_OFFSETS) {
+				run(benchmark, crowd, (8 + offset) * WorldMapInstance.regionSize);
+			}
+		}
+		benchmark.done();
+	}
+
+	private static void run(MicroBenchmark benchmark, int crowd, float center) throws Exception {
+		WorldMapInstance instance = instance();
+		Random rnd = new Random(crowd);
+		final Dummy caster = spawn(instance, 0, center, center, 100);
+		final KnownList knownList = new DummyKnownList(caster);
+		for (int i = 1; i <= crowd; i++) {
+			float x = center + (rnd.nextFloat() - 0.5f) * CROWD_SIZE;
+			float y = center + (rnd.nextFloat() - 0.5f) * CROWD_SIZE;
+			Dummy object = spawn(instance, i, x, y, 100 + rnd.nextFloat() * 10);
+			if (Math.abs(x - center) <= VisibleObject.VisibilityDistance
+					&& Math.abs(y - center) <= VisibleObject.VisibilityDistance) {
+				((DummyKnownList) knownList).see(object);
+			}
+		}
+		caster.setKnownlist(knownList);
+		final float[] areas = new float[AREAS * 2];
+		for (int i = 0; i < areas.length; i++) {
+			areas[i] = center + (rnd.nextFloat() - 0.5f) * 60;
+		}
+		System.out.println(crowd + " objects, " + knownList.getKnownObjects().size() + " known by the caster at "
+				+ center);
+		for (final float radius : RADIUSES) {
+			benchmark.run("knownlist scan, radius " + radius, 20000, new MicroBenchmark.Case() {
+
+				@Override
+				public long run(int ops) {
+					long found = 0;
+					for (int i = 0; i < ops; i++) {
+						float x = areas[(i % AREAS) * 2];
+						float y = areas[(i % AREAS) * 2 + 1];
+						for (VisibleObject object : knownList.getKnownObjects().values()) {
+							if (Math.abs(object.getX() - x) <= radius && Math.abs(object.getY() - y) <= radius
+									&& Math.abs(object.getZ() - 100) <= radius) {
+								found++;
+							}
+						}
+					}
+					return found;
+				}
+			});
+			benchmark.run("getKnownObjectsAround, radius " + radius, 20000, new MicroBenchmark.Case() {
+
+				@Override
+				public long run(int ops) {
+					long found = 0;
+					for (int i = 0; i < ops; i++) {
+						float x = areas[(i % AREAS) * 2];
+						float y = areas[(i % AREAS) * 2 + 1];
+						// the candidates may be the whole knownlist, so they are filtered like the scan does
+						Collection<VisibleObject> candidates = TargetRangeProperty.getKnownObjectsAround(caster, x, y, 100,
+								radius);
+						for (VisibleObject object : candidates) {
+							if (Math.abs(object.getX() - x) <= radius && Math.abs(object.getY() - y) <= radius
+									&& Math.abs(object.getZ() - 100) <= radius) {
+								found++;
+							}
+						}
+					}
+					return found;
+				}
+			});
+		}
+	}
+
+	private static WorldMapInstance instance() throws Exception {
+		WorldMapTemplate template = new WorldMapTemplate();
+		set(WorldMapTemplate.class, "mapId", template, Integer.valueOf(MAP_ID));
+		set(WorldMapTemplate.class, "worldSize", template, Integer.valueOf(WORLD_SIZE));
+		WorldMap map = (WorldMap) unsafe().allocateInstance(WorldMap.class);
+		set(WorldMap.class, "worldMapTemplate", map, template);
+		WorldMapInstance instance = (WorldMapInstance) unsafe().allocateInstance(WorldMap2DInstance.class);
+		set(WorldMapInstance.class, "parent", instance, map);
+		set(WorldMapInstance.class, "regions", instance, new TIntObjectHashMap<MapRegion>());
+		set(WorldMapInstance.class, "zones", instance, new HashMap<Object, Object>());
+		Method init = WorldMap2DInstance.class.getDeclaredMethod("initMapRegions");
+		init.setAccessible(true);
+		init.invoke(instance);
+		return instance;
+	}
+
+	private static Dummy spawn(WorldMapInstance instance, int objectId, float x, float y, float z) throws Exception {
+		WorldPosition position = new WorldPosition(MAP_ID);
+		position.setXYZH(x, y, z, (byte) 0);
+		MapRegion region = instance.getRegion(x, y, z);
+		set(WorldPosition.class, "mapRegion", position, region);
+		set(WorldPosition.class, "isSpawned", position, Boolean.TRUE);
+		Dummy object = new Dummy(objectId, position);
+		region.getObjects().put(objectId, object);
+		return object;
+	}
+
+	private static void set(Class<?> type, String name, Object target, Object value) throws Exception {
+		Field field = type.getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(target, value);
+	}
+
+	private static Unsafe unsafe() throws Exception {
+		Field field = Unsafe.class.getDeclaredField("theUnsafe");
+		field.setAccessible(true);
+		return (Unsafe) field.get(null);
+	}
+
+	private static final class Dummy extends VisibleObject {
+
+		private Dummy(int objectId, WorldPosition position) {
+			super(objectId, null, null, null, position);
+		}
+
+		@Override
+		public String getName() {
+			return "dummy";
+		}
+	}
+
+	private static final class DummyKnownList extends KnownList {
+
+		private DummyKnownList(VisibleObject owner) {
+			super(owner);
+		}
+
+		private void see(VisibleObject object) {
+			knownObjects.put(object.getObjectId(), object);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.taskmanager.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PeriodicEffectTickerTest {
+
+	private static final long NANOS_PER_TICK = TimeUnit.MILLISECONDS.toNanos(PeriodicEffectTicker.UPDATE_PERIOD);
+	/** nanoTime has an arbitrary origin and may well be negative */
+	private static final long START = -123456789012L;
+
+	private final AtomicLong clock = new AtomicLong(START);
+	private PeriodicEffectTicker ticker;
+	private long tick;
+
+	@Before
+	public void setUp() {
+		ticker = new PeriodicEffectTicker(clock::get, Runnable::run);
+	}
+
+	@Test
+	public void runsAfterDelayThenOncePerPeriod() {
+		List<Long> runs = new ArrayList<Long>();
+		ticker.scheduleAtFixedRate(recorder(runs), 300, 500);
+		tickTo(14);
+		assertEquals(Arrays.asList(3L, 8L, 13L), runs);
+	}
+
+	@Test
+	public void zeroDelayRunsRightAway() {
+		List<Long> runs = new ArrayList<Long>();
+		ticker.scheduleAtFixedRate(recorder(runs), 0, 500);
+		assertEquals(Arrays.asList(0L), runs);
+		tickTo(11);
+		assertEquals(Arrays.asList(0L, 5L, 10L), runs);
+	}
+
+	@Test
+	public void tasksOfOnePeriodKeepTheirPhase() {
+		List<Long> first = new ArrayList<Long>();
+		List<Long> second = new ArrayList<Long>();
+		ticker.scheduleAtFixedRate(recorder(first), 100, 400);
+		tickTo(2);
+		ticker.scheduleAtFixedRate(recorder(second), 100, 400);
+		tickTo(12);
+		assertEquals(Arrays.asList(1L, 5L, 9L), first);
+		assertEquals(Arrays.asList(3L, 7L, 11L), second);
+	}
+
+	@Test
+	public void roundsToTheTickerResolution() {
+		List<Long> runs = new ArrayList<Long>();
+		ticker.scheduleAtFixedRate(recorder(runs), 140, 260);
+		tickTo(8);
+		assertEquals(Arrays.asList(1L, 4L, 7L), runs);
+	}
+
+	@Test
+	public void cancelledTasksStopAndAreDropped() {
+		List<Long> runs = new ArrayList<Long>();
+		Future<?> future = ticker.scheduleAtFixedRate(recorder(runs), 200, 200);
+		tickTo(2);
+		assertEquals(1, ticker.getActiveTasks());
+		assertTrue(future.cancel(false));
+		assertFalse(future.cancel(false));
+		assertTrue(future.isCancelled());
+		tickTo(10);
+		assertEquals(Arrays.asList(2L), runs);
+		assertEquals(0, ticker.getActiveTasks());
+	}
+
+	@Test
+	public void lateTickerRunsEachTaskOnce() {
+		List<Long> runs = new ArrayList<Long>();
+		ticker.scheduleAtFixedRate(recorder(runs), 100, 500);
+		jumpTo(23);
+		assertEquals(Arrays.asList(23L), runs);
+		tickTo(26);
+		assertEquals(Arrays.asList(23L, 26L), runs);
+	}
+
+	@Test
+	public void partialTicksDontAdvance() {
+		List<Long> runs = new ArrayList<Long>();
+		ticker.scheduleAtFixedRate(recorder(runs), 100, 100);
+		clock.set(START + NANOS_PER_TICK - 1);
+		ticker.run();
+		assertTrue(runs.isEmpty());
+		clock.set(START + NANOS_PER_TICK);
+		ticker.run();
+		assertEquals(1, runs.size());
+	}
+
+	private Runnable recorder(final List<Long> runs) {
+		return new Runnable() {
+
+			@Override
+			public void run() {
+				runs.add(tick);
+			}
+		};
+	}
+
+	/**
+	 * Runs the ticker once per tick up to target, like the scheduled task
+	 */
+	private void tickTo(long target) {
+		while (tick < target) {
+			jumpTo(tick + 1);
+		}
+	}
+
+	/**
+	 * Runs the ticker once at target, like a late scheduled task
+	 */
+	private void jumpTo(long target) {
+		tick = target;
+		clock.set(START + tick * NANOS_PER_TICK);
+		ticker.run();
+	}
+}
@@ -0,0 +1,95 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Small harness for the <tt>*Benchmark</tt> mains of the test tree, run with
+ * <tt>ant benchmark -Dbenchmark=&lt;class&gt;</tt>. Each case is warmed up, then timed over several rounds and
+ * reported as median time and heap allocated per operation of the calling thread.<br>
+ * There is no fork per case and no dead code guard like JMH has, so cases return a checksum which is kept in a sink.
+ */
+public final class MicroBenchmark {
+
+	/**
+	 * One benchmarked operation, repeated <tt>ops</tt> times per round.
+	 */
+	public interface Case {
+
+		/**
+		 * @return a checksum of the results, so the JIT can't drop the work
+		 */
+		long run(int ops) throws Exception;
+	}
+
+	private final int warmupRounds;
+	private final int rounds;
+	private long sink;
+
+	public MicroBenchmark(int warmupRounds, int rounds) {
+		this.warmupRounds = warmupRounds;
+		this.rounds = rounds;
+	}
+
+	public MicroBenchmark() {
+		this(5, 10);
+	}
+
+	/**
+	 * Runs and prints one case.
+	 *
+	 * @return median nanoseconds per operation
+	 */
+	public double run(String name, int ops, Case benchmark) throws Exception {
+		for (int i = 0; i < warmupRounds; i++) {
+			sink += benchmark.run(ops);
+		}
+		long[] times = new long[rounds];
+		long allocated = 0;
+		for (int i = 0; i < rounds; i++) {
+			long bytes = allocatedBytes();
+			long start = System.nanoTime();
+			sink += benchmark.run(ops);
+			times[i] = System.nanoTime() - start;
+			allocated += allocatedBytes() - bytes;
+		}
+		Arrays.sort(times);
+		double median = (double) times[rounds / 2] / ops;
+		double best = (double) times[0] / ops;
+		System.out.println(String.format("%-48s %12.1f ns/op (best %.1f) %10.1f B/op", name, median, best,
+				(double) allocated / rounds / ops));
+		return median;
+	}
+
+	/**
+	 * Prints the sink, call once at the end of a benchmark main.
+	 */
+	public void done() {
+		System.out.println("(checksum " + sink + ")");
+	}
+
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+}
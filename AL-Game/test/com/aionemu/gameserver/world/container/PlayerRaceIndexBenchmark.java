@@ -0,0 +1,99 @@
+/*
+
+ *
+ *  Encom is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Encom is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser Public License
+ *  along with Encom.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.gameserver.world.container;
+
+import java.lang.reflect.Field;
+
+import com.aionemu.gameserver.model.Race;
+import com.aionemu.gameserver.model.gameobjects.AionObject;
+import com.aionemu.gameserver.model.gameobjects.player.Player;
+import com.aionemu.gameserver.model.gameobjects.player.PlayerCommonData;
+import com.aionemu.gameserver.utils.MicroBenchmark;
+
+import sun.misc.Unsafe;
+
+/**
+ * Compares a race broadcast over the race index with the scan of all online players it replaced. Run with
+ * <tt>ant benchmark -Dbenchmark=com.aionemu.gameserver.world.container.PlayerRaceIndexBenchmark</tt>.<br>
+ * Players are allocated without their constructor, which needs the static data, and only carry an id, a name and a
+ * race.
+ */
+public class PlayerRaceIndexBenchmark {
+
+	private static final int[] ONLINE = { 1000, 5000, 10000 };
+
+	public static void main(String[] args) throws Exception {
+		MicroBenchmark benchmark = new MicroBenchmark();
+		for (int online : ONLINE) {
+			final PlayerContainer players = new PlayerContainer();
+			for (int i = 0; i < online; i++) {
+				players.add(player(i + 1, "player" + i, i % 2 == 0 ? Race.ELYOS : Race.ASMODIANS));
+			}
+			benchmark.run("scan all players, " + online + " online", 1000, new MicroBenchmark.Case() {
+
+				@Override
+				public long run(int ops) {
+					long sum = 0;
+					for (int i = 0; i < ops; i++) {
+						for (Player player : players.getAllPlayers()) {
+							if (player.getRace() == Race.ELYOS) {
+								sum += player.getObjectId();
+							}
+						}
+					}
+					return sum;
+				}
+			});
+			benchmark.run("race index, " + online + " online", 1000, new MicroBenchmark.Case() {
+
+				@Override
+				public long run(int ops) {
+					long sum = 0;
+					for (int i = 0; i < ops; i++) {
+						for (Player player : players.getPlayers(Race.ELYOS)) {
+							sum += player.getObjectId();
+						}
+					}
+					return sum;
+				}
+			});
+		}
+		benchmark.done();
+	}
+
+	private static Player player(int objectId, String name, Race race) throws Exception {
+		Player player = (Player) unsafe().allocateInstance(Player.class);
+		PlayerCommonData common = new PlayerCommonData(objectId);
+		common.setName(name);
+		common.setRace(race);
+		set(AionObject.class, "objectId", player, Integer.valueOf(objectId));
+		set(Player.class, "playerCommonData", player, common);
+		return player;
+	}
+
+	private static void set(Class<?> type, String name, Object target, Object value) throws Exception {
+		Field field = type.getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(target, value);
+	}
+
+	private static Unsafe unsafe() throws Exception {
+		Field field = Unsafe.class.getDeclaredField("theUnsafe");
+		field.setAccessible(true);
+		return (Unsafe) field.get(null);
+	}
+}
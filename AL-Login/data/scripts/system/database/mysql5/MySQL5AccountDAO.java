@@ -21,6 +21,8 @@ package mysql5;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -329,6 +331,45 @@ public class MySQL5AccountDAO extends AccountDAO {
 			});
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean updateLastIps(final Map<Integer, String> lastIps) {
+		return DB.insertUpdate("UPDATE account_data SET last_ip = ? WHERE id = ?", new IUStH() {
+
+			@Override
+			public void handleInsertUpdate(PreparedStatement preparedStatement) throws SQLException {
+				for (Map.Entry<Integer, String> entry : lastIps.entrySet()) {
+					preparedStatement.setString(1, entry.getValue());
+					preparedStatement.setInt(2, entry.getKey());
+					preparedStatement.addBatch();
+				}
+				preparedStatement.executeBatch();
+			}
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean updateMemberships(final Collection<Integer> accountIds) {
+		return DB.insertUpdate(
+			"UPDATE account_data SET membership = old_membership, expire = NULL WHERE id = ? and expire < CURRENT_TIMESTAMP",
+			new IUStH() {
+
+				@Override
+				public void handleInsertUpdate(PreparedStatement preparedStatement) throws SQLException {
+					for (int accountId : accountIds) {
+						preparedStatement.setInt(1, accountId);
+						preparedStatement.addBatch();
+					}
+					preparedStatement.executeBatch();
+				}
+			});
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
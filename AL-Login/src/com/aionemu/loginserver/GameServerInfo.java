@@ -18,9 +18,9 @@
 
 package com.aionemu.loginserver;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.aionemu.commons.network.IPRange;
 import com.aionemu.loginserver.model.Account;
@@ -71,7 +71,7 @@ public class GameServerInfo {
     /**
      * Map<AccId,Account> of accounts logged in on this GameServer.
      */
-    private final Map<Integer, Account> accountsOnGameServer = new HashMap<Integer, Account>();
+    private final Map<Integer, Account> accountsOnGameServer = new ConcurrentHashMap<Integer, Account>();
 
     /**
      * Constructor.
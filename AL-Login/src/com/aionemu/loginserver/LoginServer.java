@@ -42,6 +42,7 @@ import com.aionemu.commons.services.CronService;
 import com.aionemu.commons.utils.AEInfos;
 import com.aionemu.commons.utils.ExitCode;
 import com.aionemu.loginserver.configs.Config;
+import com.aionemu.loginserver.controller.AuthPipeline;
 import com.aionemu.loginserver.controller.BannedIpController;
 import com.aionemu.loginserver.controller.PremiumController;
 import com.aionemu.loginserver.dao.BannedMacDAO;
@@ -141,6 +142,7 @@ public class LoginServer {
         BannedIpController.start();
         DAOManager.getDAO(BannedMacDAO.class).cleanExpiredBans();
 
+        AuthPipeline.getInstance();
         NetConnector.getInstance().connect();
         PlayerTransferService.getInstance();
         TaskFromDBManager.getInstance();
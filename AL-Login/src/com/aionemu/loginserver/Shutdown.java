@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 
 import com.aionemu.commons.database.DatabaseFactory;
 import com.aionemu.commons.utils.ExitCode;
+import com.aionemu.loginserver.controller.AuthPipeline;
 import com.aionemu.loginserver.network.NetConnector;
 import com.aionemu.loginserver.utils.ThreadPoolManager;
 import com.aionemu.commons.database.dao.DAOManager;
@@ -85,6 +86,12 @@ public class Shutdown extends Thread {
         } catch (Throwable t) {
             log.error("Can't shutdown NetConnector", t);
         }
+        /* Finishing queued logins and pending account writes */
+        try {
+            AuthPipeline.getInstance().shutdown();
+        } catch (Throwable t) {
+            log.error("Can't shutdown AuthPipeline", t);
+        }
         /* Shuting down DB connections */
         try {
             DatabaseFactory.shutdown();
@@ -114,6 +114,31 @@ public class Config {
     public static int PINGPONG_DELAY;
     @Property(key = "loginserver.excluded.ips", defaultValue = "")
     public static String EXCLUDED_IP;
+    /**
+     * Number of threads decrypting login requests (0 - number of processors)
+     */
+    @Property(key = "loginserver.auth.crypto.threads", defaultValue = "0")
+    public static int AUTH_CRYPTO_THREADS;
+    /**
+     * Number of threads loading and checking accounts
+     */
+    @Property(key = "loginserver.auth.db.threads", defaultValue = "4")
+    public static int AUTH_DB_THREADS;
+    /**
+     * Maximum number of login requests waiting to be processed
+     */
+    @Property(key = "loginserver.auth.queue.size", defaultValue = "5000")
+    public static int AUTH_QUEUE_SIZE;
+    /**
+     * Maximum number of queued login requests from one ip
+     */
+    @Property(key = "loginserver.auth.queue.perip", defaultValue = "10")
+    public static int AUTH_QUEUE_PER_IP;
+    /**
+     * Interval in milliseconds of batched last ip and membership writes (0 - write on login)
+     */
+    @Property(key = "loginserver.auth.write.interval", defaultValue = "1000")
+    public static int AUTH_WRITE_INTERVAL;
 
     /**
      * Load configs from files.
@@ -19,8 +19,17 @@
 package com.aionemu.loginserver.controller;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.aionemu.commons.database.dao.DAOManager;
 import com.aionemu.commons.utils.NetworkUtils;
@@ -52,16 +61,34 @@ import com.aionemu.loginserver.utils.AccountUtils;
  */
 public class AccountController {
 
+    private static final Logger log = LoggerFactory.getLogger(AccountController.class);
     /**
      * Map with accounts that are active on LoginServer or joined GameServer and
      * are not authenticated yet.
      */
-    private static final Map<Integer, LoginConnection> accountsOnLS = new HashMap<Integer, LoginConnection>();
+    private static final Map<Integer, LoginConnection> accountsOnLS = new ConcurrentHashMap<Integer, LoginConnection>();
     /**
      * Map with accounts that are reconnecting to LoginServer ie was joined
      * GameServer.
      */
-    private static final Map<Integer, ReconnectingAccount> reconnectingAccounts = new HashMap<Integer, ReconnectingAccount>();
+    private static final Map<Integer, ReconnectingAccount> reconnectingAccounts = new ConcurrentHashMap<Integer, ReconnectingAccount>();
+    /**
+     * Locks guarding the login state of accounts, an account always maps to
+     * the same lock so logins of different accounts rarely wait on each other.
+     */
+    private static final ReentrantLock[] accountLocks = new ReentrantLock[64];
+    /**
+     * Last ips and membership checks waiting for the next batched write.
+     */
+    private static final Map<Integer, String> pendingLastIps = new ConcurrentHashMap<Integer, String>();
+    private static final Set<Integer> pendingMemberships = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+    private static final Object flushLock = new Object();
+
+    static {
+        for (int i = 0; i < accountLocks.length; i++) {
+            accountLocks[i] = new ReentrantLock();
+        }
+    }
     /**
      * Map with characters count on each gameserver and accounts
      */
@@ -72,8 +99,22 @@ public class AccountController {
      *
      * @param account account
      */
-    public static synchronized void removeAccountOnLS(Account account) {
-        accountsOnLS.remove(account.getId());
+    public static void removeAccountOnLS(Account account) {
+        ReentrantLock lock = getAccountLock(account.getId());
+        lock.lock();
+        try {
+            accountsOnLS.remove(account.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param accountId account id
+     * @return lock guarding the login state of the account
+     */
+    private static ReentrantLock getAccountLock(int accountId) {
+        return accountLocks[accountId & (accountLocks.length - 1)];
     }
 
     /**
@@ -83,24 +124,35 @@ public class AccountController {
      * @param key
      * @param gsConnection
      */
-    public static synchronized void checkAuth(SessionKey key, GsConnection gsConnection) {
-        LoginConnection con = accountsOnLS.get(key.accountId);
-
-        if (con != null && con.getSessionKey().checkSessionKey(key)) {
-            /**
-             * account is successful logged in on gs remove it from here
-             */
-            accountsOnLS.remove(key.accountId);
-
-            GameServerInfo gsi = gsConnection.getGameServerInfo();
-            Account acc = con.getAccount();
+    public static void checkAuth(SessionKey key, GsConnection gsConnection) {
+        GameServerInfo gsi = gsConnection.getGameServerInfo();
+        Account acc = null;
+        ReentrantLock lock = getAccountLock(key.accountId);
+        lock.lock();
+        try {
+            LoginConnection con = accountsOnLS.get(key.accountId);
+
+            if (con != null && con.getSessionKey().checkSessionKey(key)) {
+                /**
+                 * account is successful logged in on gs remove it from here
+                 */
+                accountsOnLS.remove(key.accountId);
+
+                acc = con.getAccount();
+
+                /**
+                 * Add account to accounts on GameServer list
+                 */
+                gsi.addAccountToGameServer(acc);
+            }
+        } finally {
+            lock.unlock();
+        }
 
+        if (acc != null) {
             /**
-             * Add account to accounts on GameServer list and update accounts
-             * last server
+             * Update accounts last server
              */
-            gsi.addAccountToGameServer(acc);
-
             acc.setLastServer(gsi.getId());
             getAccountDAO().updateLastServer(acc.getId(), acc.getLastServer());
 
@@ -120,7 +172,7 @@ public class AccountController {
      *
      * @param acc
      */
-    public static synchronized void addReconnectingAccount(ReconnectingAccount acc) {
+    public static void addReconnectingAccount(ReconnectingAccount acc) {
         reconnectingAccounts.put(acc.getAccount().getId(), acc);
     }
 
@@ -132,19 +184,25 @@ public class AccountController {
      * @param reconnectKey reconnect key
      * @param client aion client
      */
-    public static synchronized void authReconnectingAccount(int accountId, int loginOk, int reconnectKey, LoginConnection client) {
-        ReconnectingAccount reconnectingAccount = reconnectingAccounts.remove(accountId);
-
-        if (reconnectingAccount != null && reconnectingAccount.getReconnectionKey() == reconnectKey) {
-            Account acc = reconnectingAccount.getAccount();
-
-            client.setAccount(acc);
-            accountsOnLS.put(acc.getId(), client);
-            client.setState(State.AUTHED_LOGIN);
-            client.setSessionKey(new SessionKey(client.getAccount()));
-            client.sendPacket(new SM_UPDATE_SESSION(client.getSessionKey()));
-        } else {
-            client.closeNow();
+    public static void authReconnectingAccount(int accountId, int loginOk, int reconnectKey, LoginConnection client) {
+        ReentrantLock lock = getAccountLock(accountId);
+        lock.lock();
+        try {
+            ReconnectingAccount reconnectingAccount = reconnectingAccounts.remove(accountId);
+
+            if (reconnectingAccount != null && reconnectingAccount.getReconnectionKey() == reconnectKey) {
+                Account acc = reconnectingAccount.getAccount();
+
+                client.setAccount(acc);
+                accountsOnLS.put(acc.getId(), client);
+                client.setState(State.AUTHED_LOGIN);
+                client.setSessionKey(new SessionKey(client.getAccount()));
+                client.sendPacket(new SM_UPDATE_SESSION(client.getSessionKey()));
+            } else {
+                client.closeNow();
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -161,6 +219,20 @@ public class AccountController {
      * @return Response with error code
      */
     public static AionAuthResponse login(String name, String password, LoginConnection connection) {
+        return login(name, password, AccountUtils.encodePassword(password), connection);
+    }
+
+    /**
+     * Same as {@link #login(String, String, LoginConnection)} with the
+     * password hash already computed by the caller.
+     *
+     * @param name name of account
+     * @param password password of account
+     * @param passwordHash encoded password
+     * @param connection connection for account
+     * @return Response with error code
+     */
+    public static AionAuthResponse login(String name, String password, String passwordHash, LoginConnection connection) {
         // if ip is banned
         if (BannedIpController.isBanned(connection.getIP())) {
             return AionAuthResponse.BAN_IP;
@@ -170,7 +242,7 @@ public class AccountController {
 
         // Try to create new account
         if (account == null && Config.ACCOUNT_AUTO_CREATION) {
-            account = createAccount(name, password);
+            account = createAccountWithHash(name, passwordHash);
         }
 
         // If account not found and not created
@@ -183,7 +255,7 @@ public class AccountController {
         }
 
         // check for paswords beeing equals
-        if (!account.getPasswordHash().equals(AccountUtils.encodePassword(password))) {
+        if (!account.getPasswordHash().equals(passwordHash)) {
             return AionAuthResponse.INVALID_PASSWORD;
         }
 
@@ -210,7 +282,9 @@ public class AccountController {
         }
 
         // Do not allow to login two times with same account
-        synchronized (AccountController.class) {
+        ReentrantLock lock = getAccountLock(account.getId());
+        lock.lock();
+        try {
             if (GameServerTable.isAccountOnAnyGameServer(account)) {
                 GameServerTable.kickAccountFromGameServer(account);
                 return AionAuthResponse.ALREADY_LOGGED_IN;
@@ -223,27 +297,83 @@ public class AccountController {
                 aionConnection.closeNow();
                 return AionAuthResponse.ALREADY_LOGGED_IN;
             }
+            // client left while its login was queued
+            if (connection.isClosing()) {
+                return AionAuthResponse.DISCONNECTED;
+            }
             connection.setAccount(account);
             accountsOnLS.put(account.getId(), connection);
+        } finally {
+            lock.unlock();
         }
 
         AccountTimeController.updateOnLogin(account);
 
         // if everything was OK
-        getAccountDAO().updateLastIp(account.getId(), connection.getIP());
         // last mac is updated after receiving packet from gameserver
-        getAccountDAO().updateMembership(account.getId());
+        if (Config.AUTH_WRITE_INTERVAL > 0) {
+            pendingLastIps.put(account.getId(), connection.getIP());
+            pendingMemberships.add(account.getId());
+        } else {
+            getAccountDAO().updateLastIp(account.getId(), connection.getIP());
+            getAccountDAO().updateMembership(account.getId());
+        }
 
         return AionAuthResponse.AUTHED;
     }
 
+    /**
+     * Writes queued last ips and membership checks in batches. Called
+     * periodically and on shutdown.
+     */
+    public static void flushAccountUpdates() {
+        synchronized (flushLock) {
+            if (!pendingLastIps.isEmpty()) {
+                Map<Integer, String> lastIps = new HashMap<Integer, String>();
+                for (Integer accountId : pendingLastIps.keySet()) {
+                    String ip = pendingLastIps.remove(accountId);
+                    if (ip != null) {
+                        lastIps.put(accountId, ip);
+                    }
+                }
+                if (!getAccountDAO().updateLastIps(lastIps)) {
+                    log.warn("Could not update last ip of " + lastIps.size() + " accounts");
+                }
+            }
+            if (!pendingMemberships.isEmpty()) {
+                List<Integer> accountIds = new ArrayList<Integer>();
+                for (Integer accountId : pendingMemberships) {
+                    if (pendingMemberships.remove(accountId)) {
+                        accountIds.add(accountId);
+                    }
+                }
+                if (!getAccountDAO().updateMemberships(accountIds)) {
+                    log.warn("Could not update membership of " + accountIds.size() + " accounts");
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns last ip of account including a login not written to DB yet
+     *
+     * @param accountId id of account
+     * @return last ip
+     */
+    public static String getLastIp(int accountId) {
+        String ip = pendingLastIps.get(accountId);
+        return ip != null ? ip : getAccountDAO().getLastIp(accountId);
+    }
+
     /**
      * Kicks account from LoginServer and GameServers
      *
      * @param accountId account ID to kick
      */
     public static void kickAccount(int accountId) {
-        synchronized (AccountController.class) {
+        ReentrantLock lock = getAccountLock(accountId);
+        lock.lock();
+        try {
             for (GameServerInfo gsi : GameServerTable.getGameServers()) {
                 if (gsi.isAccountOnGameServer(accountId)) {
                     gsi.getConnection().sendPacket(new SM_REQUEST_KICK_ACCOUNT(accountId));
@@ -254,6 +384,8 @@ public class AccountController {
                 LoginConnection conn = accountsOnLS.remove(accountId);
                 conn.closeNow();
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -300,7 +432,10 @@ public class AccountController {
      * @return account object or null
      */
     public static Account createAccount(String name, String password) {
-        String passwordHash = AccountUtils.encodePassword(password);
+        return createAccountWithHash(name, AccountUtils.encodePassword(password));
+    }
+
+    private static Account createAccountWithHash(String name, String passwordHash) {
         Account account = new Account();
 
         account.setName(name);
@@ -388,8 +523,9 @@ public class AccountController {
      * @param accountId
      */
     public static void sendServerListFor(int accountId) {
-        if (accountsOnLS.containsKey(accountId)) {
-            accountsOnLS.get(accountId).sendPacket(new SM_SERVER_LIST());
+        LoginConnection connection = accountsOnLS.get(accountId);
+        if (connection != null) {
+            connection.sendPacket(new SM_SERVER_LIST());
         }
     }
 
@@ -0,0 +1,395 @@
+/**
+ * This file is part of Aion-Lightning <aion-lightning.org>.
+ *
+ *  Aion-Lightning is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Aion-Lightning is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details. *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Aion-Lightning.
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.aionemu.loginserver.controller;
+
+import java.security.GeneralSecurityException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Cipher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.aionemu.loginserver.configs.Config;
+import com.aionemu.loginserver.network.aion.AionAuthResponse;
+import com.aionemu.loginserver.network.aion.LoginConnection;
+import com.aionemu.loginserver.network.aion.LoginConnection.State;
+import com.aionemu.loginserver.network.aion.SessionKey;
+import com.aionemu.loginserver.network.aion.serverpackets.SM_LOGIN_FAIL;
+import com.aionemu.loginserver.network.aion.serverpackets.SM_LOGIN_OK;
+import com.aionemu.loginserver.utils.AccountUtils;
+import com.aionemu.loginserver.utils.BruteForceProtector;
+import com.aionemu.loginserver.utils.ThreadPoolManager;
+
+/**
+ * Processes login requests in two bounded stages: a crypto stage decrypting
+ * the credentials and hashing the password, and a DB stage loading and
+ * checking the account. Requests are admitted in arrival order, a request
+ * that does not fit in the queue or exceeds the per ip limit is answered with
+ * {@link AionAuthResponse#SERVER_FULL}.
+ */
+public class AuthPipeline {
+
+    /**
+     * Logger for this class.
+     */
+    private static final Logger log = LoggerFactory.getLogger(AuthPipeline.class);
+    /**
+     * Per thread cipher, initialized with the private key of each connection.
+     */
+    private static final ThreadLocal<Cipher> rsaCipher = new ThreadLocal<Cipher>() {
+
+        @Override
+        protected Cipher initialValue() {
+            try {
+                return Cipher.getInstance("RSA/ECB/nopadding");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+    private final ThreadPoolExecutor cryptoPool;
+    private final ThreadPoolExecutor dbPool;
+    private final int queueSize;
+    /**
+     * Number of queued requests by ip, guarded by itself.
+     */
+    private final Map<String, Integer> queuedByIp = new HashMap<String, Integer>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong authed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalTimeNanos = new AtomicLong();
+    private long lastReportRequests;
+
+    public static AuthPipeline getInstance() {
+        return SingletonHolder.instance;
+    }
+
+    private AuthPipeline() {
+        this(Config.AUTH_CRYPTO_THREADS > 0 ? Config.AUTH_CRYPTO_THREADS : Runtime.getRuntime().availableProcessors(), Math.max(1, Config.AUTH_DB_THREADS), Math.max(1, Config.AUTH_QUEUE_SIZE));
+
+        ThreadPoolManager.getInstance().scheduleAtFixedRate(new Runnable() {
+
+            @Override
+            public void run() {
+                logStats();
+            }
+        }, 60000, 60000);
+        if (Config.AUTH_WRITE_INTERVAL > 0) {
+            ThreadPoolManager.getInstance().scheduleAtFixedRate(new Runnable() {
+
+                @Override
+                public void run() {
+                    AccountController.flushAccountUpdates();
+                }
+            }, Config.AUTH_WRITE_INTERVAL, Config.AUTH_WRITE_INTERVAL);
+        }
+        log.info("AuthPipeline: Initialized with " + cryptoPool.getCorePoolSize() + " crypto, " + dbPool.getCorePoolSize() + " db thread(s), queue size " + queueSize + ".");
+    }
+
+    /**
+     * Creates a pipeline without the periodic stats and account write tasks.
+     *
+     * @param cryptoThreads number of threads decrypting the credentials
+     * @param dbThreads number of threads checking the accounts
+     * @param queueSize maximum number of queued requests
+     */
+    AuthPipeline(int cryptoThreads, int dbThreads, int queueSize) {
+        this.queueSize = queueSize;
+        cryptoPool = new ThreadPoolExecutor(cryptoThreads, cryptoThreads, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize), new AuthThreadFactory("AuthCrypto"));
+        dbPool = new ThreadPoolExecutor(dbThreads, dbThreads, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize), new AuthThreadFactory("AuthDB"));
+    }
+
+    /**
+     * Queues a login request.
+     *
+     * @param client connection that sent the request
+     * @param data encrypted credentials
+     */
+    public void submit(LoginConnection client, byte[] data) {
+        requests.incrementAndGet();
+        if (!client.setLoginQueued()) {
+            return;
+        }
+        String ip = client.getIP();
+        if (!admit(ip)) {
+            reject(client);
+            return;
+        }
+        int position = queued.incrementAndGet();
+        if (position > queueSize) {
+            release(ip);
+            reject(client);
+            return;
+        }
+        log.debug("Login request from " + ip + " queued at position " + position);
+        try {
+            cryptoPool.execute(new CryptoStage(client, data, System.nanoTime()));
+        } catch (RejectedExecutionException e) {
+            release(ip);
+            reject(client);
+        }
+    }
+
+    private boolean admit(String ip) {
+        synchronized (queuedByIp) {
+            Integer count = queuedByIp.get(ip);
+            int newCount = count == null ? 1 : count + 1;
+            if (newCount > Config.AUTH_QUEUE_PER_IP) {
+                return false;
+            }
+            queuedByIp.put(ip, newCount);
+            return true;
+        }
+    }
+
+    private void release(String ip) {
+        queued.decrementAndGet();
+        synchronized (queuedByIp) {
+            Integer count = queuedByIp.get(ip);
+            if (count == null || count <= 1) {
+                queuedByIp.remove(ip);
+            } else {
+                queuedByIp.put(ip, count - 1);
+            }
+        }
+    }
+
+    private void reject(LoginConnection client) {
+        rejected.incrementAndGet();
+        client.clearLoginQueued();
+        client.close(new SM_LOGIN_FAIL(AionAuthResponse.SERVER_FULL), false);
+    }
+
+    /**
+     * Decrypts the credentials and hashes the password.
+     */
+    private class CryptoStage implements Runnable {
+
+        private final LoginConnection client;
+        private final byte[] data;
+        private final long queuedAt;
+
+        private CryptoStage(LoginConnection client, byte[] data, long queuedAt) {
+            this.client = client;
+            this.data = data;
+            this.queuedAt = queuedAt;
+        }
+
+        @Override
+        public void run() {
+            // once the db stage is queued it finishes the request
+            boolean handedOver = false;
+            try {
+                if (client.isClosing()) {
+                    return;
+                }
+                byte[] decrypted;
+                try {
+                    Cipher cipher = rsaCipher.get();
+                    cipher.init(Cipher.DECRYPT_MODE, client.getRSAPrivateKey());
+                    decrypted = cipher.doFinal(data, 0, 128);
+                } catch (GeneralSecurityException e) {
+                    client.sendPacket(new SM_LOGIN_FAIL(AionAuthResponse.SYSTEM_ERROR));
+                    return;
+                }
+                String user = new String(decrypted, 64, 32).trim().toLowerCase();
+                String password = new String(decrypted, 96, 32).trim();
+                String passwordHash = AccountUtils.encodePassword(password);
+                try {
+                    dbPool.execute(new DbStage(client, user, password, passwordHash, queuedAt));
+                    handedOver = true;
+                } catch (RejectedExecutionException e) {
+                    reject(client);
+                }
+            } catch (Exception e) {
+                log.error("Error while decrypting login request from " + client.getIP(), e);
+                client.close(new SM_LOGIN_FAIL(AionAuthResponse.SYSTEM_ERROR), false);
+            } finally {
+                if (!handedOver) {
+                    finish(client, queuedAt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads and checks the account and answers the client.
+     */
+    private class DbStage implements Runnable {
+
+        private final LoginConnection client;
+        private final String user;
+        private final String password;
+        private final String passwordHash;
+        private final long queuedAt;
+
+        private DbStage(LoginConnection client, String user, String password, String passwordHash, long queuedAt) {
+            this.client = client;
+            this.user = user;
+            this.password = password;
+            this.passwordHash = passwordHash;
+            this.queuedAt = queuedAt;
+        }
+
+        @Override
+        public void run() {
+            long waited = System.nanoTime() - queuedAt;
+            started.incrementAndGet();
+            totalWaitNanos.addAndGet(waited);
+            long max = maxWaitNanos.get();
+            while (waited > max && !maxWaitNanos.compareAndSet(max, waited)) {
+                max = maxWaitNanos.get();
+            }
+            try {
+                if (!client.isClosing()) {
+                    AionAuthResponse response = AccountController.login(user, password, passwordHash, client);
+                    if (response == AionAuthResponse.AUTHED) {
+                        authed.incrementAndGet();
+                    }
+                    sendResponse(client, user, response);
+                }
+            } catch (Exception e) {
+                log.error("Error while processing login of " + user, e);
+                client.close(new SM_LOGIN_FAIL(AionAuthResponse.SYSTEM_ERROR), false);
+            } finally {
+                finish(client, queuedAt);
+            }
+        }
+    }
+
+    private void finish(LoginConnection client, long queuedAt) {
+        totalTimeNanos.addAndGet(System.nanoTime() - queuedAt);
+        completed.incrementAndGet();
+        release(client.getIP());
+        client.clearLoginQueued();
+    }
+
+    private static void sendResponse(LoginConnection client, String user, AionAuthResponse response) {
+        switch (response) {
+            case AUTHED:
+                client.setState(State.AUTHED_LOGIN);
+                client.setSessionKey(new SessionKey(client.getAccount()));
+                client.sendPacket(new SM_LOGIN_OK(client.getSessionKey()));
+                log.debug("" + user + " got authed state");
+                break;
+            case INVALID_PASSWORD:
+                if (Config.ENABLE_BRUTEFORCE_PROTECTION) {
+                    String ip = client.getIP();
+                    if (BruteForceProtector.getInstance().addFailedConnect(ip)) {
+                        Timestamp newTime = new Timestamp(System.currentTimeMillis() + Config.WRONG_LOGIN_BAN_TIME * 60000);
+                        BannedIpController.banIp(ip, newTime);
+                        log.debug(user + " on " + ip + " banned for " + Config.WRONG_LOGIN_BAN_TIME + " min. bruteforce");
+                        client.close(new SM_LOGIN_FAIL(AionAuthResponse.BAN_IP), false);
+                    } else {
+                        log.debug(user + " got invalid password attemp state");
+                        client.sendPacket(new SM_LOGIN_FAIL(response));
+                    }
+                } else {
+                    log.debug(user + " got invalid password attemp state");
+                    client.sendPacket(new SM_LOGIN_FAIL(response));
+                }
+                break;
+            default:
+                log.debug(user + " got unknown (" + response.toString() + ") attemp state");
+                client.close(new SM_LOGIN_FAIL(response), false);
+                break;
+        }
+    }
+
+    /**
+     * Logs throughput and queue latency of the last period if there was any
+     * login activity.
+     */
+    private void logStats() {
+        long total = requests.get();
+        long period = total - lastReportRequests;
+        lastReportRequests = total;
+        if (period == 0) {
+            return;
+        }
+        log.info(getStats());
+    }
+
+    /**
+     * @return totals since start: requests, authed, rejected, average/max
+     * queue wait and average processing time
+     */
+    public String getStats() {
+        return "AuthPipeline: " + requests.get() + " requests, " + authed.get() + " authed, " + rejected.get() + " rejected, " + queued.get() + " queued, wait avg "
+            + TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / Math.max(1, started.get())) + " ms max "
+            + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()) + " ms, total avg " + TimeUnit.NANOSECONDS.toMillis(totalTimeNanos.get() / Math.max(1, completed.get())) + " ms.";
+    }
+
+    /**
+     * Stops taking requests and finishes the queued ones.
+     */
+    public void shutdown() {
+        cryptoPool.shutdown();
+        try {
+            cryptoPool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dbPool.shutdown();
+        try {
+            dbPool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        AccountController.flushAccountUpdates();
+        log.info(getStats());
+    }
+
+    private static final class AuthThreadFactory implements ThreadFactory {
+
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private AuthThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    private static final class SingletonHolder {
+
+        protected static final AuthPipeline instance = new AuthPipeline();
+    }
+}
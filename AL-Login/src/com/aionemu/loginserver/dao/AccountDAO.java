@@ -18,6 +18,9 @@
 
 package com.aionemu.loginserver.dao;
 
+import java.util.Collection;
+import java.util.Map;
+
 import com.aionemu.commons.database.dao.DAO;
 import com.aionemu.loginserver.model.Account;
 
@@ -113,6 +116,22 @@ public abstract class AccountDAO implements DAO {
      */
     public abstract boolean updateMembership(int accountId);
 
+    /**
+     * Updates last ip of several accounts in one batch
+     *
+     * @param lastIps last ip by account id
+     * @return was update successful or not
+     */
+    public abstract boolean updateLastIps(Map<Integer, String> lastIps);
+
+    /**
+     * Updates membership of several accounts in one batch
+     *
+     * @param accountIds account ids
+     * @return was update successful or not
+     */
+    public abstract boolean updateMemberships(Collection<Integer> accountIds);
+
     /**
      * Deletion of all accounts, inactive for more than dayOfInactivity days
      *
@@ -24,6 +24,7 @@ import java.nio.channels.SocketChannel;
 import java.security.interfaces.RSAPrivateKey;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.crypto.SecretKey;
 
@@ -69,7 +70,11 @@ public class LoginConnection extends AConnection {
      * Account object for this connection. if state = AUTHED_LOGIN account cant
      * be null.
      */
-    private Account account;
+    private volatile Account account;
+    /**
+     * True while a login request of this connection is in the auth queue
+     */
+    private final AtomicBoolean loginQueued = new AtomicBoolean();
     /**
      * Crypt to encrypt/decrypt packets
      */
@@ -326,6 +331,30 @@ public class LoginConnection extends AConnection {
         this.state = state;
     }
 
+    /**
+     * Marks a login request of this connection as queued
+     *
+     * @return false if a login request is already queued
+     */
+    public final boolean setLoginQueued() {
+        return loginQueued.compareAndSet(false, true);
+    }
+
+    /**
+     * Marks the queued login request of this connection as processed
+     */
+    public final void clearLoginQueued() {
+        loginQueued.set(false);
+    }
+
+    /**
+     * @return true if connection is closed or will be closed after sending
+     * the pending packets
+     */
+    public final boolean isClosing() {
+        return isWriteDisabled();
+    }
+
     /**
      * Returns Account object that this client logged in or null
      *
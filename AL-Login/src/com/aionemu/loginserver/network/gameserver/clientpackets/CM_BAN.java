@@ -25,7 +25,6 @@ import com.aionemu.loginserver.GameServerInfo;
 import com.aionemu.loginserver.GameServerTable;
 import com.aionemu.loginserver.controller.AccountController;
 import com.aionemu.loginserver.controller.BannedIpController;
-import com.aionemu.loginserver.dao.AccountDAO;
 import com.aionemu.loginserver.dao.AccountTimeDAO;
 import com.aionemu.loginserver.model.Account;
 import com.aionemu.loginserver.model.AccountTime;
@@ -113,7 +112,7 @@ public class CM_BAN extends GsClientPacket {
         if (type == 2 || type == 3) {
             if (accountId != 0) // If we got account ID, then ban last IP
             {
-                String newip = DAOManager.getDAO(AccountDAO.class).getLastIp(accountId);
+                String newip = AccountController.getLastIp(accountId);
                 if (!newip.isEmpty()) {
                     ip = newip;
                 }
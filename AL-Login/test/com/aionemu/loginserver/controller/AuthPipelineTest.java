@@ -0,0 +1,485 @@
+/**
+ * This file is part of Aion-Lightning <aion-lightning.org>.
+ *
+ *  Aion-Lightning is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Aion-Lightning is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details. *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Aion-Lightning.
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aionemu.loginserver.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Field;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.RSAKeyGenParameterSpec;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Cipher;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+
+import com.aionemu.commons.database.dao.DAO;
+import com.aionemu.commons.database.dao.DAOManager;
+import com.aionemu.commons.network.AConnection;
+import com.aionemu.commons.network.AcceptReadWriteDispatcherImpl;
+import com.aionemu.loginserver.GameServerInfo;
+import com.aionemu.loginserver.GameServerTable;
+import com.aionemu.loginserver.configs.Config;
+import com.aionemu.loginserver.dao.AccountDAO;
+import com.aionemu.loginserver.dao.AccountTimeDAO;
+import com.aionemu.loginserver.model.Account;
+import com.aionemu.loginserver.model.AccountTime;
+import com.aionemu.loginserver.model.BannedIP;
+import com.aionemu.loginserver.network.aion.AionAuthResponse;
+import com.aionemu.loginserver.network.aion.AionServerPacket;
+import com.aionemu.loginserver.network.aion.LoginConnection;
+import com.aionemu.loginserver.network.aion.serverpackets.SM_LOGIN_FAIL;
+import com.aionemu.loginserver.network.aion.serverpackets.SM_LOGIN_OK;
+import com.aionemu.loginserver.network.ncrypt.EncryptedRSAKeyPair;
+import com.aionemu.loginserver.utils.AccountUtils;
+
+import sun.misc.Unsafe;
+
+/**
+ * Drives synthetic clients through {@link AuthPipeline#submit} against
+ * in-memory DAOs. Connections are allocated without their constructor and
+ * keep their responses in the send queue.
+ */
+public class AuthPipelineTest {
+
+    private static final String PASSWORD = "secret";
+    private static final int ACCOUNTS = 200;
+    private static final int LOGINS_PER_ACCOUNT = 3;
+    private static final int SUBMITTERS = 8;
+
+    private static final FakeAccountDAO accountDAO = new FakeAccountDAO();
+    private static Unsafe unsafe;
+    private static KeyPair keyPair;
+    private static EncryptedRSAKeyPair encryptedKeyPair;
+    private static AcceptReadWriteDispatcherImpl dispatcher;
+    private static SelectionKey key;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        Config.AUTH_QUEUE_PER_IP = Integer.MAX_VALUE;
+        Config.AUTH_WRITE_INTERVAL = 60000;
+
+        Map<String, DAO> daoMap = getStatic(DAOManager.class, "daoMap");
+        daoMap.put(accountDAO.getClassName(), accountDAO);
+        FakeAccountTimeDAO accountTimeDAO = new FakeAccountTimeDAO();
+        daoMap.put(accountTimeDAO.getClassName(), accountTimeDAO);
+        setStatic(BannedIpController.class, "banList", new HashSet<BannedIP>());
+        setStatic(GameServerTable.class, "gameservers", new HashMap<Byte, GameServerInfo>());
+
+        Field field = Unsafe.class.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        unsafe = (Unsafe) field.get(null);
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(new RSAKeyGenParameterSpec(1024, RSAKeyGenParameterSpec.F4));
+        keyPair = generator.generateKeyPair();
+        encryptedKeyPair = new EncryptedRSAKeyPair(keyPair);
+
+        dispatcher = new AcceptReadWriteDispatcherImpl("AuthPipelineTest", null);
+        // a cancelled key makes the write interest a no-op
+        Pipe.SinkChannel sink = Pipe.open().sink();
+        sink.configureBlocking(false);
+        key = sink.register(Selector.open(), 0);
+        key.cancel();
+    }
+
+    @Before
+    public void reset() {
+        AccountController.flushAccountUpdates();
+        accountDAO.reset();
+    }
+
+    @Test
+    public void requestsKeepTheirSubmitOrder() throws Exception {
+        AuthPipeline pipeline = new AuthPipeline(1, 1, 1000);
+        List<String> names = new ArrayList<String>();
+        List<LoginConnection> connections = new ArrayList<LoginConnection>();
+        for (int i = 0; i < 100; i++) {
+            String name = "order" + i;
+            LoginConnection connection = connection("127.0.0.1");
+            names.add(name);
+            connections.add(connection);
+            pipeline.submit(connection, credentials(name));
+        }
+        pipeline.shutdown();
+
+        assertEquals(names, accountDAO.getLoads());
+        for (LoginConnection connection : connections) {
+            assertTrue(response(connection) instanceof SM_LOGIN_OK);
+        }
+    }
+
+    @Test
+    public void stormKeepsOneSessionPerAccount() throws Exception {
+        int total = ACCOUNTS * LOGINS_PER_ACCOUNT;
+        final AuthPipeline pipeline = new AuthPipeline(4, 4, total);
+        final List<LoginConnection> connections = new ArrayList<LoginConnection>();
+        final List<byte[]> requests = new ArrayList<byte[]>();
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            for (int j = 0; j < LOGINS_PER_ACCOUNT; j++) {
+                names.add("storm" + i);
+            }
+        }
+        Collections.shuffle(names, new Random(1));
+        for (String name : names) {
+            connections.add(connection("127.0.0.1"));
+            requests.add(credentials(name));
+        }
+
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> submitters = new ArrayList<Thread>();
+        for (int i = 0; i < SUBMITTERS; i++) {
+            final int first = i;
+            Thread submitter = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int index = first; index < connections.size(); index += SUBMITTERS) {
+                        pipeline.submit(connections.get(index), requests.get(index));
+                    }
+                }
+            });
+            submitter.start();
+            submitters.add(submitter);
+        }
+        start.countDown();
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+        pipeline.shutdown();
+
+        // logins of one account alternate between authed and kicking the previous session
+        Map<String, Integer> authed = new HashMap<String, Integer>();
+        Map<String, Integer> alreadyLoggedIn = new HashMap<String, Integer>();
+        for (int i = 0; i < total; i++) {
+            AionServerPacket response = response(connections.get(i));
+            Map<String, Integer> counts;
+            if (response instanceof SM_LOGIN_OK) {
+                counts = authed;
+            } else if (getField(SM_LOGIN_FAIL.class, response, "response") == AionAuthResponse.ALREADY_LOGGED_IN) {
+                counts = alreadyLoggedIn;
+            } else {
+                fail("Unexpected response " + response);
+                return;
+            }
+            Integer count = counts.get(names.get(i));
+            counts.put(names.get(i), count == null ? 1 : count + 1);
+        }
+        int expectedAuthed = (LOGINS_PER_ACCOUNT + 1) / 2;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            assertEquals(Integer.valueOf(expectedAuthed), authed.get("storm" + i));
+            assertEquals(Integer.valueOf(LOGINS_PER_ACCOUNT - expectedAuthed), alreadyLoggedIn.get("storm" + i));
+        }
+        assertTrue(pipeline.getStats(), pipeline.getStats().startsWith("AuthPipeline: " + total + " requests, " + ACCOUNTS * expectedAuthed + " authed, 0 rejected, 0 queued"));
+
+        // shutdown flushed the whole storm in one batch per column
+        assertEquals(0, accountDAO.getSingleWrites());
+        assertEquals(1, accountDAO.getLastIpBatches().size());
+        assertEquals(ACCOUNTS, accountDAO.getLastIpBatches().get(0).size());
+        assertEquals(1, accountDAO.getMembershipBatches().size());
+        assertEquals(ACCOUNTS, accountDAO.getMembershipBatches().get(0).size());
+    }
+
+    @Test
+    public void accountUpdatesWaitForTheFlush() throws Exception {
+        AuthPipeline pipeline = new AuthPipeline(2, 2, 100);
+        List<LoginConnection> connections = new ArrayList<LoginConnection>();
+        for (int i = 0; i < 10; i++) {
+            LoginConnection connection = connection("10.0.0." + i);
+            connections.add(connection);
+            pipeline.submit(connection, credentials("flush" + i));
+        }
+        for (LoginConnection connection : connections) {
+            awaitResponse(connection);
+        }
+
+        assertEquals(0, accountDAO.getSingleWrites());
+        assertTrue(accountDAO.getLastIpBatches().isEmpty());
+        assertTrue(accountDAO.getMembershipBatches().isEmpty());
+        for (int i = 0; i < 10; i++) {
+            int accountId = accountDAO.getAccountId("flush" + i);
+            assertNull(accountDAO.getLastIp(accountId));
+            assertEquals("10.0.0." + i, AccountController.getLastIp(accountId));
+        }
+
+        AccountController.flushAccountUpdates();
+        AccountController.flushAccountUpdates();
+        assertEquals(1, accountDAO.getLastIpBatches().size());
+        assertEquals(1, accountDAO.getMembershipBatches().size());
+        for (int i = 0; i < 10; i++) {
+            int accountId = accountDAO.getAccountId("flush" + i);
+            assertEquals("10.0.0." + i, accountDAO.getLastIp(accountId));
+            assertTrue(accountDAO.getMembershipBatches().get(0).contains(accountId));
+        }
+        pipeline.shutdown();
+    }
+
+    private static byte[] credentials(String name) throws Exception {
+        byte[] block = new byte[128];
+        byte[] user = name.getBytes("US-ASCII");
+        byte[] password = PASSWORD.getBytes("US-ASCII");
+        System.arraycopy(user, 0, block, 64, user.length);
+        System.arraycopy(password, 0, block, 96, password.length);
+        Cipher cipher = Cipher.getInstance("RSA/ECB/nopadding");
+        cipher.init(Cipher.ENCRYPT_MODE, keyPair.getPublic());
+        return cipher.doFinal(block);
+    }
+
+    private static LoginConnection connection(String ip) throws Exception {
+        LoginConnection connection = (LoginConnection) unsafe.allocateInstance(LoginConnection.class);
+        setField(LoginConnection.class, connection, "sendMsgQueue", new ArrayDeque<AionServerPacket>());
+        setField(LoginConnection.class, connection, "loginQueued", new AtomicBoolean());
+        setField(LoginConnection.class, connection, "encryptedRSAKeyPair", encryptedKeyPair);
+        setField(LoginConnection.class, connection, "state", LoginConnection.State.AUTHED_GG);
+        setField(AConnection.class, connection, "guard", new Object());
+        setField(AConnection.class, connection, "dispatcher", dispatcher);
+        setField(AConnection.class, connection, "key", key);
+        setField(AConnection.class, connection, "ip", ip);
+        return connection;
+    }
+
+    /**
+     * @return the only packet sent to the connection
+     */
+    private static AionServerPacket response(LoginConnection connection) throws Exception {
+        synchronized (connection) {
+            Deque<AionServerPacket> queue = getField(LoginConnection.class, connection, "sendMsgQueue");
+            assertEquals(1, queue.size());
+            return queue.peekFirst();
+        }
+    }
+
+    private static void awaitResponse(LoginConnection connection) throws Exception {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            synchronized (connection) {
+                Deque<AionServerPacket> queue = getField(LoginConnection.class, connection, "sendMsgQueue");
+                if (!queue.isEmpty()) {
+                    return;
+                }
+            }
+            Thread.sleep(1);
+        }
+        fail("No response within 10 s");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T getField(Class<?> type, Object target, String name) throws Exception {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return (T) field.get(target);
+    }
+
+    private static void setField(Class<?> type, Object target, String name, Object value) throws Exception {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static <T> T getStatic(Class<?> type, String name) throws Exception {
+        return getField(type, null, name);
+    }
+
+    private static void setStatic(Class<?> type, String name, Object value) throws Exception {
+        setField(type, null, name, value);
+    }
+
+    /**
+     * Creates activated accounts on first load and records every write.
+     */
+    private static class FakeAccountDAO extends AccountDAO {
+
+        private static final String PASSWORD_HASH = AccountUtils.encodePassword(PASSWORD);
+        private final Map<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+        private final AtomicInteger nextId = new AtomicInteger();
+        private final Map<Integer, String> lastIps = new ConcurrentHashMap<Integer, String>();
+        private final List<String> loads = Collections.synchronizedList(new ArrayList<String>());
+        private final List<Map<Integer, String>> lastIpBatches = Collections.synchronizedList(new ArrayList<Map<Integer, String>>());
+        private final List<Collection<Integer>> membershipBatches = Collections.synchronizedList(new ArrayList<Collection<Integer>>());
+        private final AtomicInteger singleWrites = new AtomicInteger();
+
+        void reset() {
+            loads.clear();
+            lastIpBatches.clear();
+            membershipBatches.clear();
+            singleWrites.set(0);
+        }
+
+        List<String> getLoads() {
+            return loads;
+        }
+
+        List<Map<Integer, String>> getLastIpBatches() {
+            return lastIpBatches;
+        }
+
+        List<Collection<Integer>> getMembershipBatches() {
+            return membershipBatches;
+        }
+
+        int getSingleWrites() {
+            return singleWrites.get();
+        }
+
+        @Override
+        public Account getAccount(String name) {
+            loads.add(name);
+            Account account = new Account();
+            account.setId(getAccountId(name));
+            account.setName(name);
+            account.setPasswordHash(PASSWORD_HASH);
+            account.setActivated((byte) 1);
+            account.setReturnEnd(new Timestamp(System.currentTimeMillis()));
+            return account;
+        }
+
+        @Override
+        public Account getAccount(int id) {
+            return null;
+        }
+
+        @Override
+        public int getAccountId(String name) {
+            Integer id = ids.get(name);
+            if (id == null) {
+                Integer newId = nextId.incrementAndGet();
+                id = ids.putIfAbsent(name, newId);
+                if (id == null) {
+                    id = newId;
+                }
+            }
+            return id;
+        }
+
+        @Override
+        public int getAccountCount() {
+            return ids.size();
+        }
+
+        @Override
+        public boolean insertAccount(Account account) {
+            return false;
+        }
+
+        @Override
+        public boolean updateAccount(Account account) {
+            return true;
+        }
+
+        @Override
+        public boolean updateLastServer(int accountId, byte lastServer) {
+            return true;
+        }
+
+        @Override
+        public boolean updateLastIp(int accountId, String ip) {
+            singleWrites.incrementAndGet();
+            lastIps.put(accountId, ip);
+            return true;
+        }
+
+        @Override
+        public String getLastIp(int accountId) {
+            return lastIps.get(accountId);
+        }
+
+        @Override
+        public boolean updateLastMac(int accountId, String mac) {
+            return true;
+        }
+
+        @Override
+        public boolean updateMembership(int accountId) {
+            singleWrites.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public boolean updateLastIps(Map<Integer, String> lastIps) {
+            lastIpBatches.add(new HashMap<Integer, String>(lastIps));
+            this.lastIps.putAll(lastIps);
+            return true;
+        }
+
+        @Override
+        public boolean updateMemberships(Collection<Integer> accountIds) {
+            membershipBatches.add(new ArrayList<Integer>(accountIds));
+            return true;
+        }
+
+        @Override
+        public void deleteInactiveAccounts(int daysOfInactivity) {
+        }
+
+        @Override
+        public boolean supports(String databaseName, int majorVersion, int minorVersion) {
+            return true;
+        }
+    }
+
+    private static class FakeAccountTimeDAO extends AccountTimeDAO {
+
+        @Override
+        public boolean updateAccountTime(int accountId, AccountTime accountTime) {
+            return true;
+        }
+
+        @Override
+        public AccountTime getAccountTime(int accountId) {
+            return new AccountTime();
+        }
+
+        @Override
+        public boolean supports(String databaseName, int majorVersion, int minorVersion) {
+            return true;
+        }
+    }
+}